@@ -0,0 +1,89 @@
+package com.cloudbees.jenkins.support;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+/**
+ * Compares the scores of JMH results in JSON with those of a baseline.
+ *
+ * <p>
+ * The results are matched by benchmark, mode and parameters. A score regressed when it is more than the tolerance
+ * higher than its baseline, or lower for the throughput. The results missing from either side are not compared.
+ */
+final class BenchmarkBaseline {
+
+    private final List<String> lines = new ArrayList<>();
+    private final List<String> regressions = new ArrayList<>();
+
+    private BenchmarkBaseline() {}
+
+    /**
+     * @param baseline the results to compare with.
+     * @param results the current results.
+     * @param tolerance the ratio a score may be worse than its baseline, such as {@code 0.2}.
+     */
+    static BenchmarkBaseline compare(String baseline, String results, double tolerance) {
+        BenchmarkBaseline comparison = new BenchmarkBaseline();
+        Map<String, JSONObject> baselines = index(baseline);
+        for (Map.Entry<String, JSONObject> result : index(results).entrySet()) {
+            JSONObject base = baselines.get(result.getKey());
+            if (base == null) {
+                comparison.lines.add(result.getKey() + ": no baseline");
+                continue;
+            }
+            double before = base.getJSONObject("primaryMetric").getDouble("score");
+            double after = result.getValue().getJSONObject("primaryMetric").getDouble("score");
+            String unit = result.getValue().getJSONObject("primaryMetric").getString("scoreUnit");
+            // the throughput is better when higher, the other modes measure a time
+            boolean higherIsBetter = "thrpt".equals(result.getValue().getString("mode"));
+            double change = before == 0 ? 0 : (after - before) / before;
+            boolean regressed = higherIsBetter ? change < -tolerance : change > tolerance;
+            String line = String.format(
+                    "%s: %.3f -> %.3f %s (%+.1f%%)%s",
+                    result.getKey(), before, after, unit, change * 100, regressed ? " REGRESSED" : "");
+            comparison.lines.add(line);
+            if (regressed) {
+                comparison.regressions.add(line);
+            }
+        }
+        return comparison;
+    }
+
+    private static Map<String, JSONObject> index(String results) {
+        Map<String, JSONObject> index = new LinkedHashMap<>();
+        for (Object o : JSONArray.fromObject(results)) {
+            JSONObject result = (JSONObject) o;
+            StringBuilder key = new StringBuilder(result.getString("benchmark"))
+                    .append(" [")
+                    .append(result.getString("mode"))
+                    .append(']');
+            JSONObject params = result.optJSONObject("params");
+            if (params != null && !params.isNullObject()) {
+                // sorted, as the order of the parameters is not significant
+                new TreeMap<String, Object>(params).forEach((name, value) -> key.append(' ')
+                        .append(name)
+                        .append('=')
+                        .append(value));
+            }
+            index.put(key.toString(), result);
+        }
+        return index;
+    }
+
+    /**
+     * @return the comparisons of the results that regressed.
+     */
+    List<String> getRegressions() {
+        return regressions;
+    }
+
+    @Override
+    public String toString() {
+        return String.join("\n", lines);
+    }
+}
@@ -0,0 +1,72 @@
+package com.cloudbees.jenkins.support;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import jenkins.benchmark.jmh.BenchmarkFinder;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks annotated with {@link jenkins.benchmark.jmh.JmhBenchmark}, writes their results to
+ * {@code benchmark.report} and compares them with {@code benchmark.baseline}.
+ *
+ * <p>
+ * Only run by the {@code benchmark} profile. Set {@code benchmark.include} to a regular expression of the benchmarks to
+ * run, {@code benchmark.tolerance} to the ratio a score may be worse than its baseline,
+ * {@code benchmark.saveBaseline} to replace the baseline with the results instead of comparing them, and
+ * {@code benchmark.reportOnly} to print the comparison without failing on regressions.
+ */
+class BenchmarkRunner {
+
+    @Test
+    void runJmhBenchmarks() throws Exception {
+        File report = new File(System.getProperty("benchmark.report", "target/jmh-report.json"));
+        File baseline = new File(System.getProperty("benchmark.baseline", "src/benchmark/baseline.json"));
+        Files.createDirectories(report.getAbsoluteFile().getParentFile().toPath());
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .forks(Integer.getInteger("benchmark.forks", 1))
+                .warmupIterations(Integer.getInteger("benchmark.warmupIterations", 3))
+                .measurementIterations(Integer.getInteger("benchmark.measurementIterations", 5))
+                .shouldFailOnError(true)
+                .shouldDoGC(true)
+                .resultFormat(ResultFormatType.JSON)
+                .result(report.getPath());
+        String include = System.getProperty("benchmark.include");
+        if (include != null && !include.isEmpty()) {
+            options.include(include);
+        } else {
+            new BenchmarkFinder(getClass()).findBenchmarks(options);
+        }
+        new Runner(options.build()).run();
+
+        if (Boolean.getBoolean("benchmark.saveBaseline")) {
+            Files.copy(report.toPath(), baseline.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Saved the results to " + baseline);
+            return;
+        }
+        if (!baseline.isFile()) {
+            System.out.println("No baseline to compare with at " + baseline);
+            return;
+        }
+        BenchmarkBaseline comparison = BenchmarkBaseline.compare(
+                Files.readString(baseline.toPath(), StandardCharsets.UTF_8),
+                Files.readString(report.toPath(), StandardCharsets.UTF_8),
+                Double.parseDouble(System.getProperty("benchmark.tolerance", "0.2")));
+        System.out.println("Comparison with " + baseline + ":");
+        System.out.println(comparison);
+        if (Boolean.getBoolean("benchmark.reportOnly")) {
+            return;
+        }
+        List<String> regressions = comparison.getRegressions();
+        assertTrue(regressions.isEmpty(), "Regressions compared with " + baseline + ": " + regressions);
+    }
+}
@@ -0,0 +1,67 @@
+package com.cloudbees.jenkins.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Publishes log records to a {@link SupportLogHandler} writing its files, from a single thread and from several ones.
+ */
+@JmhBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SupportLogHandlerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Logs {
+
+        File directory;
+        SupportLogHandler handler;
+
+        @Setup
+        public void setup() throws IOException {
+            directory = Files.createTempDirectory("support-log-handler").toFile();
+            handler = new SupportLogHandler(256, 2048, 8);
+            handler.setDirectory(directory, "benchmark");
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            handler.close();
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void publish(Logs logs) {
+        logs.handler.publish(record());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void publishContended(Logs logs) {
+        logs.handler.publish(record());
+    }
+
+    private static LogRecord record() {
+        LogRecord record = new LogRecord(Level.INFO, "Finished building {0}");
+        record.setParameters(new Object[] {"project-42"});
+        record.setLoggerName("hudson.model.Run");
+        return record;
+    }
+}
@@ -0,0 +1,107 @@
+package com.cloudbees.jenkins.support;
+
+import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.StringContent;
+import com.cloudbees.jenkins.support.filter.ContentFilters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.FreeStyleProject;
+import hudson.security.Permission;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import jenkins.model.Jenkins;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Writes a bundle of synthetic components, each adding text contents mentioning the names of some items.
+ */
+@JmhBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SupportPluginBenchmark {
+
+    private static final int COMPONENTS = 20;
+    private static final int CONTENTS = 10;
+    private static final int LINES = 1000;
+
+    public static class JenkinsState extends JmhBenchmarkState {
+
+        @Param({"false", "true"})
+        public boolean anonymized;
+
+        List<Component> components;
+
+        @Override
+        public void setup() throws Exception {
+            for (int i = 0; i < 100; i++) {
+                getJenkins().createProject(FreeStyleProject.class, "project-" + i);
+            }
+            ContentFilters.get().setEnabled(anonymized);
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < LINES; i++) {
+                text.append("2026-01-01 10:00:00 [id=")
+                        .append(i)
+                        .append("] INFO hudson.model.Run#execute: project-")
+                        .append(i % 100)
+                        .append(" #")
+                        .append(i)
+                        .append(" completed: SUCCESS\n");
+            }
+            components = new ArrayList<>();
+            for (int i = 0; i < COMPONENTS; i++) {
+                components.add(new SyntheticComponent("synthetic-" + i, text.toString()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeBundle(JenkinsState state) throws IOException {
+        SupportPlugin.writeBundle(OutputStream.nullOutputStream(), state.components);
+    }
+
+    private static final class SyntheticComponent extends Component {
+        private final String id;
+        private final String text;
+
+        SyntheticComponent(String id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+
+        @NonNull
+        @Override
+        public Set<Permission> getRequiredPermissions() {
+            return Collections.singleton(Jenkins.ADMINISTER);
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return id;
+        }
+
+        @NonNull
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public void addContents(@NonNull Container container) {
+            for (int i = 0; i < CONTENTS; i++) {
+                container.add(new StringContent(id + "/content-" + i + ".log", text));
+            }
+        }
+    }
+}
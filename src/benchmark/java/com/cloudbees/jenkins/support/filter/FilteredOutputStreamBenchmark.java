@@ -0,0 +1,64 @@
+package com.cloudbees.jenkins.support.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Writes 1 MB of lines through a {@link FilteredOutputStream}, in writes of a given size.
+ */
+@JmhBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FilteredOutputStreamBenchmark {
+
+    private static final ContentFilter REPLACING = s -> s.replace("secret", "******");
+
+    @State(Scope.Benchmark)
+    public static class Text {
+
+        @Param({"128", "8192"})
+        public int writeSize;
+
+        byte[] bytes;
+
+        @Setup
+        public void setup() {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; text.length() < 1024 * 1024; i++) {
+                text.append("2026-01-01 10:00:00 [id=")
+                        .append(i)
+                        .append("] INFO some.Logger#method: a line with a secret ünïcödé value\n");
+            }
+            bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public void identity(Text text) throws IOException {
+        write(text, s -> s);
+    }
+
+    @Benchmark
+    public void replacing(Text text) throws IOException {
+        write(text, REPLACING);
+    }
+
+    private static void write(Text text, ContentFilter filter) throws IOException {
+        try (FilteredOutputStream out = new FilteredOutputStream(OutputStream.nullOutputStream(), filter)) {
+            for (int off = 0; off < text.bytes.length; off += text.writeSize) {
+                out.write(text.bytes, off, Math.min(text.writeSize, text.bytes.length - off));
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.cloudbees.jenkins.support.filter;
+
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+/**
+ * Redacts command lines with and without secrets, with the default secret words.
+ */
+@JmhBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PasswordRedactorBenchmark {
+
+    public static class JenkinsState extends JmhBenchmarkState {
+
+        PasswordRedactor redactor;
+
+        @Override
+        public void setup() {
+            // the secret words are read from the support directory of Jenkins
+            redactor = PasswordRedactor.get();
+        }
+    }
+
+    @Benchmark
+    public String withSecrets(JenkinsState state) {
+        return state.redactor.redact("java -Dhudson.model.DirectoryBrowserSupport.CSP= -Dmy.password=hunter2"
+                + " -jar agent.jar -url https://jenkins.example.com/ -secret 0123456789abcdef -name agent-1");
+    }
+
+    @Benchmark
+    public String withoutSecrets(JenkinsState state) {
+        return state.redactor.redact("java -Xmx2g -XX:+UseG1GC -Djava.awt.headless=true -jar jenkins.war"
+                + " --httpPort=8080 --webroot=/var/cache/jenkins/war");
+    }
+}
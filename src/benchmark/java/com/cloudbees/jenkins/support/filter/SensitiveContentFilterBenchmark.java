@@ -0,0 +1,53 @@
+package com.cloudbees.jenkins.support.filter;
+
+import hudson.BulkChange;
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Filters lines with names of items, with more or less names known by the filter.
+ */
+@JmhBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SensitiveContentFilterBenchmark {
+
+    public static class JenkinsState extends JmhBenchmarkState {
+
+        @Param({"100", "1000", "10000"})
+        public int names;
+
+        SensitiveContentFilter filter;
+
+        @Override
+        public void setup() throws Exception {
+            ContentMappings mappings = ContentMappings.get();
+            // the mappings are not saved, they are only needed until the filter is loaded
+            try (BulkChange ignored = new BulkChange(ContentFilter.bulkChangeTarget())) {
+                for (int i = 0; i < names; i++) {
+                    String replacement = "fake_" + i;
+                    mappings.getMappingOrCreate(
+                            "project-" + i + "-build", original -> ContentMapping.of(original, replacement));
+                }
+            }
+            filter = SensitiveContentFilter.get();
+            filter.reload();
+        }
+    }
+
+    @Benchmark
+    public String lineWithName(JenkinsState state) {
+        return state.filter.filter("Started by upstream project \"project-42-build\" build number 1234");
+    }
+
+    @Benchmark
+    public String lineWithoutName(JenkinsState state) {
+        return state.filter.filter("2026-01-01 10:00:00.000+0000 [id=42] INFO hudson.model.Run#execute: Finished");
+    }
+}
@@ -0,0 +1,62 @@
+package com.cloudbees.jenkins.support.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Builds the pattern of the names as {@link SensitiveContentFilter} does on a full reload.
+ */
+@JmhBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WordsTrieBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Names {
+
+        @Param({"100", "1000", "10000"})
+        public int count;
+
+        List<String> names;
+
+        @Setup
+        public void setup() {
+            Random random = new Random(42);
+            names = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                StringBuilder name = new StringBuilder();
+                for (int j = 4 + random.nextInt(12); j > 0; j--) {
+                    name.append((char) ('a' + random.nextInt(26)));
+                }
+                names.add(name.append('-').append(i).toString());
+            }
+        }
+    }
+
+    @Benchmark
+    public String getRegex(Names names) {
+        WordsTrie trie = new WordsTrie();
+        names.names.forEach(trie::add);
+        return trie.getRegex();
+    }
+
+    @Benchmark
+    public Pattern getRegexAndCompile(Names names) {
+        WordsTrie trie = new WordsTrie();
+        names.names.forEach(trie::add);
+        return Pattern.compile(
+                "(?<!\\w)" + trie.getRegex() + "(?!\\w)", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+}
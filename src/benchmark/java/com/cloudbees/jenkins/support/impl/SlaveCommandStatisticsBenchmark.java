@@ -0,0 +1,34 @@
+package com.cloudbees.jenkins.support.impl;
+
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Classifies the commands sent to and received from agents, as done for each of them.
+ */
+@JmhBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SlaveCommandStatisticsBenchmark {
+
+    private static final String[] COMMANDS = {
+        "UserRequest:hudson.FilePath$CallableWith[workspace=/home/jenkins/workspace]@7f31245a",
+        "UserRequest:RemoteLaunchCallable[cmd=[nohup, sh, -c, (cp script.sh script.sh.copy; sh -xe script.sh.copy)],"
+                + " env=[Ljava.lang.String;@284e13da]@abc123",
+        "RPCRequest:hudson.FilePath.act[hudson.FilePath$FileCallable,hudson.remoting.VirtualChannel$ACL](123)",
+        "Response@456abc(hudson.remoting.Channel)",
+        "Pipe.Chunk(42,1024)",
+    };
+
+    @Benchmark
+    public void classify(Blackhole blackhole) {
+        for (String command : COMMANDS) {
+            blackhole.consume(SlaveCommandStatistics.Statistics.classify(command));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.cloudbees.jenkins.support.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Replaces a few words of a line among more or less words, by each method of {@link WordReplacer}.
+ */
+@JmhBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WordReplacerBenchmark {
+
+    private static final String LINE = "Started by user admin on agent-7 for project-3 in folder-12 of Jenkins,"
+            + " waiting for node-5 to build the branch feature-9 again";
+
+    @State(Scope.Benchmark)
+    public static class Words {
+
+        @Param({"10", "100"})
+        public int count;
+
+        String[] words;
+        String[] replaces;
+        Pattern pattern;
+        Map<String, String> replacements;
+        MultiWordReplacer replacer;
+
+        @Setup
+        public void setup() {
+            words = Stream.of("agent", "project", "folder", "node", "feature")
+                    .flatMap(prefix -> Stream.iterate(0, i -> i + 1)
+                            .limit(count / 5)
+                            .map(i -> prefix + "-" + i))
+                    .toArray(String[]::new);
+            replaces = Stream.of(words).map(word -> "fake_" + word).toArray(String[]::new);
+            pattern = Pattern.compile(
+                    Stream.of(words).map(Pattern::quote).collect(Collectors.joining("|", "(?<!\\w)(?:", ")(?!\\w)")),
+                    Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+            replacements = new HashMap<>();
+            for (int i = 0; i < words.length; i++) {
+                replacements.put(words[i], replaces[i]);
+            }
+            replacer = MultiWordReplacer.ofIgnoreCase(words, replaces);
+        }
+    }
+
+    @Benchmark
+    public String replaceWords(Words words) {
+        return WordReplacer.replaceWords(LINE, words.words, words.replaces);
+    }
+
+    @Benchmark
+    public String replaceWordsIgnoreCase(Words words) {
+        return WordReplacer.replaceWordsIgnoreCase(LINE, words.words, words.replaces);
+    }
+
+    @Benchmark
+    public String replaceWordsWithReplacer(Words words) {
+        return words.replacer.replace(LINE);
+    }
+
+    @Benchmark
+    public String replaceWordsWithPattern(Words words) {
+        return WordReplacer.replaceWords(LINE, words.pattern, words.replacements);
+    }
+}
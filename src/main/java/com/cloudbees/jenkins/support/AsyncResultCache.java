@@ -6,6 +6,8 @@ import hudson.model.Node;
 import hudson.remoting.Callable;
 import hudson.remoting.VirtualChannel;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.WeakHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -65,6 +67,7 @@ public class AsyncResultCache<T> implements Runnable {
             }
             future = CallAsyncWrapper.callAsync(channel, operation);
         }
+        long start = System.nanoTime();
         try {
             final V result = future.get(SupportPlugin.REMOTE_OPERATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
             synchronized (cache) {
@@ -89,7 +92,41 @@ public class AsyncResultCache<T> implements Runnable {
             synchronized (cache) {
                 return cache.get(node);
             }
+        } finally {
+            if (!(node instanceof Jenkins)) {
+                BundleTelemetry.remoteWait(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Returns a key changing whenever a node is added, removed, connected or disconnected, or gets a result in a cache,
+     * for the {@link com.cloudbees.jenkins.support.api.Component#getContentCacheKey()} of the components calling each
+     * node through this class.
+     *
+     * @param cache the cache of the results of the component.
+     * @return the key of the nodes.
+     */
+    public static String getNodesKey(WeakHashMap<Node, ?> cache) {
+        Jenkins jenkins = Jenkins.get();
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(jenkins);
+        nodes.addAll(jenkins.getNodes());
+        StringBuilder key = new StringBuilder();
+        for (Node node : nodes) {
+            Computer computer = node.toComputer();
+            boolean cached;
+            synchronized (cache) {
+                cached = cache.containsKey(node);
+            }
+            key.append(getNodeName(node))
+                    .append(':')
+                    .append(computer == null || computer.isOffline() ? -1 : computer.getConnectTime())
+                    .append(':')
+                    .append(cached)
+                    .append('\n');
         }
+        return key.toString();
     }
 
     private static String getNodeName(Node node) {
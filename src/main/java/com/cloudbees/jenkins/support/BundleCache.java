@@ -0,0 +1,226 @@
+package com.cloudbees.jenkins.support;
+
+import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.filter.ContentFilters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.security.AccessControlled;
+import hudson.security.Permission;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.apache.commons.io.output.TeeOutputStream;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps the bundles generated recently, to write the same bundle again to an identical request rather than generating
+ * it again.
+ *
+ * <p>
+ * A bundle is identified by its scope, its components and their options, whether it is anonymized, the requester, as
+ * some components describe them, and their permissions on the scope among those the components require. It is written
+ * again for {@link #FRESHNESS_SECONDS}, and the bundles are evicted from the oldest once they take more than
+ * {@link #MAX_SIZE} bytes. Disabled by default, as a bundle written again does not reflect the changes made since it
+ * was generated.
+ */
+@Restricted(NoExternalUse.class)
+public final class BundleCache {
+
+    private static final Logger LOGGER = Logger.getLogger(BundleCache.class.getName());
+
+    /**
+     * How long a bundle is written again, {@code 0} to never keep the bundles.
+     */
+    static long FRESHNESS_SECONDS = SystemProperties.getLong(BundleCache.class.getName() + ".FRESHNESS_SECONDS", 0L);
+
+    /**
+     * How many bytes the bundles kept take at most.
+     */
+    static long MAX_SIZE = SystemProperties.getLong(BundleCache.class.getName() + ".MAX_SIZE", 256L * 1024 * 1024);
+
+    /**
+     * The response header holding the age, in seconds, of a bundle written again.
+     */
+    public static final String AGE_HEADER = "X-Support-Bundle-Age";
+
+    private static final String DIRECTORY = "bundle-cache";
+    private static final String EXTENSION = ".zip";
+
+    /**
+     * Writes a bundle.
+     */
+    public interface BundleWriter {
+        void write(@NonNull OutputStream out) throws IOException;
+    }
+
+    private final File directory;
+
+    BundleCache(@NonNull File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the cache in the support directory.
+     */
+    public static BundleCache get() {
+        return new BundleCache(new File(SupportPlugin.getRootDirectory(), DIRECTORY));
+    }
+
+    static boolean isEnabled() {
+        return FRESHNESS_SECONDS > 0 && MAX_SIZE > 0;
+    }
+
+    /**
+     * @param scope what the bundle is about, such as the URL of an object.
+     * @param components the components of the bundle.
+     * @param options anything else changing the contents of the bundle, such as the options of the components.
+     * @return the key of the bundle of Jenkins, for the current user.
+     */
+    @NonNull
+    public static String key(
+            @NonNull String scope, @NonNull List<? extends Component> components, @NonNull String options) {
+        return key(scope, Jenkins.get(), components, options);
+    }
+
+    /**
+     * @param scope what the bundle is about, such as the URL of an object.
+     * @param object the object the bundle is about, to check the permissions of the current user against.
+     * @param components the components of the bundle.
+     * @param options anything else changing the contents of the bundle, such as the options of the components.
+     * @return the key of the bundle, for the current user.
+     */
+    @NonNull
+    public static String key(
+            @NonNull String scope,
+            @NonNull AccessControlled object,
+            @NonNull List<? extends Component> components,
+            @NonNull String options) {
+        StringBuilder key = new StringBuilder()
+                .append(scope)
+                .append('\n')
+                .append(options)
+                .append('\n')
+                .append(ContentFilters.get().isEnabled())
+                .append('\n')
+                .append(Jenkins.getAuthentication2().getName())
+                .append('\n');
+        components.stream().map(Component::getId).sorted().distinct().forEach(id -> key.append(id)
+                .append(','));
+        key.append('\n');
+        components.stream()
+                .flatMap(component -> component.getRequiredPermissions().stream())
+                .filter(Objects::nonNull)
+                .distinct()
+                .filter(object::hasPermission)
+                .map(Permission::getId)
+                .sorted()
+                .forEach(id -> key.append(id).append(','));
+        try {
+            byte[] digest =
+                    MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Writes and closes the bundle of a key, written again if generated recently enough and not bypassed, otherwise
+     * generated and kept.
+     *
+     * @param key the {@link #key} of the bundle.
+     * @param bypass whether to generate the bundle even if it was generated recently.
+     * @param out where to write the bundle.
+     * @param age called with the age of the bundle in seconds before it is written again.
+     * @param writer generates and closes the bundle.
+     */
+    public void write(
+            @NonNull String key,
+            boolean bypass,
+            @NonNull OutputStream out,
+            @NonNull LongConsumer age,
+            @NonNull BundleWriter writer)
+            throws IOException {
+        // drops the bundles expired since the last write, or all of them once disabled
+        evict(directory);
+        if (!isEnabled()) {
+            writer.write(out);
+            return;
+        }
+        File file = new File(directory, key + EXTENSION);
+        if (!bypass) {
+            long millis = System.currentTimeMillis() - file.lastModified();
+            if (file.isFile() && millis < TimeUnit.SECONDS.toMillis(FRESHNESS_SECONDS)) {
+                try (InputStream in = Files.newInputStream(file.toPath())) {
+                    LOGGER.fine(() -> "Writing again the bundle generated " + millis + "ms ago in " + file);
+                    age.accept(TimeUnit.MILLISECONDS.toSeconds(millis));
+                    try (out) {
+                        in.transferTo(out);
+                    }
+                    return;
+                } catch (NoSuchFileException e) {
+                    // evicted in between
+                }
+            }
+        }
+        Files.createDirectories(directory.toPath());
+        Path tmp = Files.createTempFile(directory.toPath(), "bundle", ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                writer.write(new TeeOutputStream(out, os));
+            }
+            if (Files.size(tmp) <= MAX_SIZE) {
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                evict(directory);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Deletes the bundles too old to be written again, then the oldest ones until they fit in {@link #MAX_SIZE}.
+     */
+    private static synchronized void evict(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long size = 0;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+        for (File file : files) {
+            size += file.length();
+            if (size > MAX_SIZE || now - file.lastModified() >= TimeUnit.SECONDS.toMillis(FRESHNESS_SECONDS)) {
+                try {
+                    Files.deleteIfExists(file.toPath());
+                } catch (IOException e) {
+                    // being written again
+                    LOGGER.log(Level.FINE, "Could not delete " + file, e);
+                }
+            }
+        }
+    }
+}
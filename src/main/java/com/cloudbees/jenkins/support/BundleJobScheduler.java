@@ -0,0 +1,229 @@
+package com.cloudbees.jenkins.support;
+
+import com.cloudbees.jenkins.support.api.Component;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import net.jcip.annotations.GuardedBy;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Runs the generations of support bundles requested from the UI, at most {@link #MAX_RUNNING} at once and the others
+ * in the order they were requested.
+ *
+ * <p>
+ * A request shares a running or queued job only if that job was created by the same user, for the same components and
+ * the same time window. The bundle is generated with the permissions of that user and contains components such as
+ * {@code AboutUser} describing them, so it is never given to another user, and each request gets exactly the
+ * components it selected.
+ */
+final class BundleJobScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger(BundleJobScheduler.class.getName());
+
+    /**
+     * How many bundles are generated at once.
+     */
+    static int MAX_RUNNING = SystemProperties.getInteger(BundleJobScheduler.class.getName() + ".MAX_RUNNING", 1);
+
+    /**
+     * Generates the bundle of a job.
+     */
+    interface Generator {
+        void generate(@NonNull Job job) throws Exception;
+    }
+
+    private final Path root;
+    private final Generator generator;
+    private final ExecutorService executor = Executors.newCachedThreadPool(
+            new NamingThreadFactory(new DaemonThreadFactory(), "Support bundle generation"));
+
+    @GuardedBy("this")
+    private final Deque<Job> queue = new ArrayDeque<>();
+
+    @GuardedBy("this")
+    private final List<Job> running = new ArrayList<>();
+
+    /**
+     * @param root the directory of the directories of the jobs.
+     * @param generator generates the bundle of a job, with the authentication of the request that created it.
+     */
+    BundleJobScheduler(@NonNull Path root, @NonNull Generator generator) {
+        this.root = root;
+        this.generator = generator;
+    }
+
+    /**
+     * @param taskId the id of the request, naming the directory of the job if a new one is created.
+     * @param components the components to include in the bundle.
+     * @param timeWindowMinutes how many minutes of logs to include, or 0 to include them in full.
+     * @return the job generating the bundle, shared with other requests or not.
+     */
+    @NonNull
+    synchronized Job submit(@NonNull UUID taskId, @NonNull List<Component> components, int timeWindowMinutes) {
+        Map<String, Component> byId = byId(components);
+        Authentication authentication = Jenkins.getAuthentication2();
+        List<Job> jobs = new ArrayList<>(running);
+        jobs.addAll(queue);
+        for (Job job : jobs) {
+            if (job.timeWindowMinutes == timeWindowMinutes
+                    && job.components.keySet().equals(byId.keySet())
+                    && job.authentication.getName().equals(authentication.getName())) {
+                LOGGER.fine(() -> "Task " + taskId + " shares the job " + job.id);
+                return job;
+            }
+        }
+        Job job = new Job(taskId, byId, timeWindowMinutes, authentication);
+        queue.add(job);
+        startNext();
+        return job;
+    }
+
+    private static Map<String, Component> byId(List<Component> components) {
+        Map<String, Component> byId = new LinkedHashMap<>();
+        for (Component component : components) {
+            byId.putIfAbsent(component.getId(), component);
+        }
+        return byId;
+    }
+
+    @GuardedBy("this")
+    private void startNext() {
+        while (running.size() < Math.max(1, MAX_RUNNING) && !queue.isEmpty()) {
+            Job job = queue.removeFirst();
+            running.add(job);
+            executor.submit(() -> run(job));
+        }
+    }
+
+    private void run(Job job) {
+        try (ACLContext ignored = ACL.as2(job.authentication)) {
+            LOGGER.fine(() -> "Generating the support bundle of job " + job.id);
+            generator.generate(job);
+            job.done(null);
+        } catch (Throwable e) {
+            LOGGER.log(Level.WARNING, "Could not generate the support bundle of job " + job.id, e);
+            job.done(e);
+        } finally {
+            synchronized (this) {
+                running.remove(job);
+                startNext();
+            }
+        }
+    }
+
+    /**
+     * The generation of a bundle, shared by one or more requests.
+     */
+    final class Job {
+        private final UUID id;
+        private final int timeWindowMinutes;
+        private final Authentication authentication;
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private final Map<String, Component> components;
+        private final String bundleName = BundleFileName.generate();
+        private volatile double progress;
+        private volatile Throwable failure;
+
+        private Job(UUID id, Map<String, Component> components, int timeWindowMinutes, Authentication authentication) {
+            this.id = id;
+            this.components = components;
+            this.timeWindowMinutes = timeWindowMinutes;
+            this.authentication = authentication;
+        }
+
+        /**
+         * @return the directory of the bundle, with the components that cannot be generated asynchronously.
+         */
+        @NonNull
+        Path getDirectory() {
+            return root.resolve(id.toString());
+        }
+
+        @NonNull
+        String getBundleName() {
+            return bundleName;
+        }
+
+        @NonNull
+        Path getBundle() {
+            return getDirectory().resolve(bundleName);
+        }
+
+        /**
+         * @return the components of the bundle.
+         */
+        @NonNull
+        List<Component> getComponents() {
+            return new ArrayList<>(components.values());
+        }
+
+        int getTimeWindowMinutes() {
+            return timeWindowMinutes;
+        }
+
+        /**
+         * @return how many jobs are to run before this one starts, from {@code 1}, or {@code 0} if it started.
+         */
+        int getQueuePosition() {
+            synchronized (BundleJobScheduler.this) {
+                int position = 1;
+                for (Job job : queue) {
+                    if (job == this) {
+                        return position;
+                    }
+                    position++;
+                }
+                return 0;
+            }
+        }
+
+        void progress(double progress) {
+            this.progress = progress;
+        }
+
+        double getProgress() {
+            return progress;
+        }
+
+        private void done(@CheckForNull Throwable failure) {
+            this.failure = failure;
+            done.countDown();
+        }
+
+        /**
+         * @return whether the bundle was generated or failed.
+         * @throws ExecutionException if the bundle could not be generated.
+         */
+        boolean await(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException {
+            if (!done.await(timeout, unit)) {
+                return false;
+            }
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+            return true;
+        }
+    }
+}
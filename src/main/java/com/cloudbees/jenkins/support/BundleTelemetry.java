@@ -0,0 +1,284 @@
+package com.cloudbees.jenkins.support;
+
+import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import com.codahale.metrics.MetricRegistry;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.metrics.api.Metrics;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+/**
+ * Records how long the steps of a support bundle took, to publish them to the metrics registry and to write them to
+ * {@code manifest/timings.json}.
+ *
+ * <p>
+ * The time spent filtering is the sum over all the threads filtering the contents, and may exceed the time spent
+ * writing them. The time spent writing is the time blocked on the output of the bundle. The time waiting for agents is
+ * the time waiting in {@link AsyncResultCache} on the threads generating the bundle, see {@link #attribute}.
+ */
+final class BundleTelemetry {
+
+    private static final Logger LOGGER = Logger.getLogger(BundleTelemetry.class.getName());
+
+    // the bundle the current thread works for
+    private static final ThreadLocal<BundleTelemetry> CURRENT = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private final LongAdder remoteWaitNanos = new LongAdder();
+    private final LongAdder filterNanos = new LongAdder();
+    private final LongAdder ioNanos = new LongAdder();
+    private final List<Timing> components = new ArrayList<>();
+    private final List<Timing> entries = new ArrayList<>();
+    private long componentsNanos;
+    private long contentsNanos;
+    private long bytes;
+
+    /**
+     * Records the time spent waiting for an agent, for the bundle the current thread works for if any.
+     */
+    static void remoteWait(long nanos) {
+        BundleTelemetry telemetry = CURRENT.get();
+        if (telemetry != null) {
+            telemetry.remoteWaitNanos.add(nanos);
+        }
+    }
+
+    /**
+     * @return the telemetry of the bundle the current thread works for, to {@link #attribute} the work of other
+     *     threads to it.
+     */
+    @CheckForNull
+    static BundleTelemetry current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Attributes the time the current thread waits for agents to a bundle, until closed.
+     *
+     * @param telemetry the telemetry of the bundle, or {@code null} to attribute it to none.
+     */
+    static Scope attribute(@CheckForNull BundleTelemetry telemetry) {
+        BundleTelemetry previous = CURRENT.get();
+        CURRENT.set(telemetry);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @return a filter recording the time spent in the given one, or the given one if it filters nothing.
+     */
+    ContentFilter timed(ContentFilter filter) {
+        if (filter == ContentFilter.NONE) {
+            // recognized as such to copy the contents as they are
+            return filter;
+        }
+        return new ContentFilter() {
+            @Override
+            public @NonNull String filter(@NonNull String input) {
+                long start = System.nanoTime();
+                try {
+                    return filter.filter(input);
+                } finally {
+                    filterNanos.add(System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public void reload() {
+                filter.reload();
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return filter.isThreadSafe();
+            }
+        };
+    }
+
+    /**
+     * @return a stream recording the time spent writing to the given one.
+     */
+    OutputStream timed(OutputStream stream) {
+        return new FilterOutputStream(stream) {
+            @Override
+            public void write(int b) throws IOException {
+                long start = System.nanoTime();
+                try {
+                    out.write(b);
+                } finally {
+                    ioNanos.add(System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public void write(@NonNull byte[] b, int off, int len) throws IOException {
+                long start = System.nanoTime();
+                try {
+                    out.write(b, off, len);
+                } finally {
+                    ioNanos.add(System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                long start = System.nanoTime();
+                try {
+                    out.flush();
+                } finally {
+                    ioNanos.add(System.nanoTime() - start);
+                }
+            }
+        };
+    }
+
+    void component(Component component, long nanos, boolean failed) {
+        String id;
+        String name;
+        try {
+            id = component.getId();
+            name = component.getDisplayName();
+        } catch (Throwable e) {
+            // be very defensive, as when listing the components
+            id = "";
+            name = component.getClass().getName();
+        }
+        components.add(new Timing(id.isEmpty() ? component.getClass().getName() : id, name, nanos, 0, failed));
+    }
+
+    void componentsDone(long nanos) {
+        componentsNanos = nanos;
+    }
+
+    void entry(String name, long nanos, long bytes, boolean failed) {
+        entries.add(new Timing(name, name, nanos, bytes, failed));
+    }
+
+    void contentsDone(long nanos, long bytes) {
+        contentsNanos = nanos;
+        this.bytes = bytes;
+    }
+
+    private long failures() {
+        return components.stream().filter(t -> t.failed).count()
+                + entries.stream().filter(t -> t.failed).count();
+    }
+
+    /**
+     * Writes the timings recorded so far as JSON.
+     */
+    void writeTo(OutputStream out) throws IOException {
+        JSONObject json = new JSONObject();
+        json.put("durationMs", millis(System.nanoTime() - start));
+        json.put("componentsMs", millis(componentsNanos));
+        json.put("contentsMs", millis(contentsNanos));
+        json.put("filterMs", millis(filterNanos.sum()));
+        json.put("writeMs", millis(ioNanos.sum()));
+        json.put("remoteWaitMs", millis(remoteWaitNanos.sum()));
+        json.put("bytes", bytes);
+        json.put("failures", failures());
+        JSONArray componentsJson = new JSONArray();
+        for (Timing component : components) {
+            JSONObject componentJson = new JSONObject();
+            componentJson.put("id", component.id);
+            componentJson.put("name", component.name);
+            componentJson.put("durationMs", millis(component.nanos));
+            componentJson.put("failed", component.failed);
+            componentsJson.add(componentJson);
+        }
+        json.put("components", componentsJson);
+        JSONArray entriesJson = new JSONArray();
+        for (Timing entry : entries) {
+            JSONObject entryJson = new JSONObject();
+            entryJson.put("name", entry.name);
+            entryJson.put("durationMs", millis(entry.nanos));
+            entryJson.put("bytes", entry.bytes);
+            entryJson.put("failed", entry.failed);
+            entriesJson.add(entryJson);
+        }
+        json.put("entries", entriesJson);
+        out.write(json.toString(2).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Publishes the timings to the metrics registry, once the bundle is generated or failed.
+     *
+     * @param completed whether the bundle was generated.
+     */
+    void publish(boolean completed) {
+        try {
+            MetricRegistry registry = Metrics.metricRegistry();
+            registry.timer(name("duration")).update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            registry.timer(name("components")).update(componentsNanos, TimeUnit.NANOSECONDS);
+            registry.timer(name("contents")).update(contentsNanos, TimeUnit.NANOSECONDS);
+            registry.timer(name("filter")).update(filterNanos.sum(), TimeUnit.NANOSECONDS);
+            registry.timer(name("write")).update(ioNanos.sum(), TimeUnit.NANOSECONDS);
+            registry.timer(name("remoteWait")).update(remoteWaitNanos.sum(), TimeUnit.NANOSECONDS);
+            registry.histogram(name("bytes")).update(bytes);
+            for (Timing component : components) {
+                registry.timer(name("component", component.id)).update(component.nanos, TimeUnit.NANOSECONDS);
+            }
+            for (Timing entry : entries) {
+                // not by name, as the names of the entries are unbounded
+                registry.timer(name("entry")).update(entry.nanos, TimeUnit.NANOSECONDS);
+                registry.histogram(name("entry", "bytes")).update(entry.bytes);
+            }
+            registry.counter(name("failures")).inc(failures());
+            if (!completed) {
+                registry.meter(name("aborted")).mark();
+            }
+        } catch (RuntimeException e) {
+            // the metrics registry is not available
+            LOGGER.log(Level.FINE, "Could not publish the timings of the support bundle", e);
+        }
+    }
+
+    private static String name(String... names) {
+        return MetricRegistry.name(SupportPlugin.class, "bundle") + "." + String.join(".", names);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Ends the attribution of a thread to a bundle.
+     */
+    interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Timing {
+        private final String id;
+        private final String name;
+        private final long nanos;
+        private final long bytes;
+        private final boolean failed;
+
+        Timing(String id, String name, long nanos, long bytes, boolean failed) {
+            this.id = id;
+            this.name = name;
+            this.nanos = nanos;
+            this.bytes = bytes;
+            this.failed = failed;
+        }
+    }
+}
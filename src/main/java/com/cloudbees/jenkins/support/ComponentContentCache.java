@@ -0,0 +1,397 @@
+package com.cloudbees.jenkins.support;
+
+import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.Content;
+import com.cloudbees.jenkins.support.api.TimeWindow;
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import com.cloudbees.jenkins.support.filter.ContentFilters;
+import com.cloudbees.jenkins.support.filter.PrefetchableContent;
+import com.cloudbees.jenkins.support.filter.PrefilteredContent;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.security.Permission;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import net.jcip.annotations.GuardedBy;
+import org.apache.commons.io.output.TeeOutputStream;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Keeps the contents of the components having a {@link Component#getContentCacheKey()}, so that the next bundles add
+ * them again rather than asking the component while its key is unchanged.
+ *
+ * <p>
+ * The contents are kept as written by the component, before any filtering, so that the names they mention are
+ * anonymized with the mappings of each bundle. They are recorded while the bundle writes them, and kept once all of
+ * them were written. A {@link PrefilteredContent} filters only parts of itself, which cannot be done again on what it
+ * wrote, so a component adding one is only reused while anonymization is disabled. At most {@link #MAX_SIZE} bytes are
+ * kept, the snapshots written first being dropped first.
+ */
+@Restricted(NoExternalUse.class)
+public final class ComponentContentCache {
+
+    private static final Logger LOGGER = Logger.getLogger(ComponentContentCache.class.getName());
+
+    /**
+     * How many bytes of contents are kept at most, {@code 0} to ask the components for every bundle.
+     */
+    static long MAX_SIZE =
+            SystemProperties.getLong(ComponentContentCache.class.getName() + ".MAX_SIZE", 16L * 1024 * 1024);
+
+    // by component id, from the least recently written
+    @GuardedBy("ComponentContentCache.class")
+    private static final Map<String, Snapshot> SNAPSHOTS = new LinkedHashMap<>();
+
+    @GuardedBy("ComponentContentCache.class")
+    private static long size;
+
+    private ComponentContentCache() {}
+
+    /**
+     * Adds the contents of a component to a bundle, those kept from a previous bundle if its key is unchanged.
+     *
+     * <p>
+     * Also used by the components keeping some of their contents, through a component of their own which is not
+     * registered.
+     */
+    public static void addContents(@NonNull Container container, @NonNull Component component) {
+        String key = key(container, component);
+        if (key == null) {
+            component.addContents(container);
+            return;
+        }
+        boolean anonymized = ContentFilters.get().isEnabled();
+        String id = component.getId();
+        Snapshot snapshot = get(id, key);
+        if (snapshot != null && (!snapshot.prefiltered || !anonymized)) {
+            LOGGER.fine(() -> "Reusing the contents of " + id);
+            snapshot.contents.forEach(container::add);
+            return;
+        }
+        List<Content> contents = new ArrayList<>();
+        component.addContents(new Container() {
+            @Override
+            public void add(@CheckForNull Content content) {
+                if (content != null) {
+                    synchronized (contents) {
+                        contents.add(content);
+                    }
+                }
+            }
+
+            @Override
+            public List<? extends Component> getComponents() {
+                return container.getComponents();
+            }
+
+            @Override
+            public TimeWindow getTimeWindow() {
+                return container.getTimeWindow();
+            }
+        });
+        if (contents.isEmpty()) {
+            put(id, new Snapshot(key, List.of(), 0, false));
+            return;
+        }
+        // the contents prefetched are recognized by their type, which the recorded contents would hide
+        if (anonymized && contents.stream().anyMatch(PrefilteredContent.class::isInstance)
+                || contents.stream().anyMatch(PrefetchableContent.class::isInstance)) {
+            contents.forEach(container::add);
+            return;
+        }
+        Recording recording = new Recording(id, key, contents.size());
+        for (int i = 0; i < contents.size(); i++) {
+            Content content = contents.get(i);
+            container.add(
+                    content instanceof PrefilteredContent
+                            ? new RecordedPrefilteredContent(recording, i, (PrefilteredContent) content)
+                            : new RecordedContent(recording, i, content));
+        }
+    }
+
+    @CheckForNull
+    private static String key(Container container, Component component) {
+        if (MAX_SIZE <= 0) {
+            return null;
+        }
+        String key = component.getContentCacheKey();
+        if (key == null) {
+            return null;
+        }
+        // the contents may depend on the other components of the bundle, and on the permissions of the user
+        StringBuilder full = new StringBuilder(key).append('\n');
+        List<? extends Component> components = container.getComponents();
+        if (components == null) {
+            components = List.of(component);
+        }
+        components.stream().map(Component::getId).sorted().forEach(c -> full.append(c)
+                .append(','));
+        full.append('\n').append(Jenkins.getAuthentication2().getName()).append('\n');
+        Jenkins jenkins = Jenkins.get();
+        components.stream()
+                .flatMap(c -> c.getRequiredPermissions().stream())
+                .filter(Objects::nonNull)
+                .distinct()
+                .filter(jenkins::hasPermission)
+                .map(Permission::getId)
+                .sorted()
+                .forEach(id -> full.append(id).append(','));
+        return full.toString();
+    }
+
+    @CheckForNull
+    private static synchronized Snapshot get(String id, String key) {
+        Snapshot snapshot = SNAPSHOTS.get(id);
+        return snapshot != null && snapshot.key.equals(key) ? snapshot : null;
+    }
+
+    private static synchronized void put(String id, Snapshot snapshot) {
+        Snapshot previous = SNAPSHOTS.remove(id);
+        if (previous != null) {
+            size -= previous.size;
+        }
+        if (snapshot.size > MAX_SIZE) {
+            return;
+        }
+        Iterator<Snapshot> eldest = SNAPSHOTS.values().iterator();
+        while (size + snapshot.size > MAX_SIZE && eldest.hasNext()) {
+            size -= eldest.next().size;
+            eldest.remove();
+        }
+        SNAPSHOTS.put(id, snapshot);
+        size += snapshot.size;
+    }
+
+    static synchronized boolean isKept(String id) {
+        return SNAPSHOTS.containsKey(id);
+    }
+
+    static synchronized void clear() {
+        SNAPSHOTS.clear();
+        size = 0;
+    }
+
+    private static final class Snapshot {
+        private final String key;
+        private final List<? extends Content> contents;
+        private final long size;
+        private final boolean prefiltered;
+
+        Snapshot(String key, List<? extends Content> contents, long size, boolean prefiltered) {
+            this.key = key;
+            this.contents = contents;
+            this.size = size;
+            this.prefiltered = prefiltered;
+        }
+    }
+
+    /**
+     * The contents of a component being written to a bundle, kept once they were all written.
+     */
+    private static final class Recording {
+        private final String id;
+        private final String key;
+        private final Content[] written;
+        private int pending;
+        private long size;
+        private boolean prefiltered;
+        private boolean failed;
+
+        Recording(String id, String key, int count) {
+            this.id = id;
+            this.key = key;
+            this.written = new Content[count];
+            this.pending = count;
+        }
+
+        /**
+         * Writes a content to a bundle, recording what it writes.
+         */
+        void write(int index, Content content, OutputStream os, ContentWriter writer) throws IOException {
+            Copy copy = new Copy();
+            try {
+                writer.write(new TeeOutputStream(os, copy));
+            } catch (IOException | RuntimeException | Error e) {
+                failed();
+                throw e;
+            }
+            if (copy.overflow) {
+                failed();
+                return;
+            }
+            SnapshotContent snapshot;
+            try {
+                snapshot = new SnapshotContent(content, copy.toByteArray());
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not keep the contents of " + id, e);
+                failed();
+                return;
+            }
+            written(index, snapshot, content instanceof PrefilteredContent);
+        }
+
+        private synchronized void written(int index, SnapshotContent snapshot, boolean prefiltered) {
+            if (failed || written[index] != null) {
+                return;
+            }
+            written[index] = snapshot;
+            size += snapshot.bytes.length;
+            this.prefiltered |= prefiltered;
+            if (--pending == 0) {
+                put(id, new Snapshot(key, List.of(written), size, this.prefiltered));
+            }
+        }
+
+        private synchronized void failed() {
+            failed = true;
+        }
+
+        /**
+         * Copies what is written until it takes more than {@link #MAX_SIZE} bytes.
+         */
+        private static final class Copy extends ByteArrayOutputStream {
+            private boolean overflow;
+
+            @Override
+            public synchronized void write(int b) {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                if (overflow || count + (long) len > MAX_SIZE) {
+                    overflow = true;
+                    reset();
+                    return;
+                }
+                super.write(b, off, len);
+            }
+        }
+    }
+
+    private interface ContentWriter {
+        void write(OutputStream os) throws IOException;
+    }
+
+    /**
+     * A content written to a bundle for the first time since the key of its component changed.
+     */
+    private static final class RecordedContent extends Content implements Closeable {
+        private final Recording recording;
+        private final int index;
+        private final Content content;
+
+        RecordedContent(Recording recording, int index, Content content) {
+            super(content.getName(), content.getFilterableParameters());
+            this.recording = recording;
+            this.index = index;
+            this.content = content;
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            recording.write(index, content, os, content::writeTo);
+        }
+
+        @Override
+        public long getTime() throws IOException {
+            return content.getTime();
+        }
+
+        @Override
+        public boolean shouldBeFiltered() {
+            return content.shouldBeFiltered();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (content instanceof Closeable) {
+                ((Closeable) content).close();
+            }
+        }
+    }
+
+    /**
+     * A {@link PrefilteredContent} written to a bundle for the first time since the key of its component changed,
+     * while anonymization is disabled.
+     */
+    private static final class RecordedPrefilteredContent extends PrefilteredContent implements Closeable {
+        private final Recording recording;
+        private final int index;
+        private final PrefilteredContent content;
+
+        RecordedPrefilteredContent(Recording recording, int index, PrefilteredContent content) {
+            super(content.getName(), content.getFilterableParameters());
+            this.recording = recording;
+            this.index = index;
+            this.content = content;
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            recording.write(index, content, os, content::writeTo);
+        }
+
+        @Override
+        public void writeTo(OutputStream os, @NonNull ContentFilter filter) throws IOException {
+            recording.write(index, content, os, out -> content.writeTo(out, filter));
+        }
+
+        @Override
+        public long getTime() throws IOException {
+            return content.getTime();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (content instanceof Closeable) {
+                ((Closeable) content).close();
+            }
+        }
+    }
+
+    /**
+     * What a content wrote, filtered on each bundle like the content would be.
+     */
+    private static final class SnapshotContent extends Content {
+        private final byte[] bytes;
+        private final long time;
+        private final boolean shouldBeFiltered;
+
+        SnapshotContent(Content content, byte[] bytes) throws IOException {
+            super(content.getName(), content.getFilterableParameters());
+            this.bytes = bytes;
+            this.time = content.getTime();
+            this.shouldBeFiltered = content.shouldBeFiltered();
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            os.write(bytes);
+        }
+
+        @Override
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public boolean shouldBeFiltered() {
+            return shouldBeFiltered;
+        }
+    }
+}
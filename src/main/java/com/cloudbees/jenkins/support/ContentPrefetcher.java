@@ -0,0 +1,196 @@
+package com.cloudbees.jenkins.support;
+
+import com.cloudbees.jenkins.support.api.Content;
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import com.cloudbees.jenkins.support.filter.PrefetchableContent;
+import com.cloudbees.jenkins.support.filter.PrefilteredContent;
+import com.cloudbees.jenkins.support.util.Futures;
+import hudson.BulkChange;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Writes the {@link PrefetchableContent}s of a bundle ahead of their turn on a pool of threads, so that the bundle is
+ * not waiting for them to be parsed or redacted one after the other.
+ *
+ * <p>
+ * At most {@link #AHEAD} contents are written ahead. The output of each is kept in memory up to
+ * {@link #IN_MEMORY_THRESHOLD} bytes, and in a temporary file above that, until the content is added to the bundle in
+ * its usual order.
+ */
+final class ContentPrefetcher implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ContentPrefetcher.class.getName());
+
+    /**
+     * How many contents are written at once, {@code 0} to write every content in turn.
+     */
+    static int PARALLELISM = SystemProperties.getInteger(
+            ContentPrefetcher.class.getName() + ".PARALLELISM",
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * How many contents may be written ahead of the content being added to the bundle.
+     */
+    static int AHEAD = SystemProperties.getInteger(ContentPrefetcher.class.getName() + ".AHEAD", 16);
+
+    private static final int IN_MEMORY_THRESHOLD = 256 * 1024;
+
+    private final List<Content> contents;
+    private final ContentFilter filter;
+    private final Authentication authentication;
+    private final BundleTelemetry telemetry;
+    // the contents written ahead, by index
+    private final TreeMap<Integer, Future<DeferredFileOutputStream>> pending = new TreeMap<>();
+    // the index of the next content to consider writing ahead
+    private int next;
+    private ExecutorService executor;
+
+    /**
+     * @param contents the contents of the bundle, in the order they are added to it.
+     * @param filter the filter of the {@link PrefilteredContent}s.
+     */
+    ContentPrefetcher(List<Content> contents, ContentFilter filter) {
+        this.contents = contents;
+        this.filter = filter;
+        this.authentication = Jenkins.getAuthentication2();
+        this.telemetry = BundleTelemetry.current();
+    }
+
+    /**
+     * Writes a content if it was written ahead, and writes the next contents ahead.
+     *
+     * @param index the index of the content, the contents before are not written ahead anymore.
+     * @param out where to write the content, as it would be written by {@link Content#writeTo(OutputStream)} or
+     *     {@link PrefilteredContent#writeTo(OutputStream, ContentFilter)}.
+     * @return whether the content was written ahead, and is written to {@code out}. Otherwise, it is up to the caller
+     *     to write it.
+     * @throws IOException if the content could not be written.
+     */
+    boolean writeTo(int index, OutputStream out) throws IOException {
+        Map<Integer, Future<DeferredFileOutputStream>> skipped = pending.headMap(index);
+        skipped.values().forEach(ContentPrefetcher::discard);
+        skipped.clear();
+        next = Math.max(next, index);
+        prefetch();
+        Future<DeferredFileOutputStream> written = pending.remove(index);
+        // keeps the pool busy while this content is written to the bundle
+        prefetch();
+        if (written == null) {
+            return false;
+        }
+        DeferredFileOutputStream output = Futures.get(written);
+        try {
+            if (output.isInMemory()) {
+                out.write(output.getData());
+            } else {
+                Files.copy(output.getFile().toPath(), out);
+            }
+        } finally {
+            delete(output);
+        }
+        return true;
+    }
+
+    private void prefetch() {
+        if (PARALLELISM < 1) {
+            return;
+        }
+        while (pending.size() < AHEAD && next < contents.size()) {
+            int index = next++;
+            Content content = contents.get(index);
+            // the filter is only called from several threads of a bundle when it supports it
+            if (!(content instanceof PrefetchableContent)
+                    || content instanceof PrefilteredContent && !filter.isThreadSafe()) {
+                continue;
+            }
+            if (executor == null) {
+                executor = Executors.newFixedThreadPool(
+                        PARALLELISM, new NamingThreadFactory(new DaemonThreadFactory(), "Support bundle prefetch"));
+            }
+            pending.put(index, executor.submit(() -> write(content)));
+        }
+    }
+
+    private DeferredFileOutputStream write(Content content) throws IOException {
+        DeferredFileOutputStream output = DeferredFileOutputStream.builder()
+                .setThreshold(IN_MEMORY_THRESHOLD)
+                .setPrefix("support-prefetch")
+                .setSuffix(".tmp")
+                .get();
+        // the mappings created by the filter are saved along the bundle, rather than each time
+        try (ACLContext ignored = ACL.as2(authentication);
+                BundleTelemetry.Scope scope = BundleTelemetry.attribute(telemetry);
+                BulkChange change = new BulkChange(ContentFilter.bulkChangeTarget());
+                output) {
+            if (content instanceof PrefilteredContent) {
+                ((PrefilteredContent) content).writeTo(output, filter);
+            } else {
+                content.writeTo(output);
+            }
+            if (Thread.interrupted()) {
+                // discarded while being written
+                throw new InterruptedIOException();
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            delete(output);
+            throw e;
+        }
+        return output;
+    }
+
+    private static void discard(Future<DeferredFileOutputStream> written) {
+        if (written.cancel(true)) {
+            return;
+        }
+        try {
+            delete(written.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // already reported, if it was its turn
+        }
+    }
+
+    private static void delete(DeferredFileOutputStream output) {
+        if (output.isInMemory()) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(output.getFile().toPath());
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not delete " + output.getFile(), e);
+        }
+    }
+
+    /**
+     * Stops writing contents ahead, and discards the contents written ahead.
+     */
+    @Override
+    public void close() {
+        pending.values().forEach(ContentPrefetcher::discard);
+        pending.clear();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
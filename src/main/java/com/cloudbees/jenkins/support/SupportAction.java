@@ -28,7 +28,9 @@ import static jakarta.servlet.http.HttpServletResponse.SC_BAD_REQUEST;
 
 import com.cloudbees.jenkins.support.api.Component;
 import com.cloudbees.jenkins.support.api.SupportProvider;
+import com.cloudbees.jenkins.support.api.TimeWindow;
 import com.cloudbees.jenkins.support.filter.ContentFilters;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.model.Api;
@@ -108,6 +110,8 @@ public class SupportAction implements RootAction, StaplerProxy {
 
     private final Map<UUID, SupportBundleAsyncGenerator> generatorByTaskId = new ConcurrentHashMap<>();
 
+    private final BundleJobScheduler scheduler = new BundleJobScheduler(SUPPORT_BUNDLE_CREATION_FOLDER, this::generate);
+
     @Override
     @Restricted(NoExternalUse.class)
     public Object getTarget() {
@@ -339,7 +343,7 @@ public class SupportAction implements RootAction, StaplerProxy {
             return;
         }
         final List<Component> components = getComponents(req, json);
-        prepareBundle(rsp, components);
+        prepareBundle(rsp, components, json.optInt("timeWindowMinutes"), json.optBoolean("noCache"));
     }
 
     /**
@@ -358,6 +362,8 @@ public class SupportAction implements RootAction, StaplerProxy {
             return new HttpRedirect("support");
         }
         final List<Component> components = getComponents(req, json);
+        final int timeWindowMinutes = json.optInt("timeWindowMinutes");
+        final TimeWindow timeWindow = getTimeWindow(timeWindowMinutes);
         UUID taskId = UUID.randomUUID();
 
         // There are some components that need the request components to be processed
@@ -376,19 +382,43 @@ public class SupportAction implements RootAction, StaplerProxy {
             }
             try (FileOutputStream fileOutputStream =
                     new FileOutputStream(new File(outputDir.toString(), SYNC_SUPPORT_BUNDLE))) {
-                SupportPlugin.writeBundleForSyncComponents(fileOutputStream, syncComponent);
+                SupportPlugin.writeBundleForSyncComponents(fileOutputStream, syncComponent, timeWindow);
             } finally {
                 logger.fine("Processing support bundle sunc completed");
             }
         }
 
-        // Process the remaining components that can be process async
+        // Process the remaining components that can be process async, possibly along with other requests
+        BundleJobScheduler.Job job = scheduler.submit(taskId, components, timeWindowMinutes);
+        if (!job.getDirectory().equals(SUPPORT_BUNDLE_CREATION_FOLDER.resolve(taskId.toString()))) {
+            // the job of an identical request of the same user generates the bundle, with its own sync components
+            FileUtils.deleteDirectory(SUPPORT_BUNDLE_CREATION_FOLDER.resolve(taskId.toString()).toFile());
+        }
         SupportBundleAsyncGenerator supportBundleAsyncGenerator = new SupportBundleAsyncGenerator();
-        supportBundleAsyncGenerator.init(taskId, components);
+        supportBundleAsyncGenerator.init(taskId, job);
         generatorByTaskId.put(taskId, supportBundleAsyncGenerator);
         return new HttpRedirect("progressPage?taskId=" + taskId);
     }
 
+    private void generate(BundleJobScheduler.Job job) throws IOException {
+        Path outputDir = job.getDirectory();
+        try {
+            Files.createDirectories(outputDir);
+        } catch (IOException e) {
+            throw new IOException("Failed to create directory: " + outputDir.toAbsolutePath(), e);
+        }
+        try (FileOutputStream fileOutputStream = new FileOutputStream(job.getBundle().toFile())) {
+            SupportPlugin.writeBundle(
+                    fileOutputStream,
+                    job.getComponents(),
+                    job::progress,
+                    outputDir,
+                    getTimeWindow(job.getTimeWindowMinutes()));
+        } finally {
+            logger.fine("Processing support bundle async completed");
+        }
+    }
+
     private List<Component> getComponents(StaplerRequest2 req, JSONObject json) throws IOException {
         logger.fine("Parsing request...");
         Set<String> remove = new HashSet<>();
@@ -418,14 +448,28 @@ public class SupportAction implements RootAction, StaplerProxy {
         return components;
     }
 
+    /**
+     * @param minutes how many minutes of logs to include, or 0 to include them in full.
+     */
+    @CheckForNull
+    private static TimeWindow getTimeWindow(int minutes) {
+        return minutes > 0 ? TimeWindow.lastMinutes(minutes) : null;
+    }
+
     /**
      * Generates a support bundle with only requested components.
      * @param components component names separated by comma.
+     * @param timeWindowMinutes how many minutes of logs to include, or 0 to include them in full.
+     * @param noCache whether to generate the bundle even if the same one was generated recently.
      * @param rsp The stapler response
      * @throws IOException If an input or output exception occurs
      */
     @RequirePOST
-    public void doGenerateBundle(@QueryParameter("components") String components, StaplerResponse2 rsp)
+    public void doGenerateBundle(
+            @QueryParameter("components") String components,
+            @QueryParameter("timeWindowMinutes") int timeWindowMinutes,
+            @QueryParameter("noCache") boolean noCache,
+            StaplerResponse2 rsp)
             throws IOException {
         if (components == null) {
             rsp.sendError(SC_BAD_REQUEST, "components parameter is mandatory");
@@ -460,16 +504,24 @@ public class SupportAction implements RootAction, StaplerProxy {
             rsp.sendError(SC_BAD_REQUEST, "selected component list is empty");
             return;
         }
-        prepareBundle(rsp, selectedComponents);
+        prepareBundle(rsp, selectedComponents, timeWindowMinutes, noCache);
     }
 
-    private void prepareBundle(StaplerResponse2 rsp, List<Component> components) throws IOException {
+    private void prepareBundle(
+            StaplerResponse2 rsp, List<Component> components, int timeWindowMinutes, boolean noCache)
+            throws IOException {
         logger.fine("Preparing response...");
         rsp.setContentType("application/zip");
         rsp.addHeader("Content-Disposition", "inline; filename=" + BundleFileName.generate() + ";");
         final ServletOutputStream servletOutputStream = rsp.getOutputStream();
         try {
-            SupportPlugin.writeBundle(servletOutputStream, components);
+            BundleCache.get()
+                    .write(
+                            BundleCache.key("jenkins", components, "timeWindowMinutes=" + timeWindowMinutes),
+                            noCache,
+                            servletOutputStream,
+                            age -> rsp.addHeader(BundleCache.AGE_HEADER, String.valueOf(age)),
+                            out -> SupportPlugin.writeBundle(out, components, getTimeWindow(timeWindowMinutes)));
             logger.fine("Response completed");
         } catch (IOException e) {
             logger.log(Level.FINE, e.getMessage(), e);
@@ -516,14 +568,43 @@ public class SupportAction implements RootAction, StaplerProxy {
         private boolean supportBundleGenerationInProgress = false;
         private String supportBundleName;
 
+        @CheckForNull
+        private TimeWindow timeWindow;
+
+        @CheckForNull
+        private BundleJobScheduler.Job job;
+
         public SupportBundleAsyncGenerator init(UUID taskId, List<Component> components) {
+            return init(taskId, components, null);
+        }
+
+        public SupportBundleAsyncGenerator init(
+                UUID taskId, List<Component> components, @CheckForNull TimeWindow timeWindow) {
             this.taskId = taskId;
             this.components = components;
+            this.timeWindow = timeWindow;
+            return this;
+        }
+
+        SupportBundleAsyncGenerator init(UUID taskId, BundleJobScheduler.Job job) {
+            this.taskId = taskId;
+            this.job = job;
             return this;
         }
 
         @Override
         protected void compute() throws Exception {
+            if (job != null) {
+                // only follows the job, which keeps running for the other requests if the page is left
+                while (!job.await(1, TimeUnit.SECONDS)) {
+                    if (canceled()) {
+                        return;
+                    }
+                    progress(job.getProgress());
+                }
+                isCompleted = true;
+                return;
+            }
             if (supportBundleGenerationInProgress) {
                 logger.fine("Support bundle generation already in progress, for task id " + taskId);
                 return;
@@ -543,7 +624,7 @@ public class SupportAction implements RootAction, StaplerProxy {
 
             try (FileOutputStream fileOutputStream =
                     new FileOutputStream(new File(outputDir.toString(), supportBundleName))) {
-                SupportPlugin.writeBundle(fileOutputStream, components, this::progress, outputDir);
+                SupportPlugin.writeBundle(fileOutputStream, components, this::progress, outputDir, timeWindow);
             } finally {
                 logger.fine("Processing support bundle async completed");
             }
@@ -557,19 +638,29 @@ public class SupportAction implements RootAction, StaplerProxy {
             JSONObject json = new JSONObject();
             json.put("isCompleted", isCompleted);
             json.put("taskId", String.valueOf(taskId));
+            json.put("queuePosition", job == null ? 0 : job.getQueuePosition());
             return json;
         }
 
         public String getSupportBundleName() {
-            return supportBundleName;
+            return job == null ? supportBundleName : job.getBundleName();
+        }
+
+        /**
+         * @return the directory of the bundle, shared with other tasks when generated by the same job.
+         */
+        Path getDirectory() {
+            return job == null ? SUPPORT_BUNDLE_CREATION_FOLDER.resolve(taskId.toString()) : job.getDirectory();
         }
     }
 
     public void doDownloadBundle(@QueryParameter("taskId") String taskId, StaplerResponse2 rsp) throws IOException {
-        String supportBundleName =
-                generatorByTaskId.get(UUID.fromString(taskId)).getSupportBundleName();
+        UUID id = UUID.fromString(taskId);
+        SupportBundleAsyncGenerator generator = generatorByTaskId.get(id);
+        String supportBundleName = generator.getSupportBundleName();
+        Path directory = generator.getDirectory();
 
-        File bundleFile = new File(SUPPORT_BUNDLE_CREATION_FOLDER + "/" + taskId + "/" + supportBundleName);
+        File bundleFile = directory.resolve(supportBundleName).toFile();
         if (!bundleFile.exists()) {
             rsp.sendError(HttpServletResponse.SC_NOT_FOUND, "Support bundle file not found");
             return;
@@ -585,11 +676,16 @@ public class SupportAction implements RootAction, StaplerProxy {
         Timer.get()
                 .schedule(
                         () -> {
-                            File outputDir = new File(SUPPORT_BUNDLE_CREATION_FOLDER + "/" + taskId);
+                            File outputDir = directory.toFile();
 
                             try {
+                                generatorByTaskId.remove(id);
+                                if (generatorByTaskId.values().stream()
+                                        .anyMatch(g -> g.getDirectory().equals(directory))) {
+                                    // still to be downloaded by the other tasks of the same job
+                                    return;
+                                }
                                 FileUtils.deleteDirectory(outputDir);
-                                generatorByTaskId.remove(taskId);
                                 logger.fine(() -> "Cleaned up temporary directory " + outputDir);
 
                             } catch (IOException e) {
@@ -25,6 +25,7 @@
 package com.cloudbees.jenkins.support;
 
 import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.api.TimeWindow;
 import com.cloudbees.jenkins.support.impl.JVMProcessSystemMetricsContents;
 import com.cloudbees.jenkins.support.impl.SystemConfiguration;
 import hudson.CloseProofOutputStream;
@@ -45,6 +46,7 @@ import java.util.Set;
 import jenkins.model.Jenkins;
 import jenkins.security.MasterToSlaveCallable;
 import org.kohsuke.args4j.Argument;
+import org.kohsuke.args4j.Option;
 
 @Extension
 public class SupportCommand extends CLICommand {
@@ -52,6 +54,15 @@ public class SupportCommand extends CLICommand {
     @Argument(metaVar = "COMPONENTS")
     public List<String> components = new ArrayList<>();
 
+    @Option(
+            name = "--time-window",
+            metaVar = "MINUTES",
+            usage = "Only include the logs written in the last minutes, rather than in full")
+    public int timeWindowMinutes;
+
+    @Option(name = "--no-cache", usage = "Generate the bundle even if the same one was generated recently")
+    public boolean noCache;
+
     @Override
     public String getShortDescription() {
         return Messages.SupportCommand_generates_a_diagnostic_support_bundle_();
@@ -97,7 +108,18 @@ public class SupportCommand extends CLICommand {
         } else { // redirect output to a ZIP file yourself
             os = new CloseProofOutputStream(stdout);
         }
-        SupportPlugin.writeBundle(os, new ArrayList<>(selected));
+        List<Component> bundle = new ArrayList<>(selected);
+        BundleCache.get()
+                .write(
+                        BundleCache.key("jenkins", bundle, "timeWindowMinutes=" + timeWindowMinutes),
+                        noCache,
+                        os,
+                        age -> stderr.println("Reusing the bundle generated " + age
+                                + " seconds ago, use --no-cache to generate a new one"),
+                        out -> SupportPlugin.writeBundle(
+                                out,
+                                bundle,
+                                timeWindowMinutes > 0 ? TimeWindow.lastMinutes(timeWindowMinutes) : null));
         return 0;
     }
 
@@ -24,10 +24,12 @@
 
 package com.cloudbees.jenkins.support;
 
+import com.cloudbees.jenkins.support.api.TimeWindow;
 import com.cloudbees.jenkins.support.util.StreamUtils;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.jenkins.lib.support_log_formatter.SupportLogFormatter;
 import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -47,10 +49,15 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Handler;
 import java.util.logging.LogRecord;
 import net.jcip.annotations.GuardedBy;
+import org.apache.commons.io.output.CountingOutputStream;
 
 /**
  * A log handler that rotates files.
  *
+ * <p>
+ * Next to each file, a sparse index of the offsets of the lines by time is kept, so that only the part of a file
+ * written during a {@link TimeWindow} can be read.
+ *
  * @author Stephen Connolly
  */
 public class SupportLogHandler extends Handler {
@@ -67,6 +74,18 @@ public class SupportLogHandler extends Handler {
     @GuardedBy("outputLock")
     private Writer writer;
 
+    /**
+     * The bytes written to the current file.
+     */
+    @GuardedBy("outputLock")
+    private CountingOutputStream written;
+
+    @GuardedBy("outputLock")
+    private DataOutputStream index;
+
+    @GuardedBy("outputLock")
+    private long lastIndexedOffset, lastIndexedMillis;
+
     @GuardedBy("outputLock")
     private File logDirectry;
 
@@ -116,7 +135,9 @@ public class SupportLogHandler extends Handler {
                     if (writer != null) {
                         try {
                             fileCount++;
-                            writer.write(getFormatter().format(record));
+                            String text = getFormatter().format(record);
+                            index(record.getMillis());
+                            writer.write(text);
                             flush();
                         } catch (IOException e) {
                             // ignore
@@ -129,6 +150,35 @@ public class SupportLogHandler extends Handler {
         }
     }
 
+    /**
+     * Adds an entry to the index for the line about to be written, at the start of the file and then every
+     * {@link TimeWindow#BLOCK_SIZE} bytes. The time of the entry is the latest time written so far, as records are not
+     * always published in order.
+     */
+    private void index(long millis) {
+        outputLock.lock();
+        try {
+            lastIndexedMillis = Math.max(lastIndexedMillis, millis);
+            if (index == null || written == null) {
+                return;
+            }
+            long offset = written.getByteCount();
+            if (offset == 0 || offset - lastIndexedOffset >= TimeWindow.BLOCK_SIZE) {
+                try {
+                    index.writeLong(lastIndexedMillis);
+                    index.writeLong(offset);
+                    lastIndexedOffset = offset;
+                } catch (IOException e) {
+                    // the index is optional, lines are then looked for in the file itself
+                    StreamUtils.closeQuietly(index);
+                    index = null;
+                }
+            }
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
     @SuppressFBWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE", justification = "Best effort")
     private void rollOver() {
         outputLock.lock();
@@ -149,6 +199,7 @@ public class SupportLogHandler extends Handler {
                     });
                     for (int i = 0; i < files.length - maxFiles; i++) {
                         files[i].delete();
+                        TimeWindow.getIndexFile(files[i]).delete();
                     }
                 }
             }
@@ -170,6 +221,13 @@ public class SupportLogHandler extends Handler {
                     // ignore
                 }
             }
+            if (index != null) {
+                try {
+                    index.flush();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
         } finally {
             outputLock.unlock();
         }
@@ -183,6 +241,11 @@ public class SupportLogHandler extends Handler {
                 StreamUtils.closeQuietly(writer);
                 writer = null;
             }
+            if (index != null) {
+                StreamUtils.closeQuietly(index);
+                index = null;
+            }
+            written = null;
         } finally {
             outputLock.unlock();
         }
@@ -225,8 +288,13 @@ public class SupportLogHandler extends Handler {
     private void setFile(File file) throws FileNotFoundException {
         outputLock.lock();
         try {
+            if (index != null) {
+                StreamUtils.closeQuietly(index);
+                index = null;
+            }
             if (file == null) {
                 setWriter(null);
+                written = null;
                 return;
             }
             final File parentFile = file.getParentFile();
@@ -241,10 +309,13 @@ public class SupportLogHandler extends Handler {
             OutputStreamWriter writer = null;
             try {
                 fos = new FileOutputStream(file);
-                bos = new BufferedOutputStream(fos);
+                CountingOutputStream cos = new CountingOutputStream(fos);
+                bos = new BufferedOutputStream(cos);
                 writer = new OutputStreamWriter(bos, StandardCharsets.UTF_8);
                 setWriter(writer);
+                written = cos;
                 fileCount = 0;
+                lastIndexedOffset = 0;
                 success = true;
             } finally {
                 if (!success) {
@@ -253,6 +324,12 @@ public class SupportLogHandler extends Handler {
                     StreamUtils.closeQuietly(fos);
                 }
             }
+            try {
+                index = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(TimeWindow.getIndexFile(file))));
+            } catch (FileNotFoundException e) {
+                // the index is optional
+            }
         } finally {
             outputLock.unlock();
         }
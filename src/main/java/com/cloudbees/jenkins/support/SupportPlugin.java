@@ -32,6 +32,7 @@ import com.cloudbees.jenkins.support.api.Container;
 import com.cloudbees.jenkins.support.api.Content;
 import com.cloudbees.jenkins.support.api.SupportProvider;
 import com.cloudbees.jenkins.support.api.SupportProviderDescriptor;
+import com.cloudbees.jenkins.support.api.TimeWindow;
 import com.cloudbees.jenkins.support.api.UnfilteredStringContent;
 import com.cloudbees.jenkins.support.config.SupportAutomatedBundleConfiguration;
 import com.cloudbees.jenkins.support.filter.ContentFilter;
@@ -42,6 +43,7 @@ import com.cloudbees.jenkins.support.util.CallAsyncWrapper;
 import com.cloudbees.jenkins.support.util.IgnoreCloseOutputStream;
 import com.cloudbees.jenkins.support.util.OutputStreamSelector;
 import com.codahale.metrics.Histogram;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.BulkChange;
@@ -70,6 +72,7 @@ import hudson.security.PermissionScope;
 import hudson.slaves.ComputerListener;
 import hudson.triggers.SafeTimerTask;
 import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -357,17 +360,32 @@ public class SupportPlugin extends Plugin {
      */
     public static void writeBundle(OutputStream outputStream, final List<? extends Component> components)
             throws IOException {
+        writeBundle(outputStream, components, (TimeWindow) null);
+    }
+
+    /**
+     * Generate a bundle for the specified components, with the logs restricted to a range of time.
+     *
+     * @param outputStream an {@link OutputStream}
+     * @param components a list of {@link Component} to include in the bundle
+     * @param timeWindow the range of time of the logs to include, or null to include them in full
+     * @throws IOException if an error occurs while generating the bundle.
+     */
+    public static void writeBundle(
+            OutputStream outputStream, final List<? extends Component> components, @CheckForNull TimeWindow timeWindow)
+            throws IOException {
         writeBundle(
                 outputStream,
                 components,
                 new ComponentVisitor() {
                     @Override
                     public <T extends Component> void visit(Container container, T component) {
-                        component.addContents(container);
+                        ComponentContentCache.addContents(container, component);
                     }
                 },
                 null,
-                true);
+                true,
+                timeWindow);
     }
 
     /**
@@ -379,7 +397,10 @@ public class SupportPlugin extends Plugin {
      * @param components a list of synchronous {@link Component} to include in the bundle
      * @throws IOException if an error occurs while generating the bundle.
      */
-    static void writeBundleForSyncComponents(OutputStream outputStream, final List<? extends Component> components)
+    static void writeBundleForSyncComponents(
+            OutputStream outputStream,
+            final List<? extends Component> components,
+            @CheckForNull TimeWindow timeWindow)
             throws IOException {
         writeBundle(
                 outputStream,
@@ -387,11 +408,12 @@ public class SupportPlugin extends Plugin {
                 new ComponentVisitor() {
                     @Override
                     public <T extends Component> void visit(Container container, T component) {
-                        component.addContents(container);
+                        ComponentContentCache.addContents(container, component);
                     }
                 },
                 null,
-                false);
+                false,
+                timeWindow);
     }
 
     /**
@@ -400,13 +422,15 @@ public class SupportPlugin extends Plugin {
      * @param components a list of {@link Component} to include in the bundle
      * @param progressCallback a callback to report progress back to the UI see ProgressiveRendering.progress
      * @param outputPath the path with the support bundle will be created in the cases of async generations
+     * @param timeWindow the range of time of the logs to include, or null to include them in full
      * @throws IOException if an error occurs while generating the bundle.
      */
     static void writeBundle(
             OutputStream outputStream,
             final List<? extends Component> components,
             DoubleConsumer progressCallback,
-            Path outputPath)
+            Path outputPath,
+            @CheckForNull TimeWindow timeWindow)
             throws IOException {
         writeBundle(
                 outputStream,
@@ -418,13 +442,14 @@ public class SupportPlugin extends Plugin {
                     @Override
                     public <T extends Component> void visit(Container container, T component) {
                         if (component.canBeGeneratedAsync()) {
-                            component.addContents(container);
+                            ComponentContentCache.addContents(container, component);
                         }
                         progressCallback.accept((currentIteration++) / (double) totalComponents);
                     }
                 },
                 outputPath,
-                true);
+                true,
+                timeWindow);
     }
 
     /**
@@ -444,25 +469,51 @@ public class SupportPlugin extends Plugin {
             Path outputPath,
             boolean addManifest)
             throws IOException {
+        writeBundle(outputStream, components, componentConsumer, outputPath, addManifest, null);
+    }
+
+    /**
+     * Generate a bundle for all components that are selected in the Global Configuration.
+     *
+     * @param outputStream an {@link OutputStream}
+     * @param components a list of {@link Component} to include in the bundle
+     * @param componentConsumer a {@link ComponentVisitor}
+     * @param outputPath the path with the support bundle will be created in the cases of async generations
+     *                   set this to null, if generating support bundle synchronously
+     * @param timeWindow the range of time of the logs to include, or null to include them in full
+     * @throws IOException if an error occurs while generating the bundle.
+     */
+    public static void writeBundle(
+            OutputStream outputStream,
+            final List<? extends Component> components,
+            ComponentVisitor componentConsumer,
+            Path outputPath,
+            boolean addManifest,
+            @CheckForNull TimeWindow timeWindow)
+            throws IOException {
         StringBuilder manifest = new StringBuilder();
         StringWriter errors = new StringWriter();
         PrintWriter errorWriter = new PrintWriter(errors);
+        BundleTelemetry telemetry = new BundleTelemetry();
+        boolean completed = false;
 
         try {
-            try (BulkChange change = new BulkChange(ContentFilter.bulkChangeTarget());
-                    CountingOutputStream countingOs = new CountingOutputStream(outputStream);
+            try (BundleTelemetry.Scope ignored = BundleTelemetry.attribute(telemetry);
+                    BulkChange change = new BulkChange(ContentFilter.bulkChangeTarget());
+                    CountingOutputStream countingOs = new CountingOutputStream(telemetry.timed(outputStream));
                     ZipOutputStream binaryOut = new ZipOutputStream(new BufferedOutputStream(countingOs, 16384))) {
-                ContentFilter filter = getDefaultContentFilter(true);
+                ContentFilter filter = telemetry.timed(getDefaultContentFilter(true));
 
                 // Generate the content of the manifest.md going through all the components which will be included. It
                 // also returns the contents to include. We pass a filter to filter the names written in the manifest
-                appendManifestHeader(manifest);
+                appendManifestHeader(manifest, timeWindow);
                 long startTime = System.currentTimeMillis();
-                List<Content> contents =
-                        appendManifestContents(manifest, errorWriter, components, componentConsumer, filter);
+                List<Content> contents = appendManifestContents(
+                        manifest, errorWriter, components, componentConsumer, filter, timeWindow, telemetry);
                 LOGGER.log(
                         Level.FINE,
                         "Took " + (System.currentTimeMillis() - startTime) + "ms to process all components");
+                telemetry.componentsDone(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - startTime));
                 if (addManifest) {
                     contents.add(new UnfilteredStringContent("manifest.md", manifest.toString()));
                 }
@@ -474,50 +525,67 @@ public class SupportPlugin extends Plugin {
                 boolean entryCreated = false;
                 startTime = System.currentTimeMillis();
                 long startSize = countingOs.getByteCount();
-                for (Content content : contents) {
-                    if (content == null) {
-                        continue;
-                    }
-                    LOGGER.log(Level.FINE, "Start writing support content " + content.getClass());
-                    long contentStartTime = System.currentTimeMillis();
-                    long contentStartSize = countingOs.getByteCount();
-                    final String name = getNameFiltered(filter, content.getName(), content.getFilterableParameters());
-
-                    try {
-                        final ZipEntry entry = new ZipEntry(name);
-                        entry.setTime(content.getTime());
-                        binaryOut.putNextEntry(entry);
-                        entryCreated = true;
-                        binaryOut.flush();
-                        OutputStream out = content.shouldBeFiltered() ? filteredOut : unfilteredOut;
-                        if (content instanceof PrefilteredContent) {
-                            ((PrefilteredContent) content).writeTo(out, filter);
-                        } else {
-                            content.writeTo(out);
+                try (ContentPrefetcher prefetcher = new ContentPrefetcher(contents, filter)) {
+                    for (int i = 0; i < contents.size(); i++) {
+                        Content content = contents.get(i);
+                        if (content == null) {
+                            continue;
                         }
-                        out.flush();
-                    } catch (Throwable e) {
-                        String msg = "Could not attach ''" + name + "'' to support bundle";
-                        logger.log(e instanceof ChannelClosedException ? Level.FINE : Level.WARNING, msg, e);
-                        errorWriter.println(msg);
-                        errorWriter.println("-----------------------------------------------------------------------");
-                        errorWriter.println();
-                        Functions.printStackTrace(e, errorWriter);
-                        errorWriter.println();
-                    } finally {
-                        textOut.reset();
-                        selector.reset();
-                        if (entryCreated) {
-                            binaryOut.closeEntry();
-                            entryCreated = false;
+                        LOGGER.log(Level.FINE, "Start writing support content " + content.getClass());
+                        long contentStartTime = System.currentTimeMillis();
+                        long contentStartNanos = System.nanoTime();
+                        long contentStartSize = countingOs.getByteCount();
+                        boolean failed = false;
+                        final String name =
+                                getNameFiltered(filter, content.getName(), content.getFilterableParameters());
+
+                        try {
+                            final ZipEntry entry = new ZipEntry(name);
+                            entry.setTime(content.getTime());
+                            binaryOut.putNextEntry(entry);
+                            entryCreated = true;
+                            binaryOut.flush();
+                            OutputStream out = content.shouldBeFiltered() ? filteredOut : unfilteredOut;
+                            if (!prefetcher.writeTo(i, out)) {
+                                if (content instanceof PrefilteredContent) {
+                                    ((PrefilteredContent) content).writeTo(out, filter);
+                                } else {
+                                    content.writeTo(out);
+                                }
+                            }
+                            out.flush();
+                        } catch (Throwable e) {
+                            failed = true;
+                            String msg = "Could not attach ''" + name + "'' to support bundle";
+                            logger.log(e instanceof ChannelClosedException ? Level.FINE : Level.WARNING, msg, e);
+                            errorWriter.println(msg);
+                            errorWriter.println(
+                                    "-----------------------------------------------------------------------");
+                            errorWriter.println();
+                            Functions.printStackTrace(e, errorWriter);
+                            errorWriter.println();
+                        } finally {
+                            textOut.reset();
+                            selector.reset();
+                            if (entryCreated) {
+                                binaryOut.closeEntry();
+                                entryCreated = false;
+                            }
+                            LOGGER.log(
+                                    Level.FINE,
+                                    "Took " + (System.currentTimeMillis() - contentStartTime) + "ms" + " and generated "
+                                            + (countingOs.getByteCount() - contentStartSize) + " bytes"
+                                            + " to write content "
+                                            + name);
+                            telemetry.entry(
+                                    name,
+                                    System.nanoTime() - contentStartNanos,
+                                    countingOs.getByteCount() - contentStartSize,
+                                    failed);
                         }
-                        LOGGER.log(
-                                Level.FINE,
-                                "Took " + (System.currentTimeMillis() - contentStartTime) + "ms" + " and generated "
-                                        + (countingOs.getByteCount() - contentStartSize) + " bytes"
-                                        + " to write content "
-                                        + name);
                     }
+                } finally {
+                    close(contents);
                 }
 
                 // process for async components
@@ -544,6 +612,23 @@ public class SupportPlugin extends Plugin {
                         Level.FINE,
                         "Took " + (System.currentTimeMillis() - startTime) + "ms" + " and generated "
                                 + (countingOs.getByteCount() - startSize) + " bytes" + " to process all contents");
+                telemetry.contentsDone(
+                        TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - startTime),
+                        countingOs.getByteCount() - startSize);
+                if (addManifest) {
+                    try {
+                        binaryOut.putNextEntry(new ZipEntry("manifest/timings.json"));
+                        entryCreated = true;
+                        telemetry.writeTo(unfilteredOut);
+                    } catch (IOException e) {
+                        logger.log(Level.WARNING, "Could not write manifest/timings.json to zip archive", e);
+                    } finally {
+                        if (entryCreated) {
+                            binaryOut.closeEntry();
+                            entryCreated = false;
+                        }
+                    }
+                }
                 errorWriter.close();
                 String errorContent = errors.toString();
                 if (errorContent != null && !errorContent.isBlank()) {
@@ -563,11 +648,28 @@ public class SupportPlugin extends Plugin {
                 binaryOut.flush();
                 change.commit();
             }
+            completed = true;
         } finally {
+            telemetry.publish(completed);
             outputStream.flush();
         }
     }
 
+    /**
+     * Closes the contents implementing {@link Closeable} once the bundle is written.
+     */
+    private static void close(List<Content> contents) {
+        for (Content content : contents) {
+            if (content instanceof Closeable) {
+                try {
+                    ((Closeable) content).close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Could not close " + content.getName(), e);
+                }
+            }
+        }
+    }
+
     /**
      * Filter the name of a content depending on the filterableParameters in the name that need to be replaced.
      * @param contentFilter an Optional with a {@link ContentFilter} or not
@@ -657,7 +759,7 @@ public class SupportPlugin extends Plugin {
         return ContentFilter.NONE;
     }
 
-    private static void appendManifestHeader(StringBuilder manifest) {
+    private static void appendManifestHeader(StringBuilder manifest, @CheckForNull TimeWindow timeWindow) {
         SupportPlugin plugin = SupportPlugin.getInstance();
         SupportProvider supportProvider = plugin == null ? null : plugin.getSupportProvider();
         String bundleName =
@@ -669,6 +771,13 @@ public class SupportPlugin extends Plugin {
         SimpleDateFormat f = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSZ");
         f.setTimeZone(TimeZone.getTimeZone("UTC"));
         manifest.append("Generated on ").append(f.format(new Date())).append("\n\n");
+        if (timeWindow != null) {
+            manifest.append("Logs restricted to ")
+                    .append(f.format(new Date(timeWindow.getFrom())))
+                    .append(" to ")
+                    .append(f.format(new Date(timeWindow.getTo())))
+                    .append("\n\n");
+        }
     }
 
     /**
@@ -680,6 +789,7 @@ public class SupportPlugin extends Plugin {
      * @param components components to add their contents to the bundle
      * @param componentVisitor visitor to be used when walking through components
      * @param contentFilter filter to be used when writing the content names
+     * @param timeWindow the range of time of the logs to include, if any
      * @return the list of contents whose names has been added to the manifest and their content will be added to the
      * bundle.
      */
@@ -688,10 +798,12 @@ public class SupportPlugin extends Plugin {
             PrintWriter errors,
             List<? extends Component> components,
             ComponentVisitor componentVisitor,
-            ContentFilter contentFilter) {
+            ContentFilter contentFilter,
+            @CheckForNull TimeWindow timeWindow,
+            BundleTelemetry telemetry) {
 
         manifest.append("Requested components:\n\n");
-        ContentContainer contentsContainer = new ContentContainer(contentFilter, components);
+        ContentContainer contentsContainer = new ContentContainer(contentFilter, components, timeWindow);
         for (Component component : components) {
             try {
                 if (components.stream().anyMatch(c -> c.supersedes(component))) {
@@ -701,7 +813,14 @@ public class SupportPlugin extends Plugin {
                 manifest.append("  * ").append(component.getDisplayName()).append("\n\n");
                 LOGGER.log(Level.FINE, "Start processing " + component.getDisplayName());
                 long startTime = System.currentTimeMillis();
-                componentVisitor.visit(contentsContainer, component);
+                long startNanos = System.nanoTime();
+                try {
+                    componentVisitor.visit(contentsContainer, component);
+                } catch (Throwable e) {
+                    telemetry.component(component, System.nanoTime() - startNanos, true);
+                    throw e;
+                }
+                telemetry.component(component, System.nanoTime() - startNanos, false);
                 LOGGER.log(
                         Level.FINE,
                         "Took " + (System.currentTimeMillis() - startTime) + "ms" + " to process component "
@@ -739,13 +858,20 @@ public class SupportPlugin extends Plugin {
 
         private final List<? extends Component> components;
 
+        @CheckForNull
+        private final TimeWindow timeWindow;
+
         /**
          * We need the filter to be able to filter the contents written to the manifest
          * @param contentFilter filter to use when writing the name of the contents
          */
-        ContentContainer(ContentFilter contentFilter, List<? extends Component> components) {
+        ContentContainer(
+                ContentFilter contentFilter,
+                List<? extends Component> components,
+                @CheckForNull TimeWindow timeWindow) {
             this.contentFilter = contentFilter;
             this.components = components;
+            this.timeWindow = timeWindow;
         }
 
         @Override
@@ -764,6 +890,11 @@ public class SupportPlugin extends Plugin {
             return components;
         }
 
+        @Override
+        public TimeWindow getTimeWindow() {
+            return timeWindow;
+        }
+
         synchronized Set<String> getLatestNames() {
             Set<String> copy = new TreeSet<>(names);
             names.clear();
@@ -1,5 +1,6 @@
 package com.cloudbees.jenkins.support.actions;
 
+import com.cloudbees.jenkins.support.BundleCache;
 import com.cloudbees.jenkins.support.BundleFileName;
 import com.cloudbees.jenkins.support.SupportPlugin;
 import com.cloudbees.jenkins.support.api.Component;
@@ -13,6 +14,7 @@ import hudson.model.AbstractModelObject;
 import hudson.model.Action;
 import hudson.model.Descriptor;
 import hudson.model.Saveable;
+import hudson.security.AccessControlled;
 import hudson.util.DescribableList;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletResponse;
@@ -137,17 +139,28 @@ public abstract class SupportObjectAction<T extends AbstractModelObject> impleme
                 "Content-Disposition", "inline; filename=" + BundleFileName.generate(getBundleNameQualifier()) + ";");
 
         try {
-            SupportPlugin.writeBundle(
-                    rsp.getOutputStream(),
-                    components,
-                    new ComponentVisitor() {
-                        @Override
-                        public <C extends Component> void visit(Container container, C component) {
-                            ((ObjectComponent<T>) component).addContents(container, object);
-                        }
-                    },
-                    null,
-                    true);
+            // the URL identifies the object, and the submitted form the options of its components
+            BundleCache.get()
+                    .write(
+                            BundleCache.key(
+                                    req.getRequestURI(),
+                                    object instanceof AccessControlled ? (AccessControlled) object : Jenkins.get(),
+                                    components,
+                                    json.getJSONObject("components").toString()),
+                            json.optBoolean("noCache"),
+                            rsp.getOutputStream(),
+                            age -> rsp.addHeader(BundleCache.AGE_HEADER, String.valueOf(age)),
+                            out -> SupportPlugin.writeBundle(
+                                    out,
+                                    components,
+                                    new ComponentVisitor() {
+                                        @Override
+                                        public <C extends Component> void visit(Container container, C component) {
+                                            ((ObjectComponent<T>) component).addContents(container, object);
+                                        }
+                                    },
+                                    null,
+                                    true));
             LOGGER.fine("Response completed");
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, e.getMessage(), e);
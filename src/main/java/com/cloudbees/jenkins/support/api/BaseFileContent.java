@@ -40,6 +40,7 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 import org.apache.commons.io.IOUtils;
@@ -65,7 +66,11 @@ final class BaseFileContent {
     private final Function<String, String> secretsFilterFunction;
 
     private final long maxSize;
-    private final boolean isBinary;
+
+    /**
+     * Whether the file is binary, probed when first filtered rather than for every file added to a bundle.
+     */
+    private Boolean isBinary;
 
     private static final String ENCODING = "UTF-8";
 
@@ -78,7 +83,6 @@ final class BaseFileContent {
         this.inputStreamSupplier = inputStreamSupplier;
         this.secretsFilterFunction = secretsFilterFunction;
         this.maxSize = maxSize;
-        this.isBinary = isBinary();
     }
 
     void writeTo(OutputStream os) throws IOException {
@@ -106,27 +110,31 @@ final class BaseFileContent {
     }
 
     void writeTo(OutputStream os, @NonNull ContentFilter filter) throws IOException {
-        if (isBinary || filter == ContentFilter.NONE) {
+        if (filter == ContentFilter.NONE) {
+            writeTo(os);
+            return;
+        }
+        if (isBinary == null) {
+            isBinary = isBinary();
+        }
+        if (isBinary) {
             writeTo(os);
             return;
         }
 
-        try (InputStream is = inputStreamSupplier.get()) {
-            if (maxSize == -1) {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, ENCODING))) {
-                    String s;
-                    while ((s = reader.readLine()) != null) {
-                        String filtered = ContentFilter.filter(filter, secretsFilterFunction.apply(s)) + "\n";
-                        IOUtils.write(filtered, os, ENCODING);
-                    }
-                }
+        UnaryOperator<String> lineFilter = s -> ContentFilter.filter(filter, secretsFilterFunction.apply(s));
+        try (InputStream is = inputStreamSupplier.get();
+                BufferedReader reader = maxSize == -1
+                        ? new BufferedReader(new InputStreamReader(is, ENCODING))
+                        : new TruncatedInputStreamReader(is, maxSize)) {
+            long size = maxSize == -1 ? file.length() : Math.min(file.length(), maxSize);
+            if (filter.isThreadSafe() && ParallelLineFilter.isWorthIt(size)) {
+                // the lines are filtered independently of each other
+                ParallelLineFilter.filter(reader, lineFilter, os);
             } else {
-                try (TruncatedInputStreamReader reader = new TruncatedInputStreamReader(is, maxSize)) {
-                    String s;
-                    while ((s = reader.readLine()) != null) {
-                        String filtered = ContentFilter.filter(filter, secretsFilterFunction.apply(s)) + "\n";
-                        IOUtils.write(filtered, os, ENCODING);
-                    }
+                String s;
+                while ((s = reader.readLine()) != null) {
+                    IOUtils.write(lineFilter.apply(s) + "\n", os, ENCODING);
                 }
             }
         } catch (FileNotFoundException | NoSuchFileException e) { // TODO FilePathContent.isFileNotFound?
@@ -160,13 +168,13 @@ final class BaseFileContent {
             }
 
             byte[] b = new byte[(size < StreamUtils.DEFAULT_PROBE_SIZE ? (int) size : StreamUtils.DEFAULT_PROBE_SIZE)];
-            int read = in.read(b);
-            if (read != b.length) {
-                // Something went wrong, so better not to read line by line
+            int read = IOUtils.read(in, b);
+            if (read == 0) {
+                // Nothing to read, as when only a part of the file is read, so no need to check
                 return true;
             }
 
-            return StreamUtils.isNonWhitespaceControlCharacter(b);
+            return StreamUtils.isNonWhitespaceControlCharacter(read == b.length ? b : Arrays.copyOf(b, read));
         } catch (IOException e) {
             // If cannot be checked, then considered as binary, so we do not
             // read line by line
@@ -25,6 +25,7 @@
 package com.cloudbees.jenkins.support.api;
 
 import com.cloudbees.jenkins.support.Messages;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.ExtensionPoint;
 import hudson.model.AbstractModelObject;
@@ -137,6 +138,20 @@ public abstract class Component implements ExtensionPoint {
      */
     public abstract void addContents(@NonNull Container container);
 
+    /**
+     * Returns a key changing whenever the contents of this component would, such as the state of the plugin manager
+     * or the modification time of a configuration file. The contents are then added to the next bundles rather than
+     * asked to this component again, as long as the key is unchanged. They must not depend on anything else than the
+     * key, the user and the other components of the bundle, including the {@link Container#getTimeWindow()}.
+     *
+     * @return the key, or {@code null} by default to ask this component for its contents in every bundle.
+     * @since TODO
+     */
+    @CheckForNull
+    public String getContentCacheKey() {
+        return null;
+    }
+
     /**
      * Returns the component id.
      *
@@ -46,4 +46,14 @@ public abstract class Container {
     public List<? extends Component> getComponents() {
         return null;
     }
+
+    /**
+     * The range of time the logs included in this bundle are restricted to, if any.
+     * @return the time window, if any; null to include the logs in full
+     * @see SupportPlugin#writeBundle(OutputStream, List, TimeWindow)
+     */
+    @CheckForNull
+    public TimeWindow getTimeWindow() {
+        return null;
+    }
 }
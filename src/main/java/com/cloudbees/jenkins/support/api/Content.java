@@ -33,6 +33,10 @@ import java.util.Arrays;
 /**
  * Represents some content in a support bundle.
  *
+ * <p>
+ * A content also implementing {@link java.io.Closeable} is closed once the bundle is written, whether it could be
+ * written or not, to release what it holds such as temporary files.
+ *
  * @author Stephen Connolly
  */
 public abstract class Content {
@@ -26,6 +26,7 @@ package com.cloudbees.jenkins.support.api;
 
 import com.cloudbees.jenkins.support.filter.ContentFilter;
 import com.cloudbees.jenkins.support.filter.PrefilteredContent;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.File;
 import java.io.FileInputStream;
@@ -43,6 +44,9 @@ public class FileContent extends PrefilteredContent {
     protected BaseFileContent baseFileContent;
     // to keep compatibility
     protected final File file;
+    // only the lines written during this window are included, if any
+    @CheckForNull
+    private final TimeWindow timeWindow;
 
     public FileContent(String name, File file) {
         this(name, file, -1);
@@ -51,6 +55,7 @@ public class FileContent extends PrefilteredContent {
     public FileContent(String name, File file, long maxSize) {
         super(name);
         this.file = file;
+        this.timeWindow = null;
         baseFileContent = createBaseFileContent(file, maxSize);
     }
 
@@ -59,8 +64,18 @@ public class FileContent extends PrefilteredContent {
     }
 
     public FileContent(String name, String[] filterableParameters, File file, long maxSize) {
+        this(name, filterableParameters, file, maxSize, null);
+    }
+
+    /**
+     * @param timeWindow if not null, only the lines of the file written during this window are included.
+     * @see TimeWindow#open(File)
+     */
+    public FileContent(
+            String name, String[] filterableParameters, File file, long maxSize, @CheckForNull TimeWindow timeWindow) {
         super(name, filterableParameters);
         this.file = file;
+        this.timeWindow = timeWindow;
         baseFileContent = createBaseFileContent(file, maxSize);
     }
 
@@ -85,6 +100,9 @@ public class FileContent extends PrefilteredContent {
      * @throws IOException if something goes wrong while creating the stream for reading #file.
      */
     protected InputStream getInputStream() throws IOException {
+        if (timeWindow != null) {
+            return timeWindow.open(file);
+        }
         return new FileInputStream(file);
     }
 
@@ -3,8 +3,8 @@ package com.cloudbees.jenkins.support.api;
 import com.cloudbees.jenkins.support.filter.FilteredInputStream;
 import com.cloudbees.jenkins.support.filter.PasswordRedactor;
 import com.cloudbees.jenkins.support.impl.SlaveLaunchLogs;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
@@ -19,10 +19,15 @@ public class LaunchLogsFileContent extends FileContent {
         super(name, filterableParameters, file, maxSize);
     }
 
+    public LaunchLogsFileContent(
+            String name, String[] filterableParameters, File file, long maxSize, @CheckForNull TimeWindow timeWindow) {
+        super(name, filterableParameters, file, maxSize, timeWindow);
+    }
+
     @Override
     protected InputStream getInputStream() throws IOException {
         Function<String, String> filter = PasswordRedactor.get()::redact;
-        return new FilteredInputStream(new FileInputStream(file), Charset.defaultCharset(), filter);
+        return new FilteredInputStream(super.getInputStream(), Charset.defaultCharset(), filter);
     }
 
     @Override
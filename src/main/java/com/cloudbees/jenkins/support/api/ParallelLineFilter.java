@@ -0,0 +1,130 @@
+package com.cloudbees.jenkins.support.api;
+
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import com.cloudbees.jenkins.support.util.Futures;
+import hudson.BulkChange;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.UnaryOperator;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Filters the lines of a large text in blocks, on a pool of threads, and writes the filtered blocks in order.
+ *
+ * <p>
+ * The lines are read on the calling thread. At most twice {@link #PARALLELISM} blocks are filtered or waiting to be
+ * written at once. When the calling thread is in a {@link BulkChange} of the {@link ContentFilter#bulkChangeTarget()},
+ * the mappings created while filtering are left to it to save, as they would be if filtered on the calling thread.
+ */
+final class ParallelLineFilter {
+
+    /**
+     * How many blocks are filtered at once, {@code 1} to filter every text on the calling thread.
+     */
+    static int PARALLELISM = SystemProperties.getInteger(
+            ParallelLineFilter.class.getName() + ".PARALLELISM",
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * The size from which a text is filtered in blocks.
+     */
+    static long MIN_SIZE = SystemProperties.getLong(ParallelLineFilter.class.getName() + ".MIN_SIZE", 8L * 1024 * 1024);
+
+    /**
+     * The number of characters from which lines make a block.
+     */
+    static int BLOCK_SIZE = 256 * 1024;
+
+    private static volatile ForkJoinPool pool;
+
+    private ParallelLineFilter() {}
+
+    /**
+     * @param size the size of the text, in bytes.
+     * @return whether the text is large enough to be filtered in blocks.
+     */
+    static boolean isWorthIt(long size) {
+        return PARALLELISM > 1 && size >= MIN_SIZE;
+    }
+
+    private static ForkJoinPool pool() {
+        ForkJoinPool result = pool;
+        if (result == null) {
+            synchronized (ParallelLineFilter.class) {
+                result = pool;
+                if (result == null) {
+                    pool = result = new ForkJoinPool(PARALLELISM);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes each line followed by {@code \n} once filtered, in UTF-8.
+     *
+     * @param reader the lines to filter.
+     * @param filter the filter of a line, called from any thread.
+     * @param os where to write the filtered lines.
+     */
+    static void filter(BufferedReader reader, UnaryOperator<String> filter, OutputStream os) throws IOException {
+        Authentication authentication = Jenkins.getAuthentication2();
+        boolean bulkChange = BulkChange.contains(ContentFilter.bulkChangeTarget());
+        Deque<ForkJoinTask<byte[]>> blocks = new ArrayDeque<>();
+        try {
+            List<String> lines = new ArrayList<>();
+            int size = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                size += line.length() + 1;
+                if (size >= BLOCK_SIZE) {
+                    if (blocks.size() >= 2 * PARALLELISM) {
+                        os.write(Futures.get(blocks.removeFirst()));
+                    }
+                    blocks.add(submit(lines, size, filter, authentication, bulkChange));
+                    lines = new ArrayList<>();
+                    size = 0;
+                }
+            }
+            if (!lines.isEmpty()) {
+                blocks.add(submit(lines, size, filter, authentication, bulkChange));
+            }
+            while (!blocks.isEmpty()) {
+                os.write(Futures.get(blocks.removeFirst()));
+            }
+        } finally {
+            blocks.forEach(block -> block.cancel(false));
+        }
+    }
+
+    private static ForkJoinTask<byte[]> submit(
+            List<String> lines,
+            int size,
+            UnaryOperator<String> filter,
+            Authentication authentication,
+            boolean bulkChange) {
+        return pool().submit(() -> {
+            try (ACLContext ignored = ACL.as2(authentication);
+                    BulkChange change = bulkChange ? new BulkChange(ContentFilter.bulkChangeTarget()) : null) {
+                StringBuilder filtered = new StringBuilder(size);
+                for (String line : lines) {
+                    filtered.append(filter.apply(line)).append('\n');
+                }
+                return filtered.toString().getBytes(StandardCharsets.UTF_8);
+            }
+        });
+    }
+}
@@ -0,0 +1,452 @@
+package com.cloudbees.jenkins.support.api;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.LogRecord;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * A range of time a support bundle is restricted to, so that only the parts of the logs written during that range are
+ * included.
+ *
+ * <p>
+ * Log files are read from the first line written at or after {@link #getFrom()} up to the last line written at or
+ * before {@link #getTo()}. Those lines are found by seeking, either with the index kept next to the file (see
+ * {@link #getIndexFile(File)}) or with a binary search over the timestamps at the start of the lines, so that the
+ * parts of the file outside the window are never read.
+ *
+ * @see Container#getTimeWindow()
+ */
+public final class TimeWindow {
+
+    /**
+     * Size of the blocks where a line is looked for linearly, and the interval between two entries of an index.
+     */
+    @Restricted(NoExternalUse.class)
+    public static final int BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Maximum number of bytes at the start of a line where a timestamp is looked for.
+     */
+    private static final int TIMESTAMP_PROBE_SIZE = 64;
+
+    private static final String INDEX_EXTENSION = ".idx";
+
+    private final long from;
+    private final long to;
+
+    private TimeWindow(long from, long to) {
+        if (from > to) {
+            throw new IllegalArgumentException("The start of the window " + from + " is after its end " + to);
+        }
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * A window ending now.
+     *
+     * @param minutes the length of the window.
+     */
+    @NonNull
+    public static TimeWindow lastMinutes(long minutes) {
+        long now = System.currentTimeMillis();
+        return new TimeWindow(now - TimeUnit.MINUTES.toMillis(minutes), now);
+    }
+
+    /**
+     * A window between two instants, both included.
+     *
+     * @param from the start of the window, in milliseconds since the epoch.
+     * @param to the end of the window, in milliseconds since the epoch.
+     */
+    @NonNull
+    public static TimeWindow between(long from, long to) {
+        return new TimeWindow(from, to);
+    }
+
+    /**
+     * @return the start of the window, in milliseconds since the epoch.
+     */
+    public long getFrom() {
+        return from;
+    }
+
+    /**
+     * @return the end of the window, in milliseconds since the epoch.
+     */
+    public long getTo() {
+        return to;
+    }
+
+    public boolean contains(long millis) {
+        return millis >= from && millis <= to;
+    }
+
+    /**
+     * Whether a file may have been written during the window, based on its last modification.
+     */
+    public boolean mayContain(@NonNull File file) {
+        return file.lastModified() >= from;
+    }
+
+    /**
+     * Keeps the log records written during the window.
+     */
+    @NonNull
+    public List<LogRecord> filter(@NonNull Iterable<LogRecord> records) {
+        return StreamSupport.stream(records.spliterator(), false)
+                .filter(r -> contains(r.getMillis()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Opens the part of a log file written during the window. If the lines of the file do not start with a timestamp,
+     * the whole file is read.
+     *
+     * @param file the log file.
+     * @return the bytes of the lines written during the window.
+     * @throws IOException if the file cannot be read.
+     */
+    @NonNull
+    public InputStream open(@NonNull File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            long[] range = range(raf, readIndex(getIndexFile(file)));
+            return new RangeInputStream(raf, range[0], range[1]);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The file where the index of a log file is kept. The index is a sequence of pairs of longs, a timestamp in
+     * milliseconds since the epoch and the offset of a line in the log file, where the timestamp is the latest one of
+     * the lines before that offset, included. An entry is expected every {@link #BLOCK_SIZE} bytes or so.
+     */
+    @Restricted(NoExternalUse.class)
+    @NonNull
+    public static File getIndexFile(@NonNull File file) {
+        return new File(file.getParentFile(), file.getName() + INDEX_EXTENSION);
+    }
+
+    @Override
+    public String toString() {
+        return DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(from)) + " to "
+                + DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(to));
+    }
+
+    /**
+     * @return the start and the end of the range of bytes of the lines written during the window.
+     */
+    long[] range(RandomAccessFile raf, @CheckForNull long[] index) throws IOException {
+        Lines lines = new Lines(raf);
+        if (index == null && lines.firstTimestampFrom(0) == null) {
+            // not a file we know how to read
+            return new long[] {0, lines.length};
+        }
+        long start = lines.firstLineFrom(index, from);
+        long end = to == Long.MAX_VALUE ? lines.length : lines.firstLineFrom(index, to + 1);
+        return new long[] {start, Math.max(start, end)};
+    }
+
+    @CheckForNull
+    static long[] readIndex(File indexFile) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        List<Long> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            while (true) {
+                long timestamp = in.readLong();
+                long offset = in.readLong();
+                entries.add(timestamp);
+                entries.add(offset);
+            }
+        } catch (EOFException e) {
+            // end of the index, an incomplete entry being written is ignored
+        } catch (IOException e) {
+            return null;
+        }
+        if (entries.isEmpty()) {
+            return null;
+        }
+        return entries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Parses the timestamp at the start of a line, such as {@code 2024-05-02 10:00:00.123+0000} as written by the
+     * support log formatter, or {@code [2024-05-02T10:00:00.123Z]}. A timestamp without an offset is in the default
+     * time zone.
+     *
+     * @return the timestamp in milliseconds since the epoch, or {@code null} if the line does not start with one.
+     */
+    @CheckForNull
+    static Long parseTimestamp(byte[] b, int len) {
+        int i = len > 0 && b[0] == '[' ? 1 : 0;
+        if (len < i + 19
+                || b[i + 4] != '-'
+                || b[i + 7] != '-'
+                || (b[i + 10] != ' ' && b[i + 10] != 'T')
+                || b[i + 13] != ':'
+                || b[i + 16] != ':') {
+            return null;
+        }
+        int year = digits(b, len, i, 4);
+        int month = digits(b, len, i + 5, 2);
+        int day = digits(b, len, i + 8, 2);
+        int hour = digits(b, len, i + 11, 2);
+        int minute = digits(b, len, i + 14, 2);
+        int second = digits(b, len, i + 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        i += 19;
+        int millis = 0;
+        if (i < len && b[i] == '.') {
+            int scale = 100;
+            for (i++; i < len && b[i] >= '0' && b[i] <= '9'; i++) {
+                millis += (b[i] - '0') * scale;
+                scale /= 10;
+            }
+        }
+        ZoneOffset offset = null;
+        if (i < len && b[i] == 'Z') {
+            offset = ZoneOffset.UTC;
+        } else if (i < len && (b[i] == '+' || b[i] == '-')) {
+            int sign = b[i] == '-' ? -1 : 1;
+            int hours = digits(b, len, i + 1, 2);
+            int minutes = i + 3 < len && b[i + 3] == ':' ? digits(b, len, i + 4, 2) : digits(b, len, i + 3, 2);
+            if (hours >= 0 && hours <= 18 && minutes >= 0 && minutes <= 59) {
+                offset = ZoneOffset.ofTotalSeconds(sign * (hours * 3600 + minutes * 60));
+            }
+        }
+        try {
+            LocalDateTime time = LocalDateTime.of(year, month, day, hour, minute, second);
+            Instant instant = offset != null ? time.toInstant(offset) : time.atZone(ZoneId.systemDefault()).toInstant();
+            return instant.toEpochMilli() + millis;
+        } catch (DateTimeException e) {
+            // such as February 30th
+            return null;
+        }
+    }
+
+    private static int digits(byte[] b, int len, int start, int count) {
+        if (start + count > len) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            if (b[i] < '0' || b[i] > '9') {
+                return -1;
+            }
+            value = value * 10 + (b[i] - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Finds lines in a file through a buffer of one block.
+     */
+    private static final class Lines {
+        private final RandomAccessFile raf;
+        private final long length;
+        private final byte[] buffer = new byte[8192];
+        private final byte[] probe = new byte[TIMESTAMP_PROBE_SIZE];
+        private long bufferStart;
+        private int bufferLength;
+
+        Lines(RandomAccessFile raf) throws IOException {
+            this.raf = raf;
+            this.length = raf.length();
+        }
+
+        private int byteAt(long position) throws IOException {
+            if (position < bufferStart || position >= bufferStart + bufferLength) {
+                raf.seek(position);
+                bufferStart = position;
+                bufferLength = Math.max(0, raf.read(buffer));
+                if (bufferLength == 0) {
+                    return -1;
+                }
+            }
+            return buffer[(int) (position - bufferStart)];
+        }
+
+        /**
+         * @return the offset of the line following the one at the given position.
+         */
+        long nextLine(long position) throws IOException {
+            while (position < length) {
+                int b = byteAt(position++);
+                if (b == '\n' || b == -1) {
+                    break;
+                }
+            }
+            return Math.min(position, length);
+        }
+
+        @CheckForNull
+        Long timestampAt(long lineStart) throws IOException {
+            int len = 0;
+            while (len < probe.length && lineStart + len < length) {
+                int b = byteAt(lineStart + len);
+                if (b == '\n' || b == -1) {
+                    break;
+                }
+                probe[len++] = (byte) b;
+            }
+            return parseTimestamp(probe, len);
+        }
+
+        /**
+         * @return the timestamp and the offset of the first line with a timestamp in the block starting at the given
+         *     line, if any.
+         */
+        @CheckForNull
+        long[] firstTimestampFrom(long lineStart) throws IOException {
+            long limit = lineStart + BLOCK_SIZE;
+            for (long line = lineStart; line < length && line < limit; line = nextLine(line)) {
+                Long timestamp = timestampAt(line);
+                if (timestamp != null) {
+                    return new long[] {timestamp, line};
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the offset of the first line written at or after the given time, or the length of the file.
+         */
+        long firstLineFrom(@CheckForNull long[] index, long time) throws IOException {
+            long line = index != null ? fromIndex(index, time) : binarySearch(time);
+            // linear search in the last block, lines without timestamp belong to the previous line
+            for (; line < length; line = nextLine(line)) {
+                Long timestamp = timestampAt(line);
+                if (timestamp != null && timestamp >= time) {
+                    return line;
+                }
+            }
+            return length;
+        }
+
+        /**
+         * @return the offset of the last entry of the index before the given time, as all the lines before it were
+         *     written before it.
+         */
+        private long fromIndex(long[] index, long time) {
+            int low = 0;
+            int high = index.length / 2 - 1;
+            long result = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (index[2 * mid] < time) {
+                    result = index[2 * mid + 1];
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return Math.min(result, length);
+        }
+
+        /**
+         * @return the offset of a line written before the given time, less than a block before the first line written
+         *     at or after it.
+         */
+        private long binarySearch(long time) throws IOException {
+            long low = 0;
+            long high = length;
+            while (high - low > BLOCK_SIZE) {
+                long mid = (low + high) >>> 1;
+                long line = nextLine(mid);
+                long[] found = firstTimestampFrom(line);
+                if (found == null || found[0] >= time) {
+                    high = mid;
+                } else {
+                    low = found[1];
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Reads a range of a file.
+     */
+    private static final class RangeInputStream extends InputStream {
+        private final RandomAccessFile raf;
+        private long remaining;
+
+        RangeInputStream(RandomAccessFile raf, long start, long end) throws IOException {
+            this.raf = raf;
+            this.remaining = end - start;
+            raf.seek(start);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = raf.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = raf.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = raf.skipBytes((int) Math.min(Math.min(n, remaining), Integer.MAX_VALUE));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            raf.close();
+        }
+    }
+}
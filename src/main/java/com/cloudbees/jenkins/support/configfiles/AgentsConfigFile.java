@@ -99,7 +99,10 @@ public class AgentsConfigFile extends ObjectComponent<Computer> {
         File agentDir = new File(Jenkins.get().getRootDir(), MessageFormat.format("nodes/{0}", item.getName()));
         File config = new File(agentDir, "config.xml");
         container.add(new XmlRedactedSecretFileContent(
-                "nodes/slave/{0}/config.xml", new String[] {agentDir.getName()}, config));
+                "nodes/slave/{0}/config.xml",
+                new String[] {agentDir.getName()},
+                config,
+                SecretHandler.getSecretCache(container)));
     }
 
     @Override
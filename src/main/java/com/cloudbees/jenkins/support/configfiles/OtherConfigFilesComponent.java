@@ -70,7 +70,9 @@ public class OtherConfigFilesComponent extends Component {
                     if (configFile.exists()) {
                         container.add(new XmlRedactedSecretFileContent(
                                 "jenkins-root-configuration-files/{0}",
-                                new String[] {configFile.getName()}, configFile));
+                                new String[] {configFile.getName()},
+                                configFile,
+                                SecretHandler.getSecretCache(container)));
                     }
                 }
             } else {
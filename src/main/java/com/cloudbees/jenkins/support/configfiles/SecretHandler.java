@@ -1,18 +1,33 @@
 package com.cloudbees.jenkins.support.configfiles;
 
+import com.cloudbees.jenkins.support.api.Container;
 import com.cloudbees.jenkins.support.filter.PasswordRedactor;
 import com.cloudbees.plugins.credentials.SecretBytes;
 import hudson.util.Secret;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringReader;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -53,6 +68,118 @@ class SecretHandler {
     private static boolean ENABLE_FALLBACK =
             SystemProperties.getBoolean("support-core-plugin.SecretHandler.ENABLE_FALLBACK", true);
 
+    /**
+     * Maximum number of values remembered by a cache of {@link #getSecretCache(Container)}.
+     */
+    private static final int MAX_CACHED_SECRETS = 10_000;
+
+    /**
+     * Length of the longest value remembered by a cache of {@link #getSecretCache(Container)}, the longer secrets, such
+     * as files, being decrypted each time.
+     */
+    private static final int MAX_CACHED_LENGTH = 1024;
+
+    /**
+     * Property of the reader of the JDK to report CDATA sections instead of text, so that they are kept as such.
+     */
+    private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    /**
+     * Whether values are secrets, for each bundle being generated.
+     */
+    private static final Map<Container, Map<String, Boolean>> SECRET_CACHES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The same secrets usually appear in many files, such as the configuration of the agents, and decrypting them is
+     * costly.
+     *
+     * @param container the bundle being generated.
+     * @return whether values are secrets, remembered while the bundle is generated.
+     */
+    static Map<String, Boolean> getSecretCache(Container container) {
+        return SECRET_CACHES.computeIfAbsent(container, c -> new ConcurrentHashMap<>());
+    }
+
+    private static boolean isSecret(String value, Map<String, Boolean> secretCache) {
+        if (!looksEncrypted(value)) {
+            return false;
+        }
+        Boolean secret = secretCache.get(value);
+        if (secret == null) {
+            secret = Secret.decrypt(value) != null || SecretBytes.isSecretBytes(value);
+            if (value.length() <= MAX_CACHED_LENGTH && secretCache.size() < MAX_CACHED_SECRETS) {
+                secretCache.put(value, secret);
+            }
+        }
+        return secret;
+    }
+
+    /**
+     * Whether a value looks like what {@link Secret} and {@link SecretBytes} write, base64 between braces, or base64 of
+     * whole AES blocks for the secrets written by older versions of Jenkins.
+     */
+    static boolean looksEncrypted(String value) {
+        int start = 0;
+        int end = value.length();
+        boolean braces = end >= 2 && value.charAt(0) == '{' && value.charAt(end - 1) == '}';
+        if (braces) {
+            start++;
+            end--;
+        }
+        int length = end - start;
+        if (length == 0 || length % 4 != 0) {
+            return false;
+        }
+        int padding = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '=' && i >= end - 2) {
+                padding++;
+            } else if (padding > 0 || !isBase64(c)) {
+                return false;
+            }
+        }
+        return braces || (length / 4 * 3 - padding) % 16 == 0;
+    }
+
+    private static boolean isBase64(char c) {
+        return c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '+' || c == '/';
+    }
+
+    /**
+     * Writes an xml file with its secrets replaced by a placeholder, as {@link #findSecrets(File)} does, but reading
+     * and writing the file as a stream.
+     *
+     * <p>
+     * The document type declaration is left out, comments and CDATA sections are kept.
+     *
+     * @param xmlFile the file to redact.
+     * @param out where to write the redacted file, encoded in {@link #OUTPUT_ENCODING}.
+     * @param secretCache whether values are secrets, see {@link #getSecretCache(Container)}.
+     * @throws XMLStreamException if the file is not valid, something may have been written already.
+     * @throws IOException if the file cannot be read.
+     */
+    static void redactSecrets(File xmlFile, OutputStream out, Map<String, Boolean> secretCache)
+            throws XMLStreamException, IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        if (factory.isPropertySupported(REPORT_CDATA)) {
+            factory.setProperty(REPORT_CDATA, true);
+        }
+        try (InputStream in = Files.newInputStream(xmlFile.toPath())) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, OUTPUT_ENCODING));
+                new StreamRedactor(reader, writer, secretCache).run();
+                writer.flush();
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
     /**
      * find the secret in the xml file and replace it with the place holder
      * @param xmlFile we want to parse
@@ -172,4 +299,157 @@ class SecretHandler {
         return ("jvmOptions".equals(tagName) || "vmargs".equals(tagName) || "cmd".equals(tagName))
                 && PasswordRedactor.get().match(value);
     }
+
+    /**
+     * Copies the events of a {@link XMLStreamReader}, redacting the text of elements as the filter of
+     * {@link #findSecrets(File)} does, and writing them as its {@link Transformer} would.
+     */
+    private static final class StreamRedactor {
+        private final XMLStreamReader reader;
+        private final Writer writer;
+        private final Map<String, Boolean> secretCache;
+        private String tagName = "";
+        private String previousStringTagValue;
+        private final StringBuilder text = new StringBuilder();
+        private int depth;
+        // whether the start tag written last is not closed yet, in case the element is empty
+        private boolean startTagOpen;
+
+        StreamRedactor(XMLStreamReader reader, Writer writer, Map<String, Boolean> secretCache) {
+            this.reader = reader;
+            this.writer = writer;
+            this.secretCache = secretCache;
+        }
+
+        void run() throws XMLStreamException, IOException {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.SPACE) {
+                    if (depth > 0) {
+                        // the text of an element may be reported in several parts
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    continue;
+                }
+                writeText();
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        closeStartTag();
+                        writeStartTag();
+                        tagName = name(reader.getPrefix(), reader.getLocalName());
+                        depth++;
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (startTagOpen) {
+                            writer.write("/>");
+                            startTagOpen = false;
+                        } else {
+                            writer.write("</" + name(reader.getPrefix(), reader.getLocalName()) + ">");
+                        }
+                        tagName = "";
+                        depth--;
+                        break;
+                    case XMLStreamConstants.CDATA:
+                        closeStartTag();
+                        writer.write("<![CDATA[" + redact(reader.getText()) + "]]>");
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        closeStartTag();
+                        writer.write("<!--" + reader.getText() + "-->");
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        closeStartTag();
+                        String data = reader.getPIData();
+                        writer.write("<?" + reader.getPITarget() + (data == null || data.isEmpty() ? "" : " " + data)
+                                + "?>");
+                        break;
+                    default:
+                        // document type declaration
+                        break;
+                }
+            }
+        }
+
+        private void writeText() throws IOException {
+            if (text.length() > 0) {
+                closeStartTag();
+                escape(redact(text.toString()), false);
+                text.setLength(0);
+            }
+        }
+
+        private String redact(String text) {
+            if ("".equals(tagName)) {
+                return text;
+            }
+            String value = text.trim();
+            // convenience check !"{}".equals(value) because of JENKINS-47500
+            if ("".equals(value) || "{}".equals(value)) {
+                return text;
+            }
+            if (isSecret(value, secretCache)) {
+                return SECRET_MARKER;
+            } else if (isJvmArgsWithSecrets(tagName, value)) {
+                return PasswordRedactor.get().redact(value);
+            } else if ("string".equals(tagName)) {
+                if (previousStringTagValue != null) {
+                    boolean secret = PasswordRedactor.get().match(previousStringTagValue);
+                    previousStringTagValue = null;
+                    if (secret) {
+                        return PasswordRedactor.REDACTED;
+                    }
+                } else {
+                    previousStringTagValue = value;
+                }
+            }
+            return text;
+        }
+
+        private void writeStartTag() throws IOException {
+            writer.write("<" + name(reader.getPrefix(), reader.getLocalName()));
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                String prefix = reader.getNamespacePrefix(i);
+                writer.write(" " + (prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix) + "=\"");
+                escape(reader.getNamespaceURI(i), true);
+                writer.write('"');
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(reader.getAttributeNamespace(i))) {
+                    // some readers also report the namespace declarations as attributes
+                    continue;
+                }
+                writer.write(" " + name(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)) + "=\"");
+                escape(reader.getAttributeValue(i), true);
+                writer.write('"');
+            }
+            startTagOpen = true;
+        }
+
+        private void closeStartTag() throws IOException {
+            if (startTagOpen) {
+                writer.write('>');
+                startTagOpen = false;
+            }
+        }
+
+        private static String name(String prefix, String localName) {
+            return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+        }
+
+        private void escape(String text, boolean attribute) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '&' -> writer.write("&amp;");
+                    case '<' -> writer.write("&lt;");
+                    case '>' -> writer.write("&gt;");
+                    case '\r' -> writer.write("&#13;");
+                    case '"' -> writer.write(attribute ? "&quot;" : "\"");
+                    case '\n' -> writer.write(attribute ? "&#10;" : "\n");
+                    case '\t' -> writer.write(attribute ? "&#9;" : "\t");
+                    default -> writer.write(c);
+                }
+            }
+        }
+    }
 }
@@ -2,34 +2,98 @@ package com.cloudbees.jenkins.support.configfiles;
 
 import com.cloudbees.jenkins.support.api.FileContent;
 import com.cloudbees.jenkins.support.filter.PasswordRedactor;
+import com.cloudbees.jenkins.support.filter.PrefetchableContent;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.TransformerException;
+import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.xml.sax.SAXException;
 
-class XmlRedactedSecretFileContent extends FileContent {
+class XmlRedactedSecretFileContent extends FileContent implements PrefetchableContent {
+
+    private static final Logger LOGGER = Logger.getLogger(XmlRedactedSecretFileContent.class.getName());
 
     private static final String STRING_TAG = "<string>";
     private static final String CLOSE_STRING_TAG = "</string>";
 
+    /**
+     * Files redacted up to this size are kept in memory, larger ones are written to a temporary file.
+     */
+    private static final int IN_MEMORY_THRESHOLD = 1024 * 1024;
+
     private String previousStringTagValue;
 
+    private final Map<String, Boolean> secretCache;
+
     public XmlRedactedSecretFileContent(String name, File file) {
         super(name, file);
+        this.secretCache = new ConcurrentHashMap<>();
     }
 
     public XmlRedactedSecretFileContent(String name, String[] filterableParameters, File file) {
+        this(name, filterableParameters, file, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @param secretCache whether values are secrets, shared by the contents of a bundle, see
+     *     {@link SecretHandler#getSecretCache(com.cloudbees.jenkins.support.api.Container)}.
+     */
+    XmlRedactedSecretFileContent(
+            String name, String[] filterableParameters, File file, Map<String, Boolean> secretCache) {
         super(name, filterableParameters, file);
+        this.secretCache = secretCache;
     }
 
     @Override
     protected InputStream getInputStream() throws IOException {
-        try {
-            return new ByteArrayInputStream(SecretHandler.findSecrets(file).getBytes(SecretHandler.OUTPUT_ENCODING));
-        } catch (SAXException | TransformerException e) {
-            throw new IOException(e);
+        // the redacted file is only used once it is complete, so that an invalid file can be redacted otherwise
+        DeferredFileOutputStream redacted = DeferredFileOutputStream.builder()
+                .setThreshold(IN_MEMORY_THRESHOLD)
+                .setPrefix("support-redacted")
+                .setSuffix(".xml")
+                .get();
+        try (redacted) {
+            SecretHandler.redactSecrets(file, redacted, secretCache);
+        } catch (XMLStreamException e) {
+            LOGGER.log(Level.FINE, "Could not redact " + file + " as a stream", e);
+            deleteTemporaryFile(redacted);
+            try {
+                return new ByteArrayInputStream(
+                        SecretHandler.findSecrets(file).getBytes(SecretHandler.OUTPUT_ENCODING));
+            } catch (SAXException | TransformerException x) {
+                throw new IOException(x);
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteTemporaryFile(redacted);
+            throw e;
+        }
+        if (redacted.isInMemory()) {
+            return new ByteArrayInputStream(redacted.getData());
+        }
+        return new FilterInputStream(Files.newInputStream(redacted.getFile().toPath())) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deleteTemporaryFile(redacted);
+                }
+            }
+        };
+    }
+
+    private static void deleteTemporaryFile(DeferredFileOutputStream redacted) throws IOException {
+        if (!redacted.isInMemory()) {
+            Files.deleteIfExists(redacted.getFile().toPath());
         }
     }
 
@@ -48,4 +48,9 @@ class AllContentFilters implements ContentFilter {
     public void reload() {
         ContentFilter.all().forEach(ContentFilter::reload);
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return ContentFilter.all().stream().allMatch(ContentFilter::isThreadSafe);
+    }
 }
@@ -78,12 +78,26 @@ public interface ContentFilter extends ExtensionPoint {
     /**
      * Filters a line or snippet of text.
      *
+     * <p>
+     * Several bundles may be written at once, so this may be called from several threads at once. Unless
+     * {@link #isThreadSafe()}, the contents of a single bundle are filtered one line after the other though.
+     *
      * @param input input data to filter
      * @return the filtered input data
      */
     @NonNull
     String filter(@NonNull String input);
 
+    /**
+     * Whether {@link #filter(String)} may also be called from several threads at once for the same bundle, so that
+     * its contents are written ahead and large files are filtered in parallel.
+     *
+     * @return {@code false} unless the implementation declares itself thread-safe.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
     /**
      * Ensure that the filter has been loaded at least once.
      * @deprecated use reload() instead
@@ -24,7 +24,7 @@
 
 package com.cloudbees.jenkins.support.filter;
 
-import com.cloudbees.jenkins.support.util.WordReplacer;
+import com.cloudbees.jenkins.support.util.MultiWordReplacer;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Functions;
 import java.util.HashSet;
@@ -50,8 +50,11 @@ public class ContentMapping implements ContentFilter {
     private final String replacement;
     private final int hashCode;
 
-    private final String[] originals;
-    private final String[] replacements;
+    /**
+     * Replaces the flavors of the original, built once rather than on each {@link #filter(String)}. Not persisted, the
+     * {@link SerializationProxy} building it again when read.
+     */
+    private final transient MultiWordReplacer replacer;
 
     private ContentMapping(@NonNull String original, @NonNull String replacement) {
         this.original = original;
@@ -64,13 +67,14 @@ public class ContentMapping implements ContentFilter {
         originalsSet.add(Functions.escape(original));
         originalsSet.add(slashChangedInOriginal);
         originalsSet.add(Functions.escape(slashChangedInOriginal));
-        originals = originalsSet.toArray(new String[0]);
+        String[] originals = originalsSet.toArray(new String[0]);
 
         // create the replacement array with the same length as the resulting originals
-        replacements = new String[originals.length];
+        String[] replacements = new String[originals.length];
         for (int i = 0; i < replacements.length; i++) {
             replacements[i] = replacement;
         }
+        replacer = MultiWordReplacer.ofIgnoreCase(originals, replacements);
 
         this.hashCode = original.hashCode();
     }
@@ -98,7 +102,12 @@ public class ContentMapping implements ContentFilter {
 
     @Override
     public @NonNull String filter(@NonNull String input) {
-        return WordReplacer.replaceWordsIgnoreCase(input, originals, replacements);
+        return replacer.replace(input);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
     }
 
     @Override
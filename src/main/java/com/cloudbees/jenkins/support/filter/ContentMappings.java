@@ -45,6 +45,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.logging.Level;
@@ -87,6 +88,8 @@ public class ContentMappings extends ManagementLink implements Saveable, Iterabl
 
     private final Set<String> stopWords;
     private final Map<String, ContentMapping> mappings;
+    // changed when stop words are added or mappings removed, for the filters caching what they looked up
+    private final AtomicLong generation = new AtomicLong();
 
     private ContentMappings(@NonNull XmlProxy proxy) {
         stopWords = proxy.stopWords != null ? proxy.stopWords : new HashSet<>();
@@ -141,16 +144,29 @@ public class ContentMappings extends ManagementLink implements Saveable, Iterabl
     }
 
     public void reload() {
+        int size = stopWords.size();
         Jenkins.get().allItems(AbstractItem.class).forEach(item -> {
             stopWords.add(item.getTaskNoun().toLowerCase(Locale.ENGLISH));
             stopWords.add(item.getPronoun().toLowerCase(Locale.ENGLISH));
         });
+        if (stopWords.size() != size) {
+            generation.incrementAndGet();
+        }
     }
 
     protected void clear() {
         stopWords.clear();
         stopWords.addAll(ExtensionList.lookupSingleton(DefaultStopWords.class).getWords());
         mappings.clear();
+        generation.incrementAndGet();
+    }
+
+    /**
+     * @return a number changing when stop words are added or mappings removed, so that what was looked up from the
+     *     previous state is looked up again.
+     */
+    long getGeneration() {
+        return generation.get();
     }
 
     @Override
@@ -25,16 +25,18 @@
 package com.cloudbees.jenkins.support.filter;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
 import hudson.ExtensionList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 /**
  * Filters contents by mapping all found IPv4 and IPv6 addresses to generated names.
  *
+ * @see InetAddressScanner
  * @see ContentMappings
  * @since TODO
  */
@@ -49,37 +51,27 @@ public class InetAddressContentFilter implements ContentFilter {
         return ExtensionList.lookupSingleton(InetAddressContentFilter.class);
     }
 
-    // http://www.java2s.com/example/java/java.util.regex/is-ipv4-address-by-regex.html
-    private static final String IPv4 =
-            "(?:25[0-5]|2[0-4]\\d|[01]?\\d{1,2})(?:\\.(?:25[0-5]|2[0-4]\\d|[01]?\\d{1,2})){3}";
-    // Following is based http://www.java2s.com/example/java/java.util.regex/is-ipv6-address-by-regex.html to which
-    // we add the mix notation (last 2 octet is IPv4)
-    private static final String IPv6_STANDARD_AND_MIX =
-            "(?:[0-9a-fA-F]{1,4}:){6}(?:[0-9a-fA-F]{1,4}:[0-9a-fA-F]{1,4}|" + IPv4 + ")";
-    private static final String IPv6_COMPRESSED_AND_MIX =
-            "(?:[0-9a-fA-F]{1,4}(?::[0-9a-fA-F]{1,4})*)?::(?:(?:(?:[0-9a-fA-F]{1,4}:){1,5})?(" + IPv4
-                    + ")|(?:[0-9a-fA-F]{1,4}(?::[0-9a-fA-F]{1,4})*)?)";
-    private static final Pattern IP_ADDRESS = Pattern.compile(
-            "(?<![:.\\w])(" + IPv4 + '|' + IPv6_STANDARD_AND_MIX + '|' + IPv6_COMPRESSED_AND_MIX + ")(?![:.\\w])");
+    /**
+     * How many addresses are remembered with their replacement.
+     */
+    private static final int MAX_CACHED_REPLACEMENTS = 1024;
+
+    private final Replacements replacements = new Replacements();
 
     @Override
     public @NonNull String filter(@NonNull String input) {
+        InetAddressScanner scanner = new InetAddressScanner(input);
+        if (!scanner.find()) {
+            return input;
+        }
         ContentMappings mappings = ContentMappings.get();
-        StringBuilder replacement = new StringBuilder();
+        StringBuilder replacement = new StringBuilder(input.length());
         int lastIndex = 0;
-
-        Matcher matcher = IP_ADDRESS.matcher(input);
-        while (matcher.find()) {
-            replacement.append(input, lastIndex, matcher.start());
-            String ip = matcher.group();
-            if (!mappings.getStopWords().contains(ip)) {
-                replacement.append(mappings.getMappingOrCreate(ip, InetAddressContentFilter::newMapping)
-                        .getReplacement());
-            } else {
-                replacement.append(ip);
-            }
-            lastIndex = matcher.end();
-        }
+        do {
+            replacement.append(input, lastIndex, scanner.start());
+            replacement.append(getReplacement(mappings, input.substring(scanner.start(), scanner.end())));
+            lastIndex = scanner.end();
+        } while (scanner.find());
 
         if (lastIndex < input.length()) {
             replacement.append(input, lastIndex, input.length());
@@ -88,8 +80,65 @@ public class InetAddressContentFilter implements ContentFilter {
         return replacement.toString();
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        // the replacements are guarded, the mappings concurrent
+        return true;
+    }
+
+    private String getReplacement(ContentMappings mappings, String ip) {
+        long generation = mappings.getGeneration();
+        synchronized (replacements) {
+            String cached = replacements.get(mappings, generation, ip);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        String replacement = mappings.getStopWords().contains(ip)
+                ? ip
+                : mappings.getMappingOrCreate(ip, InetAddressContentFilter::newMapping)
+                        .getReplacement();
+        synchronized (replacements) {
+            replacements.put(mappings, generation, ip, replacement);
+        }
+        return replacement;
+    }
+
     private static ContentMapping newMapping(String original) {
         return ContentMapping.of(
                 original, DataFaker.get().apply(name -> "ip_" + name).get());
     }
+
+    /**
+     * The replacements of the addresses found last, for the mappings they were looked up from.
+     */
+    @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "Never serialized")
+    private static final class Replacements extends LinkedHashMap<String, String> {
+        private ContentMappings mappings;
+        private long generation;
+
+        Replacements() {
+            super(16, 0.75f, true);
+        }
+
+        String get(ContentMappings mappings, long generation, String ip) {
+            if (this.mappings != mappings || this.generation != generation) {
+                clear();
+                this.mappings = mappings;
+                this.generation = generation;
+            }
+            return get(ip);
+        }
+
+        void put(ContentMappings mappings, long generation, String ip, String replacement) {
+            if (this.mappings == mappings && this.generation == generation) {
+                put(ip, replacement);
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_CACHED_REPLACEMENTS;
+        }
+    }
 }
@@ -0,0 +1,189 @@
+package com.cloudbees.jenkins.support.filter;
+
+/**
+ * Finds the IPv4 and IPv6 addresses of a text in a single pass, without regular expressions.
+ *
+ * <p>
+ * An address is a whole word made of letters, digits, {@code _}, {@code :} and {@code .}, so that the address is not
+ * part of a version, a host name or a longer address. Such a word is an address if it is:
+ * <ul>
+ *   <li>an IPv4 address, four numbers from 0 to 255 of one to three digits separated by {@code .},
+ *   <li>a full IPv6 address, eight groups of one to four hexadecimal digits separated by {@code :}, the last two
+ *       groups possibly replaced by an IPv4 address,
+ *   <li>a compressed IPv6 address, with a single {@code ::} standing for the omitted groups, the last groups
+ *       possibly replaced by an IPv4 address.
+ * </ul>
+ * Each word is read once to find where it ends, and once more to check whether it is an address, so that the time
+ * taken is linear in the length of the text.
+ */
+final class InetAddressScanner {
+
+    private final CharSequence input;
+    private int position;
+    private int start = -1;
+    private int end = -1;
+
+    InetAddressScanner(CharSequence input) {
+        this.input = input;
+    }
+
+    /**
+     * Finds the next address, as {@link java.util.regex.Matcher#find()} does.
+     *
+     * @return whether an address was found.
+     */
+    boolean find() {
+        int length = input.length();
+        while (position < length) {
+            while (position < length && !isWordChar(input.charAt(position))) {
+                position++;
+            }
+            int wordStart = position;
+            while (position < length && isWordChar(input.charAt(position))) {
+                position++;
+            }
+            if (wordStart < position && isAddress(input, wordStart, position)) {
+                start = wordStart;
+                end = position;
+                return true;
+            }
+        }
+        start = -1;
+        end = -1;
+        return false;
+    }
+
+    /**
+     * @return the index of the first character of the address found last.
+     */
+    int start() {
+        return start;
+    }
+
+    /**
+     * @return the index after the last character of the address found last.
+     */
+    int end() {
+        return end;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || c == '_'
+                || c == ':'
+                || c == '.';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    /**
+     * @return whether the text is an address.
+     */
+    private static boolean isAddress(CharSequence s, int from, int to) {
+        int compression = indexOf(s, from, to, "::");
+        if (compression < 0) {
+            int colons = count(s, from, to, ':');
+            if (colons == 0) {
+                return isIPv4(s, from, to);
+            } else if (colons == 7) {
+                return areGroups(s, from, to);
+            }
+            int last = lastIndexOf(s, from, to, ':');
+            return colons == 6 && areGroups(s, from, last) && isIPv4(s, last + 1, to);
+        }
+        // any number of groups on each side, or up to five groups followed by an IPv4 address on the right side
+        if (compression > from && !areGroups(s, from, compression)) {
+            return false;
+        }
+        int right = compression + 2;
+        if (right == to || areGroups(s, right, to)) {
+            return true;
+        }
+        int last = lastIndexOf(s, right, to, ':');
+        if (last < 0) {
+            return isIPv4(s, right, to);
+        }
+        return count(s, right, last, ':') < 5 && areGroups(s, right, last) && isIPv4(s, last + 1, to);
+    }
+
+    /**
+     * @return whether the text is made of groups of one to four hexadecimal digits separated by {@code :}.
+     */
+    private static boolean areGroups(CharSequence s, int from, int to) {
+        int groupStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || s.charAt(i) == ':') {
+                int groupLength = i - groupStart;
+                if (groupLength < 1 || groupLength > 4) {
+                    return false;
+                }
+                groupStart = i + 1;
+            } else if (!isHexDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the text is four numbers from 0 to 255 of one to three digits separated by {@code .}.
+     */
+    private static boolean isIPv4(CharSequence s, int from, int to) {
+        int numbers = 0;
+        int value = 0;
+        int digits = 0;
+        for (int i = from; i <= to; i++) {
+            char c = i == to ? '.' : s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+                if (digits > 3 || value > 255) {
+                    return false;
+                }
+            } else if (c == '.') {
+                if (digits == 0) {
+                    return false;
+                }
+                numbers++;
+                value = 0;
+                digits = 0;
+            } else {
+                return false;
+            }
+        }
+        return numbers == 4;
+    }
+
+    private static int indexOf(CharSequence s, int from, int to, String searched) {
+        for (int i = from; i <= to - searched.length(); i++) {
+            if (s.charAt(i) == searched.charAt(0)
+                    && (searched.length() == 1 || s.charAt(i + 1) == searched.charAt(1))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int count(CharSequence s, int from, int to, char searched) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == searched) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int lastIndexOf(CharSequence s, int from, int to, char searched) {
+        for (int i = to - 1; i >= from; i--) {
+            if (s.charAt(i) == searched) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
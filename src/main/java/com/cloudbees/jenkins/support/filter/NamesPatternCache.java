@@ -0,0 +1,118 @@
+package com.cloudbees.jenkins.support.filter;
+
+import com.cloudbees.jenkins.support.util.AtomicFiles;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The source of the pattern of {@link SensitiveContentFilter}, kept in a file so that the first reload after a restart
+ * does not build it again from the names.
+ *
+ * <p>
+ * The file holds a SHA-256 digest of the names the pattern was built from, and is only used for the same names. A
+ * compiled {@link java.util.regex.Pattern} cannot be stored, so the source is still compiled.
+ */
+final class NamesPatternCache {
+
+    private static final Logger LOGGER = Logger.getLogger(NamesPatternCache.class.getName());
+
+    /**
+     * Starts the file, to be changed along with the format or with {@link WordsTrie#getRegex()}.
+     */
+    private static final int MAGIC = 0x534e5001;
+
+    private final File store;
+
+    /**
+     * @param store the file keeping the pattern, its directory is created when needed.
+     */
+    NamesPatternCache(File store) {
+        this.store = store;
+    }
+
+    /**
+     * @param names the lower case names matched by a pattern.
+     * @return the digest of the names, in any order.
+     */
+    static byte[] digest(Collection<String> names) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        names.stream().sorted().forEach(name -> {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            // the length first, so that the names cannot be split in other ways
+            digest.update(length.clear().putInt(bytes.length).array());
+            digest.update(bytes);
+        });
+        return digest.digest();
+    }
+
+    /**
+     * @param digest the digest of the current names.
+     * @return the source of the pattern of these names, or {@code null} if it is not known.
+     */
+    @CheckForNull
+    String load(byte[] digest) {
+        try {
+            // not memory mapped, as Windows would then not let the file be replaced until the buffer is collected
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(store.toPath()));
+            if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+                return null;
+            }
+            if (buffer.getInt() != digest.length || buffer.remaining() < digest.length + Integer.BYTES) {
+                return null;
+            }
+            byte[] stored = new byte[digest.length];
+            buffer.get(stored);
+            if (!MessageDigest.isEqual(stored, digest)) {
+                return null;
+            }
+            int length = buffer.getInt();
+            if (length < 0 || buffer.remaining() != length) {
+                return null;
+            }
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not read " + store, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param digest the digest of the names.
+     * @param regex the source of the pattern of these names.
+     */
+    void save(byte[] digest, String regex) {
+        byte[] bytes = regex.getBytes(StandardCharsets.UTF_8);
+        try {
+            AtomicFiles.write(store, os -> {
+                DataOutputStream out = new DataOutputStream(os);
+                out.writeInt(MAGIC);
+                out.writeInt(digest.length);
+                out.write(digest);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.flush();
+            });
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not write " + store, e);
+        }
+    }
+}
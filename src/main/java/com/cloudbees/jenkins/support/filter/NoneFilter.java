@@ -14,4 +14,9 @@ public class NoneFilter implements ContentFilter {
     public String filter(@NonNull String input) {
         return input;
     }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
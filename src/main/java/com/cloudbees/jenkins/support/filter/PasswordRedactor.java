@@ -23,34 +23,50 @@ public class PasswordRedactor implements SerializableOnlyOverRemoting {
 
     private final Pattern pattern;
     private final String matcher;
+    // the matcher compiled once, rather than by String#matches on each call
+    private final Pattern compiledMatcher;
 
     public static PasswordRedactor get() {
         return ExtensionList.lookupSingleton(PasswordRedactor.class);
     }
 
     public PasswordRedactor() {
-        this.pattern = PasswordRedactorRegexBuilder.PASSWORD_PATTERN;
-        this.matcher = PasswordRedactorRegexBuilder.SECRET_PROPERTY_MATCHER;
+        this(PasswordRedactorRegexBuilder.PASSWORD_PATTERN, PasswordRedactorRegexBuilder.SECRET_PROPERTY_MATCHER);
     }
 
     // for tests usage
     PasswordRedactor(Pattern pattern, String matcher) {
         this.pattern = pattern;
         this.matcher = matcher;
+        this.compiledMatcher = matcher == null ? null : Pattern.compile(matcher);
     }
 
+    /**
+     * Replaces the values of the secret arguments with {@link #REDACTED}, in a single scan of the input.
+     * <p>
+     * From the {@code =} to the end of the value is replaced, the spaces around the {@code =} being dropped after it
+     * and kept before it.
+     */
     public String redact(String input) {
         if (pattern == null) {
             // 'security-stop-words.txt' is empty
             return input;
         }
         Matcher patternMatcher = pattern.matcher(input);
-        while (patternMatcher.find()) {
-            LOGGER.log(Level.FINE, "Argument ''{0}'' contain secret data", patternMatcher.group(1));
-            String secretValue = patternMatcher.group(2);
-            input = input.replaceFirst("=\\s*" + Pattern.quote(secretValue), "=" + REDACTED);
+        if (!patternMatcher.find()) {
+            return input;
         }
-        return input;
+        StringBuilder redacted = new StringBuilder(input.length());
+        int copied = 0;
+        do {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Argument ''{0}'' contain secret data", patternMatcher.group(1));
+            }
+            int separator = input.indexOf('=', patternMatcher.end(1));
+            redacted.append(input, copied, separator).append('=').append(REDACTED);
+            copied = patternMatcher.end(2);
+        } while (patternMatcher.find());
+        return redacted.append(input, copied, input.length()).toString();
     }
 
     public Map<String, String> redact(Map<String, String> properties) {
@@ -60,7 +76,7 @@ public class PasswordRedactor implements SerializableOnlyOverRemoting {
         }
         Map<String, String> redacted = new HashMap<>();
         for (Map.Entry<String, String> entry : properties.entrySet()) {
-            if (entry.getKey().matches(matcher)) {
+            if (compiledMatcher.matcher(entry.getKey()).matches()) {
                 LOGGER.log(Level.FINE, "Argument ''{0}'' contain secret data", entry.getKey());
                 redacted.put(entry.getKey(), REDACTED);
             } else {
@@ -75,6 +91,6 @@ public class PasswordRedactor implements SerializableOnlyOverRemoting {
             // 'security-stop-words.txt' is empty
             return false;
         }
-        return value.matches(matcher);
+        return compiledMatcher.matcher(value).matches();
     }
 }
@@ -0,0 +1,14 @@
+package com.cloudbees.jenkins.support.filter;
+
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Marks a {@link com.cloudbees.jenkins.support.api.Content} costly to produce, such as a file to parse and redact,
+ * which may be written ahead of its turn on another thread while the previous contents are added to a bundle.
+ *
+ * <p>
+ * The content must not depend on the thread writing it, and must be written only once.
+ */
+@Restricted(NoExternalUse.class)
+public interface PrefetchableContent {}
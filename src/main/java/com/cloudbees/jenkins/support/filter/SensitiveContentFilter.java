@@ -24,25 +24,56 @@
 
 package com.cloudbees.jenkins.support.filter;
 
+import com.cloudbees.jenkins.support.SupportPlugin;
 import com.cloudbees.jenkins.support.util.WordReplacer;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.AbstractProject;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Items;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.model.Saveable;
+import hudson.model.User;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.slaves.ComputerListener;
+import java.io.File;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.stream.StreamSupport;
+import jenkins.model.Jenkins;
+import jenkins.security.SecurityListener;
+import jenkins.util.SystemProperties;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 /**
  * Filters contents based on names provided by all {@linkplain NameProvider known sources}.
  *
+ * <p>
+ * The first {@link #reload()} goes through all the names. The following ones only go through the names of the items,
+ * of their labels and of the users changed since, as reported by the {@link ItemListener}s, {@link SaveableListener}s
+ * and {@link SecurityListener}s, and through the names of the other sources only if Jenkins or a node was saved or a
+ * computer changed in between. The pattern is only compiled again when new names were found. Its source is kept in a
+ * {@linkplain NamesPatternCache file}, so that the first reload after a restart only compiles it when the names did
+ * not change.
+ *
  * @see NameProvider
  * @since TODO
  */
@@ -52,24 +83,87 @@ public class SensitiveContentFilter implements ContentFilter {
 
     private static final Logger LOGGER = Logger.getLogger(SensitiveContentFilter.class.getName());
 
+    /**
+     * Whether a reload only goes through the names changed since the previous one.
+     */
+    static boolean INCREMENTAL_RELOAD =
+            SystemProperties.getBoolean(SensitiveContentFilter.class.getName() + ".INCREMENTAL_RELOAD", true);
+
+    /**
+     * How many names of changed items are kept for the next reload, before falling back to a full one.
+     */
+    private static final int MAX_CHANGED_NAMES =
+            SystemProperties.getInteger(SensitiveContentFilter.class.getName() + ".MAX_CHANGED_NAMES", 10_000);
+
+    /**
+     * The file keeping the source of the pattern, in the support directory.
+     */
+    private static final String PATTERN_FILE = "sensitive-names.cache";
+
     private final AtomicReference<Pattern> mappingsPattern = new AtomicReference<>();
     private final AtomicReference<Map<String, String>> replacementsMap = new AtomicReference<>();
 
+    // the names of the items, labels and users changed since the previous reload
+    private final Queue<ChangedName> changedNames = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger changedNamesCount = new AtomicInteger();
+    // incremented when the names of views, nodes, computers or of any source but the items may have changed
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean fullReloadNeeded = true;
+
+    // the state of the previous reload, guarded by this, the trie being only built once a name is added
+    private WordsTrie trie;
+    private ContentMappings loadedMappings;
+    private long loadedGeneration;
+    private long loadedVersion;
+
     public static SensitiveContentFilter get() {
         return ExtensionList.lookupSingleton(SensitiveContentFilter.class);
     }
 
     @Override
     public @NonNull String filter(@NonNull String input) {
+        // the replacements are set before the pattern, so that they are never older than the pattern read first
         return WordReplacer.replaceWords(input, mappingsPattern.get(), replacementsMap.get());
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public synchronized void reload() {
         final long startTime = System.currentTimeMillis();
-        final Map<String, String> replacementsMap = new HashMap<>();
-        final WordsTrie trie = new WordsTrie();
         final ContentMappings mappings = ContentMappings.get();
+        final boolean full = !INCREMENTAL_RELOAD
+                || fullReloadNeeded
+                || mappings != loadedMappings
+                || mappings.getGeneration() != loadedGeneration;
+        final String reloaded;
+        try {
+            if (full) {
+                reloadAll(mappings);
+                reloaded = "all";
+            } else {
+                reloaded = reloadChanges(mappings) ? "changed and other" : "changed";
+            }
+        } catch (RuntimeException | Error e) {
+            // some changes may have been consumed without being loaded
+            fullReloadNeeded = true;
+            throw e;
+        }
+        LOGGER.log(
+                Level.FINE,
+                "Took " + (System.currentTimeMillis() - startTime) + "ms to reload " + reloaded + " names");
+    }
+
+    private void reloadAll(ContentMappings mappings) {
+        fullReloadNeeded = false;
+        changedNames.clear();
+        changedNamesCount.set(0);
+        final long version = this.version.get();
+        final long generation = mappings.getGeneration();
+        final Map<String, String> replacementsMap = new HashMap<>();
         Set<String> stopWords = mappings.getStopWords();
 
         // Pre-fill with existing mappings (but filter out IPs that is handled by a different filter)
@@ -81,38 +175,254 @@ public class SensitiveContentFilter implements ContentFilter {
                 .forEach(contentMapping -> {
                     String lowerCaseOriginal = contentMapping.getOriginal().toLowerCase(Locale.ENGLISH);
                     if (!stopWords.contains(lowerCaseOriginal)) {
-                        replacementsMap.put(
-                                lowerCaseOriginal,
-                                contentMapping
-                                        .getReplacement()
-                                        .replaceAll("\\\\", "\\\\\\\\")
-                                        .replaceAll("\\$", "\\\\\\$"));
-                        trie.add(lowerCaseOriginal);
+                        replacementsMap.put(lowerCaseOriginal, escape(contentMapping.getReplacement()));
                     }
                 });
 
-        NameProvider.all()
-                .forEach(provider -> provider.names().filter(s -> !s.isBlank()).forEach(name -> {
-                    String lowerCaseOriginal = name.toLowerCase(Locale.ENGLISH);
-                    // NOTE: We could well create a WordTrie for the stop words and use it as a filter instead of the
-                    // conditional here. Or find a better way to deal with insensitive key mapping in general.
-                    // But the reload is already quite fast anyway. (~1s for 10^4 items with 1 CPU / 2 GB memory
-                    // container)
-                    if (!stopWords.contains(lowerCaseOriginal)) {
-                        ContentMapping mapping = mappings.getMappingOrCreate(
-                                name, original -> ContentMapping.of(original, provider.generateFake()));
-                        // Matcher#appendReplacement needs to have the `\` and `$` escaped.
-                        replacementsMap.putIfAbsent(
-                                lowerCaseOriginal,
-                                mapping.getReplacement()
-                                        .replaceAll("\\\\", "\\\\\\\\")
-                                        .replaceAll("\\$", "\\\\\\$"));
-                        trie.add(lowerCaseOriginal);
-                    }
-                }));
-        this.mappingsPattern.set(Pattern.compile(
-                "(?<!\\w)" + trie.getRegex() + "(?!\\w)", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+        // NOTE: We could well create a WordTrie for the stop words and use it as a filter instead of the
+        // conditional in add. Or find a better way to deal with insensitive key mapping in general.
+        // But the reload is already quite fast anyway. (~1s for 10^4 items with 1 CPU / 2 GB memory
+        // container)
+        Map<String, String> added = new HashMap<>();
+        NameProvider.all().forEach(provider -> provider.names()
+                .forEach(name -> add(mappings, stopWords, provider, name, replacementsMap, added)));
+        replacementsMap.putAll(added);
+
+        this.trie = null;
         this.replacementsMap.set(replacementsMap);
-        LOGGER.log(Level.FINE, "Took " + (System.currentTimeMillis() - startTime) + "ms to reload");
+        this.mappingsPattern.set(compile(regex(replacementsMap.keySet(), true)));
+        this.loadedMappings = mappings;
+        this.loadedGeneration = generation;
+        this.loadedVersion = version;
+    }
+
+    /**
+     * @return whether the names of the other sources were gone through too.
+     */
+    private boolean reloadChanges(ContentMappings mappings) {
+        final Map<String, String> replacementsMap = this.replacementsMap.get();
+        final Map<String, String> added = new HashMap<>();
+        Set<String> stopWords = mappings.getStopWords();
+
+        ChangedName changed;
+        while ((changed = changedNames.poll()) != null) {
+            changedNamesCount.decrementAndGet();
+            add(mappings, stopWords, changed.provider, changed.name, replacementsMap, added);
+        }
+        final long version = this.version.get();
+        final boolean others = version != loadedVersion;
+        if (others) {
+            NameProvider.all().stream()
+                    .filter(provider -> provider != NameProvider.ITEMS)
+                    .forEach(provider -> provider.names()
+                            .forEach(n -> add(mappings, stopWords, provider, n, replacementsMap, added)));
+            loadedVersion = version;
+        }
+
+        if (!added.isEmpty()) {
+            if (trie != null) {
+                added.keySet().forEach(trie::add);
+            }
+            Map<String, String> replacements = new HashMap<>(replacementsMap);
+            replacements.putAll(added);
+            this.replacementsMap.set(replacements);
+            this.mappingsPattern.set(compile(regex(replacements.keySet(), false)));
+        }
+        return others;
+    }
+
+    /**
+     * @param names all the names to match.
+     * @param cached whether the source may have been built for the same names before.
+     * @return the source of the pattern matching the names, built from the trie unless it was kept in the cache.
+     */
+    private String regex(Set<String> names, boolean cached) {
+        NamesPatternCache cache = new NamesPatternCache(new File(SupportPlugin.getRootDirectory(), PATTERN_FILE));
+        byte[] digest = NamesPatternCache.digest(names);
+        String regex = cached ? cache.load(digest) : null;
+        if (regex == null) {
+            if (trie == null) {
+                trie = new WordsTrie();
+                names.forEach(trie::add);
+            }
+            regex = trie.getRegex();
+            if (regex != null) {
+                cache.save(digest, regex);
+            }
+        }
+        return regex;
+    }
+
+    /**
+     * Looks up or creates the mapping of a name, and adds its replacement to {@code added} unless it is already known.
+     */
+    private static void add(
+            ContentMappings mappings,
+            Set<String> stopWords,
+            NameProvider provider,
+            String name,
+            Map<String, String> known,
+            Map<String, String> added) {
+        if (name.isBlank()) {
+            return;
+        }
+        String lowerCaseOriginal = name.toLowerCase(Locale.ENGLISH);
+        if (!stopWords.contains(lowerCaseOriginal)) {
+            ContentMapping mapping = mappings.getMappingOrCreate(
+                    name, original -> ContentMapping.of(original, provider.generateFake()));
+            if (!known.containsKey(lowerCaseOriginal)) {
+                added.putIfAbsent(lowerCaseOriginal, escape(mapping.getReplacement()));
+            }
+        }
+    }
+
+    /**
+     * Matcher#appendReplacement needs to have the `\` and `$` escaped.
+     */
+    private static String escape(String replacement) {
+        return replacement.replaceAll("\\\\", "\\\\\\\\").replaceAll("\\$", "\\\\\\$");
+    }
+
+    private static Pattern compile(String regex) {
+        return Pattern.compile("(?<!\\w)" + regex + "(?!\\w)", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    private void itemChanged(Item item, boolean withDescendants) {
+        if (!INCREMENTAL_RELOAD || fullReloadNeeded) {
+            return;
+        }
+        addNames(item);
+        if (withDescendants && item instanceof ItemGroup) {
+            try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+                Items.allItems((ItemGroup<?>) item, Item.class).forEach(this::addNames);
+            }
+        }
+    }
+
+    private void addNames(Item item) {
+        addName(NameProvider.ITEMS, item.getName());
+        addName(NameProvider.ITEMS, item.getDisplayName());
+        // the label the item is assigned to, the known ones being only looked up on reload
+        if (item instanceof AbstractProject) {
+            Label label = ((AbstractProject<?, ?>) item).getAssignedLabel();
+            if (label != null) {
+                addName(NameProvider.LABELS, label.getDisplayName());
+                label.listAtoms().forEach(atom -> addName(NameProvider.LABELS, atom.getDisplayName()));
+            }
+        }
+    }
+
+    private void userChanged(@NonNull String id) {
+        if (!INCREMENTAL_RELOAD || fullReloadNeeded) {
+            return;
+        }
+        addName(NameProvider.USERS, id);
+        User user = User.getById(id, false);
+        if (user != null) {
+            addName(NameProvider.USERS, user.getFullName());
+            addName(NameProvider.USERS, user.getDisplayName());
+        }
+    }
+
+    private void addName(NameProvider provider, String name) {
+        if (name == null) {
+            return;
+        }
+        if (changedNamesCount.incrementAndGet() > MAX_CHANGED_NAMES) {
+            fullReloadNeeded = true;
+            return;
+        }
+        changedNames.add(new ChangedName(provider, name));
+    }
+
+    private void changed() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * A name to look up on the next reload, and the source generating its replacement.
+     */
+    private record ChangedName(NameProvider provider, String name) {}
+
+    /**
+     * Records the names of the created, copied, renamed, moved and updated items.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            get().itemChanged(item, true);
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            get().itemChanged(item, true);
+        }
+
+        @Override
+        public void onRenamed(Item item, String oldName, String newName) {
+            get().itemChanged(item, false);
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            get().itemChanged(item, false);
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            get().itemChanged(item, false);
+        }
+
+        @Override
+        public void onLoaded() {
+            // all the items were loaded again from the disk
+            get().fullReloadNeeded = true;
+        }
+    }
+
+    /**
+     * Records the changes of the items and users, and of the views and nodes which are saved along with Jenkins or on
+     * their own.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            // builds are saved much more often than anything else, and hold no name
+            if (o instanceof Item) {
+                get().itemChanged((Item) o, false);
+            } else if (o instanceof User) {
+                get().userChanged(((User) o).getId());
+            } else if (o instanceof Jenkins || o instanceof Node) {
+                get().changed();
+            }
+        }
+    }
+
+    /**
+     * Records the computers added, removed or renamed, such as the ones of cloud agents.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static final class ComputerListenerImpl extends ComputerListener {
+        @Override
+        public void onConfigurationChange() {
+            get().changed();
+        }
+    }
+
+    /**
+     * Records the users logging in, who may have been created along.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static final class SecurityListenerImpl extends SecurityListener {
+        @Override
+        protected void loggedIn(@NonNull String username) {
+            get().userChanged(username);
+        }
     }
 }
@@ -5,6 +5,7 @@
 package com.cloudbees.jenkins.support.impl;
 
 import com.cloudbees.jenkins.support.AsyncResultCache;
+import com.cloudbees.jenkins.support.ComponentContentCache;
 import com.cloudbees.jenkins.support.SupportPlugin;
 import com.cloudbees.jenkins.support.api.Component;
 import com.cloudbees.jenkins.support.api.Container;
@@ -37,7 +38,6 @@ import hudson.security.Permission;
 import hudson.util.IOUtils;
 import jakarta.servlet.ServletContext;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
@@ -46,6 +46,7 @@ import java.lang.management.MemoryManagerMXBean;
 import java.lang.management.MemoryPoolMXBean;
 import java.lang.management.MemoryUsage;
 import java.lang.management.RuntimeMXBean;
+import java.nio.file.Files;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -53,9 +54,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
@@ -91,6 +96,20 @@ public class AboutJenkins extends Component {
 
     private final WeakHashMap<Node, String> agentDigestCache = new WeakHashMap<>();
 
+    /**
+     * Name of the file keeping the digests of the files of the controller, in its support directory, or of an agent,
+     * in its {@link #AGENT_DIGESTS_DIRECTORY}.
+     */
+    private static final String DIGESTS_FILE = "checksums.md5.cache";
+
+    /**
+     * Where the agents keep their digests, out of the {@code support} directory collected by
+     * {@link NodeRemoteDirectoryComponent}.
+     */
+    static final String AGENT_DIGESTS_DIRECTORY = ".support-cache";
+
+    private static final PluginLists PLUGIN_LISTS = new PluginLists();
+
     @NonNull
     @Override
     public Set<Permission> getRequiredPermissions() {
@@ -121,12 +140,8 @@ public class AboutJenkins extends Component {
         container.add(new AboutContent(activePlugins));
         container.add(new IdentityContent());
         container.add(new NodesContent());
-        container.add(new ActivePlugins(activePlugins));
-        container.add(new DisabledPlugins(disabledPlugins));
-        container.add(new FailedPlugins());
-        container.add(new BackupPlugins(backupPlugins));
-
-        container.add(new Dockerfile(activePlugins, disabledPlugins));
+        // kept until the plugins change
+        ComponentContentCache.addContents(container, PLUGIN_LISTS);
 
         container.add(new ControllerChecksumsContent());
         for (final Node node : Jenkins.get().getNodes()) {
@@ -153,7 +168,7 @@ public class AboutJenkins extends Component {
         out.println("      - 99th percentile:    " + snapshot.get99thPercentile());
     }
 
-    private static final class GetAgentDigest extends MasterToSlaveCallable<String, RuntimeException> {
+    static final class GetAgentDigest extends MasterToSlaveCallable<String, RuntimeException> {
         private static final long serialVersionUID = 1L;
         private final String rootPathName;
 
@@ -165,18 +180,24 @@ public class AboutJenkins extends Component {
         public String call() {
             StringBuilder result = new StringBuilder();
             final File rootPath = new File(this.rootPathName);
+            List<File> files = new ArrayList<>();
             for (File file : FileUtils.listFiles(rootPath, null, false)) {
                 if (file.isFile()) {
-                    try {
-                        result.append(Util.getDigestOf(new FileInputStream(file))) // FIPS OK: Not security related.
-                                .append("  ")
-                                .append(file.getName())
-                                .append('\n');
-                    } catch (IOException e) {
-                        // ignore
-                    }
+                    files.add(file);
                 }
             }
+            try {
+                // kept in the support directory before
+                Files.deleteIfExists(
+                        new File(new File(rootPath, SupportPlugin.SUPPORT_DIRECTORY_NAME), DIGESTS_FILE).toPath());
+            } catch (IOException e) {
+                // tried again on the next bundle
+            }
+            DigestCache digests = new DigestCache(new File(new File(rootPath, AGENT_DIGESTS_DIRECTORY), DIGESTS_FILE));
+            digests.digests(files).forEach((file, digest) -> result.append(digest)
+                    .append("  ")
+                    .append(file.getName())
+                    .append('\n'));
             return result.toString();
         }
     }
@@ -567,6 +588,68 @@ public class AboutJenkins extends Component {
         }
     }
 
+    /**
+     * The lists of plugins, a component of their own so that they are kept until the plugins change, while the other
+     * contents of {@link AboutJenkins} change on every bundle. Not registered, as they are part of
+     * {@link AboutJenkins}.
+     */
+    private static final class PluginLists extends Component {
+
+        @NonNull
+        @Override
+        public Set<Permission> getRequiredPermissions() {
+            return Collections.singleton(Jenkins.ADMINISTER);
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "About Jenkins plugins";
+        }
+
+        @NonNull
+        @Override
+        public String getId() {
+            return "AboutJenkinsPlugins";
+        }
+
+        @Override
+        public String getContentCacheKey() {
+            PluginManager pluginManager = Jenkins.get().getPluginManager();
+            StringBuilder key = new StringBuilder(Jenkins.VERSION).append('\n');
+            for (PluginWrapper plugin : pluginManager.getPlugins()) {
+                key.append(plugin.getShortName())
+                        .append(':')
+                        .append(plugin.getVersion())
+                        .append(':')
+                        .append(plugin.isActive())
+                        .append(':')
+                        .append(plugin.getBackupVersion())
+                        .append('\n');
+            }
+            for (PluginManager.FailedPlugin plugin : pluginManager.getFailedPlugins()) {
+                key.append(plugin.name).append(" -> ").append(plugin.cause).append('\n');
+            }
+            return Util.getDigestOf(key.toString()); // FIPS OK: Not security related.
+        }
+
+        @Override
+        public void addContents(@NonNull Container container) {
+            List<PluginWrapper> activePlugins = new ArrayList<>();
+            List<PluginWrapper> disabledPlugins = new ArrayList<>();
+            List<PluginWrapper> backupPlugins = new ArrayList<>();
+
+            populatePluginsLists(activePlugins, disabledPlugins, backupPlugins);
+
+            container.add(new ActivePlugins(activePlugins));
+            container.add(new DisabledPlugins(disabledPlugins));
+            container.add(new FailedPlugins());
+            container.add(new BackupPlugins(backupPlugins));
+
+            container.add(new Dockerfile(activePlugins, disabledPlugins));
+        }
+    }
+
     private static class Plugins extends PrintedContent {
         private final Iterable<PluginWrapper> plugins;
         private final Function<? super PluginWrapper, String> stringify;
@@ -833,46 +916,32 @@ public class AboutJenkins extends Component {
                 throw new IOException("Jenkins has not been started, or was already shut down");
             }
 
+            // the digests of files are cached, the other resources are read every time
+            Map<String, File> files = new LinkedHashMap<>();
+            Map<String, String> digests = new HashMap<>();
             File jenkinsWar = Lifecycle.get().getHudsonWar();
             if (jenkinsWar != null) {
-                try {
-                    out.println(Util.getDigestOf(new FileInputStream(jenkinsWar))
-                            + "  jenkins.war"); // FIPS OK: Not security related.
-                } catch (IOException e) {
-                    logger.log(Level.WARNING, "Could not compute MD5 of jenkins.war", e);
-                }
+                files.put("jenkins.war", jenkinsWar);
             }
             var request = Stapler.getCurrentRequest2();
             if (request != null) {
                 final ServletContext servletContext = request.getServletContext();
-                Set<String> resourcePaths = (Set<String>) servletContext.getResourcePaths("/WEB-INF/lib");
-                for (String resourcePath : new TreeSet<String>(resourcePaths)) {
-                    try {
-                        out.println(Util.getDigestOf(servletContext.getResourceAsStream(resourcePath))
-                                + "  war" // FIPS OK: Not security related.
-                                + resourcePath);
-                    } catch (IOException e) {
-                        logger.log(Level.WARNING, "Could not compute MD5 of war" + resourcePath, e);
+                List<String> resourcePaths = new ArrayList<>(getResourcePaths(servletContext, "/WEB-INF/lib"));
+                resourcePaths.addAll(Arrays.asList("/WEB-INF/jenkins-cli.jar", "/WEB-INF/web.xml"));
+                resourcePaths.addAll(getResourcePaths(servletContext, "/WEB-INF/update-center-rootCAs"));
+                for (String resourcePath : resourcePaths) {
+                    String realPath = servletContext.getRealPath(resourcePath);
+                    if (realPath != null && new File(realPath).isFile()) {
+                        files.put("war" + resourcePath, new File(realPath));
+                        continue;
                     }
-                }
-                for (String resourcePath : Arrays.asList("/WEB-INF/jenkins-cli.jar", "/WEB-INF/web.xml")) {
-                    try {
-                        InputStream resourceAsStream = servletContext.getResourceAsStream(resourcePath);
-                        if (resourceAsStream == null) {
-                            continue;
+                    try (InputStream resourceAsStream = servletContext.getResourceAsStream(resourcePath)) {
+                        if (resourceAsStream != null) {
+                            files.put("war" + resourcePath, null);
+                            digests.put(
+                                    "war" + resourcePath,
+                                    Util.getDigestOf(resourceAsStream)); // FIPS OK: Not security related.
                         }
-                        out.println(Util.getDigestOf(resourceAsStream) + "  war" // FIPS OK: Not security related.
-                                + resourcePath);
-                    } catch (IOException e) {
-                        logger.log(Level.WARNING, "Could not compute MD5 of war" + resourcePath, e);
-                    }
-                }
-                resourcePaths = (Set<String>) servletContext.getResourcePaths("/WEB-INF/update-center-rootCAs");
-                for (String resourcePath : new TreeSet<String>(resourcePaths)) {
-                    try {
-                        out.println(Util.getDigestOf(servletContext.getResourceAsStream(resourcePath))
-                                + "  war" // FIPS OK: Not security related.
-                                + resourcePath);
                     } catch (IOException e) {
                         logger.log(Level.WARNING, "Could not compute MD5 of war" + resourcePath, e);
                     }
@@ -883,15 +952,25 @@ public class AboutJenkins extends Component {
                     FileUtils.listFiles(new File(jenkins.getRootDir(), "plugins"), null, false);
             for (File file : pluginFiles) {
                 if (file.isFile()) {
-                    try {
-                        out.println(Util.getDigestOf(new FileInputStream(file)) + "  plugins/"
-                                + file // FIPS OK: Not security related.
-                                        .getName());
-                    } catch (IOException e) {
-                        logger.log(Level.WARNING, "Could not compute MD5 of war/" + file, e);
-                    }
+                    files.put("plugins/" + file.getName(), file);
                 }
             }
+
+            List<File> existingFiles = new ArrayList<>(files.values());
+            existingFiles.removeIf(Objects::isNull);
+            Map<File, String> fileDigests =
+                    new DigestCache(new File(SupportPlugin.getRootDirectory(), DIGESTS_FILE)).digests(existingFiles);
+            files.forEach((name, file) -> {
+                String digest = file == null ? digests.get(name) : fileDigests.get(file);
+                if (digest != null) {
+                    out.println(digest + "  " + name);
+                }
+            });
+        }
+
+        private static Set<String> getResourcePaths(ServletContext servletContext, String path) {
+            Set<String> resourcePaths = servletContext.getResourcePaths(path);
+            return resourcePaths == null ? Collections.emptySet() : new TreeSet<>(resourcePaths);
         }
 
         @Override
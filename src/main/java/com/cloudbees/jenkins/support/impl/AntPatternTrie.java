@@ -0,0 +1,192 @@
+package com.cloudbees.jenkins.support.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Ant-style path patterns, such as {@code **}{@code /*.xml} or {@code workflow/}, compiled into a trie of path
+ * segments so that a path is matched one segment at a time against all the patterns at once.
+ *
+ * <p>
+ * As in Ant, {@code *} matches any characters of a segment and {@code ?} one character, {@code **} matches any number
+ * of segments, and a pattern ending with {@code /} matches everything below. Matching is case sensitive.
+ *
+ * <p>
+ * The {@link State} reached by a directory tells whether anything below it can match, so that directories can be
+ * pruned without listing them.
+ */
+final class AntPatternTrie {
+
+    private final Node root = new Node();
+
+    private AntPatternTrie() {}
+
+    /**
+     * @param patterns the patterns, empty ones are ignored.
+     */
+    static AntPatternTrie compile(Collection<String> patterns) {
+        AntPatternTrie trie = new AntPatternTrie();
+        for (String pattern : patterns) {
+            String normalized = pattern.trim().replace('\\', '/');
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            if (normalized.endsWith("/")) {
+                normalized += "**";
+            }
+            Node node = trie.root;
+            for (String segment : normalized.split("/")) {
+                if (!segment.isEmpty()) {
+                    node = node.child(segment);
+                }
+            }
+            node.terminal = true;
+        }
+        return trie;
+    }
+
+    /**
+     * @return the state of the empty path, the root of the scanned directory.
+     */
+    State start() {
+        Set<Node> nodes = new LinkedHashSet<>();
+        addWithDescendants(nodes, root);
+        return new State(nodes);
+    }
+
+    /**
+     * Adds a node, and the nodes reachable from it through {@code **} matching no segment.
+     */
+    private static void addWithDescendants(Set<Node> nodes, Node node) {
+        while (node != null && nodes.add(node)) {
+            node = node.anyDepth;
+        }
+    }
+
+    /**
+     * The patterns that can still match after some segments of a path.
+     */
+    static final class State {
+        private final Set<Node> nodes;
+
+        private State(Set<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        /**
+         * @param segment the name of a file or directory.
+         * @return the state of the path followed by that segment.
+         */
+        State next(String segment) {
+            if (nodes.isEmpty()) {
+                return this;
+            }
+            Set<Node> next = new LinkedHashSet<>();
+            for (Node node : nodes) {
+                if (node.anyDepthLoop) {
+                    // ** matches one more segment
+                    next.add(node);
+                }
+                addWithDescendants(next, node.literals.get(segment));
+                for (Node glob : node.globs.values()) {
+                    if (glob.glob.matcher(segment).matches()) {
+                        addWithDescendants(next, glob);
+                    }
+                }
+            }
+            return new State(next.isEmpty() ? Collections.emptySet() : next);
+        }
+
+        /**
+         * @return whether the path matches a pattern.
+         */
+        boolean matches() {
+            for (Node node : nodes) {
+                if (node.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return whether no path below this one can match a pattern.
+         */
+        boolean matchesNothingBelow() {
+            for (Node node : nodes) {
+                if (node.anyDepthLoop || !node.literals.isEmpty() || !node.globs.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return whether every path below this one matches a pattern.
+         */
+        boolean matchesEverythingBelow() {
+            for (Node node : nodes) {
+                if (node.anyDepthLoop && node.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final Map<String, Node> globs = new LinkedHashMap<>();
+        // the pattern of the segment matched by this node, if it is a glob
+        private Pattern glob;
+        // child matching any number of segments, if any
+        private Node anyDepth;
+        // whether this node is reached through ** and matches any number of segments
+        private boolean anyDepthLoop;
+        private boolean terminal;
+
+        Node child(String segment) {
+            if (segment.equals("**")) {
+                if (anyDepth == null) {
+                    anyDepth = new Node();
+                    anyDepth.anyDepthLoop = true;
+                }
+                return anyDepth;
+            }
+            if (segment.indexOf('*') < 0 && segment.indexOf('?') < 0) {
+                return literals.computeIfAbsent(segment, s -> new Node());
+            }
+            return globs.computeIfAbsent(segment, s -> {
+                Node node = new Node();
+                node.glob = toRegex(s);
+                return node;
+            });
+        }
+
+        private static Pattern toRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            StringBuilder current = new StringBuilder();
+            for (char c : glob.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (current.length() > 0) {
+                        regex.append(Pattern.quote(current.toString()));
+                        current.setLength(0);
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                } else {
+                    current.append(c);
+                }
+            }
+            if (current.length() > 0) {
+                regex.append(Pattern.quote(current.toString()));
+            }
+            return Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+    }
+}
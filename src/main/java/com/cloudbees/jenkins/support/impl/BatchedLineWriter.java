@@ -0,0 +1,247 @@
+package com.cloudbees.jenkins.support.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Writes lines coming from many sources into a single stream, each prefixed with the time it was received and the
+ * name of its source, such as {@code [2024-05-02T10:00:00.123Z agent-1] Remoting version: 3206.vb_15dcf73f6a_9}.
+ *
+ * <p>
+ * Sources never wait for each other or for the stream: each source queues its lines without locking, and the queued
+ * lines are written in batches by a single writer, run on the given {@link Executor} when there is something to write.
+ * The lines of all the sources are merged by time, so that the stream can be searched by time. Lines are dropped, and
+ * then counted in the stream, when more than a given number of bytes are waiting to be written.
+ */
+final class BatchedLineWriter {
+
+    private static final Logger LOGGER = Logger.getLogger(BatchedLineWriter.class.getName());
+
+    /**
+     * Estimate of the memory used by a queued line besides its content.
+     */
+    private static final int LINE_OVERHEAD = 48;
+
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final long maxQueuedBytes;
+
+    /**
+     * The sources with lines to write.
+     */
+    private final Queue<Source> ready = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean writerScheduled = new AtomicBoolean();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicLong droppedLines = new AtomicLong();
+
+    private final Lock writeLock = new ReentrantLock();
+
+    @GuardedBy("writeLock")
+    private final OutputStream out;
+
+    @GuardedBy("writeLock")
+    private long timestampMillis = Long.MIN_VALUE;
+
+    @GuardedBy("writeLock")
+    private byte[] timestamp;
+
+    private volatile boolean closed;
+
+    BatchedLineWriter(OutputStream out, long maxQueuedBytes, Executor executor) {
+        this(out, maxQueuedBytes, executor, System::currentTimeMillis);
+    }
+
+    BatchedLineWriter(OutputStream out, long maxQueuedBytes, Executor executor, LongSupplier clock) {
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.maxQueuedBytes = maxQueuedBytes;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    Source source(String name) {
+        return new Source(name);
+    }
+
+    /**
+     * @return the number of lines dropped so far because too many were waiting to be written.
+     */
+    long getDroppedLines() {
+        return droppedLines.get();
+    }
+
+    /**
+     * Writes the queued lines and flushes the stream, so that they can be read.
+     */
+    void flush() throws IOException {
+        writeLock.lock();
+        try {
+            drain();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the queued lines and closes the stream. Lines added later are ignored.
+     */
+    void close() throws IOException {
+        writeLock.lock();
+        try {
+            closed = true;
+            drain();
+            out.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void scheduleWriter() {
+        if (writerScheduled.compareAndSet(false, true)) {
+            executor.execute(this::write);
+        }
+    }
+
+    private void write() {
+        try {
+            flush();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not write the agent launch logs", e);
+        } finally {
+            writerScheduled.set(false);
+            if (!ready.isEmpty()) {
+                scheduleWriter();
+            }
+        }
+    }
+
+    @GuardedBy("writeLock")
+    private void drain() throws IOException {
+        if (closed && ready.isEmpty()) {
+            return;
+        }
+        List<Source> sources = new ArrayList<>();
+        List<Line> batch = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            Source source;
+            while ((source = ready.poll()) != null) {
+                // lines added from now on schedule the source again
+                source.scheduled.set(false);
+                sources.add(source);
+                Line line;
+                while ((line = source.lines.poll()) != null) {
+                    batch.add(line);
+                }
+            }
+            // the lines of each source are already in order, which the stable sort keeps
+            batch.sort(Comparator.comparingLong(line -> line.millis));
+            for (Line line : batch) {
+                queuedBytes.addAndGet(-line.size());
+                writePrefix(line.millis, line.source);
+                out.write(line.content);
+            }
+            for (Source s : sources) {
+                long dropped = s.dropped.getAndSet(0);
+                if (dropped > 0) {
+                    writePrefix(clock.getAsLong(), s);
+                    out.write(("... " + dropped + " lines were dropped, too many lines were waiting to be written\n")
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            sources.clear();
+            batch.clear();
+        }
+        out.flush();
+    }
+
+    @GuardedBy("writeLock")
+    private void writePrefix(long millis, Source source) throws IOException {
+        if (millis < timestampMillis) {
+            // received before the lines written last, but queued after them
+            millis = timestampMillis;
+        }
+        if (millis != timestampMillis) {
+            // many lines are usually received in the same millisecond
+            timestampMillis = millis;
+            timestamp = DateTimeFormatter.ISO_INSTANT
+                    .format(Instant.ofEpochMilli(millis))
+                    .getBytes(StandardCharsets.US_ASCII);
+        }
+        out.write('[');
+        out.write(timestamp);
+        out.write(source.suffix);
+    }
+
+    private static final class Line {
+        final Source source;
+        final long millis;
+        final byte[] content;
+
+        Line(Source source, long millis, byte[] content) {
+            this.source = source;
+            this.millis = millis;
+            this.content = content;
+        }
+
+        long size() {
+            return content.length + LINE_OVERHEAD;
+        }
+    }
+
+    /**
+     * The lines of a source, written in the order they were added.
+     */
+    final class Source {
+        private final byte[] suffix;
+        private final Queue<Line> lines = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+
+        private Source(String name) {
+            this.suffix = (" " + name + "] ").getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Queues a line to be written.
+         *
+         * @param b the line, including its end of line.
+         * @param len the length of the line.
+         */
+        void add(byte[] b, int len) {
+            if (closed) {
+                return;
+            }
+            Line line = new Line(this, clock.getAsLong(), Arrays.copyOf(b, len));
+            if (queuedBytes.addAndGet(line.size()) > maxQueuedBytes) {
+                queuedBytes.addAndGet(-line.size());
+                droppedLines.incrementAndGet();
+                dropped.incrementAndGet();
+            } else {
+                lines.add(line);
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                ready.add(this);
+                scheduleWriter();
+            }
+        }
+    }
+}
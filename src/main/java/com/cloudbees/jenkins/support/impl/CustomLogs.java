@@ -3,6 +3,7 @@ package com.cloudbees.jenkins.support.impl;
 import com.cloudbees.jenkins.support.api.Component;
 import com.cloudbees.jenkins.support.api.Container;
 import com.cloudbees.jenkins.support.api.FileContent;
+import com.cloudbees.jenkins.support.api.TimeWindow;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
@@ -80,18 +81,22 @@ public class CustomLogs extends Component {
      * by the user. The contents are also ring buffer and only remembers recent 256 or so entries.
      */
     private void addLogRecorders(Container result) {
+        TimeWindow timeWindow = result.getTimeWindow();
         for (final LogRecorder recorder : logRecorders) {
             String name = recorder.getName();
             String entryName = "nodes/master/logs/custom/{0}.log"; // name to be filtered in the bundle
             File storedFile = new File(customLogs, name + ".log");
             if (storedFile.isFile()) {
-                result.add(new FileContent(entryName, new String[] {name}, storedFile));
+                if (timeWindow == null || timeWindow.mayContain(storedFile)) {
+                    result.add(new FileContent(entryName, new String[] {name}, storedFile, -1, timeWindow));
+                }
             } else {
                 // Was not stored for some reason; fine, just load the memory buffer.
                 result.add(new LogRecordContent(entryName, new String[] {name}) {
                     @Override
                     public Iterable<LogRecord> getLogRecords() {
-                        return recorder.getLogRecords();
+                        List<LogRecord> records = recorder.getLogRecords();
+                        return timeWindow == null ? records : timeWindow.filter(records);
                     }
                 });
             }
@@ -105,6 +110,9 @@ public class CustomLogs extends Component {
             }
 
             for (File rotatedLogFile : rotatedLogFiles) {
+                if (timeWindow != null && !timeWindow.mayContain(rotatedLogFile)) {
+                    continue;
+                }
                 String rotatedEntryName = "nodes/master/logs/custom/{0}.log.";
 
                 try {
@@ -113,8 +121,12 @@ public class CustomLogs extends Component {
                     String[] logNameParts = rotatedLogFile.getName().split("\\.");
                     String logRotationNumber = logNameParts[logNameParts.length - 1];
 
-                    result.add(
-                            new FileContent(rotatedEntryName + logRotationNumber, new String[] {name}, rotatedLogFile));
+                    result.add(new FileContent(
+                            rotatedEntryName + logRotationNumber,
+                            new String[] {name},
+                            rotatedLogFile,
+                            -1,
+                            timeWindow));
                 } catch (Exception e) {
                     LOGGER.log(Level.WARNING, "Error while adding rotated log files for " + name, e);
                 }
@@ -0,0 +1,232 @@
+package com.cloudbees.jenkins.support.impl;
+
+import com.cloudbees.jenkins.support.util.AtomicFiles;
+import hudson.Util;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * MD5 digests of files, kept in a file so that they are only computed again when a file changes.
+ *
+ * <p>
+ * A digest is reused as long as the path, size, modification time and file key (the inode on Unix) of the file are
+ * the same, so that an unchanged file costs a single {@code stat}. The other files are read in parallel, by threads
+ * shared by all the caches. Only the callers using the same file to keep the digests wait for each other.
+ *
+ * <p>
+ * Used on the controller and on the agents, so it only depends on the JDK and Jenkins core.
+ */
+final class DigestCache {
+
+    private static final Logger LOGGER = Logger.getLogger(DigestCache.class.getName());
+
+    /**
+     * How many files are read at once.
+     */
+    private static final int PARALLELISM = Integer.getInteger(
+            DigestCache.class.getName() + ".PARALLELISM", Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    /**
+     * By the path of the file keeping the digests.
+     */
+    private static final ConcurrentMap<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private final File store;
+
+    /**
+     * @param store the file keeping the digests, its directory is created when needed.
+     */
+    DigestCache(File store) {
+        this.store = store;
+    }
+
+    /**
+     * @param files the files to digest.
+     * @return the MD5 digests of the files, in the same order, leaving out the files which could not be read.
+     */
+    Map<File, String> digests(List<File> files) {
+        synchronized (LOCKS.computeIfAbsent(store.getAbsolutePath(), path -> new Object())) {
+            Map<String, Entry> cached = load();
+            Map<String, Entry> entries = new HashMap<>();
+            Map<File, Future<String>> computed = new HashMap<>();
+            try {
+                for (File file : files) {
+                    Entry entry;
+                    try {
+                        entry = Entry.of(file);
+                    } catch (IOException e) {
+                        LOGGER.log(Level.WARNING, "Could not compute MD5 of " + file, e);
+                        continue;
+                    }
+                    Entry previous = cached.get(entry.path);
+                    if (previous != null && previous.isSameFile(entry)) {
+                        entries.put(entry.path, previous);
+                        continue;
+                    }
+                    entries.put(entry.path, entry);
+                    computed.put(file, EXECUTOR.submit(() -> digest(file)));
+                }
+                Map<File, String> result = new LinkedHashMap<>();
+                for (File file : files) {
+                    Entry entry = entries.get(file.getAbsolutePath());
+                    if (entry == null) {
+                        continue;
+                    }
+                    Future<String> digest = computed.get(file);
+                    if (digest != null) {
+                        try {
+                            entry.digest = digest.get();
+                        } catch (ExecutionException e) {
+                            LOGGER.log(Level.WARNING, "Could not compute MD5 of " + file, e.getCause());
+                            entries.remove(entry.path);
+                            continue;
+                        }
+                    }
+                    result.put(file, entry.digest);
+                }
+                if (!computed.isEmpty() || entries.size() != cached.size()) {
+                    save(entries);
+                }
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Map.of();
+            } finally {
+                // when interrupted
+                computed.values().forEach(digest -> digest.cancel(true));
+            }
+        }
+    }
+
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                PARALLELISM,
+                PARALLELISM,
+                1,
+                TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "Support checksums"));
+        // no thread is kept between the bundles
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static String digest(File file) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return Util.getDigestOf(in); // FIPS OK: Not security related.
+        }
+    }
+
+    private Map<String, Entry> load() {
+        Map<String, Entry> entries = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(store.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = Entry.parse(line);
+                if (entry != null) {
+                    entries.put(entry.path, entry);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // nothing computed yet
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not read " + store, e);
+        }
+        return entries;
+    }
+
+    private void save(Map<String, Entry> entries) {
+        try {
+            AtomicFiles.write(store, os -> {
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+                for (Entry entry : entries.values()) {
+                    writer.write(entry.toString());
+                    writer.newLine();
+                }
+                writer.flush();
+            });
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not write " + store, e);
+        }
+    }
+
+    private static final class Entry {
+        private final String path;
+        private final long size;
+        private final long lastModified;
+        private final String fileKey;
+        private String digest;
+
+        private Entry(String path, long size, long lastModified, String fileKey, String digest) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+            this.digest = digest;
+        }
+
+        static Entry of(File file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            Object fileKey = attributes.fileKey();
+            return new Entry(
+                    file.getAbsolutePath(),
+                    attributes.size(),
+                    attributes.lastModifiedTime().toMillis(),
+                    fileKey == null ? "" : fileKey.toString(),
+                    null);
+        }
+
+        boolean isSameFile(Entry other) {
+            return size == other.size && lastModified == other.lastModified && fileKey.equals(other.fileKey);
+        }
+
+        /**
+         * @return the entry, or {@code null} if the line is not a valid one.
+         */
+        static Entry parse(String line) {
+            String[] fields = line.split("\t", 5);
+            if (fields.length != 5 || fields[0].isEmpty()) {
+                return null;
+            }
+            try {
+                return new Entry(
+                        fields[4], Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3], fields[0]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            // the path last, as it may contain anything
+            return Objects.requireNonNull(digest) + '\t' + size + '\t' + lastModified + '\t' + fileKey + '\t' + path;
+        }
+    }
+}
@@ -54,29 +54,12 @@ public abstract class DirectoryComponent<T extends AbstractModelObject> extends
         setMaxDepth(maxDepth);
     }
 
+    /**
+     * Lists the files of a directory matching the patterns of this component, up to its maximum depth. The directories
+     * are listed in parallel, but the visitor is called from the calling thread as the files are found.
+     */
     protected final void list(File dir, FileVisitor visitor) throws IOException {
-        DirScanner scan = new DirGlobScanner(getIncludes(), getExcludes(), getDefaultExcludes(), false);
-        scan.scan(dir, new FileVisitor() {
-
-            @Override
-            public void visit(File file, String s) throws IOException {
-                if (Paths.get(s).getNameCount() <= getMaxDepth()) {
-                    visitor.visit(file, s);
-                }
-            }
-
-            @Override
-            public void visitSymlink(File link, String target, String relativePath) throws IOException {
-                if (Paths.get(relativePath).getNameCount() <= getMaxDepth()) {
-                    visitor.visitSymlink(link, target, relativePath);
-                }
-            }
-
-            @Override
-            public boolean understandsSymlink() {
-                return true;
-            }
-        });
+        new ParallelDirScanner(getIncludes(), getExcludes(), getDefaultExcludes(), getMaxDepth()).scan(dir, visitor);
     }
 
     public String getIncludes() {
@@ -50,6 +50,11 @@ public class EnvironmentVariables extends Component {
         return "Environment variables";
     }
 
+    @Override
+    public String getContentCacheKey() {
+        return AsyncResultCache.getNodesKey(environmentVariableCache);
+    }
+
     @Override
     public void addContents(@NonNull Container result) {
         result.add(new PrintedContent("nodes/master/environment.txt") {
@@ -0,0 +1,492 @@
+package com.cloudbees.jenkins.support.impl;
+
+import com.cloudbees.jenkins.support.slowrequest.LatencyHistogram;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single pass analyzer of garbage collector logs in the unified JVM logging format ({@code -Xlog:gc}), such as:
+ *
+ * <pre>
+ * [2024-05-02T10:15:30.123+0000][12.345s][info][gc] GC(7) Pause Young (Normal) 124M-&gt;24M(256M) 3.4ms
+ * </pre>
+ *
+ * <p>
+ * The logs are read line by line, and only aggregates of a bounded size are kept, whatever the size of the logs: a
+ * histogram of the pause times, the {@value #LONGEST_PAUSES} longest pauses, running sums for the rates and the heap
+ * trend, and at most {@value #TREND_BUCKETS} time buckets whose width doubles as the logs get longer.
+ *
+ * <p>
+ * The promotion rate is estimated from the growth of the heap occupancy after consecutive young collections, as the
+ * default {@code gc} tag does not give the old generation occupancy.
+ */
+final class GCLogAnalyzer {
+
+    /**
+     * Number of the longest pauses listed in the summary.
+     */
+    static final int LONGEST_PAUSES = 10;
+
+    /**
+     * Maximum number of time buckets of the heap trend.
+     */
+    static final int TREND_BUCKETS = 48;
+
+    private static final long INITIAL_BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Bounds the number of distinct pause types, in case of an unexpected format.
+     */
+    private static final int MAX_PAUSE_TYPES = 20;
+
+    private static final Pattern UPTIME = Pattern.compile("(\\d+(?:[.,]\\d+)?)(s|ms)");
+
+    private static final Pattern GC_ID = Pattern.compile("GC\\((\\d+)\\) ");
+
+    private static final Pattern PAUSE = Pattern.compile("Pause ([A-Za-z]+)");
+
+    private static final Pattern DURATION = Pattern.compile(" (\\d+(?:[.,]\\d+)?)ms$");
+
+    private static final Pattern HEAP_TRANSITION = Pattern.compile(
+            "(\\d+)([BKMG])(?:\\(\\d+%\\))?->(\\d+)([BKMG])(?:\\(\\d+%\\))?(?:\\((\\d+)([BKMG])\\))?");
+
+    private final LatencyHistogram pauseMicros = new LatencyHistogram();
+
+    private final Map<String, long[]> pausesByType = new TreeMap<>();
+
+    private final PriorityQueue<Pause> longestPauses =
+            new PriorityQueue<>(LONGEST_PAUSES + 1, Comparator.comparingLong((Pause p) -> p.micros));
+
+    private final Bucket[] buckets = new Bucket[TREND_BUCKETS];
+
+    private long bucketMillis = INITIAL_BUCKET_MILLIS;
+
+    private long lines;
+
+    private long files;
+
+    /**
+     * Time covered by the previous JVM runs, the uptime starting again from zero at each run.
+     */
+    private long previousRunsMillis;
+
+    private long runStartMillis = -1;
+
+    private long lastUptimeMillis = -1;
+
+    private long heapSamples;
+
+    private long lastHeapAfterKb = -1;
+
+    private long lastYoungHeapAfterKb = -1;
+
+    private long allocatedKb;
+
+    private long promotedKb;
+
+    private long maxHeapAfterKb;
+
+    private long maxCapacityKb;
+
+    // least squares of the heap occupancy after GC, in MB, over the time, in hours
+    private double sumT;
+
+    private double sumH;
+
+    private double sumTT;
+
+    private double sumTH;
+
+    /**
+     * Analyzes log files, in the given order.
+     */
+    void analyze(@NonNull List<File> logs) throws IOException {
+        for (File log : logs) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Files.newInputStream(log.toPath()), StandardCharsets.UTF_8))) {
+                analyze(reader, log.getName());
+            }
+        }
+    }
+
+    void analyze(@NonNull BufferedReader reader, @NonNull String fileName) throws IOException {
+        files++;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            accept(line, fileName);
+        }
+    }
+
+    private void accept(String line, String fileName) {
+        lines++;
+        // decorations, such as [2024-05-02T10:15:30.123+0000][12.345s][info][gc,start]
+        String time = null;
+        long uptimeMillis = -1;
+        int pos = 0;
+        while (pos < line.length() && line.charAt(pos) == '[') {
+            int end = line.indexOf(']', pos);
+            if (end < 0) {
+                return;
+            }
+            String decoration = line.substring(pos + 1, end).trim();
+            Matcher uptime = UPTIME.matcher(decoration);
+            if (uptime.matches()) {
+                double value = Double.parseDouble(uptime.group(1).replace(',', '.'));
+                uptimeMillis = (long) (uptime.group(2).equals("s") ? value * 1000 : value);
+            } else if (decoration.length() > 10 && decoration.charAt(4) == '-' && decoration.charAt(10) == 'T') {
+                time = decoration;
+            }
+            pos = end + 1;
+        }
+        long timeline = timeline(uptimeMillis);
+        // cheap checks first, as most lines are neither a pause nor a heap transition
+        boolean pause = line.indexOf("Pause ", pos) >= 0;
+        if (!pause && line.indexOf("->", pos) < 0) {
+            return;
+        }
+        String message = line.substring(pos);
+        Matcher gcId = GC_ID.matcher(message);
+        if (!gcId.find()) {
+            return;
+        }
+
+        String type = null;
+        long micros = -1;
+        if (pause) {
+            Matcher pauseType = PAUSE.matcher(message);
+            Matcher duration = DURATION.matcher(message);
+            // the gc,start lines have no duration
+            if (pauseType.find() && duration.find()) {
+                type = pauseType.group(1);
+                micros = (long) (Double.parseDouble(duration.group(1).replace(',', '.')) * 1000);
+                recordPause(type, micros, new Pause(micros, gcId.group(1), type, time, uptimeMillis, fileName));
+            }
+        }
+        // the detail lines, such as "Eden regions: 10->0(12)" or "Metaspace: 20K->20K(1056K)", are not the heap
+        Matcher heap = HEAP_TRANSITION.matcher(message);
+        if (message.indexOf(": ", gcId.end()) < 0 && heap.find(gcId.end())) {
+            long beforeKb = kilobytes(heap.group(1), heap.group(2));
+            long afterKb = kilobytes(heap.group(3), heap.group(4));
+            long capacityKb = heap.group(5) == null ? -1 : kilobytes(heap.group(5), heap.group(6));
+            recordHeap(type, beforeKb, afterKb, capacityKb, timeline);
+        }
+        if (micros >= 0 && timeline >= 0) {
+            bucket(timeline).pause(micros);
+        }
+    }
+
+    /**
+     * @return the time since the first event, across JVM runs, or -1 if the lines have no uptime decoration.
+     */
+    private long timeline(long uptimeMillis) {
+        if (uptimeMillis < 0) {
+            return -1;
+        }
+        if (uptimeMillis < lastUptimeMillis) {
+            // a new JVM run, or an older rotated file
+            previousRunsMillis += lastUptimeMillis - runStartMillis;
+            runStartMillis = -1;
+            lastHeapAfterKb = -1;
+            lastYoungHeapAfterKb = -1;
+        }
+        if (runStartMillis < 0) {
+            runStartMillis = uptimeMillis;
+        }
+        lastUptimeMillis = uptimeMillis;
+        return previousRunsMillis + uptimeMillis - runStartMillis;
+    }
+
+    private void recordPause(String type, long micros, Pause pause) {
+        pauseMicros.update(micros);
+        long[] byType = pausesByType.get(type);
+        if (byType == null && pausesByType.size() < MAX_PAUSE_TYPES) {
+            byType = new long[3];
+            pausesByType.put(type, byType);
+        }
+        if (byType != null) {
+            byType[0]++;
+            byType[1] += micros;
+            byType[2] = Math.max(byType[2], micros);
+        }
+        if (longestPauses.size() < LONGEST_PAUSES || micros > longestPauses.peek().micros) {
+            longestPauses.add(pause);
+            if (longestPauses.size() > LONGEST_PAUSES) {
+                longestPauses.poll();
+            }
+        }
+    }
+
+    private void recordHeap(@CheckForNull String type, long beforeKb, long afterKb, long capacityKb, long timeline) {
+        heapSamples++;
+        if (lastHeapAfterKb >= 0 && beforeKb > lastHeapAfterKb) {
+            allocatedKb += beforeKb - lastHeapAfterKb;
+        }
+        lastHeapAfterKb = afterKb;
+        if ("Young".equals(type)) {
+            if (lastYoungHeapAfterKb >= 0 && afterKb > lastYoungHeapAfterKb) {
+                promotedKb += afterKb - lastYoungHeapAfterKb;
+            }
+            lastYoungHeapAfterKb = afterKb;
+        } else {
+            // an old generation collection or a concurrent cycle may have reclaimed promoted objects
+            lastYoungHeapAfterKb = -1;
+        }
+        maxHeapAfterKb = Math.max(maxHeapAfterKb, afterKb);
+        maxCapacityKb = Math.max(maxCapacityKb, capacityKb);
+        if (timeline >= 0) {
+            double hours = timeline / (double) TimeUnit.HOURS.toMillis(1);
+            double mb = afterKb / 1024.0;
+            sumT += hours;
+            sumH += mb;
+            sumTT += hours * hours;
+            sumTH += hours * mb;
+            bucket(timeline).heap(afterKb);
+        }
+    }
+
+    private Bucket bucket(long timeline) {
+        while (timeline / bucketMillis >= TREND_BUCKETS) {
+            // halve the resolution
+            for (int i = 0; i < TREND_BUCKETS; i++) {
+                Bucket merged = null;
+                for (int j = 2 * i; j < Math.min(2 * i + 2, TREND_BUCKETS); j++) {
+                    if (buckets[j] != null) {
+                        merged = merged == null ? buckets[j] : merged.merge(buckets[j]);
+                    }
+                }
+                buckets[i] = merged;
+            }
+            bucketMillis *= 2;
+        }
+        int index = (int) (timeline / bucketMillis);
+        if (buckets[index] == null) {
+            buckets[index] = new Bucket();
+        }
+        return buckets[index];
+    }
+
+    private static long kilobytes(String value, String unit) {
+        long n = Long.parseLong(value);
+        switch (unit) {
+            case "B":
+                return n / 1024;
+            case "M":
+                return n * 1024;
+            case "G":
+                return n * 1024 * 1024;
+            default:
+                return n;
+        }
+    }
+
+    /**
+     * @return the time covered by the logs, in milliseconds.
+     */
+    long getDurationMillis() {
+        return lastUptimeMillis < 0 ? 0 : previousRunsMillis + lastUptimeMillis - runStartMillis;
+    }
+
+    long getPauseCount() {
+        return pauseMicros.getCount();
+    }
+
+    long getPauseMicros(double quantile) {
+        return pauseMicros.getValue(quantile);
+    }
+
+    long getAllocatedKb() {
+        return allocatedKb;
+    }
+
+    long getPromotedKb() {
+        return promotedKb;
+    }
+
+    /**
+     * @return the slope of the heap occupancy after GC, in MB per hour, or {@link Double#NaN} if unknown.
+     */
+    double getHeapTrendMbPerHour() {
+        double n = heapSamples;
+        double denominator = n * sumTT - sumT * sumT;
+        if (n < 2 || denominator <= 0) {
+            return Double.NaN;
+        }
+        return (n * sumTH - sumT * sumH) / denominator;
+    }
+
+    /**
+     * @return the longest pauses, longest first.
+     */
+    List<Pause> getLongestPauses() {
+        List<Pause> pauses = new ArrayList<>(longestPauses);
+        pauses.sort(Comparator.comparingLong((Pause p) -> p.micros).reversed());
+        return pauses;
+    }
+
+    void printSummary(PrintWriter out) {
+        out.println("Garbage collection summary");
+        out.println("==========================");
+        out.println();
+        out.println("* Files: " + files);
+        out.println("* Lines: " + lines);
+        long duration = getDurationMillis();
+        out.println("* Time covered: " + String.format("%.1f", duration / 60_000.0) + " minutes");
+        long pauses = getPauseCount();
+        if (pauses == 0) {
+            out.println();
+            out.println("No garbage collection pause found, the `gc` tag must be logged at the `info` level.");
+            return;
+        }
+        out.println("* Pauses: " + pauses);
+        if (duration > 0) {
+            out.println("* Pauses per minute: " + String.format("%.2f", pauses * 60_000.0 / duration));
+            out.println("* Time spent in pauses: "
+                    + String.format("%.3f", pauseMicros.getSum() / 10.0 / duration) + "%");
+            out.println("* Allocation rate: " + String.format("%.2f", allocatedKb / 1024.0 / duration * 1000)
+                    + " MB/s");
+            out.println("* Promotion rate (estimated): "
+                    + String.format("%.2f", promotedKb / 1024.0 / duration * 1000) + " MB/s");
+        }
+        out.println("* Max heap after GC: " + maxHeapAfterKb / 1024 + " MB");
+        out.println("* Max heap capacity: " + maxCapacityKb / 1024 + " MB");
+        double trend = getHeapTrendMbPerHour();
+        if (!Double.isNaN(trend)) {
+            out.println("* Heap after GC trend: " + String.format("%+.1f", trend) + " MB/hour");
+        }
+        out.println();
+
+        out.println("Pause times");
+        out.println("-----------");
+        out.println();
+        out.println("| Type | Count | Total (ms) | Mean (ms) | Max (ms) |");
+        out.println("|------|------:|-----------:|----------:|---------:|");
+        pausesByType.forEach((type, byType) -> out.printf(
+                "| %s | %d | %s | %s | %s |%n",
+                type, byType[0], millis(byType[1]), millis(byType[1] / byType[0]), millis(byType[2])));
+        out.println();
+        out.println("| p50 (ms) | p90 (ms) | p99 (ms) | p99.9 (ms) | Max (ms) |");
+        out.println("|---------:|---------:|---------:|-----------:|---------:|");
+        out.printf(
+                "| %s | %s | %s | %s | %s |%n",
+                millis(getPauseMicros(0.5)),
+                millis(getPauseMicros(0.9)),
+                millis(getPauseMicros(0.99)),
+                millis(getPauseMicros(0.999)),
+                millis(pauseMicros.getMax()));
+        out.println();
+
+        out.println("Longest pauses");
+        out.println("--------------");
+        out.println();
+        out.println("| Duration (ms) | GC | Type | Time | Uptime (s) | File |");
+        out.println("|--------------:|---:|------|------|-----------:|------|");
+        for (Pause pause : getLongestPauses()) {
+            out.printf(
+                    "| %s | %s | %s | %s | %s | %s |%n",
+                    millis(pause.micros),
+                    pause.gcId,
+                    pause.type,
+                    pause.time == null ? "" : pause.time,
+                    pause.uptimeMillis < 0 ? "" : String.format("%.3f", pause.uptimeMillis / 1000.0),
+                    pause.fileName);
+        }
+        out.println();
+
+        out.println("Heap after GC over time");
+        out.println("-----------------------");
+        out.println();
+        out.println("See `gc-summary.csv` for the values, in buckets of " + bucketMillis / 1000 + " seconds.");
+    }
+
+    /**
+     * Prints the time buckets, the start being the time since the first event.
+     */
+    void printCsv(PrintWriter out) {
+        out.println("start_seconds,pauses,pause_total_ms,pause_max_ms,heap_after_min_mb,heap_after_max_mb");
+        for (int i = 0; i < TREND_BUCKETS; i++) {
+            Bucket bucket = buckets[i];
+            if (bucket == null) {
+                continue;
+            }
+            out.printf(
+                    "%d,%d,%s,%s,%s,%s%n",
+                    i * bucketMillis / 1000,
+                    bucket.pauses,
+                    millis(bucket.pauseMicros),
+                    millis(bucket.maxPauseMicros),
+                    bucket.minHeapAfterKb < 0 ? "" : String.valueOf(bucket.minHeapAfterKb / 1024),
+                    bucket.maxHeapAfterKb < 0 ? "" : String.valueOf(bucket.maxHeapAfterKb / 1024));
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.3f", micros / 1000.0);
+    }
+
+    static final class Pause {
+        final long micros;
+        final String gcId;
+        final String type;
+
+        @CheckForNull
+        final String time;
+
+        final long uptimeMillis;
+        final String fileName;
+
+        Pause(long micros, String gcId, String type, @CheckForNull String time, long uptimeMillis, String fileName) {
+            this.micros = micros;
+            this.gcId = gcId;
+            this.type = type;
+            this.time = time;
+            this.uptimeMillis = uptimeMillis;
+            this.fileName = fileName;
+        }
+    }
+
+    private static final class Bucket {
+        private long pauses;
+        private long pauseMicros;
+        private long maxPauseMicros;
+        private long minHeapAfterKb = -1;
+        private long maxHeapAfterKb = -1;
+
+        void pause(long micros) {
+            pauses++;
+            pauseMicros += micros;
+            maxPauseMicros = Math.max(maxPauseMicros, micros);
+        }
+
+        void heap(long afterKb) {
+            minHeapAfterKb = minHeapAfterKb < 0 ? afterKb : Math.min(minHeapAfterKb, afterKb);
+            maxHeapAfterKb = Math.max(maxHeapAfterKb, afterKb);
+        }
+
+        Bucket merge(Bucket other) {
+            pauses += other.pauses;
+            pauseMicros += other.pauseMicros;
+            maxPauseMicros = Math.max(maxPauseMicros, other.maxPauseMicros);
+            if (other.minHeapAfterKb >= 0) {
+                heap(other.minHeapAfterKb);
+                heap(other.maxHeapAfterKb);
+            }
+            return this;
+        }
+    }
+}
@@ -2,14 +2,20 @@ package com.cloudbees.jenkins.support.impl;
 
 import com.cloudbees.jenkins.support.api.Component;
 import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.PrintedContent;
 import com.cloudbees.jenkins.support.api.UnfilteredFileContent;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.security.Permission;
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
@@ -42,6 +48,12 @@ public class GCLogs extends Component {
      */
     private static final Integer GCLOGS_RETENTION_DAYS = Integer.getInteger(GCLOGS_RETENTION_PROPERTY, 5);
 
+    /**
+     * Whether the raw log files should be included in the bundle, next to the summary computed from them.
+     */
+    private static final boolean GCLOGS_INCLUDE_RAW =
+            Boolean.parseBoolean(System.getProperty(GCLogs.class.getName() + ".includeRawLogs", "true"));
+
     private static final String GCLOGS_BUNDLE_ROOT = "nodes/master/logs/gc/";
 
     private static final Logger LOGGER = Logger.getLogger(GCLogs.class.getName());
@@ -82,8 +94,9 @@ public class GCLogs extends Component {
             return;
         }
 
+        List<File> gcLogs;
         if (isFileLocationParameterized(gcLogFileLocation) || isGcLogRotationConfigured()) {
-            handleRotatedLogs(gcLogFileLocation, result);
+            gcLogs = handleRotatedLogs(gcLogFileLocation, result);
         } else {
             File file = new File(gcLogFileLocation);
             if (!file.exists()) {
@@ -91,8 +104,44 @@ public class GCLogs extends Component {
                         + "' not found");
                 return;
             }
-            result.add(new UnfilteredFileContent(GCLOGS_BUNDLE_ROOT + "gc.log", file));
+            if (GCLOGS_INCLUDE_RAW) {
+                result.add(new UnfilteredFileContent(GCLOGS_BUNDLE_ROOT + "gc.log", file));
+            }
+            gcLogs = Collections.singletonList(file);
         }
+        if (!gcLogs.isEmpty()) {
+            addSummary(gcLogs, result);
+        }
+    }
+
+    /**
+     * Adds a summary of the logs, and its time series as CSV, computed in a single pass over the logs when the first
+     * of them is written.
+     */
+    private static void addSummary(List<File> gcLogs, Container result) {
+        Summary summary = new Summary(gcLogs);
+        result.add(new PrintedContent(GCLOGS_BUNDLE_ROOT + "gc-summary.md") {
+            @Override
+            protected void printTo(PrintWriter out) throws IOException {
+                summary.get().printSummary(out);
+            }
+
+            @Override
+            public boolean shouldBeFiltered() {
+                return false;
+            }
+        });
+        result.add(new PrintedContent(GCLOGS_BUNDLE_ROOT + "gc-summary.csv") {
+            @Override
+            protected void printTo(PrintWriter out) throws IOException {
+                summary.get().printCsv(out);
+            }
+
+            @Override
+            public boolean shouldBeFiltered() {
+                return false;
+            }
+        });
     }
 
     @Override
@@ -117,9 +166,10 @@ public class GCLogs extends Component {
      *
      * @param gcLogFileLocation the specified value within <code>-Xlog:gc.*:file=[filename]:.*</code> for JDK 9+ or after <code>-Xloggc:[filename]</code> for JDK 8
      * @param result            the container where to add the found logs, if any.
+     * @return the found logs, oldest first.
      * @see https://bugs.openjdk.java.net/browse/JDK-7164841
      */
-    private void handleRotatedLogs(@NonNull final String gcLogFileLocation, Container result) {
+    private List<File> handleRotatedLogs(@NonNull final String gcLogFileLocation, Container result) {
         File gcLogFile = new File(gcLogFileLocation);
 
         // always add .* in the end because this is where the numbering is going to happen
@@ -130,24 +180,31 @@ public class GCLogs extends Component {
 
         if (parentDirectory == null || !parentDirectory.exists()) {
             LOGGER.warning("[Support Bundle] " + parentDirectory + " does not exist, cannot collect gc logging files.");
-            return;
+            return Collections.emptyList();
         }
 
         File[] gcLogs = parentDirectory.listFiles(
                 (dir, name) -> gcLogFilesPattern.matcher(name).matches());
         if (gcLogs == null || gcLogs.length == 0) {
             LOGGER.warning("No GC logging files found, although the VM argument was found. This is probably a bug.");
-            return;
+            return Collections.emptyList();
         }
 
         LOGGER.finest("Found " + gcLogs.length + " matching files in " + parentDirectory.getAbsolutePath());
+        List<File> considered = new ArrayList<>();
         for (File gcLog : gcLogs) {
             if (shouldConsiderFile(gcLog)) {
-                LOGGER.finest("Adding '" + gcLog.getName() + "' file");
-                result.add(
-                        new UnfilteredFileContent(GCLOGS_BUNDLE_ROOT + "{0}", new String[] {gcLog.getName()}, gcLog));
+                considered.add(gcLog);
+                if (GCLOGS_INCLUDE_RAW) {
+                    LOGGER.finest("Adding '" + gcLog.getName() + "' file");
+                    result.add(new UnfilteredFileContent(
+                            GCLOGS_BUNDLE_ROOT + "{0}", new String[] {gcLog.getName()}, gcLog));
+                }
             }
         }
+        // rotated files are reused in turn, so their names do not tell their order
+        considered.sort(Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+        return considered;
     }
 
     @CheckForNull
@@ -193,6 +250,27 @@ public class GCLogs extends Component {
                         .find();
     }
 
+    /**
+     * Analyzes the logs once, for both the summary and the CSV.
+     */
+    private static final class Summary {
+        private final List<File> gcLogs;
+        private GCLogAnalyzer analyzer;
+
+        Summary(List<File> gcLogs) {
+            this.gcLogs = gcLogs;
+        }
+
+        synchronized GCLogAnalyzer get() throws IOException {
+            if (analyzer == null) {
+                GCLogAnalyzer result = new GCLogAnalyzer();
+                result.analyze(gcLogs);
+                analyzer = result;
+            }
+            return analyzer;
+        }
+    }
+
     /**
      * Isolated code to make it testable
      */
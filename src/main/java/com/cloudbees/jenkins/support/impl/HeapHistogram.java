@@ -0,0 +1,250 @@
+package com.cloudbees.jenkins.support.impl;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A class histogram of the heap, as printed by the {@code gcClassHistogram} diagnostic command, held in primitive
+ * arrays.
+ *
+ * <p>
+ * The raw output is scanned once, line by line, without being split or copied. Only the class names are kept as
+ * strings.
+ */
+final class HeapHistogram {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int OTHER_LINE = 0;
+
+    private static final int CLASS_LINE = 1;
+
+    private static final int TOTAL_LINE = 2;
+
+    final long timestamp;
+
+    int size;
+
+    String[] classNames;
+
+    long[] instances;
+
+    long[] bytes;
+
+    long totalInstances;
+
+    long totalBytes;
+
+    HeapHistogram(long timestamp, int capacity) {
+        this.timestamp = timestamp;
+        classNames = new String[capacity];
+        instances = new long[capacity];
+        bytes = new long[capacity];
+    }
+
+    /**
+     * Parses the output of {@code gcClassHistogram}, which looks like:
+     *
+     * <pre>
+     *  num     #instances         #bytes  class name (module)
+     * -------------------------------------------------------
+     *    1:         12345        1234560  [B (java.base@21)
+     * ...
+     * Total        123456       12345600
+     * </pre>
+     *
+     * @param raw the output of the diagnostic command.
+     * @param maxClasses the maximum number of classes to keep, the histogram being sorted by bytes.
+     */
+    @NonNull
+    static HeapHistogram parse(@NonNull String raw, long timestamp, int maxClasses) {
+        HeapHistogram histogram = new HeapHistogram(timestamp, Math.max(1, Math.min(maxClasses, 1024)));
+        long[] numbers = new long[3];
+        int pos = 0;
+        int length = raw.length();
+        while (pos < length) {
+            int end = raw.indexOf('\n', pos);
+            if (end < 0) {
+                end = length;
+            }
+            switch (parseLine(raw, pos, end, numbers)) {
+                case CLASS_LINE:
+                    if (histogram.size < maxClasses) {
+                        int nameStart = skipSpaces(raw, (int) numbers[2], end);
+                        histogram.add(raw.substring(nameStart, trimEnd(raw, nameStart, end)), numbers);
+                    }
+                    break;
+                case TOTAL_LINE:
+                    histogram.totalInstances = numbers[0];
+                    histogram.totalBytes = numbers[1];
+                    break;
+                default:
+                    // header, separator or blank line
+            }
+            pos = end + 1;
+        }
+        return histogram;
+    }
+
+    /**
+     * Reads the instances and bytes of a line into the first two {@code numbers}, after the rank or the {@code Total}
+     * label, and where the class name starts into the third one.
+     */
+    private static int parseLine(String raw, int start, int end, long[] numbers) {
+        int pos = skipSpaces(raw, start, end);
+        int kind;
+        if (raw.startsWith("Total", pos)) {
+            kind = TOTAL_LINE;
+            pos += "Total".length();
+        } else {
+            int rank = pos;
+            while (pos < end && isDigit(raw.charAt(pos))) {
+                pos++;
+            }
+            if (pos == rank || pos >= end || raw.charAt(pos) != ':') {
+                return OTHER_LINE;
+            }
+            kind = CLASS_LINE;
+            pos++;
+        }
+        for (int i = 0; i < 2; i++) {
+            pos = skipSpaces(raw, pos, end);
+            int digits = pos;
+            long value = 0;
+            while (pos < end && isDigit(raw.charAt(pos))) {
+                value = value * 10 + (raw.charAt(pos++) - '0');
+            }
+            if (pos == digits) {
+                return OTHER_LINE;
+            }
+            numbers[i] = value;
+        }
+        numbers[2] = pos;
+        return kind;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void add(String className, long[] numbers) {
+        if (size == classNames.length) {
+            int capacity = size * 2;
+            classNames = Arrays.copyOf(classNames, capacity);
+            instances = Arrays.copyOf(instances, capacity);
+            bytes = Arrays.copyOf(bytes, capacity);
+        }
+        classNames[size] = className;
+        instances[size] = numbers[0];
+        bytes[size] = numbers[1];
+        size++;
+    }
+
+    private static int skipSpaces(String raw, int pos, int end) {
+        while (pos < end && Character.isWhitespace(raw.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int trimEnd(String raw, int start, int end) {
+        while (end > start && Character.isWhitespace(raw.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Prints the histogram in the same format as the diagnostic command.
+     *
+     * @param max the maximum number of classes to print.
+     */
+    void printTo(PrintWriter out, int max) {
+        out.println(" num     #instances         #bytes  class name (module)");
+        out.println("-------------------------------------------------------");
+        for (int i = 0; i < Math.min(size, max); i++) {
+            out.printf("%4d: %14d %14d  %s%n", i + 1, instances[i], bytes[i], classNames[i]);
+        }
+        if (max < size) {
+            out.printf("(%d more classes)%n", size - max);
+        }
+        out.printf("Total %14d %14d%n", totalInstances, totalBytes);
+    }
+
+    /**
+     * Prints the classes that gained the most bytes since an older histogram.
+     *
+     * @param max the maximum number of classes to print.
+     */
+    void printGrowthSince(HeapHistogram older, PrintWriter out, int max) {
+        Map<String, Integer> olderIndex = new HashMap<>(older.size * 2);
+        for (int i = 0; i < older.size; i++) {
+            olderIndex.put(older.classNames[i], i);
+        }
+        long[] bytesGained = new long[size];
+        long[] instancesGained = new long[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            Integer j = olderIndex.get(classNames[i]);
+            bytesGained[i] = bytes[i] - (j == null ? 0 : older.bytes[j]);
+            instancesGained[i] = instances[i] - (j == null ? 0 : older.instances[j]);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(bytesGained[b], bytesGained[a]));
+
+        out.println("|  # | Bytes gained | Instances gained | Bytes | Instances | Class |");
+        out.println("|---:|-------------:|-----------------:|------:|----------:|-------|");
+        for (int rank = 0; rank < Math.min(size, max); rank++) {
+            int i = order[rank];
+            if (bytesGained[i] <= 0) {
+                break;
+            }
+            out.printf(
+                    "| %d | %d | %d | %d | %d | `%s` |%n",
+                    rank + 1, bytesGained[i], instancesGained[i], bytes[i], instances[i], classNames[i]);
+        }
+        out.println();
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(timestamp);
+        out.writeLong(totalInstances);
+        out.writeLong(totalBytes);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeUTF(classNames[i]);
+            out.writeLong(instances[i]);
+            out.writeLong(bytes[i]);
+        }
+    }
+
+    @NonNull
+    static HeapHistogram readFrom(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported heap histogram format " + version);
+        }
+        long timestamp = in.readLong();
+        long totalInstances = in.readLong();
+        long totalBytes = in.readLong();
+        int size = in.readInt();
+        HeapHistogram histogram = new HeapHistogram(timestamp, Math.max(size, 1));
+        histogram.totalInstances = totalInstances;
+        histogram.totalBytes = totalBytes;
+        long[] numbers = new long[2];
+        for (int i = 0; i < size; i++) {
+            String className = in.readUTF();
+            numbers[0] = in.readLong();
+            numbers[1] = in.readLong();
+            histogram.add(className, numbers);
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,193 @@
+package com.cloudbees.jenkins.support.impl;
+
+import com.cloudbees.jenkins.support.SupportPlugin;
+import com.cloudbees.jenkins.support.timer.FileListCap;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Optionally captures a class histogram of the heap at a low frequency, so that the classes whose footprint keeps
+ * growing can be found from a bundle.
+ *
+ * <p>
+ * Capturing a histogram triggers a full GC, so this is disabled by default. Snapshots are stored in a compact gzipped
+ * binary form in {@code $JENKINS_HOME/support/heap-histograms}.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public final class HeapHistogramRecorder extends AsyncPeriodicWork {
+
+    private static final Logger LOGGER = Logger.getLogger(HeapHistogramRecorder.class.getName());
+
+    /**
+     * Provide a means to enable the periodic capture without restarting Jenkins.
+     */
+    public static volatile boolean ENABLED =
+            SystemProperties.getBoolean(HeapHistogramRecorder.class.getName() + ".ENABLED");
+
+    private static final int RECURRENCE_PERIOD_MINUTES =
+            SystemProperties.getInteger(HeapHistogramRecorder.class.getName() + ".RECURRENCE_PERIOD_MINUTES", 60);
+
+    private static final int SNAPSHOTS_TO_RETAIN =
+            SystemProperties.getInteger(HeapHistogramRecorder.class.getName() + ".SNAPSHOTS_TO_RETAIN", 24);
+
+    /**
+     * Number of classes, by decreasing footprint, kept in each snapshot.
+     */
+    private static final int MAX_CLASSES =
+            SystemProperties.getInteger(HeapHistogramRecorder.class.getName() + ".MAX_CLASSES", 2000);
+
+    /**
+     * Number of classes listed in the growth report.
+     */
+    private static final int MAX_REPORTED_CLASSES = 100;
+
+    private static final String EXTENSION = ".hist.gz";
+
+    private static final FilenameFilter SNAPSHOTS = (dir, name) -> name.endsWith(EXTENSION);
+
+    private final FileListCap snapshots = new FileListCap(
+            new File(SupportPlugin.getRootDirectory(), "heap-histograms"), SNAPSHOTS, SNAPSHOTS_TO_RETAIN);
+
+    private final SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd-HHmmss");
+
+    {
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    public HeapHistogramRecorder() {
+        super("Heap histogram recorder");
+    }
+
+    @CheckForNull
+    static HeapHistogramRecorder get() {
+        return ExtensionList.lookup(HeapHistogramRecorder.class).get(HeapHistogramRecorder.class);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.MINUTES.toMillis(RECURRENCE_PERIOD_MINUTES);
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException {
+        if (!ENABLED) {
+            return;
+        }
+        String raw = HeapUsageHistogram.gcClassHistogram();
+        if (raw == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        HeapHistogram histogram = HeapHistogram.parse(raw, now, MAX_CLASSES);
+        // not read by a bundle while written or while the oldest are deleted
+        synchronized (snapshots) {
+            File file = snapshots.file(format(now) + EXTENSION);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file.toPath()))))) {
+                histogram.writeTo(out);
+            }
+            snapshots.add(file);
+        }
+    }
+
+    boolean hasSnapshots() {
+        String[] names = snapshots.getFolder().list(SNAPSHOTS);
+        return names != null && names.length > 0;
+    }
+
+    /**
+     * @return the stored snapshots, oldest first.
+     */
+    List<HeapHistogram> loadSnapshots() {
+        List<HeapHistogram> histograms = new ArrayList<>();
+        synchronized (snapshots) {
+            File[] files = snapshots.getFolder().listFiles(SNAPSHOTS);
+            if (files == null) {
+                return histograms;
+            }
+            // the names are timestamps
+            Arrays.sort(files);
+            for (File file : files) {
+                try (DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file.toPath()))))) {
+                    histograms.add(HeapHistogram.readFrom(in));
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Could not read heap histogram " + file, e);
+                }
+            }
+        }
+        return histograms;
+    }
+
+    /**
+     * Prints the total footprint of each snapshot, and the classes that gained the most bytes between the oldest and
+     * the newest snapshots, and between the last two.
+     */
+    void printGrowth(PrintWriter out) {
+        List<HeapHistogram> histograms = loadSnapshots();
+        out.println("Heap histogram growth");
+        out.println("=====================");
+        out.println();
+        if (!ENABLED) {
+            out.println("Periodic capture is currently disabled.");
+            out.println();
+        }
+        out.println("| Snapshot | Bytes | Instances |");
+        out.println("|----------|------:|----------:|");
+        for (HeapHistogram histogram : histograms) {
+            out.printf(
+                    "| %s | %d | %d |%n",
+                    format(histogram.timestamp), histogram.totalBytes, histogram.totalInstances);
+        }
+        out.println();
+        if (histograms.size() < 2) {
+            return;
+        }
+        HeapHistogram newest = histograms.get(histograms.size() - 1);
+        printGrowth(histograms.get(0), newest, out);
+        if (histograms.size() > 2) {
+            printGrowth(histograms.get(histograms.size() - 2), newest, out);
+        }
+    }
+
+    private void printGrowth(HeapHistogram older, HeapHistogram newer, PrintWriter out) {
+        String title = "Growth from " + format(older.timestamp) + " to " + format(newer.timestamp);
+        out.println(title);
+        out.println("-".repeat(title.length()));
+        out.println();
+        newer.printGrowthSince(older, out, MAX_REPORTED_CLASSES);
+    }
+
+    private String format(long timestamp) {
+        synchronized (format) {
+            return format.format(new Date(timestamp));
+        }
+    }
+}
@@ -3,12 +3,17 @@ package com.cloudbees.jenkins.support.impl;
 import com.cloudbees.jenkins.support.api.Component;
 import com.cloudbees.jenkins.support.api.Container;
 import com.cloudbees.jenkins.support.api.Content;
+import com.cloudbees.jenkins.support.api.PrintedContent;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.security.Permission;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Set;
 import java.util.logging.Level;
@@ -29,8 +34,8 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
 @Extension
 @Restricted(NoExternalUse.class)
 public class HeapUsageHistogram extends Component {
-    // first 200 classes so 203 lines required because of the header
-    private static final int MAX = 203;
+    // first 200 classes
+    private static final int MAX = 200;
 
     // disabled by default because of JENKINS-49931
     // to be reviewed in the future.
@@ -61,7 +66,9 @@ public class HeapUsageHistogram extends Component {
         result.add(new Content("nodes/master/heap-histogram.txt") {
             @Override
             public void writeTo(OutputStream os) throws IOException {
-                os.write(getLiveHistogram().getBytes("UTF-8"));
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+                printLiveHistogram(out);
+                out.flush();
             }
 
             @Override
@@ -70,6 +77,21 @@ public class HeapUsageHistogram extends Component {
                 return false;
             }
         });
+        HeapHistogramRecorder recorder = HeapHistogramRecorder.get();
+        if (recorder != null && recorder.hasSnapshots()) {
+            result.add(new PrintedContent("nodes/master/heap-histogram-growth.md") {
+                @Override
+                protected void printTo(PrintWriter out) throws IOException {
+                    recorder.printGrowth(out);
+                }
+
+                @Override
+                public boolean shouldBeFiltered() {
+                    // The information of this content is not sensible, so it doesn't need to be filtered.
+                    return false;
+                }
+            });
+        }
     }
 
     @NonNull
@@ -78,46 +100,42 @@ public class HeapUsageHistogram extends Component {
         return ComponentCategory.PLATFORM;
     }
 
-    private String getLiveHistogram() throws IOException {
-        final String raw = getRawLiveHistogram();
-        final String[] lines = raw.split("\n");
-        final int limit = MAX <= lines.length ? MAX : lines.length;
-
-        final StringBuilder bos = new StringBuilder();
-        // starting in 1 because of an empty line
-        for (int i = 1; i < limit; i++) {
-            bos.append(lines[i]).append('\n');
+    private void printLiveHistogram(PrintWriter out) {
+        if (DISABLED) {
+            out.println();
+            out.println("Histogram generation is disabled. If you want to enable it, do either:");
+            out.println(
+                    "* Add the system property: -Dcom.cloudbees.jenkins.support.impl.HeapUsageHistogram.DISABLED=false");
+            out.print(
+                    "* Run from Script Console the line: com.cloudbees.jenkins.support.impl.HeapUsageHistogram.DISABLED=false");
+            return;
         }
-
-        return bos.toString();
+        String raw = gcClassHistogram();
+        if (raw == null) {
+            out.print("N/A");
+            return;
+        }
+        HeapHistogram.parse(raw, System.currentTimeMillis(), MAX).printTo(out, MAX);
     }
 
-    private String getRawLiveHistogram() {
-        if (DISABLED) {
-            return new StringBuilder()
-                    .append('\n')
-                    .append("Histogram generation is disabled. If you want to enable it, do either:")
-                    .append('\n')
-                    .append(
-                            "* Add the system property: -Dcom.cloudbees.jenkins.support.impl.HeapUsageHistogram.DISABLED=false")
-                    .append('\n')
-                    .append(
-                            "* Run from Script Console the line: com.cloudbees.jenkins.support.impl.HeapUsageHistogram.DISABLED=false")
-                    .toString();
-        }
-        String result;
+    /**
+     * Runs the {@code gcClassHistogram} diagnostic command, which triggers a full GC.
+     *
+     * @return the histogram, or {@code null} if it could not be recorded.
+     */
+    @CheckForNull
+    static String gcClassHistogram() {
         try {
             ObjectName objName = new ObjectName("com.sun.management:type=DiagnosticCommand");
             MBeanServer platform = ManagementFactory.getPlatformMBeanServer();
             if (platform == null) {
-                return "N/A";
+                return null;
             }
-            result = (String) platform.invoke(
+            return (String) platform.invoke(
                     objName, "gcClassHistogram", new Object[] {null}, new String[] {String[].class.getName()});
         } catch (InstanceNotFoundException | ReflectionException | MBeanException | MalformedObjectNameException e) {
             logger.log(Level.WARNING, "Could not record heap live histogram.", e);
-            result = "N/A";
+            return null;
         }
-        return result;
     }
 }
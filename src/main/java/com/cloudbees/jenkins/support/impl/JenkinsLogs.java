@@ -4,6 +4,7 @@ import com.cloudbees.jenkins.support.SupportPlugin;
 import com.cloudbees.jenkins.support.api.Component;
 import com.cloudbees.jenkins.support.api.Container;
 import com.cloudbees.jenkins.support.api.FileContent;
+import com.cloudbees.jenkins.support.api.TimeWindow;
 import com.google.common.collect.Lists;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
@@ -13,6 +14,7 @@ import java.io.File;
 import java.io.FileFilter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -61,10 +63,12 @@ public class JenkinsLogs extends Component {
      * @see WebAppMain#installLogger()
      */
     private void addControllerJulRingBuffer(Container result) {
+        TimeWindow timeWindow = result.getTimeWindow();
         result.add(new LogRecordContent("nodes/master/logs/jenkins.log") {
             @Override
             public Iterable<LogRecord> getLogRecords() {
-                return Lists.reverse(new ArrayList<LogRecord>(Jenkins.logRecords));
+                List<LogRecord> records = Lists.reverse(new ArrayList<LogRecord>(Jenkins.logRecords));
+                return timeWindow == null ? records : timeWindow.filter(records);
             }
         });
     }
@@ -82,10 +86,12 @@ public class JenkinsLogs extends Component {
         // but added nonetheless just in case.
         //
         // should be ignorable.
+        TimeWindow timeWindow = result.getTimeWindow();
         result.add(new LogRecordContent("nodes/master/logs/all_memory_buffer.log") {
             @Override
             public Iterable<LogRecord> getLogRecords() {
-                return SupportPlugin.getInstance().getAllLogRecords();
+                List<LogRecord> records = SupportPlugin.getInstance().getAllLogRecords();
+                return timeWindow == null ? records : timeWindow.filter(records);
             }
         });
 
@@ -99,7 +105,10 @@ public class JenkinsLogs extends Component {
 
         // log records written to the disk
         for (File file : julLogFiles) {
-            result.add(new FileContent("nodes/master/logs/{0}", new String[] {file.getName()}, file));
+            if (timeWindow == null || timeWindow.mayContain(file)) {
+                result.add(new FileContent(
+                        "nodes/master/logs/{0}", new String[] {file.getName()}, file, -1, timeWindow));
+            }
         }
     }
 
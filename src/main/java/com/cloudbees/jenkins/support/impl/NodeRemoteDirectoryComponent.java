@@ -1,21 +1,47 @@
 package com.cloudbees.jenkins.support.impl;
 
+import com.cloudbees.jenkins.support.SupportPlugin;
 import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.FileContent;
 import com.cloudbees.jenkins.support.api.FilePathContent;
+import com.cloudbees.jenkins.support.api.LaunchLogsFileContent;
+import com.cloudbees.jenkins.support.api.StringContent;
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import com.cloudbees.jenkins.support.filter.PasswordRedactor;
+import com.cloudbees.jenkins.support.filter.PrefilteredContent;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Functions;
+import hudson.Util;
 import hudson.model.Computer;
 import hudson.model.Node;
+import hudson.remoting.Pipe;
+import hudson.remoting.VirtualChannel;
+import hudson.util.FileVisitor;
 import hudson.util.FormValidation;
+import hudson.util.io.Archiver;
+import hudson.util.io.ArchiverFactory;
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
+import jenkins.MasterToSlaveFileCallable;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import org.jenkinsci.Symbol;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
@@ -29,6 +55,18 @@ import org.kohsuke.stapler.QueryParameter;
 @Extension
 public class NodeRemoteDirectoryComponent extends DirectoryComponent<Computer> implements Serializable {
 
+    /**
+     * Whether the agent sends all the files in a single archive, rather than each file being read separately.
+     */
+    static volatile boolean ARCHIVE =
+            SystemProperties.getBoolean(NodeRemoteDirectoryComponent.class.getName() + ".ARCHIVE");
+
+    /**
+     * Maximum size of the files archived by an agent, further files are left out.
+     */
+    static int MAX_ARCHIVE_KB =
+            SystemProperties.getInteger(NodeRemoteDirectoryComponent.class.getName() + ".MAX_ARCHIVE_KB", 100 * 1024);
+
     public NodeRemoteDirectoryComponent() {
         super();
     }
@@ -51,6 +89,19 @@ public class NodeRemoteDirectoryComponent extends DirectoryComponent<Computer> i
             return;
         }
 
+        if (ARCHIVE) {
+            try {
+                addArchivedContents(container, node, rootPath);
+                return;
+            } catch (IOException | InterruptedException | ExecutionException | TimeoutException e) {
+                LOGGER.log(
+                        Level.WARNING,
+                        "Could not archive the remote directory of " + node.getNodeName()
+                                + ", reading its files one by one",
+                        e);
+            }
+        }
+
         try {
             Arrays.stream(rootPath.list(getIncludes(), getExcludes(), getDefaultExcludes()))
                     .forEach(filePath -> {
@@ -72,6 +123,183 @@ public class NodeRemoteDirectoryComponent extends DirectoryComponent<Computer> i
         }
     }
 
+    /**
+     * Has the agent send all the matching files in a single compressed tar stream, unpacked on the fly into a temporary
+     * directory of this bundle, deleted once the bundle is written, rather than reading each file in its own remote
+     * call.
+     */
+    private void addArchivedContents(Container container, Node node, FilePath rootPath)
+            throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        UnpackedArchive unpacked = new UnpackedArchive(Files.createTempDirectory("support-remote").toFile());
+        try {
+            FilePath dir = new FilePath(unpacked.dir);
+            Pipe pipe = Pipe.createRemoteToLocal();
+            int maxArchiveKb = MAX_ARCHIVE_KB;
+            Future<ArchivedFiles> archiving = rootPath.actAsync(new ArchiveFiles(
+                    getIncludes(), getExcludes(), getDefaultExcludes(), getMaxDepth(), maxArchiveKb * 1024L, pipe));
+            Future<?> unpacking = Computer.threadPoolForRemoting.submit(() -> {
+                dir.untarFrom(pipe.getIn(), FilePath.TarCompression.GZIP);
+                return null;
+            });
+            ArchivedFiles archived;
+            // both within the timeout of a remote operation
+            long deadline =
+                    System.nanoTime() + TimeUnit.SECONDS.toNanos(SupportPlugin.REMOTE_OPERATION_CACHE_TIMEOUT_SEC);
+            try {
+                unpacking.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                archived = archiving.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                unpacking.cancel(true);
+                archiving.cancel(true);
+                pipe.getIn().close();
+                throw e;
+            }
+
+            for (String relativePath : archived.files) {
+                File file = new File(unpacked.dir, relativePath);
+                String[] parameters = {node.getNodeName(), relativePath};
+                container.add(new UnpackedFileContent(
+                        unpacked,
+                        PasswordRedactor.FILES_WITH_SECRETS.contains(file.getName())
+                                ? new LaunchLogsFileContent("nodes/slave/{0}/remote/{1}", parameters, file, -1)
+                                : new FileContent("nodes/slave/{0}/remote/{1}", parameters, file)));
+            }
+            if (archived.skipped > 0) {
+                container.add(new StringContent(
+                        "nodes/slave/{0}/remote.md",
+                        new String[] {node.getNodeName()},
+                        archived.skipped + " more files were not included, the files of the remote directory exceed "
+                                + maxArchiveKb + " KB\n"));
+            }
+        } finally {
+            // deleted right away if no file was added
+            unpacked.release();
+        }
+    }
+
+    /**
+     * The temporary directory an archive is unpacked into, deleted once the contents of its files are all closed.
+     */
+    private static final class UnpackedArchive {
+        private final File dir;
+        private int references = 1;
+
+        UnpackedArchive(File dir) {
+            this.dir = dir;
+        }
+
+        synchronized void retain() {
+            references++;
+        }
+
+        synchronized void release() {
+            if (--references == 0) {
+                try {
+                    Util.deleteRecursive(dir);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Could not delete " + dir, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A file of an {@link UnpackedArchive}, releasing it once the bundle is written.
+     */
+    private static final class UnpackedFileContent extends PrefilteredContent implements Closeable {
+        private final UnpackedArchive unpacked;
+        private final FileContent content;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        UnpackedFileContent(UnpackedArchive unpacked, FileContent content) {
+            super(content.getName(), content.getFilterableParameters());
+            this.unpacked = unpacked;
+            this.content = content;
+            unpacked.retain();
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            content.writeTo(os);
+        }
+
+        @Override
+        public void writeTo(OutputStream os, @NonNull ContentFilter filter) throws IOException {
+            content.writeTo(os, filter);
+        }
+
+        @Override
+        public long getTime() {
+            return content.getTime();
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                unpacked.release();
+            }
+        }
+    }
+
+    /**
+     * The relative paths of the files archived by {@link ArchiveFiles}, and how many files did not fit.
+     */
+    private static final class ArchivedFiles implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> files = new ArrayList<>();
+        private long skipped;
+    }
+
+    /**
+     * Writes the matching files of a directory of the agent into a compressed tar stream, up to a total size.
+     */
+    private static final class ArchiveFiles extends MasterToSlaveFileCallable<ArchivedFiles> {
+        private static final long serialVersionUID = 1L;
+
+        private final String includes;
+        private final String excludes;
+        private final boolean defaultExcludes;
+        private final int maxDepth;
+        private final long maxSize;
+        private final Pipe pipe;
+
+        ArchiveFiles(String includes, String excludes, boolean defaultExcludes, int maxDepth, long maxSize, Pipe pipe) {
+            this.includes = includes;
+            this.excludes = excludes;
+            this.defaultExcludes = defaultExcludes;
+            this.maxDepth = maxDepth;
+            this.maxSize = maxSize;
+            this.pipe = pipe;
+        }
+
+        @Override
+        public ArchivedFiles invoke(File dir, VirtualChannel channel) throws IOException {
+            ArchivedFiles archived = new ArchivedFiles();
+            try (OutputStream out = pipe.getOut();
+                    Archiver archiver = ArchiverFactory.TARGZ.create(out)) {
+                long[] size = {0};
+                new DirGlobScanner(includes, excludes, defaultExcludes, true).scan(dir, new FileVisitor() {
+                    @Override
+                    public void visit(File file, String relativePath) throws IOException {
+                        if (Paths.get(relativePath).getNameCount() > maxDepth) {
+                            return;
+                        }
+                        long length = file.length();
+                        if (size[0] + length > maxSize) {
+                            archived.skipped++;
+                            return;
+                        }
+                        size[0] += length;
+                        archiver.visit(file, relativePath);
+                        archived.files.add(relativePath.replace('\\', '/'));
+                    }
+                });
+            }
+            return archived;
+        }
+    }
+
     @NonNull
     @Override
     public ComponentCategory getCategory() {
@@ -0,0 +1,251 @@
+package com.cloudbees.jenkins.support.impl;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Util;
+import hudson.util.FileVisitor;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.tools.ant.DirectoryScanner;
+
+/**
+ * Lists the files of a directory matching Ant-style include and exclude patterns, like
+ * {@link DirectoryComponent.DirGlobScanner}, but listing the directories in parallel and pruning the directories that
+ * cannot hold any matching file.
+ *
+ * <p>
+ * The files are passed to the {@link FileVisitor} on the calling thread as they are found. Symbolic links are not
+ * followed, and are passed to {@link FileVisitor#visitSymlink(File, String, String)}.
+ */
+final class ParallelDirScanner {
+
+    private static final Logger LOGGER = Logger.getLogger(ParallelDirScanner.class.getName());
+
+    /**
+     * How many directories are listed at once.
+     */
+    private static final int PARALLELISM = Integer.getInteger(
+            ParallelDirScanner.class.getName() + ".PARALLELISM",
+            Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private static volatile ForkJoinPool pool;
+
+    private final AntPatternTrie includes;
+    private final AntPatternTrie excludes;
+    private final int maxDepth;
+
+    /**
+     * @param includes the comma separated patterns to include, or all the files if empty.
+     * @param excludes the comma separated patterns to exclude.
+     * @param useDefaultExcludes whether to exclude the files of version control systems, as Ant does by default.
+     * @param maxDepth the maximum number of segments of the relative paths of the files.
+     */
+    ParallelDirScanner(String includes, String excludes, boolean useDefaultExcludes, int maxDepth) {
+        this.includes = AntPatternTrie.compile(
+                split(Optional.ofNullable(Util.fixEmpty(includes)).orElse("**/*")));
+        List<String> excluded = split(Optional.ofNullable(excludes).orElse(""));
+        if (useDefaultExcludes) {
+            excluded.addAll(Arrays.asList(DirectoryScanner.getDefaultExcludes()));
+        }
+        this.excludes = AntPatternTrie.compile(excluded);
+        this.maxDepth = maxDepth;
+    }
+
+    private static List<String> split(String patterns) {
+        List<String> result = new ArrayList<>();
+        for (String pattern : patterns.split(",")) {
+            if (!pattern.isBlank()) {
+                result.add(pattern.trim());
+            }
+        }
+        return result;
+    }
+
+    private static ForkJoinPool pool() {
+        ForkJoinPool result = pool;
+        if (result == null) {
+            synchronized (ParallelDirScanner.class) {
+                result = pool;
+                if (result == null) {
+                    pool = result = new ForkJoinPool(PARALLELISM);
+                }
+            }
+        }
+        return result;
+    }
+
+    void scan(File dir, FileVisitor visitor) throws IOException {
+        if (!dir.isDirectory() || maxDepth < 1) {
+            return;
+        }
+        Walk walk = new Walk(maxDepth);
+        Listing root = new Listing(walk, dir.toPath(), "", 0, includes.start(), excludes.start());
+        pool().execute(root);
+        try {
+            while (true) {
+                Found f = walk.found.poll(100, TimeUnit.MILLISECONDS);
+                if (f != null) {
+                    f.visit(visitor);
+                } else if (root.isDone()) {
+                    break;
+                }
+            }
+            Found f;
+            while ((f = walk.found.poll()) != null) {
+                f.visit(visitor);
+            }
+        } catch (InterruptedException e) {
+            walk.cancelled.set(true);
+            throw (IOException) new InterruptedIOException().initCause(e);
+        } catch (IOException | RuntimeException e) {
+            walk.cancelled.set(true);
+            throw e;
+        }
+        if (root.isCompletedAbnormally()) {
+            throw new IOException("Could not list " + dir, root.getException());
+        }
+    }
+
+    /**
+     * The state shared by the listings of a scan.
+     */
+    private static final class Walk {
+        private final int maxDepth;
+        private final BlockingQueue<Found> found = new LinkedBlockingQueue<>();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        Walk(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+    }
+
+    private static final class Found {
+        private final File file;
+        private final String relativePath;
+        private final boolean symlink;
+
+        Found(File file, String relativePath, boolean symlink) {
+            this.file = file;
+            this.relativePath = relativePath;
+            this.symlink = symlink;
+        }
+
+        void visit(FileVisitor visitor) throws IOException {
+            if (!symlink) {
+                visitor.visit(file, relativePath);
+                return;
+            }
+            String target;
+            try {
+                target = Files.readSymbolicLink(file.toPath()).toString();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not read the symbolic link " + file, e);
+                return;
+            }
+            if (visitor.understandsSymlink()) {
+                visitor.visitSymlink(file, target, relativePath);
+            } else {
+                visitor.visit(file, relativePath);
+            }
+        }
+    }
+
+    /**
+     * Lists a directory, and the subdirectories that may hold matching files in parallel.
+     */
+    @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "Never serialized")
+    private static final class Listing extends RecursiveAction {
+        private final Walk walk;
+        private final Path dir;
+        private final String relativePath;
+        private final int depth;
+        private final AntPatternTrie.State included;
+        private final AntPatternTrie.State excluded;
+
+        Listing(
+                Walk walk,
+                Path dir,
+                String relativePath,
+                int depth,
+                AntPatternTrie.State included,
+                AntPatternTrie.State excluded) {
+            this.walk = walk;
+            this.dir = dir;
+            this.relativePath = relativePath;
+            this.depth = depth;
+            this.included = included;
+            this.excluded = excluded;
+        }
+
+        @Override
+        protected void compute() {
+            if (walk.cancelled.get()) {
+                return;
+            }
+            List<Listing> subdirectories = new ArrayList<>();
+            try {
+                // only the entries of this directory, with their attributes read along the listing
+                Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        visitEntry(file, attrs, subdirectories);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        LOGGER.log(Level.FINE, "Could not read " + file, e);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not list " + dir, e);
+            }
+            ForkJoinTask.invokeAll(subdirectories);
+        }
+
+        private void visitEntry(Path file, BasicFileAttributes attrs, List<Listing> subdirectories) {
+            String name = file.getFileName().toString();
+            String path = relativePath.isEmpty() ? name : relativePath + File.separator + name;
+            AntPatternTrie.State fileIncluded = included.next(name);
+            AntPatternTrie.State fileExcluded = excluded.next(name);
+            if (attrs.isSymbolicLink()) {
+                // reported like Ant does if it would be included, or could be a directory with included files
+                boolean mayBeIncluded = fileIncluded.matches()
+                        || (!fileIncluded.matchesNothingBelow() && Files.isDirectory(file));
+                if (mayBeIncluded && !fileExcluded.matches()) {
+                    walk.found.add(new Found(file.toFile(), path, true));
+                }
+            } else if (attrs.isDirectory()) {
+                // the files of this directory would be one level deeper
+                if (depth + 1 < walk.maxDepth
+                        && !fileIncluded.matchesNothingBelow()
+                        && !fileExcluded.matchesEverythingBelow()) {
+                    subdirectories.add(new Listing(walk, file, path, depth + 1, fileIncluded, fileExcluded));
+                }
+            } else if (fileIncluded.matches() && !fileExcluded.matches()) {
+                walk.found.add(new Found(file.toFile(), path, false));
+            }
+        }
+    }
+}
@@ -43,8 +43,10 @@ import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Formatter;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.WeakHashMap;
@@ -76,6 +78,28 @@ public class RootCAs extends Component {
         return "Root CAs";
     }
 
+    @Override
+    public String getContentCacheKey() {
+        // the trust stores of the controller are read again on each call, those of the agents when they reconnect
+        StringBuilder key = new StringBuilder(AsyncResultCache.getNodesKey(certCache));
+        String javaHome = System.getProperty("java.home");
+        List<Path> paths = new ArrayList<>();
+        paths.add(Path.of(javaHome, "lib", "security", "jssecacerts"));
+        paths.add(Path.of(javaHome, "lib", "security", "cacerts"));
+        Optional.ofNullable(System.getProperty("javax.net.ssl.trustStore"))
+                .map(Path::of)
+                .ifPresent(paths::add);
+        for (Path path : paths) {
+            key.append(path)
+                    .append(':')
+                    .append(summarizePath(path))
+                    .append(':')
+                    .append(path.toFile().lastModified())
+                    .append('\n');
+        }
+        return key.toString();
+    }
+
     @Override
     public void addContents(@NonNull Container container) {
         Jenkins j = Jenkins.get();
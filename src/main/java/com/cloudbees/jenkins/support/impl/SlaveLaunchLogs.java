@@ -31,6 +31,7 @@ import com.cloudbees.jenkins.support.api.Container;
 import com.cloudbees.jenkins.support.api.LaunchLogsFileContent;
 import com.cloudbees.jenkins.support.api.ObjectComponent;
 import com.cloudbees.jenkins.support.api.ObjectComponentDescriptor;
+import com.cloudbees.jenkins.support.api.TimeWindow;
 import com.cloudbees.jenkins.support.timer.FileListCapComponent;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
@@ -43,16 +44,16 @@ import hudson.model.Computer;
 import hudson.model.Run;
 import hudson.security.Permission;
 import hudson.slaves.SlaveComputer;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import hudson.util.io.RewindableRotatingFileOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.time.Instant;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -70,6 +71,12 @@ public class SlaveLaunchLogs extends ObjectComponent<Computer> {
     private static final int MAX_ROTATE_LOGS =
             Integer.getInteger(SlaveLaunchLogs.class.getName() + ".MAX_ROTATE_LOGS", 9);
 
+    /**
+     * Limit the memory used by the launch logs waiting to be archived, beyond which lines are dropped.
+     */
+    private static final int MAX_QUEUED_KB =
+            Integer.getInteger(SlaveLaunchLogs.class.getName() + ".MAX_QUEUED_KB", 8 * 1024);
+
     private static final Logger LOGGER = Logger.getLogger(SlaveLaunchLogs.class.getName());
 
     @DataBoundConstructor
@@ -106,32 +113,48 @@ public class SlaveLaunchLogs extends ObjectComponent<Computer> {
                 && item.getLogFile().lastModified() >= System.currentTimeMillis() - TimeUnit.DAYS.toMillis(7)) {
             File dir = new File(Jenkins.get().getRootDir(), "logs/slaves/" + item.getName());
             File[] files = dir.listFiles(ROTATED_LOGFILE_FILTER);
+            TimeWindow timeWindow = container.getTimeWindow();
             if (files != null) {
                 for (File f : files) {
+                    if (timeWindow != null && !timeWindow.mayContain(f)) {
+                        continue;
+                    }
                     container.add(new LaunchLogsFileContent(
                             "nodes/slave/{0}/launchLogs/{1}",
-                            new String[] {dir.getName(), f.getName()}, f, FileListCapComponent.MAX_FILE_SIZE));
+                            new String[] {dir.getName(), f.getName()},
+                            f,
+                            FileListCapComponent.MAX_FILE_SIZE,
+                            timeWindow));
                 }
             }
         }
     }
 
+    /**
+     * Archives the launch logs of all the agents into a single file. Agents launched at the same time do not wait for
+     * each other, see {@link BatchedLineWriter}.
+     */
     @Extension
     public static final class LogArchiver extends ConsoleLogFilter {
 
         private final File logDir;
-        private final RewindableRotatingFileOutputStream stream;
+        private final ExecutorService executor;
+        private final BatchedLineWriter writer;
 
         public LogArchiver() throws IOException {
             logDir = new File(SupportPlugin.getLogsDirectory(), "agent-launches");
-            stream = new RewindableRotatingFileOutputStream(new File(logDir, "all.log"), MAX_ROTATE_LOGS);
+            RewindableRotatingFileOutputStream stream =
+                    new RewindableRotatingFileOutputStream(new File(logDir, "all.log"), MAX_ROTATE_LOGS);
             stream.rewind();
+            executor = Executors.newSingleThreadExecutor(
+                    new NamingThreadFactory(new DaemonThreadFactory(), "Agent launch logs archiver"));
+            writer = new BatchedLineWriter(stream, MAX_QUEUED_KB * 1024L, executor);
         }
 
         @Override
         public OutputStream decorateLogger(Computer computer, OutputStream logger) {
             if (computer instanceof SlaveComputer) {
-                return new TeeOutputStream(logger, new PrefixedStream(stream, computer.getName()));
+                return new TeeOutputStream(logger, new PrefixedStream(writer.source(computer.getName())));
             } else {
                 return logger;
             }
@@ -144,49 +167,52 @@ public class SlaveLaunchLogs extends ObjectComponent<Computer> {
         }
 
         public void addContents(@NonNull Container container) {
+            try {
+                writer.flush();
+            } catch (IOException x) {
+                LOGGER.log(Level.WARNING, "Could not write the latest agent launch logs", x);
+            }
             File[] files = logDir.listFiles(ROTATED_LOGFILE_FILTER);
+            TimeWindow timeWindow = container.getTimeWindow();
             if (files != null) {
                 for (File f : files) {
+                    if (timeWindow != null && !timeWindow.mayContain(f)) {
+                        continue;
+                    }
+                    // lines are prefixed with the time they were written, see BatchedLineWriter
                     container.add(new LaunchLogsFileContent(
                             "nodes/slave/launches/" + f.getName(),
                             new String[0],
                             f,
-                            FileListCapComponent.MAX_FILE_SIZE));
+                            FileListCapComponent.MAX_FILE_SIZE,
+                            timeWindow));
                 }
             }
         }
 
         @Terminator
         public static void close() {
+            LogArchiver archiver = ExtensionList.lookupSingleton(LogArchiver.class);
             try {
-                ExtensionList.lookupSingleton(LogArchiver.class).stream.close();
+                archiver.writer.close();
             } catch (IOException x) {
                 LOGGER.log(Level.WARNING, null, x);
+            } finally {
+                archiver.executor.shutdown();
             }
         }
     }
 
-    static class PrefixedStream extends LineTransformationOutputStream.Delegating {
-        private final String name;
+    static class PrefixedStream extends LineTransformationOutputStream {
+        private final BatchedLineWriter.Source source;
 
-        PrefixedStream(OutputStream out, String name) {
-            super(out);
-            this.name = name;
+        PrefixedStream(BatchedLineWriter.Source source) {
+            this.source = source;
         }
 
         @Override
-        protected void eol(byte[] b, int len) throws IOException {
-            synchronized (out) {
-                out.write('[');
-                out.write(DateTimeFormatter.ISO_INSTANT
-                        .format(Instant.now().truncatedTo(ChronoUnit.MILLIS))
-                        .getBytes(StandardCharsets.US_ASCII));
-                out.write(' ');
-                out.write(name.getBytes(StandardCharsets.UTF_8));
-                out.write(']');
-                out.write(' ');
-                out.write(b, 0, len);
-            }
+        protected void eol(byte[] b, int len) {
+            source.add(b, len);
         }
     }
 
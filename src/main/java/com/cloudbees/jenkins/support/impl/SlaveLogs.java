@@ -30,8 +30,10 @@ import com.cloudbees.jenkins.support.SupportPlugin;
 import com.cloudbees.jenkins.support.api.Component;
 import com.cloudbees.jenkins.support.api.Container;
 import com.cloudbees.jenkins.support.api.FileContent;
+import com.cloudbees.jenkins.support.api.TimeWindow;
 import com.cloudbees.jenkins.support.timer.FileListCapComponent;
 import com.google.common.collect.Lists;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.FilePath;
@@ -89,6 +91,7 @@ public class SlaveLogs extends Component {
                 "cache", new LogFilenameAgentFilter()); // id is awkward because of backward compatibility
         SmartLogFetcher winswLogFetcher = new SmartLogFetcher("winsw", new WinswLogfileFilter());
 
+        TimeWindow timeWindow = container.getTimeWindow();
         List<Node> nodes = Jenkins.get().getNodes();
         for (final Node node : nodes) {
             if (node.toComputer() instanceof SlaveComputer) {
@@ -100,7 +103,8 @@ public class SlaveLogs extends Component {
                             return Collections.emptyList();
                         } else {
                             try {
-                                return Lists.reverse(new ArrayList<>(computer.getLogRecords()));
+                                List<LogRecord> records = Lists.reverse(new ArrayList<>(computer.getLogRecords()));
+                                return timeWindow == null ? records : timeWindow.filter(records);
                             } catch (InterruptedException e) {
                                 throw new IOException(e);
                             }
@@ -109,8 +113,8 @@ public class SlaveLogs extends Component {
                 });
             }
 
-            addAgentJulLogRecords(container, tasks, node, logFetcher);
-            addWinsStdoutStderrLog(tasks, node, winswLogFetcher);
+            addAgentJulLogRecords(container, tasks, node, logFetcher, timeWindow);
+            addWinsStdoutStderrLog(tasks, node, winswLogFetcher, timeWindow);
         }
 
         Set<String> activeCacheKeys = getActiveCacheKeys(nodes);
@@ -157,7 +161,8 @@ public class SlaveLogs extends Component {
             Container result,
             List<java.util.concurrent.Callable<List<FileContent>>> tasks,
             final Node node,
-            final SmartLogFetcher logFetcher) {
+            final SmartLogFetcher logFetcher,
+            @CheckForNull final TimeWindow timeWindow) {
         final FilePath rootPath = node.getRootPath();
         if (rootPath != null) {
             // rotated log files stored on the disk
@@ -171,7 +176,10 @@ public class SlaveLogs extends Component {
                         for (Map.Entry<String, File> entry : logFiles.entrySet()) {
                             result.add(new FileContent(
                                     "nodes/slave/{0}/logs/{1}",
-                                    new String[] {node.getNodeName(), entry.getKey()}, entry.getValue()));
+                                    new String[] {node.getNodeName(), entry.getKey()},
+                                    entry.getValue(),
+                                    -1,
+                                    timeWindow));
                         }
                     }
                     return result;
@@ -188,7 +196,8 @@ public class SlaveLogs extends Component {
             @Override
             public Iterable<LogRecord> getLogRecords() throws IOException {
                 try {
-                    return SupportPlugin.getInstance().getAllLogRecords(node);
+                    List<LogRecord> records = SupportPlugin.getInstance().getAllLogRecords(node);
+                    return timeWindow == null ? records : timeWindow.filter(records);
                 } catch (InterruptedException e) {
                     throw (IOException) new InterruptedIOException().initCause(e);
                 }
@@ -202,7 +211,8 @@ public class SlaveLogs extends Component {
     private void addWinsStdoutStderrLog(
             List<java.util.concurrent.Callable<List<FileContent>>> tasks,
             final Node node,
-            final SmartLogFetcher logFetcher) {
+            final SmartLogFetcher logFetcher,
+            @CheckForNull final TimeWindow timeWindow) {
         final FilePath rootPath = node.getRootPath();
         if (rootPath != null) {
             // rotated log files stored on the disk
@@ -215,7 +225,8 @@ public class SlaveLogs extends Component {
                                 "nodes/slave/{0}/logs/winsw/{1}",
                                 new String[] {node.getNodeName(), entry.getKey()},
                                 entry.getValue(),
-                                FileListCapComponent.MAX_FILE_SIZE));
+                                FileListCapComponent.MAX_FILE_SIZE,
+                                timeWindow));
                     }
                     return result;
                 }
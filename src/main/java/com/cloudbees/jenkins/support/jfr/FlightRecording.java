@@ -0,0 +1,263 @@
+package com.cloudbees.jenkins.support.jfr;
+
+import com.cloudbees.jenkins.support.SupportPlugin;
+import com.cloudbees.jenkins.support.timer.FileListCap;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * An optional, always-on Java Flight Recorder recording, bounded in size and age, that can be exported into a bundle.
+ *
+ * <p>
+ * When an incident is detected, such as a high CPU load, slow requests or a deadlock, an {@link IncidentEvent} is
+ * recorded and a copy of the recording is saved in {@code $JENKINS_HOME/support/jfr}, so that profiling data from the
+ * minutes before the incident is kept without any sampling thread of our own.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public final class FlightRecording {
+
+    /**
+     * Whether the recording is started with Jenkins.
+     */
+    public static final boolean ENABLED = SystemProperties.getBoolean(FlightRecording.class.getName() + ".ENABLED");
+
+    /**
+     * The settings of the recording, either the name of a configuration of the JDK or a path to a {@code .jfc} file.
+     * The {@code default} configuration is meant to be used continuously, with an overhead of about 1%.
+     */
+    static final String SETTINGS = SystemProperties.getString(FlightRecording.class.getName() + ".SETTINGS", "default");
+
+    /**
+     * How long the recorded data is kept on disk.
+     */
+    static final int MAX_AGE_MINUTES =
+            SystemProperties.getInteger(FlightRecording.class.getName() + ".MAX_AGE_MINUTES", 30);
+
+    /**
+     * How much recorded data is kept on disk.
+     */
+    static final int MAX_SIZE_MB = SystemProperties.getInteger(FlightRecording.class.getName() + ".MAX_SIZE_MB", 100);
+
+    /**
+     * Limit the number of recordings saved on incidents.
+     */
+    static final int SNAPSHOTS_TO_RETAIN =
+            SystemProperties.getInteger(FlightRecording.class.getName() + ".SNAPSHOTS_TO_RETAIN", 5);
+
+    /**
+     * Minimum time between two recordings saved on incidents, as an incident is usually detected several times.
+     */
+    static final int SNAPSHOT_INTERVAL_MINUTES =
+            SystemProperties.getInteger(FlightRecording.class.getName() + ".SNAPSHOT_INTERVAL_MINUTES", 10);
+
+    /**
+     * Whether the recordings are added to the bundles when anonymization is enabled, as what they record is not
+     * anonymized.
+     */
+    static final boolean INCLUDE_WHEN_ANONYMIZED =
+            SystemProperties.getBoolean(FlightRecording.class.getName() + ".INCLUDE_WHEN_ANONYMIZED");
+
+    /**
+     * The events disabled in any settings, as they record the environment, the system properties or the arguments of
+     * processes, which may hold secrets.
+     */
+    static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation",
+            "jdk.SystemProcess",
+            "jdk.ProcessStart");
+
+    private static final String EXTENSION = ".jfr";
+
+    static final FilenameFilter SNAPSHOTS = (dir, name) -> name.endsWith(EXTENSION);
+
+    /**
+     * Recordings saved on incidents are stored in $JENKINS_HOME/support/jfr
+     */
+    final FileListCap snapshots =
+            new FileListCap(new File(SupportPlugin.getRootDirectory(), "jfr"), SNAPSHOTS, SNAPSHOTS_TO_RETAIN);
+
+    private final SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd-HHmmss");
+
+    {
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    private final AtomicLong lastSnapshot = new AtomicLong();
+
+    // dumps the recording on incidents, rather than the threads detecting them
+    private final ExecutorService dumper = Executors.newSingleThreadExecutor(
+            new NamingThreadFactory(new DaemonThreadFactory(), "Support flight recording dump"));
+
+    @CheckForNull
+    private volatile Recording recording;
+
+    @CheckForNull
+    public static FlightRecording get() {
+        return ExtensionList.lookup(FlightRecording.class).get(FlightRecording.class);
+    }
+
+    @Initializer(after = InitMilestone.PLUGINS_STARTED)
+    public static void init() {
+        FlightRecording flightRecording = get();
+        if (ENABLED && flightRecording != null) {
+            flightRecording.start();
+        }
+    }
+
+    @Terminator
+    public static void close() {
+        FlightRecording flightRecording = get();
+        if (flightRecording != null) {
+            flightRecording.stop();
+        }
+    }
+
+    /**
+     * Records an incident, and saves a copy of the recording unless one was saved recently. Does nothing when the
+     * recording is not running.
+     *
+     * @param reason a short name of the incident, used in the name of the saved recording.
+     */
+    public static void incident(@NonNull String reason) {
+        FlightRecording flightRecording = get();
+        if (flightRecording != null) {
+            flightRecording.markIncident(reason);
+        }
+    }
+
+    synchronized void start() {
+        if (recording != null) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            LOGGER.info("Java Flight Recorder is not available, the support recording is not started");
+            return;
+        }
+        try {
+            Recording r = new Recording(configuration());
+            SENSITIVE_EVENTS.forEach(r::disable);
+            r.setName("Jenkins support");
+            r.setToDisk(true);
+            r.setMaxAge(Duration.ofMinutes(MAX_AGE_MINUTES));
+            r.setMaxSize(MAX_SIZE_MB * 1024L * 1024L);
+            r.start();
+            recording = r;
+            LOGGER.fine(() -> "Started the support recording with the " + SETTINGS + " settings");
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            LOGGER.log(Level.WARNING, "Could not start the support recording", e);
+        }
+    }
+
+    private static Configuration configuration() throws IOException, ParseException {
+        if (SETTINGS.endsWith(".jfc")) {
+            return Configuration.create(Path.of(SETTINGS));
+        }
+        return Configuration.getConfiguration(SETTINGS);
+    }
+
+    synchronized void stop() {
+        Recording r = recording;
+        if (r != null) {
+            recording = null;
+            r.close();
+        }
+    }
+
+    boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * @return the saving of a copy of the recording, or {@code null} if none is saved.
+     */
+    @CheckForNull
+    Future<?> markIncident(String reason) {
+        Recording r = recording;
+        if (r == null) {
+            return null;
+        }
+        IncidentEvent event = new IncidentEvent();
+        event.reason = reason;
+        event.commit();
+
+        long now = System.currentTimeMillis();
+        long last = lastSnapshot.get();
+        if ((last != 0 && now - last < TimeUnit.MINUTES.toMillis(SNAPSHOT_INTERVAL_MINUTES))
+                || !lastSnapshot.compareAndSet(last, now)) {
+            return null;
+        }
+        File file;
+        synchronized (format) {
+            file = snapshots.file(reason + "-" + format.format(new Date(now)) + EXTENSION);
+        }
+        return dumper.submit(() -> {
+            try {
+                r.dump(file.toPath());
+                snapshots.add(file);
+            } catch (IOException | IllegalStateException e) {
+                LOGGER.log(Level.WARNING, "Could not save the support recording on " + reason, e);
+            }
+        });
+    }
+
+    /**
+     * Writes the data recorded in the last {@link #MAX_AGE_MINUTES}.
+     *
+     * @return whether anything was written.
+     */
+    boolean writeTo(OutputStream out) throws IOException {
+        Recording r = recording;
+        if (r == null) {
+            return false;
+        }
+        // a recording can only be dumped to a file
+        Path tmp = Files.createTempFile("support", EXTENSION);
+        try {
+            r.dump(tmp);
+            Files.copy(tmp, out);
+            return true;
+        } catch (IllegalStateException e) {
+            // closed in the meantime
+            return false;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(FlightRecording.class.getName());
+}
@@ -0,0 +1,93 @@
+package com.cloudbees.jenkins.support.jfr;
+
+import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.Content;
+import com.cloudbees.jenkins.support.api.UnfilteredFileContent;
+import com.cloudbees.jenkins.support.api.UnfilteredStringContent;
+import com.cloudbees.jenkins.support.filter.ContentFilters;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.security.Permission;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import jenkins.model.Jenkins;
+
+/**
+ * Contributes the continuous flight recording, and the recordings saved on incidents, into the support bundle. They are
+ * binary and not anonymized, so they are only added while anonymization is disabled, unless
+ * {@link FlightRecording#INCLUDE_WHEN_ANONYMIZED}.
+ */
+@Extension
+public class FlightRecordingComponent extends Component {
+
+    @NonNull
+    @Override
+    public Set<Permission> getRequiredPermissions() {
+        return Collections.singleton(Jenkins.ADMINISTER);
+    }
+
+    @NonNull
+    @Override
+    public String getDisplayName() {
+        return "Java Flight Recordings";
+    }
+
+    @Override
+    public boolean isSelectedByDefault() {
+        return false;
+    }
+
+    @Override
+    public void addContents(@NonNull Container container) {
+        FlightRecording flightRecording = FlightRecording.get();
+        if (flightRecording == null) {
+            return;
+        }
+        if (ContentFilters.get().isEnabled() && !FlightRecording.INCLUDE_WHEN_ANONYMIZED) {
+            container.add(new UnfilteredStringContent(
+                    "nodes/master/jfr/omitted.txt",
+                    "The flight recordings are not anonymized, so they are omitted while anonymization is enabled.\n"
+                            + "Set the system property " + FlightRecording.class.getName()
+                            + ".INCLUDE_WHEN_ANONYMIZED=true to include them anyway.\n"));
+            return;
+        }
+        if (flightRecording.isRecording()) {
+            container.add(new Content("nodes/master/jfr/recording.jfr") {
+                @Override
+                public void writeTo(OutputStream os) throws IOException {
+                    flightRecording.writeTo(os);
+                }
+
+                @Override
+                public boolean shouldBeFiltered() {
+                    // binary content
+                    return false;
+                }
+            });
+        }
+        synchronized (flightRecording.snapshots) {
+            // while we read and put the recordings into the support bundle, we don't want
+            // the FileListCap to delete files. So we lock it.
+            File[] files = flightRecording.snapshots.getFolder().listFiles(FlightRecording.SNAPSHOTS);
+            if (files == null) {
+                return;
+            }
+            Arrays.sort(files);
+            for (File file : files) {
+                container.add(new UnfilteredFileContent(
+                        "nodes/master/jfr/incidents/{0}", new String[] {file.getName()}, file));
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public ComponentCategory getCategory() {
+        return ComponentCategory.PLATFORM;
+    }
+}
@@ -0,0 +1,22 @@
+package com.cloudbees.jenkins.support.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Marks the moment an incident was detected in the recording.
+ */
+@Name("com.cloudbees.jenkins.support.Incident")
+@Label("Incident")
+@Category({"Jenkins", "Support"})
+@Description("An incident detected by the support plugin, such as a high CPU load, slow requests or a deadlock")
+@StackTrace(false)
+class IncidentEvent extends Event {
+
+    @Label("Reason")
+    String reason;
+}
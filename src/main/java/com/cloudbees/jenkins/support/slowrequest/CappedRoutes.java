@@ -0,0 +1,51 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Values kept by route, for a maximum number of routes. Any other route shares the value of
+ * {@link RouteLatencyFilter#OTHER_ROUTE}.
+ */
+final class CappedRoutes<V> {
+
+    private final ConcurrentMap<String, V> routes = new ConcurrentHashMap<>();
+    private final IntSupplier maxRoutes;
+    private final Function<String, V> factory;
+
+    /**
+     * @param maxRoutes the maximum number of routes, read whenever a route is added.
+     * @param factory creates the value of a route.
+     */
+    CappedRoutes(IntSupplier maxRoutes, Function<String, V> factory) {
+        this.maxRoutes = maxRoutes;
+        this.factory = factory;
+    }
+
+    /**
+     * @return the value of the route, created if needed, or that of {@link RouteLatencyFilter#OTHER_ROUTE} once the
+     *     maximum number of routes is reached.
+     */
+    V get(String route) {
+        V value = routes.get(route);
+        if (value == null) {
+            // the size is checked while inserting, so that concurrent requests to new routes hardly exceed the cap
+            value = routes.computeIfAbsent(route, r -> routes.size() < maxRoutes.getAsInt() ? factory.apply(r) : null);
+            if (value == null) {
+                value = routes.computeIfAbsent(RouteLatencyFilter.OTHER_ROUTE, factory);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return a copy of the values of all the routes so far.
+     */
+    List<V> values() {
+        return new ArrayList<>(routes.values());
+    }
+}
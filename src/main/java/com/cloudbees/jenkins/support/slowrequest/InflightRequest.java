@@ -5,6 +5,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import java.io.File;
 import java.io.PrintWriter;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import jenkins.model.Jenkins;
 import net.sf.uadetector.service.UADetectorServiceFactory;
 
@@ -39,6 +40,11 @@ final class InflightRequest {
      */
     File record;
 
+    /**
+     * When {@link #record} was last written to, as counted by {@link SlowRequestChecker}, {@code 0} before it is.
+     */
+    long recordWritten;
+
     /**
      * Username of user who made the http call.
      */
@@ -59,6 +65,22 @@ final class InflightRequest {
      */
     final String locale;
 
+    /**
+     * Route template of the request, only computed when {@link RequestResourceUsage#ENABLED}.
+     */
+    final String route;
+
+    /**
+     * Bytes allocated by {@link #thread} when the request started, or {@link RequestResourceUsage#UNAVAILABLE}.
+     */
+    final long allocatedBytesAtStart;
+
+    /**
+     * CPU time in nanoseconds used by {@link #thread} when the request started, or
+     * {@link RequestResourceUsage#UNAVAILABLE}.
+     */
+    final long cpuTimeAtStart;
+
     InflightRequest(HttpServletRequest req) {
         String query = req.getQueryString();
         url = req.getRequestURL() + (query == null ? "" : "?" + query);
@@ -67,6 +89,44 @@ final class InflightRequest {
         referer = req.getHeader("Referer");
         userAgent = req.getHeader("User-Agent");
         locale = req.getLocale().toString();
+        if (RequestResourceUsage.ENABLED) {
+            route = RouteNormalizer.normalize(req.getContextPath(), req.getRequestURI());
+            allocatedBytesAtStart = RequestResourceUsage.currentThreadAllocatedBytes();
+            cpuTimeAtStart = RequestResourceUsage.currentThreadCpuTime();
+        } else {
+            route = null;
+            allocatedBytesAtStart = RequestResourceUsage.UNAVAILABLE;
+            cpuTimeAtStart = RequestResourceUsage.UNAVAILABLE;
+        }
+    }
+
+    boolean isTrackingResources() {
+        return route != null;
+    }
+
+    /**
+     * Called by the request handling thread when the request is completed.
+     */
+    void recordResourceUsage(RequestResourceUsage usage) {
+        usage.record(
+                route,
+                delta(allocatedBytesAtStart, RequestResourceUsage.currentThreadAllocatedBytes()),
+                delta(cpuTimeAtStart, RequestResourceUsage.currentThreadCpuTime()));
+    }
+
+    /**
+     * @param allocatedBytes the bytes currently allocated by {@link #thread}, or a negative value if unknown.
+     * @param cpuTime the CPU time currently used by {@link #thread}, or a negative value if unknown.
+     */
+    void writeResourceUsage(PrintWriter w, long allocatedBytes, long cpuTime) {
+        long allocated = delta(allocatedBytesAtStart, allocatedBytes);
+        long cpu = delta(cpuTimeAtStart, cpuTime);
+        w.println("Allocated: " + (allocated < 0 ? "N/A" : allocated + " bytes")
+                + ", CPU time: " + (cpu < 0 ? "N/A" : TimeUnit.NANOSECONDS.toMillis(cpu) + "msec"));
+    }
+
+    private static long delta(long start, long end) {
+        return start < 0 || end < 0 ? RequestResourceUsage.UNAVAILABLE : end - start;
     }
 
     void writeHeader(PrintWriter w, ContentFilter filter) {
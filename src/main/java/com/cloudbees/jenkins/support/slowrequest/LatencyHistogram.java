@@ -0,0 +1,221 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Lock-free log-linear histogram of latencies, in the spirit of HdrHistogram.
+ *
+ * <p>
+ * Values are recorded into buckets whose width doubles every {@value #SUB_BUCKETS} buckets, so any recorded value is
+ * reported within 1/{@value #SUB_BUCKETS} of its actual value. Recording is a single atomic increment, which makes it
+ * cheap enough to be done for every HTTP request. Values above {@link #MAX_VALUE} are clamped.
+ *
+ * <p>
+ * It also implements {@link Reservoir} so that it can be published to the metrics registry.
+ */
+@Restricted(NoExternalUse.class)
+public final class LatencyHistogram implements Reservoir {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_EXPONENT = 32;
+
+    /**
+     * Largest value that can be recorded without being clamped.
+     */
+    static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * @return the highest value that is recorded into the bucket at {@code index}.
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    @Override
+    public void update(long value) {
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile between 0 and 1.
+     * @return an upper bound of the value at the given quantile, or 0 if nothing was recorded.
+     */
+    public long getValue(double quantile) {
+        return (long) getSnapshot().getValue(quantile);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, getCount());
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new BucketSnapshot(copy, total, getSum(), getMax());
+    }
+
+    /**
+     * A point in time copy of the bucket counts.
+     */
+    private static final class BucketSnapshot extends Snapshot {
+        private final long[] counts;
+        private final long total;
+        private final long sum;
+        private final long max;
+
+        BucketSnapshot(long[] counts, long total, long sum, long max) {
+            this.counts = counts;
+            this.total = total;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Only the distinct bucket values are returned, as the individual samples are not retained.
+         */
+        @Override
+        public long[] getValues() {
+            long[] values = new long[counts.length];
+            int n = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    values[n++] = Math.min(highestValueOf(i), max);
+                }
+            }
+            return Arrays.copyOf(values, n);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, total);
+        }
+
+        @Override
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public double getMean() {
+            return total == 0 ? 0 : (double) sum / total;
+        }
+
+        @Override
+        public long getMin() {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public double getStdDev() {
+            if (total <= 1) {
+                return 0;
+            }
+            double mean = getMean();
+            double variance = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    double diff = Math.min(highestValueOf(i), max) - mean;
+                    variance += counts[i] * diff * diff;
+                }
+            }
+            return Math.sqrt(variance / (total - 1));
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (long value : getValues()) {
+                    out.printf("%d%n", value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import jenkins.util.SystemProperties;
+
+/**
+ * Aggregates the bytes allocated and the CPU time used by request handling threads, per route as given by
+ * {@link RouteNormalizer}.
+ *
+ * <p>
+ * Measuring is off by default. When {@link #ENABLED}, {@link SlowRequestFilter} reads the allocation and CPU counters
+ * of the current thread at the start and the end of every request, which costs a couple of hundred nanoseconds. The
+ * report is only added to the bundles while it is enabled.
+ */
+final class RequestResourceUsage {
+
+    /**
+     * Provide a means to enable the tracking of allocated bytes and CPU time per request without restarting Jenkins.
+     */
+    static volatile boolean ENABLED = SystemProperties.getBoolean(RequestResourceUsage.class.getName() + ".ENABLED");
+
+    /**
+     * Maximum number of distinct routes tracked. Any other route is recorded under
+     * {@link RouteLatencyFilter#OTHER_ROUTE}.
+     */
+    static int MAX_ROUTES = SystemProperties.getInteger(RequestResourceUsage.class.getName() + ".maxRoutes", 200);
+
+    /**
+     * Number of routes listed in each table of the report.
+     */
+    static int TOP_ROUTES = SystemProperties.getInteger(RequestResourceUsage.class.getName() + ".topRoutes", 25);
+
+    /**
+     * Returned when a counter is not supported or not enabled in this JVM.
+     */
+    static final long UNAVAILABLE = -1;
+
+    private static final ThreadMXBean MBEAN = ManagementFactory.getThreadMXBean();
+
+    private final CappedRoutes<RouteUsage> routes = new CappedRoutes<>(() -> MAX_ROUTES, RouteUsage::new);
+
+    static long currentThreadAllocatedBytes() {
+        if (MBEAN instanceof com.sun.management.ThreadMXBean sunMBean
+                && sunMBean.isThreadAllocatedMemorySupported()
+                && sunMBean.isThreadAllocatedMemoryEnabled()) {
+            return sunMBean.getCurrentThreadAllocatedBytes();
+        }
+        return UNAVAILABLE;
+    }
+
+    static long currentThreadCpuTime() {
+        if (MBEAN.isCurrentThreadCpuTimeSupported() && MBEAN.isThreadCpuTimeEnabled()) {
+            return MBEAN.getCurrentThreadCpuTime();
+        }
+        return UNAVAILABLE;
+    }
+
+    /**
+     * Reads the counters of other threads in one call per counter.
+     *
+     * @return the bytes allocated by each thread, or {@code null} if not available.
+     */
+    static long[] allocatedBytes(long[] threadIds) {
+        if (MBEAN instanceof com.sun.management.ThreadMXBean sunMBean
+                && sunMBean.isThreadAllocatedMemorySupported()
+                && sunMBean.isThreadAllocatedMemoryEnabled()) {
+            return sunMBean.getThreadAllocatedBytes(threadIds);
+        }
+        return null;
+    }
+
+    /**
+     * @return the CPU time in nanoseconds used by each thread, or {@code null} if not available.
+     */
+    static long[] cpuTime(long[] threadIds) {
+        if (MBEAN instanceof com.sun.management.ThreadMXBean sunMBean
+                && sunMBean.isThreadCpuTimeSupported()
+                && sunMBean.isThreadCpuTimeEnabled()) {
+            return sunMBean.getThreadCpuTime(threadIds);
+        }
+        return null;
+    }
+
+    /**
+     * Records a completed request. Negative values mean the counter was not available.
+     */
+    void record(String route, long allocatedBytes, long cpuNanos) {
+        routes.get(route).record(allocatedBytes, cpuNanos);
+    }
+
+    void print(PrintWriter out) {
+        out.println("Request resource usage by route");
+        out.println("===============================");
+        out.println();
+        List<Row> rows = new ArrayList<>();
+        routes.values().forEach(usage -> rows.add(new Row(usage)));
+
+        out.println("Top routes by allocated bytes");
+        out.println("-----------------------------");
+        out.println();
+        printTable(rows, r -> r.allocated, out);
+
+        out.println("Top routes by CPU time");
+        out.println("----------------------");
+        out.println();
+        printTable(rows, r -> r.cpu, out);
+    }
+
+    private static void printTable(List<Row> rows, ToLongFunction<Row> key, PrintWriter out) {
+        rows.sort(Comparator.comparingLong(key).reversed());
+        out.println("| Route | Requests | Allocated (MB) | Max allocated (MB) | CPU (ms) | Max CPU (ms) |");
+        out.println("|-------|---------:|---------------:|-------------------:|---------:|-------------:|");
+        for (Row row : rows.subList(0, Math.min(TOP_ROUTES, rows.size()))) {
+            out.printf(
+                    "| `%s` | %d | %.1f | %.1f | %d | %d |%n",
+                    row.route,
+                    row.count,
+                    row.allocated / 1_000_000.0,
+                    row.maxAllocated / 1_000_000.0,
+                    TimeUnit.NANOSECONDS.toMillis(row.cpu),
+                    TimeUnit.NANOSECONDS.toMillis(row.maxCpu));
+        }
+        out.println();
+    }
+
+    private static final class RouteUsage {
+        private final String route;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder allocated = new LongAdder();
+        private final LongAdder cpu = new LongAdder();
+        private final AtomicLong maxAllocated = new AtomicLong();
+        private final AtomicLong maxCpu = new AtomicLong();
+
+        RouteUsage(String route) {
+            this.route = route;
+        }
+
+        void record(long allocatedBytes, long cpuNanos) {
+            count.increment();
+            if (allocatedBytes >= 0) {
+                allocated.add(allocatedBytes);
+                maxAllocated.accumulateAndGet(allocatedBytes, Math::max);
+            }
+            if (cpuNanos >= 0) {
+                cpu.add(cpuNanos);
+                maxCpu.accumulateAndGet(cpuNanos, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Values of a {@link RouteUsage} read once, so that the tables are consistent while requests are still recorded.
+     */
+    private static final class Row {
+        private final String route;
+        private final long count;
+        private final long allocated;
+        private final long cpu;
+        private final long maxAllocated;
+        private final long maxCpu;
+
+        Row(RouteUsage usage) {
+            route = usage.route;
+            count = usage.count.sum();
+            allocated = usage.allocated.sum();
+            cpu = usage.cpu.sum();
+            maxAllocated = usage.maxAllocated.get();
+            maxCpu = usage.maxCpu.get();
+        }
+    }
+}
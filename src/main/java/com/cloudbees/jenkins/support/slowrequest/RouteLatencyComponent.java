@@ -0,0 +1,134 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.PrintedContent;
+import com.cloudbees.jenkins.support.slowrequest.RouteLatencyFilter.RouteStats;
+import com.google.inject.Inject;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.security.Permission;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * Contributes the routes with the highest total time and the highest 99th percentile latency into the support bundle.
+ */
+@Extension
+public class RouteLatencyComponent extends Component {
+
+    /**
+     * Number of routes listed in each table.
+     */
+    static int TOP_ROUTES = SystemProperties.getInteger(RouteLatencyComponent.class.getName() + ".topRoutes", 25);
+
+    /**
+     * Minimum number of requests for a route to be ranked by percentile, so that a single slow request does not
+     * hide the routes that are consistently slow.
+     */
+    static int MIN_REQUESTS_FOR_PERCENTILES =
+            SystemProperties.getInteger(RouteLatencyComponent.class.getName() + ".minRequests", 10);
+
+    @Inject
+    RouteLatencyFilter filter;
+
+    @NonNull
+    @Override
+    public Set<Permission> getRequiredPermissions() {
+        return Collections.singleton(Jenkins.ADMINISTER);
+    }
+
+    @NonNull
+    @Override
+    public String getDisplayName() {
+        return "Request Latency by Route";
+    }
+
+    @Override
+    public void addContents(@NonNull Container container) {
+        container.add(new PrintedContent("nodes/master/http-routes.md") {
+            @Override
+            protected void printTo(PrintWriter out) {
+                print(filter.getRoutes(), out);
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public ComponentCategory getCategory() {
+        return ComponentCategory.CONTROLLER;
+    }
+
+    static void print(List<RouteStats> routes, PrintWriter out) {
+        out.println("Request latency by route");
+        out.println("========================");
+        out.println();
+        out.println("Latencies are in milliseconds, since the start of Jenkins.");
+        out.println();
+        out.println("Top routes by total time");
+        out.println("------------------------");
+        out.println();
+        // requests keep being recorded while we print, so rank on values read once per route
+        Map<RouteStats, Long> total = new IdentityHashMap<>();
+        routes.forEach(r -> total.put(r, r.all.getSum()));
+        routes.sort(Comparator.comparingLong((RouteStats r) -> total.get(r)).reversed());
+        printTable(routes, out);
+
+        out.println("Top routes by 99th percentile");
+        out.println("-----------------------------");
+        out.println();
+        routes.removeIf(r -> r.all.getCount() < MIN_REQUESTS_FOR_PERCENTILES);
+        Map<RouteStats, Long> p99 = new IdentityHashMap<>();
+        routes.forEach(r -> p99.put(r, r.all.getValue(0.99)));
+        routes.sort(Comparator.comparingLong((RouteStats r) -> p99.get(r)).reversed());
+        printTable(routes, out);
+    }
+
+    private static void printTable(List<RouteStats> routes, PrintWriter out) {
+        out.println("| Route | Requests | Total | Mean | p50 | p99 | Max | Status classes |");
+        out.println("|-------|---------:|------:|-----:|----:|----:|----:|----------------|");
+        for (RouteStats route : routes.subList(0, Math.min(TOP_ROUTES, routes.size()))) {
+            LatencyHistogram all = route.all;
+            long count = all.getCount();
+            StringBuilder statusClasses = new StringBuilder();
+            for (int i = 0; i < RouteLatencyFilter.STATUS_CLASSES.length; i++) {
+                LatencyHistogram histogram = route.get(i);
+                if (histogram != null) {
+                    if (statusClasses.length() > 0) {
+                        statusClasses.append(", ");
+                    }
+                    statusClasses
+                            .append(RouteLatencyFilter.STATUS_CLASSES[i])
+                            .append(": ")
+                            .append(histogram.getCount())
+                            .append(" (p99 ")
+                            .append(millis(histogram.getValue(0.99)))
+                            .append(')');
+                }
+            }
+            out.printf(
+                    "| `%s` | %d | %s | %s | %s | %s | %s | %s |%n",
+                    route.route,
+                    count,
+                    millis(all.getSum()),
+                    millis(count == 0 ? 0 : all.getSum() / count),
+                    millis(all.getValue(0.5)),
+                    millis(all.getValue(0.99)),
+                    millis(all.getMax()),
+                    statusClasses);
+        }
+        out.println();
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+}
@@ -0,0 +1,158 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.google.inject.Injector;
+import hudson.Extension;
+import hudson.init.Initializer;
+import hudson.util.PluginServletFilter;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.metrics.api.Metrics;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * Records the latency of every request into a {@link LatencyHistogram} per route, as given by {@link RouteNormalizer},
+ * and per status class. The histograms are published to the metrics registry and summarized by
+ * {@link RouteLatencyComponent}.
+ */
+@Extension
+public class RouteLatencyFilter implements Filter {
+
+    /**
+     * Provide a means to disable the route latency recording without restarting Jenkins.
+     */
+    public static volatile boolean DISABLED =
+            SystemProperties.getBoolean(RouteLatencyFilter.class.getName() + ".DISABLED");
+
+    /**
+     * Maximum number of distinct routes tracked. Requests to any other route are recorded under {@link #OTHER_ROUTE}.
+     */
+    static int MAX_ROUTES = SystemProperties.getInteger(RouteLatencyFilter.class.getName() + ".maxRoutes", 200);
+
+    static final String OTHER_ROUTE = "(other)";
+
+    static final String[] STATUS_CLASSES = {"other", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final CappedRoutes<RouteStats> routes = new CappedRoutes<>(() -> MAX_ROUTES, RouteStats::new);
+
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (DISABLED || !(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            HttpServletRequest req = (HttpServletRequest) request;
+            int status = failed
+                    ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR
+                    : ((HttpServletResponse) response).getStatus();
+            record(
+                    RouteNormalizer.normalize(req.getContextPath(), req.getRequestURI()),
+                    status,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        }
+    }
+
+    void record(String route, int status, long micros) {
+        routes.get(route).record(status, micros);
+    }
+
+    /**
+     * @return a copy of the statistics of all the routes recorded so far.
+     */
+    List<RouteStats> getRoutes() {
+        return routes.values();
+    }
+
+    public void init(FilterConfig filterConfig) throws ServletException {}
+
+    public void destroy() {}
+
+    @Initializer
+    public static void init() throws ServletException {
+        Injector inj = Jenkins.get().getInjector();
+        if (inj == null) {
+            return;
+        }
+        PluginServletFilter.addFilter(inj.getInstance(RouteLatencyFilter.class));
+    }
+
+    static int statusClassOf(int status) {
+        int statusClass = status / 100;
+        return statusClass >= 1 && statusClass < STATUS_CLASSES.length ? statusClass : 0;
+    }
+
+    /**
+     * Latencies of a single route, in microseconds.
+     */
+    static final class RouteStats {
+        final String route;
+
+        final LatencyHistogram all = new LatencyHistogram();
+
+        private final AtomicReferenceArray<LatencyHistogram> byStatusClass =
+                new AtomicReferenceArray<>(STATUS_CLASSES.length);
+
+        RouteStats(String route) {
+            this.route = route;
+        }
+
+        void record(int status, long micros) {
+            all.update(micros);
+            int statusClass = statusClassOf(status);
+            LatencyHistogram histogram = byStatusClass.get(statusClass);
+            if (histogram == null) {
+                LatencyHistogram created = new LatencyHistogram();
+                if (byStatusClass.compareAndSet(statusClass, null, created)) {
+                    publish(route, STATUS_CLASSES[statusClass], created);
+                }
+                histogram = byStatusClass.get(statusClass);
+            }
+            histogram.update(micros);
+        }
+
+        /**
+         * @return the histogram of the given status class, or {@code null} if no such response was recorded.
+         */
+        LatencyHistogram get(int statusClass) {
+            return byStatusClass.get(statusClass);
+        }
+
+        private static void publish(String route, String statusClass, LatencyHistogram histogram) {
+            try {
+                String name = MetricRegistry.name(HttpServlet.class, "routes", route, statusClass);
+                Metrics.metricRegistry().register(name, new Histogram(histogram) {
+                    @Override
+                    public long getCount() {
+                        return histogram.getCount();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // already registered, or the metrics registry is not available yet
+                LOGGER.log(Level.FINE, "Could not publish the latency histogram of " + route, e);
+            }
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(RouteLatencyFilter.class.getName());
+}
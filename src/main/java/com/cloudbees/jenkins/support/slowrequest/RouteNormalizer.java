@@ -0,0 +1,260 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import jenkins.util.SystemProperties;
+
+/**
+ * Collapses request paths into route templates, so that latencies can be aggregated per endpoint instead of per URL.
+ *
+ * <p>
+ * For example {@code /job/folder/job/my-job/42/console} becomes <code>/job/*&#47;{n}/console</code>: the names of
+ * items, views, users, nodes... are replaced by {@code *}, nested folders are folded into a single {@code job/*}, and
+ * build numbers and permalinks are replaced by {@code {n}}. The routes end up in metric names, so any other segment is
+ * replaced by {@code {?}} unless it is a well known URL of Jenkins or listed in {@link #KNOWN_SEGMENTS}.
+ */
+final class RouteNormalizer {
+
+    /**
+     * Maximum number of path segments kept in a route. Anything deeper is replaced by {@code ...}.
+     */
+    static int MAX_DEPTH = SystemProperties.getInteger(RouteNormalizer.class.getName() + ".maxDepth", 6);
+
+    static final String ANY = "*";
+
+    static final String NUMBER = "{n}";
+
+    static final String MORE = "...";
+
+    static final String UNKNOWN = "{?}";
+
+    /**
+     * Other segments kept in the routes, such as the URLs of the actions contributed by plugins.
+     */
+    static Set<String> KNOWN_SEGMENTS = Arrays.stream(
+                    SystemProperties.getString(RouteNormalizer.class.getName() + ".knownSegments", "").split(","))
+            .map(String::trim)
+            .filter(segment -> !segment.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+
+    /**
+     * Segments that are followed by the name of a model object.
+     */
+    private static final Set<String> NAMED =
+            Set.of("job", "view", "user", "computer", "label", "cloud", "node", "item");
+
+    /**
+     * Segments that are followed by an arbitrary path, such as a workspace or a static resource.
+     */
+    private static final Set<String> OPAQUE = Set.of(
+            "ws",
+            "artifact",
+            "static",
+            "adjuncts",
+            "resources",
+            "userContent",
+            "plugin",
+            "descriptorByName",
+            "bound",
+            "*zip*");
+
+    private static final Set<String> PERMALINKS = Set.of(
+            "lastBuild",
+            "lastStableBuild",
+            "lastSuccessfulBuild",
+            "lastFailedBuild",
+            "lastUnstableBuild",
+            "lastUnsuccessfulBuild",
+            "lastCompletedBuild");
+
+    /**
+     * Segments of the URLs of Jenkins and of the most common plugins.
+     */
+    private static final Set<String> WELL_KNOWN = Set.of(
+            "$stapler",
+            "about",
+            "agent.jar",
+            "ajaxBuildQueue",
+            "ajaxExecutors",
+            "all",
+            "api",
+            "asynchPeople",
+            "branch",
+            "build",
+            "buildHistory",
+            "buildTimeTrend",
+            "buildWithParameters",
+            "cancelQuietDown",
+            "changes",
+            "checkJobName",
+            "cli",
+            "computation",
+            "config.xml",
+            "configSubmit",
+            "configure",
+            "configureSecurity",
+            "configureTools",
+            "confirmDelete",
+            "console",
+            "consoleFull",
+            "consoleText",
+            "createItem",
+            "createView",
+            "credential",
+            "credentials",
+            "crumbIssuer",
+            "describe",
+            "description",
+            "doDelete",
+            "domain",
+            "error",
+            "favicon.ico",
+            "fingerprint",
+            "fingerprintCheck",
+            "flowGraphTable",
+            "generateAllBundles",
+            "github-webhook",
+            "indexing",
+            "j_spring_security_check",
+            "jnlpJars",
+            "json",
+            "kill",
+            "loadStatistics",
+            "log",
+            "login",
+            "logout",
+            "logText",
+            "manage",
+            "me",
+            "metrics",
+            "my-views",
+            "newJob",
+            "newView",
+            "notifyCommit",
+            "people",
+            "pipeline-syntax",
+            "pluginManager",
+            "progressiveHtml",
+            "progressiveText",
+            "python",
+            "queue",
+            "quietDown",
+            "replay",
+            "restart",
+            "robots.txt",
+            "rssAll",
+            "rssFailed",
+            "rssLatest",
+            "safeRestart",
+            "scan",
+            "script",
+            "scriptText",
+            "search",
+            "securityRealm",
+            "signup",
+            "slave-agent.jnlp",
+            "stop",
+            "store",
+            "submitDescription",
+            "suggest",
+            "support",
+            "systemInfo",
+            "tcpSlaveAgentListener",
+            "term",
+            "testReport",
+            "timeline",
+            "toggleOffline",
+            "updateCenter",
+            "wfapi",
+            "whoAmI",
+            "widget",
+            "wsagents",
+            "xml");
+
+    private RouteNormalizer() {}
+
+    /**
+     * @param contextPath the servlet context path, stripped from the route.
+     * @param requestURI the request URI, without the query string.
+     * @return the route template of the request.
+     */
+    @NonNull
+    static String normalize(@CheckForNull String contextPath, @CheckForNull String requestURI) {
+        if (requestURI == null) {
+            return "/";
+        }
+        int start = contextPath != null && requestURI.startsWith(contextPath) ? contextPath.length() : 0;
+        int end = requestURI.indexOf(';', start);
+        if (end < 0) {
+            end = requestURI.length();
+        }
+
+        StringBuilder route = new StringBuilder();
+        int depth = 0;
+        String previous = null;
+        int pos = start;
+        while (pos < end) {
+            int next = requestURI.indexOf('/', pos);
+            if (next < 0 || next > end) {
+                next = end;
+            }
+            if (next > pos) {
+                String segment = requestURI.substring(pos, next);
+                if (previous != null && OPAQUE.contains(previous)) {
+                    route.append('/').append(ANY);
+                    return route.toString();
+                }
+                String template = template(previous, segment);
+                if (ANY.equals(template) && "job".equals(previous) && endsWith(route, "/job/*/job")) {
+                    // nested folders: fold job/*/job/* into a single job/*
+                    route.setLength(route.length() - "/job".length());
+                    depth--;
+                } else if (depth++ >= MAX_DEPTH) {
+                    route.append('/').append(MORE);
+                    return route.toString();
+                } else {
+                    route.append('/').append(template);
+                }
+                previous = template;
+            }
+            pos = next + 1;
+        }
+        if (route.length() == 0 || requestURI.charAt(end - 1) == '/') {
+            route.append('/');
+        }
+        return route.toString();
+    }
+
+    private static boolean endsWith(StringBuilder route, String suffix) {
+        int offset = route.length() - suffix.length();
+        return offset >= 0 && route.indexOf(suffix, offset) == offset;
+    }
+
+    private static String template(@CheckForNull String previous, String segment) {
+        if (previous != null && NAMED.contains(previous)) {
+            return ANY;
+        }
+        if (PERMALINKS.contains(segment) || isNumber(segment)) {
+            return NUMBER;
+        }
+        if (NAMED.contains(segment)
+                || OPAQUE.contains(segment)
+                || WELL_KNOWN.contains(segment)
+                || KNOWN_SEGMENTS.contains(segment)) {
+            return segment;
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean isNumber(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (segment.charAt(i) < '0' || segment.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
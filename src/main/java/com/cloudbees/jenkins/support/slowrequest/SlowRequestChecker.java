@@ -1,6 +1,7 @@
 package com.cloudbees.jenkins.support.slowrequest;
 
 import static com.cloudbees.jenkins.support.slowrequest.SlowRequestThreadDumpsGenerator.MINIMAL_SLOW_REQUEST_COUNT;
+import static java.util.logging.Level.FINE;
 import static java.util.logging.Level.WARNING;
 
 import com.cloudbees.jenkins.support.SupportPlugin;
@@ -10,15 +11,27 @@ import com.cloudbees.jenkins.support.timer.FileListCapComponent;
 import com.google.inject.Inject;
 import hudson.Extension;
 import hudson.model.PeriodicWork;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
@@ -53,6 +66,14 @@ public class SlowRequestChecker extends PeriodicWork {
      */
     public static volatile boolean DISABLED = Boolean.getBoolean(SlowRequestChecker.class.getName() + ".DISABLED");
 
+    /**
+     * Maximum time in milliseconds a single run may spend writing slow request records, so that the checker does not
+     * make a slowdown worse when many requests are stuck at once. Remaining records are picked up on the next run,
+     * starting with the requests written least recently. At least one record is written per run.
+     */
+    public static volatile long TIME_BUDGET_MS =
+            Long.getLong(SlowRequestChecker.class.getName() + ".TIME_BUDGET_MS", 1000);
+
     @Inject
     SlowRequestFilter filter;
 
@@ -60,6 +81,11 @@ public class SlowRequestChecker extends PeriodicWork {
 
     final SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd-HHmmss.SSS");
 
+    /**
+     * How many records were written, to order the requests by {@link InflightRequest#recordWritten}.
+     */
+    private long recordsWritten;
+
     {
         format.setTimeZone(TimeZone.getTimeZone("UTC"));
     }
@@ -82,56 +108,19 @@ public class SlowRequestChecker extends PeriodicWork {
         final long recurrencePeriosMillis = TimeUnit.SECONDS.toMillis(RECURRENCE_PERIOD_SEC);
         long thresholdMillis = recurrencePeriosMillis > THRESHOLD ? recurrencePeriosMillis * 2 : THRESHOLD;
 
-        // We filter the information written to the slow-requests files
-        ContentFilter contentFilter = SupportPlugin.getDefaultContentFilter();
-
-        int slowRequestCount = 0;
-
+        List<InflightRequest> slowRequests = new ArrayList<>();
         for (InflightRequest req : filter.tracker.values()) {
-            long totalTime = now - req.startTime;
-
-            if (totalTime > thresholdMillis) {
-                // if the thread has exited while we are taking the thread dump, ignore this.
-                if (req.ended) continue;
-
-                boolean newRecord = req.record == null;
-
-                slowRequestCount++;
-
-                if (newRecord) {
-                    req.record = logs.file(format.format(new Date(iota++)) + ".txt");
-                    logs.add(req.record);
-                } else {
-                    logs.touch(req.record);
-                }
-                try (PrintWriter w = new PrintWriter(
-                        new OutputStreamWriter(new FileOutputStream(req.record, !newRecord), StandardCharsets.UTF_8))) {
-                    if (newRecord) {
-                        req.writeHeader(w, contentFilter);
-                    }
-                    if (req.record.length() >= FileListCapComponent.MAX_FILE_SIZE) continue;
-                    ThreadInfo lockedThread =
-                            ManagementFactory.getThreadMXBean().getThreadInfo(req.thread.getId(), Integer.MAX_VALUE);
-                    if (lockedThread != null) {
-                        w.println(contentFilter.filter(lockedThread.toString()));
-                        w.println(totalTime + "msec elapsed in " + contentFilter.filter(lockedThread.getThreadName()));
-                        printThreadStackElements(lockedThread, w, contentFilter);
-
-                        long lockOwnerId = lockedThread.getLockOwnerId();
-                        if (lockOwnerId != -1) // If the thread is not locked, then getLockOwnerId returns -1.
-                        {
-                            ThreadInfo threadInfo =
-                                    ManagementFactory.getThreadMXBean().getThreadInfo(lockOwnerId, Integer.MAX_VALUE);
-                            w.println(contentFilter.filter(lockedThread.toString()));
-                            if (threadInfo != null) {
-                                printThreadStackElements(threadInfo, w, contentFilter);
-                            }
-                        }
-                    }
-                }
+            // if the thread has exited while we are taking the thread dump, ignore this.
+            if (now - req.startTime > thresholdMillis && !req.ended) {
+                slowRequests.add(req);
             }
         }
 
+        int slowRequestCount = slowRequests.size();
+        if (slowRequestCount > 0) {
+            iota = writeRecords(slowRequests, now, iota);
+        }
+
         if (slowRequestCount >= MINIMAL_SLOW_REQUEST_COUNT) {
             boolean newThreadDumps = SlowRequestThreadDumpsGenerator.checkThreadDumpsTrigger(iota);
 
@@ -150,6 +139,119 @@ public class SlowRequestChecker extends PeriodicWork {
         }
     }
 
+    /**
+     * Samples all the slow request threads, and then the lock owners that are not among them, with one batched
+     * {@link ThreadMXBean#getThreadInfo(long[], int)} call each, and appends a record per request.
+     * Gives up on the remaining requests once {@link #TIME_BUDGET_MS} is exhausted, the requests without a record
+     * being written first, then those written least recently, so that the next runs get to all of them.
+     *
+     * @return the next value of {@code iota} to use for record file names.
+     */
+    long writeRecords(List<InflightRequest> slowRequests, long now, long iota) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIME_BUDGET_MS);
+        slowRequests.sort(Comparator.comparingLong(req -> req.recordWritten));
+        ThreadMXBean mbean = ManagementFactory.getThreadMXBean();
+
+        long[] ids = new long[slowRequests.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = slowRequests.get(i).thread.getId();
+        }
+        Map<Long, ThreadInfo> infos = new HashMap<>();
+        collectThreadInfos(mbean, ids, infos);
+        long[] allocatedBytes = null;
+        long[] cpuTime = null;
+        if (RequestResourceUsage.ENABLED) {
+            allocatedBytes = RequestResourceUsage.allocatedBytes(ids);
+            cpuTime = RequestResourceUsage.cpuTime(ids);
+        }
+
+        Set<Long> missingOwners = new LinkedHashSet<>();
+        for (ThreadInfo info : infos.values()) {
+            long lockOwnerId = info.getLockOwnerId();
+            // If the thread is not locked, then getLockOwnerId returns -1.
+            if (lockOwnerId != -1 && !infos.containsKey(lockOwnerId)) {
+                missingOwners.add(lockOwnerId);
+            }
+        }
+        if (!missingOwners.isEmpty()) {
+            collectThreadInfos(mbean, missingOwners.stream().mapToLong(Long::longValue).toArray(), infos);
+        }
+
+        // We filter the information written to the slow-requests files
+        ContentFilter contentFilter = SupportPlugin.getDefaultContentFilter();
+
+        // A single buffer is reused to format every record so that each file only costs one open and one write.
+        StringWriter buffer = new StringWriter();
+        PrintWriter w = new PrintWriter(buffer);
+        int written = 0;
+        for (int i = 0; i < slowRequests.size(); i++) {
+            InflightRequest req = slowRequests.get(i);
+            if (written > 0 && System.nanoTime() - deadline > 0) {
+                LOGGER.log(
+                        FINE,
+                        "Slow request checker ran out of its {0}ms budget, skipped {1} of {2} records",
+                        new Object[] {TIME_BUDGET_MS, slowRequests.size() - written, slowRequests.size()});
+                break;
+            }
+            written++;
+            req.recordWritten = ++recordsWritten;
+
+            boolean newRecord = req.record == null;
+            if (newRecord) {
+                req.record = logs.file(format.format(new Date(iota++)) + ".txt");
+                logs.add(req.record);
+            } else {
+                logs.touch(req.record);
+                if (req.record.length() >= FileListCapComponent.MAX_FILE_SIZE) continue;
+            }
+
+            buffer.getBuffer().setLength(0);
+            if (newRecord) {
+                req.writeHeader(w, contentFilter);
+            }
+            ThreadInfo lockedThread = infos.get(req.thread.getId());
+            if (lockedThread != null) {
+                w.println(contentFilter.filter(lockedThread.toString()));
+                long totalTime = now - req.startTime;
+                w.println(totalTime + "msec elapsed in " + contentFilter.filter(lockedThread.getThreadName()));
+                if (req.isTrackingResources()) {
+                    req.writeResourceUsage(
+                            w,
+                            allocatedBytes == null ? RequestResourceUsage.UNAVAILABLE : allocatedBytes[i],
+                            cpuTime == null ? RequestResourceUsage.UNAVAILABLE : cpuTime[i]);
+                }
+                printThreadStackElements(lockedThread, w, contentFilter);
+
+                long lockOwnerId = lockedThread.getLockOwnerId();
+                if (lockOwnerId != -1) {
+                    ThreadInfo threadInfo = infos.get(lockOwnerId);
+                    if (threadInfo != null) {
+                        w.println(contentFilter.filter(threadInfo.toString()));
+                        printThreadStackElements(threadInfo, w, contentFilter);
+                    }
+                }
+            }
+            w.flush();
+
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(req.record, !newRecord), StandardCharsets.UTF_8))) {
+                out.append(buffer.getBuffer());
+            } catch (IOException e) {
+                LOGGER.log(WARNING, "Failed to write slow request record " + req.record, e);
+            }
+        }
+        return iota;
+    }
+
+    private static void collectThreadInfos(ThreadMXBean mbean, long[] ids, Map<Long, ThreadInfo> infos) {
+        for (ThreadInfo info : mbean.getThreadInfo(ids, Integer.MAX_VALUE)) {
+            // null when the thread is no longer alive
+            if (info != null) {
+                infos.put(info.getThreadId(), info);
+            }
+        }
+    }
+
     private void printThreadStackElements(ThreadInfo threadinfo, PrintWriter writer, ContentFilter contentFilter) {
         for (StackTraceElement element : threadinfo.getStackTrace()) {
             writer.println("    " + contentFilter.filter(element.toString()));
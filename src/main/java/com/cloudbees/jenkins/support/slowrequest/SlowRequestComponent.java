@@ -1,10 +1,12 @@
 package com.cloudbees.jenkins.support.slowrequest;
 
 import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.PrintedContent;
 import com.cloudbees.jenkins.support.timer.UnfilteredFileListCapComponent;
 import com.google.inject.Inject;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
+import java.io.PrintWriter;
 
 /**
  * Contributes slow request reports into the support bundle.
@@ -25,6 +27,14 @@ public class SlowRequestComponent extends UnfilteredFileListCapComponent {
     @Override
     public void addContents(@NonNull Container container) {
         super.addContents(container, checker.logs);
+        if (RequestResourceUsage.ENABLED) {
+            container.add(new PrintedContent("slow-requests/resource-usage-by-route.md") {
+                @Override
+                protected void printTo(PrintWriter out) {
+                    checker.filter.resourceUsage.print(out);
+                }
+            });
+        }
     }
 
     @NonNull
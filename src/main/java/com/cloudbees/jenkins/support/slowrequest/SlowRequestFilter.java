@@ -25,6 +25,8 @@ import jenkins.model.Jenkins;
 public class SlowRequestFilter implements Filter {
     final ConcurrentMap<Thread, InflightRequest> tracker = new ConcurrentHashMap<Thread, InflightRequest>();
 
+    final RequestResourceUsage resourceUsage = new RequestResourceUsage();
+
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         if (SlowRequestChecker.DISABLED) {
@@ -38,6 +40,9 @@ public class SlowRequestFilter implements Filter {
             } finally {
                 req.ended = true;
                 tracker.remove(t);
+                if (req.isTrackingResources()) {
+                    req.recordResourceUsage(resourceUsage);
+                }
             }
         }
     }
@@ -2,6 +2,7 @@ package com.cloudbees.jenkins.support.slowrequest;
 
 import com.cloudbees.jenkins.support.SupportPlugin;
 import com.cloudbees.jenkins.support.impl.ThreadDumps;
+import com.cloudbees.jenkins.support.jfr.FlightRecording;
 import com.cloudbees.jenkins.support.timer.FileListCap;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
@@ -93,6 +94,9 @@ public class SlowRequestThreadDumpsGenerator extends Thread {
 
         setRunningStatus(true);
 
+        // the recording already holds the profiling data from before the requests were detected
+        FlightRecording.incident("slow-requests");
+
         long fileNameDate = this.iota;
 
         ThreadDumps.collectMultiple(logs, fileNameDate, TimeUnit.SECONDS.toMillis(FREQUENCY_SEC), TOTAL_ITERATIONS);
@@ -26,8 +26,11 @@ package com.cloudbees.jenkins.support.threaddump;
 
 import static java.util.logging.Level.WARNING;
 
+import com.cloudbees.jenkins.support.SupportPlugin;
 import com.cloudbees.jenkins.support.impl.ThreadDumps;
+import com.cloudbees.jenkins.support.jfr.FlightRecording;
 import com.cloudbees.jenkins.support.timer.FileListCap;
+import com.cloudbees.jenkins.support.timer.LockContentionChecker;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricSet;
 import hudson.Extension;
@@ -35,6 +38,9 @@ import hudson.ExtensionList;
 import hudson.model.PeriodicWork;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.TimeZone;
@@ -109,10 +115,14 @@ public class HighLoadCpuChecker extends PeriodicWork {
                 if (countConsecutivePositives >= HIGH_CPU_CONSECUTIVE_TIMES) {
                     countConsecutivePositives = 0;
                     File threadDumpFile = logs.file(format.format(new Date()) + ".txt");
-                    try (FileOutputStream fileOutputStream = new FileOutputStream(threadDumpFile)) {
+                    try (FileOutputStream fileOutputStream = new FileOutputStream(threadDumpFile);
+                            PrintWriter writer = new PrintWriter(
+                                    new OutputStreamWriter(fileOutputStream, StandardCharsets.UTF_8))) {
                         ThreadDumps.threadDump(fileOutputStream);
+                        printLockContention(writer);
                         logs.add(threadDumpFile);
                     }
+                    FlightRecording.incident("high-cpu");
                 }
             } else {
                 countConsecutivePositives = 0;
@@ -125,5 +135,14 @@ public class HighLoadCpuChecker extends PeriodicWork {
         }
     }
 
+    private static void printLockContention(PrintWriter writer) {
+        LockContentionChecker contention = LockContentionChecker.get();
+        if (contention != null && !LockContentionChecker.DISABLED) {
+            writer.println();
+            contention.printSummary(writer, SupportPlugin.getDefaultContentFilter());
+            writer.flush();
+        }
+    }
+
     private static final Logger LOGGER = Logger.getLogger(HighLoadCpuChecker.class.getName());
 }
@@ -3,6 +3,7 @@ package com.cloudbees.jenkins.support.timer;
 import com.cloudbees.jenkins.support.SupportPlugin;
 import com.cloudbees.jenkins.support.filter.ContentFilter;
 import com.cloudbees.jenkins.support.impl.ThreadDumps;
+import com.cloudbees.jenkins.support.jfr.FlightRecording;
 import hudson.Extension;
 import hudson.model.PeriodicWork;
 import java.io.File;
@@ -63,9 +64,16 @@ public class DeadlockTrackChecker extends PeriodicWork {
                         builder.println(threadInfo);
                     }
                 }
+
+                LockContentionChecker contention = LockContentionChecker.get();
+                if (contention != null && !LockContentionChecker.DISABLED) {
+                    builder.println();
+                    contention.printSummary(builder, contentFilter);
+                }
             } finally {
                 builder.close();
             }
+            FlightRecording.incident("deadlock");
         }
     }
 }
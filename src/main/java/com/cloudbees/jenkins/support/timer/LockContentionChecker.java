@@ -0,0 +1,258 @@
+package com.cloudbees.jenkins.support.timer;
+
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.PeriodicWork;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Samples the threads that are blocked on a monitor, to find the locks that are heavily contended even when there is
+ * no deadlock for {@link DeadlockTrackChecker} to report.
+ *
+ * <p>
+ * Thread contention monitoring is turned on, and on each run the blocked count and time of every thread, along with
+ * the lock it is blocked on, are read with a single {@link ThreadMXBean#getThreadInfo(long[], int)} call. The samples
+ * are aggregated per monitor, with its owners and the frames the threads are waiting at, over a rolling window of
+ * {@link #WINDOW_MINUTES}.
+ */
+@Extension
+public class LockContentionChecker extends PeriodicWork {
+
+    /**
+     * How often to sample the blocked threads.
+     */
+    public static final int RECURRENCE_PERIOD_SEC =
+            Integer.getInteger(LockContentionChecker.class.getName() + ".RECURRENCE_PERIOD_SEC", 10);
+
+    /**
+     * How long the samples are kept.
+     */
+    public static final int WINDOW_MINUTES =
+            Integer.getInteger(LockContentionChecker.class.getName() + ".WINDOW_MINUTES", 15);
+
+    /**
+     * Number of monitors listed in the summary.
+     */
+    public static final int TOP_LOCKS = Integer.getInteger(LockContentionChecker.class.getName() + ".TOP_LOCKS", 20);
+
+    /**
+     * Provide a means to disable the lock contention sampling without restarting Jenkins.
+     */
+    public static volatile boolean DISABLED = Boolean.getBoolean(LockContentionChecker.class.getName() + ".DISABLED");
+
+    /**
+     * Number of frames of a blocked thread used to tell where it is waiting.
+     */
+    private static final int WAITING_FRAMES = 3;
+
+    private static final int MAX_LOCKS_PER_SLICE = 200;
+
+    private static final int MAX_OWNERS_AND_FRAMES_PER_LOCK = 10;
+
+    private static final long SLICE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Blocked count and time of each thread at the previous run, to compute deltas.
+     */
+    @GuardedBy("this")
+    private Map<Long, long[]> previous = new HashMap<>();
+
+    /**
+     * One slice per minute of the window, oldest first.
+     */
+    @GuardedBy("this")
+    private final Deque<Slice> slices = new ArrayDeque<>();
+
+    @CheckForNull
+    public static LockContentionChecker get() {
+        return ExtensionList.lookup(LockContentionChecker.class).get(LockContentionChecker.class);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.SECONDS.toMillis(RECURRENCE_PERIOD_SEC);
+    }
+
+    @Override
+    protected void doRun() throws Exception {
+        if (DISABLED) {
+            return;
+        }
+        ThreadMXBean mbean = ManagementFactory.getThreadMXBean();
+        if (!mbean.isThreadContentionMonitoringSupported()) {
+            return;
+        }
+        if (!mbean.isThreadContentionMonitoringEnabled()) {
+            try {
+                mbean.setThreadContentionMonitoringEnabled(true);
+            } catch (SecurityException e) {
+                LOGGER.log(Level.FINE, "Could not enable thread contention monitoring", e);
+            }
+        }
+        sample(mbean.getThreadInfo(mbean.getAllThreadIds(), WAITING_FRAMES), System.currentTimeMillis());
+    }
+
+    synchronized void sample(ThreadInfo[] infos, long now) {
+        Slice slice = slices.peekLast();
+        if (slice == null || now - slice.start >= SLICE_MILLIS) {
+            slice = new Slice(now);
+            slices.addLast(slice);
+        }
+        while (!slices.isEmpty() && now - slices.peekFirst().start >= TimeUnit.MINUTES.toMillis(WINDOW_MINUTES)) {
+            slices.removeFirst();
+        }
+
+        Map<Long, long[]> current = new HashMap<>();
+        for (ThreadInfo info : infos) {
+            // null when the thread is no longer alive
+            if (info == null) {
+                continue;
+            }
+            long[] counters = {info.getBlockedCount(), info.getBlockedTime()};
+            long[] before = previous.get(info.getThreadId());
+            current.put(info.getThreadId(), counters);
+            long blockedCount = before == null ? 0 : counters[0] - before[0];
+            // the blocked time is -1 while contention monitoring is disabled
+            long blockedTime = before == null || counters[1] < 0 || before[1] < 0 ? 0 : counters[1] - before[1];
+            slice.blockedCount += blockedCount;
+            slice.blockedTime += blockedTime;
+
+            if (info.getThreadState() == Thread.State.BLOCKED && info.getLockName() != null) {
+                slice.record(info, blockedCount, blockedTime);
+            }
+        }
+        previous = current;
+    }
+
+    /**
+     * Prints the most contended monitors over the window.
+     */
+    public void printSummary(PrintWriter out, ContentFilter filter) {
+        long blockedCount = 0;
+        long blockedTime = 0;
+        Map<String, LockStats> locks = new HashMap<>();
+        synchronized (this) {
+            for (Slice slice : slices) {
+                blockedCount += slice.blockedCount;
+                blockedTime += slice.blockedTime;
+                slice.locks.forEach((name, stats) -> locks.computeIfAbsent(name, LockStats::new).merge(stats));
+            }
+        }
+        List<LockStats> top = new ArrayList<>(locks.values());
+        top.sort(Comparator.comparingLong((LockStats s) -> s.samples)
+                .thenComparingLong(s -> s.blockedTime)
+                .reversed());
+
+        String title = "Lock contention over the last " + WINDOW_MINUTES + " minutes";
+        out.println(title);
+        out.println("=".repeat(title.length()));
+        out.println();
+        out.println("* Monitor enters that blocked: " + blockedCount);
+        out.println("* Time spent blocked (ms): " + blockedTime);
+        out.println("* Contended monitors: " + locks.size());
+        out.println();
+        for (LockStats stats : top.subList(0, Math.min(TOP_LOCKS, top.size()))) {
+            String lockName = "`" + filter.filter(stats.lockName) + "`";
+            out.println(lockName);
+            out.println("-".repeat(lockName.length()));
+            out.println();
+            out.println("* Threads seen blocked: " + stats.samples);
+            out.println("* Monitor enters that blocked: " + stats.blockedCount);
+            out.println("* Time spent blocked (ms): " + stats.blockedTime);
+            out.println("* Owners:");
+            printCounts(stats.owners, out, filter);
+            out.println("* Waiting at:");
+            printCounts(stats.frames, out, filter);
+            out.println();
+        }
+    }
+
+    private static void printCounts(Map<String, Integer> counts, PrintWriter out, ContentFilter filter) {
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(e -> out.println("    * `" + filter.filter(e.getKey()) + "`: " + e.getValue()));
+    }
+
+    /**
+     * Samples of one minute of the window.
+     */
+    private static final class Slice {
+        private final long start;
+        private final Map<String, LockStats> locks = new HashMap<>();
+        private long blockedCount;
+        private long blockedTime;
+
+        Slice(long start) {
+            this.start = start;
+        }
+
+        void record(ThreadInfo info, long blockedCount, long blockedTime) {
+            LockStats stats = locks.get(info.getLockName());
+            if (stats == null) {
+                if (locks.size() >= MAX_LOCKS_PER_SLICE) {
+                    return;
+                }
+                stats = new LockStats(info.getLockName());
+                locks.put(info.getLockName(), stats);
+            }
+            stats.samples++;
+            stats.blockedCount += blockedCount;
+            stats.blockedTime += blockedTime;
+            String owner = info.getLockOwnerName();
+            stats.count(stats.owners, owner == null ? "(unknown)" : owner + " id=" + info.getLockOwnerId(), 1);
+            StringBuilder frames = new StringBuilder();
+            for (StackTraceElement element : info.getStackTrace()) {
+                if (frames.length() > 0) {
+                    frames.append(" <- ");
+                }
+                frames.append(element);
+            }
+            stats.count(stats.frames, frames.toString(), 1);
+        }
+    }
+
+    private static final class LockStats {
+        private final String lockName;
+        private final Map<String, Integer> owners = new HashMap<>();
+        private final Map<String, Integer> frames = new HashMap<>();
+        private long samples;
+        private long blockedCount;
+        private long blockedTime;
+
+        LockStats(String lockName) {
+            this.lockName = lockName;
+        }
+
+        void count(Map<String, Integer> counts, String key, int n) {
+            if (counts.containsKey(key) || counts.size() < MAX_OWNERS_AND_FRAMES_PER_LOCK) {
+                counts.merge(key, n, Integer::sum);
+            }
+        }
+
+        void merge(LockStats other) {
+            samples += other.samples;
+            blockedCount += other.blockedCount;
+            blockedTime += other.blockedTime;
+            other.owners.forEach((key, n) -> count(owners, key, n));
+            other.frames.forEach((key, n) -> count(frames, key, n));
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(LockContentionChecker.class.getName());
+}
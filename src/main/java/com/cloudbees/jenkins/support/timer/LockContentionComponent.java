@@ -0,0 +1,53 @@
+package com.cloudbees.jenkins.support.timer;
+
+import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.PrintedContent;
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.security.Permission;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Set;
+import jenkins.model.Jenkins;
+
+/**
+ * Contributes the most contended monitors seen by {@link LockContentionChecker} into the support bundle.
+ */
+@Extension
+public class LockContentionComponent extends Component {
+
+    @NonNull
+    @Override
+    public Set<Permission> getRequiredPermissions() {
+        return Collections.singleton(Jenkins.ADMINISTER);
+    }
+
+    @NonNull
+    @Override
+    public String getDisplayName() {
+        return "Lock Contention";
+    }
+
+    @Override
+    public void addContents(@NonNull Container container) {
+        LockContentionChecker checker = LockContentionChecker.get();
+        if (checker == null || LockContentionChecker.DISABLED) {
+            return;
+        }
+        container.add(new PrintedContent("nodes/master/lock-contention.md") {
+            @Override
+            protected void printTo(PrintWriter out) {
+                // the content is filtered as it is written to the bundle
+                checker.printSummary(out, ContentFilter.NONE);
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public ComponentCategory getCategory() {
+        return ComponentCategory.PLATFORM;
+    }
+}
@@ -0,0 +1,43 @@
+package com.cloudbees.jenkins.support.util;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.apache.commons.io.function.IOConsumer;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Utility methods for replacing files, also used on agents.
+ */
+@Restricted(NoExternalUse.class)
+public final class AtomicFiles {
+
+    private AtomicFiles() {}
+
+    /**
+     * Replaces a file with what is written to a temporary file next to it, so that it is never read while partially
+     * written.
+     *
+     * @param file the file to replace, along with its missing parent directories.
+     * @param writer writes the new contents of the file.
+     * @throws IOException if the file could not be written, in which case it is left unchanged.
+     */
+    public static void write(@NonNull File file, @NonNull IOConsumer<OutputStream> writer) throws IOException {
+        Path dir = file.getAbsoluteFile().getParentFile().toPath();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getName(), ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                writer.accept(os);
+            }
+            Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
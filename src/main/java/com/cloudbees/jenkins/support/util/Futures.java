@@ -0,0 +1,46 @@
+package com.cloudbees.jenkins.support.util;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Utility methods for waiting for the work of other threads.
+ */
+@Restricted(NoExternalUse.class)
+public final class Futures {
+
+    private Futures() {}
+
+    /**
+     * Waits for the result of a task, throwing what the task threw.
+     *
+     * @param future the task, cancelled if the current thread is interrupted while waiting.
+     * @return the result of the task.
+     * @throws IOException if the task threw one, or threw a checked exception which is the cause, or if the current
+     *     thread was interrupted.
+     */
+    public static <T> T get(@NonNull Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException().initCause(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
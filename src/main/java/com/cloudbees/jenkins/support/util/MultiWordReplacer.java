@@ -0,0 +1,169 @@
+package com.cloudbees.jenkins.support.util;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Replaces whole words of a set, built once to replace them in any number of texts.
+ *
+ * <p>
+ * The words are kept in a trie, walked from each position where a word may start, that is at the start of the text or
+ * after a character that is not a {@link Character#isLetterOrDigit(char)} character. The longest word found there that
+ * is not followed by such a character is replaced, and the text is scanned again after it. The replacements are
+ * written to a new text once, and are never scanned for the other words.
+ *
+ * <p>
+ * When ignoring the case, each character of the words and texts is compared {@linkplain Character#toLowerCase(char) in
+ * lower case}, so that the positions in the text are those of the original characters.
+ */
+@Restricted(NoExternalUse.class)
+public final class MultiWordReplacer {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node();
+    private final boolean ignoreCase;
+
+    private MultiWordReplacer(String[] words, String[] replaces, boolean ignoreCase) {
+        if (words.length != replaces.length) {
+            throw new IllegalArgumentException(String.format(
+                    "Words (%d) and replaces (%d) lengths should be equals", words.length, replaces.length));
+        }
+        this.ignoreCase = ignoreCase;
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+            if (word == null || word.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (int j = 0; j < word.length(); j++) {
+                node = node.getOrCreate(fold(word.charAt(j)));
+            }
+            // the first of the same words is replaced, as it was the first to be replaced one word after the other
+            if (node.replace == null) {
+                node.replace = replaces[i] == null ? "" : replaces[i];
+            }
+        }
+        root.freeze();
+    }
+
+    /**
+     * @param words the words to replace, the {@code null} or empty ones being ignored.
+     * @param replaces the replacement of each word.
+     */
+    public static MultiWordReplacer of(@NonNull String[] words, @NonNull String[] replaces) {
+        return new MultiWordReplacer(words, replaces, false);
+    }
+
+    /**
+     * @param words the words to replace in any case, the {@code null} or empty ones being ignored.
+     * @param replaces the replacement of each word.
+     */
+    public static MultiWordReplacer ofIgnoreCase(@NonNull String[] words, @NonNull String[] replaces) {
+        return new MultiWordReplacer(words, replaces, true);
+    }
+
+    /**
+     * @return the input with the words replaced, or the input itself if none was found.
+     */
+    public @NonNull String replace(@NonNull String input) {
+        StringBuilder replaced = replace(input, null);
+        return replaced == null ? input : replaced.toString();
+    }
+
+    /**
+     * Replaces the words in the given text.
+     */
+    public void replace(@NonNull StringBuilder input) {
+        StringBuilder replaced = replace(input, null);
+        if (replaced != null) {
+            input.setLength(0);
+            input.append(replaced);
+        }
+    }
+
+    /**
+     * @param output where the text is written once a word is found, or {@code null} to create it then.
+     * @return the output, or {@code null} if no word was found.
+     */
+    private StringBuilder replace(CharSequence input, StringBuilder output) {
+        int length = input.length();
+        int copied = 0;
+        int start = 0;
+        while (start < length) {
+            if (start == 0 || !Character.isLetterOrDigit(input.charAt(start - 1))) {
+                String replace = null;
+                int end = start;
+                Node node = root;
+                for (int i = start; i < length && (node = node.get(fold(input.charAt(i)))) != null; i++) {
+                    if (node.replace != null && (i + 1 == length || !Character.isLetterOrDigit(input.charAt(i + 1)))) {
+                        replace = node.replace;
+                        end = i + 1;
+                    }
+                }
+                if (replace != null) {
+                    if (output == null) {
+                        output = new StringBuilder(length + 16);
+                    }
+                    output.append(input, copied, start).append(replace);
+                    copied = start = end;
+                    continue;
+                }
+            }
+            start++;
+        }
+        if (output != null) {
+            output.append(input, copied, length);
+        }
+        return output;
+    }
+
+    private char fold(char c) {
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    private static final class Node {
+        // sorted, with the child of each key at the same index
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        // the children while the words are added
+        private Map<Character, Node> added;
+        private String replace;
+
+        Node get(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index < 0 ? null : children[index];
+        }
+
+        Node getOrCreate(char key) {
+            if (added == null) {
+                added = new TreeMap<>();
+            }
+            return added.computeIfAbsent(key, k -> new Node());
+        }
+
+        /**
+         * Moves the children added to the arrays looked up, from this node down.
+         */
+        void freeze() {
+            if (added != null) {
+                keys = new char[added.size()];
+                children = new Node[added.size()];
+                int index = 0;
+                for (Map.Entry<Character, Node> child : added.entrySet()) {
+                    keys[index] = child.getKey();
+                    children[index++] = child.getValue();
+                }
+                added = null;
+            }
+            for (Node child : children) {
+                child.freeze();
+            }
+        }
+    }
+}
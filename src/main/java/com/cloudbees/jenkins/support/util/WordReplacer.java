@@ -91,15 +91,10 @@ public class WordReplacer {
             return;
         }
 
-        // the same number of word to replace and replaces to use
-        if (words.length != replaces.length) {
-            throw new IllegalArgumentException(String.format(
-                    "Words (%d) and replaces (%d) lengths should be equals", words.length, replaces.length));
-        }
-
-        for (int i = 0; i < words.length; i++) {
-            replaceWord(input, words[i], replaces[i], ignoreCase);
-        }
+        // all the words in a single pass, rather than a pass over the whole input for each word
+        MultiWordReplacer replacer =
+                ignoreCase ? MultiWordReplacer.ofIgnoreCase(words, replaces) : MultiWordReplacer.of(words, replaces);
+        replacer.replace(input);
     }
 
     /**
@@ -146,70 +141,10 @@ public class WordReplacer {
         replaceWord(input, word, replace, true);
     }
 
-    // Main method
     private static void replaceWord(StringBuilder input, String word, String replace, boolean ignoreCase) {
-        // The string where we look for (lower case if ignoreCase)
-        StringBuilder workInput;
-        // The string to find (lower case if ignoreCase)
-        String workWord;
-
         if (input == null || word == null || input.length() == 0 || word.length() == 0) {
             return;
         }
-
-        if (replace == null) {
-            replace = "";
-        }
-
-        // Use the lowercase versions to compare, but replace in the original input
-        if (ignoreCase) {
-            workInput = new StringBuilder(input.toString().toLowerCase(Locale.ENGLISH));
-            workWord = word.toLowerCase(Locale.ENGLISH);
-        } else {
-            // Creates a StringBuilder to work with based in the input, we don't touch the input, to do the
-            // replaces there. So we use a new StringBuilder, not an assignment.
-            workInput = new StringBuilder(input);
-            workWord = word;
-        }
-
-        int pos = 0;
-        do {
-            // Search for the word but from the previous found index, to avoid infinite loop if the replace word
-            // contains the word
-            pos = workInput.indexOf(workWord, pos);
-
-            // If word is not found
-            if (pos == -1) {
-                break;
-            }
-
-            // If the previous char is a word letter, don't replace, look for the next one.
-            if (pos > 0) {
-                char prevChar = workInput.charAt(pos - 1);
-                if (Character.isLetterOrDigit(prevChar)) {
-                    pos = pos + workWord.length();
-                    continue;
-                }
-            }
-
-            // If the next char is a word letter, don't replace, look for the next
-            int nextPos = pos + workWord.length();
-            if (nextPos < workInput.length()) {
-                char nextChar = workInput.charAt(nextPos);
-                if (Character.isLetterOrDigit(nextChar)) {
-                    pos = pos + workWord.length();
-                    continue;
-                }
-            }
-
-            if (pos >= 0 && pos < input.length()) {
-                // replace this word but in the original input (without changing the case)
-                input.replace(pos, pos + workWord.length(), replace);
-                workInput.replace(pos, pos + workWord.length(), replace);
-            }
-
-            // move to the next character after the replace word
-            pos = pos + replace.length();
-        } while (pos > -1 && pos < workInput.length());
+        replaceWords(input, new String[] {word}, new String[] {replace}, ignoreCase);
     }
 }
@@ -4,5 +4,11 @@ function updateProgressUI(data) {
         downloadButton.href = "downloadBundle?taskId=" + data.taskId; // Update this path accordingly
         document.getElementById("progressMessage").textContent = "Support bundle has been generated.";
         downloadButton.click(); // Automatically start the download
+    } else if (data.queuePosition > 0) {
+        document.getElementById("progressMessage").textContent =
+            "Waiting for " + data.queuePosition + " other support bundle(s) to be generated first.";
+    } else {
+        document.getElementById("progressMessage").textContent =
+            "Generating a support bundle for this Jenkins instance. This may take a few minutes.";
     }
-}
\ No newline at end of file
+}
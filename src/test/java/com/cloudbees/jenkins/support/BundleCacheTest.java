@@ -0,0 +1,239 @@
+package com.cloudbees.jenkins.support;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.api.Container;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.security.Permission;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import jenkins.model.Jenkins;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class BundleCacheTest {
+
+    private static final List<Component> COMPONENTS = List.of(new TestComponent());
+
+    @TempDir
+    private File temp;
+
+    private JenkinsRule j;
+    private BundleCache cache;
+    private final AtomicInteger generated = new AtomicInteger();
+    private long freshness;
+    private long maxSize;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        freshness = BundleCache.FRESHNESS_SECONDS;
+        maxSize = BundleCache.MAX_SIZE;
+        BundleCache.FRESHNESS_SECONDS = 3600;
+        cache = new BundleCache(temp);
+    }
+
+    @AfterEach
+    void tearDown() {
+        BundleCache.FRESHNESS_SECONDS = freshness;
+        BundleCache.MAX_SIZE = maxSize;
+    }
+
+    @Test
+    void writtenAgain() throws Exception {
+        String key = BundleCache.key("jenkins", COMPONENTS, "");
+        AtomicLong age = new AtomicLong(-1);
+        assertArrayEquals(bytes("bundle"), write(key, false, age));
+        assertEquals(-1, age.get());
+        assertArrayEquals(bytes("bundle"), write(key, false, age));
+        assertEquals(1, generated.get());
+        assertTrue(age.get() >= 0);
+
+        // bypassed
+        write(key, true, age);
+        assertEquals(2, generated.get());
+    }
+
+    @Test
+    void disabled() throws Exception {
+        BundleCache.FRESHNESS_SECONDS = 0;
+        String key = BundleCache.key("jenkins", COMPONENTS, "");
+        write(key, false, new AtomicLong());
+        write(key, false, new AtomicLong());
+        assertEquals(2, generated.get());
+        assertArrayEquals(new String[0], temp.list());
+    }
+
+    @Test
+    void evictedOverBudget() throws Exception {
+        BundleCache.MAX_SIZE = 10;
+        String first = BundleCache.key("jenkins", COMPONENTS, "1");
+        String second = BundleCache.key("jenkins", COMPONENTS, "2");
+        write(first, false, new AtomicLong());
+        age(first);
+        write(second, false, new AtomicLong());
+        write(second, false, new AtomicLong());
+        assertEquals(2, generated.get());
+        age(second);
+        write(first, false, new AtomicLong());
+        assertEquals(3, generated.get());
+
+        // never kept
+        BundleCache.MAX_SIZE = 5;
+        String third = BundleCache.key("jenkins", COMPONENTS, "3");
+        write(third, false, new AtomicLong());
+        write(third, false, new AtomicLong());
+        assertEquals(5, generated.get());
+    }
+
+    @Test
+    void keys() {
+        String key = BundleCache.key("jenkins", COMPONENTS, "timeWindowMinutes=0");
+        assertEquals(
+                key,
+                BundleCache.key("jenkins", List.of(new TestComponent(), new TestComponent()), "timeWindowMinutes=0"));
+        assertNotEquals(key, BundleCache.key("jenkins", COMPONENTS, "timeWindowMinutes=10"));
+        assertNotEquals(key, BundleCache.key("/job/p/support/generateAndDownload", COMPONENTS, "timeWindowMinutes=0"));
+        assertNotEquals(key, BundleCache.key("jenkins", List.of(), "timeWindowMinutes=0"));
+
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.ADMINISTER)
+                .everywhere()
+                .to("admin")
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("reader"));
+        String admin;
+        try (ACLContext ignored = ACL.as2(User.getById("admin", true).impersonate2())) {
+            admin = BundleCache.key("jenkins", COMPONENTS, "timeWindowMinutes=0");
+        }
+        try (ACLContext ignored = ACL.as2(User.getById("reader", true).impersonate2())) {
+            assertNotEquals(admin, BundleCache.key("jenkins", COMPONENTS, "timeWindowMinutes=0"));
+        }
+    }
+
+    @Test
+    void keysByUser() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        FreeStyleProject project = j.createFreeStyleProject("p");
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.ADMINISTER)
+                .everywhere()
+                .to("alice", "bob")
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("carol")
+                .grant(Item.READ)
+                .onItems(project)
+                .to("carol"));
+        String alice;
+        try (ACLContext ignored = ACL.as2(User.getById("alice", true).impersonate2())) {
+            alice = BundleCache.key("jenkins", COMPONENTS, "");
+        }
+        // with the same permissions, as the bundle may describe the user
+        try (ACLContext ignored = ACL.as2(User.getById("bob", true).impersonate2())) {
+            assertNotEquals(alice, BundleCache.key("jenkins", COMPONENTS, ""));
+        }
+
+        // with the permissions on the object
+        List<Component> components = List.of(new TestComponent(Item.READ));
+        try (ACLContext ignored = ACL.as2(User.getById("carol", true).impersonate2())) {
+            assertNotEquals(
+                    BundleCache.key("p", j.jenkins, components, ""),
+                    BundleCache.key("p", project, components, ""));
+        }
+    }
+
+    @Test
+    void expiredDeleted() throws Exception {
+        String first = BundleCache.key("jenkins", COMPONENTS, "1");
+        write(first, false, new AtomicLong());
+        File file = new File(temp, first + ".zip");
+        assertTrue(file.setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+
+        write(BundleCache.key("jenkins", COMPONENTS, "2"), false, new AtomicLong());
+        assertFalse(file.exists());
+
+        // all of them once disabled
+        BundleCache.FRESHNESS_SECONDS = 0;
+        write(first, false, new AtomicLong());
+        assertArrayEquals(new String[0], temp.list());
+    }
+
+    private void age(String key) {
+        File file = new File(temp, key + ".zip");
+        assertTrue(file.setLastModified(file.lastModified() - 1000));
+    }
+
+    private byte[] write(String key, boolean bypass, AtomicLong age) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.write(key, bypass, out, age::set, os -> {
+            generated.incrementAndGet();
+            try (os) {
+                os.write(bytes("bundle"));
+            }
+        });
+        return out.toByteArray();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class TestComponent extends Component {
+        private final Permission permission;
+
+        TestComponent() {
+            this(Jenkins.ADMINISTER);
+        }
+
+        TestComponent(Permission permission) {
+            this.permission = permission;
+        }
+
+        @NonNull
+        @Override
+        public Set<Permission> getRequiredPermissions() {
+            return Set.of(permission);
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Test";
+        }
+
+        @NonNull
+        @Override
+        public String getId() {
+            return "Test";
+        }
+
+        @Override
+        public void addContents(@NonNull Container container) {}
+    }
+}
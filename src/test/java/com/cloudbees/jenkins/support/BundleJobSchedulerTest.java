@@ -0,0 +1,189 @@
+package com.cloudbees.jenkins.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.api.Container;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.security.Permission;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import jenkins.model.Jenkins;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+class BundleJobSchedulerTest {
+
+    private static final Component A = new TestComponent("A", true);
+    private static final Component B = new TestComponent("B", true);
+    private static final Component C = new TestComponent("C", true);
+    private static final Component BROWSER = new TestComponent("Browser", false);
+
+    @TempDir
+    private Path tmp;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<BundleJobScheduler.Job> generated = new CopyOnWriteArrayList<>();
+    private final List<Authentication> authentications = new CopyOnWriteArrayList<>();
+    private int maxRunning;
+
+    @BeforeEach
+    void setUp() {
+        maxRunning = BundleJobScheduler.MAX_RUNNING;
+        BundleJobScheduler.MAX_RUNNING = 1;
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        BundleJobScheduler.MAX_RUNNING = maxRunning;
+    }
+
+    private BundleJobScheduler scheduler() {
+        return new BundleJobScheduler(tmp, job -> {
+            release.await();
+            authentications.add(Jenkins.getAuthentication2());
+            generated.add(job);
+        });
+    }
+
+    @Test
+    void queuedInOrder() throws Exception {
+        BundleJobScheduler scheduler = scheduler();
+        BundleJobScheduler.Job first = scheduler.submit(UUID.randomUUID(), List.of(A), 0);
+        BundleJobScheduler.Job second = scheduler.submit(UUID.randomUUID(), List.of(B), 0);
+        BundleJobScheduler.Job third = scheduler.submit(UUID.randomUUID(), List.of(C), 0);
+        assertEquals(0, first.getQueuePosition());
+        assertEquals(1, second.getQueuePosition());
+        assertEquals(2, third.getQueuePosition());
+        assertFalse(first.await(100, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(third.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(first, second, third), generated);
+        assertEquals(0, third.getQueuePosition());
+    }
+
+    @Test
+    void sharedJobs() throws Exception {
+        BundleJobScheduler scheduler = scheduler();
+        UUID taskId = UUID.randomUUID();
+        BundleJobScheduler.Job running = scheduler.submit(taskId, List.of(A, B, BROWSER), 0);
+        assertEquals(tmp.resolve(taskId.toString()), running.getDirectory());
+        assertSame(running, scheduler.submit(UUID.randomUUID(), List.of(B, BROWSER, A), 0));
+
+        // only for the same components and time window
+        assertNotSame(running, scheduler.submit(UUID.randomUUID(), List.of(A, BROWSER), 0));
+        BundleJobScheduler.Job queued = scheduler.submit(UUID.randomUUID(), List.of(A, C), 0);
+        assertNotSame(queued, scheduler.submit(UUID.randomUUID(), List.of(A, C), 10));
+        assertSame(queued, scheduler.submit(UUID.randomUUID(), List.of(A, C), 0));
+        assertNotSame(queued, scheduler.submit(UUID.randomUUID(), List.of(C, B), 0));
+        assertEquals(Set.of("A", "C"), ids(queued));
+
+        release.countDown();
+        assertTrue(queued.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void notSharedBetweenUsers() throws Exception {
+        BundleJobScheduler scheduler = scheduler();
+        BundleJobScheduler.Job alice;
+        try (ACLContext ignored = ACL.as2(user("alice"))) {
+            alice = scheduler.submit(UUID.randomUUID(), List.of(A, B), 0);
+        }
+        BundleJobScheduler.Job bob;
+        try (ACLContext ignored = ACL.as2(user("bob"))) {
+            bob = scheduler.submit(UUID.randomUUID(), List.of(A, B), 0);
+            assertNotSame(alice, bob);
+            assertNotSame(alice, scheduler.submit(UUID.randomUUID(), List.of(A), 0));
+        }
+        try (ACLContext ignored = ACL.as2(user("alice"))) {
+            assertSame(alice, scheduler.submit(UUID.randomUUID(), List.of(A, B), 0));
+        }
+
+        release.countDown();
+        assertTrue(bob.await(10, TimeUnit.SECONDS));
+        // each generated with the permissions of its user
+        assertEquals(
+                List.of("alice", "bob"),
+                authentications.stream().map(Authentication::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    void failure() throws Exception {
+        BundleJobScheduler scheduler = new BundleJobScheduler(tmp, job -> {
+            if (ids(job).contains("A")) {
+                throw new IOException("failed");
+            }
+        });
+        BundleJobScheduler.Job failed = scheduler.submit(UUID.randomUUID(), List.of(A), 0);
+        BundleJobScheduler.Job next = scheduler.submit(UUID.randomUUID(), List.of(B), 0);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.await(10, TimeUnit.SECONDS));
+        assertEquals("failed", e.getCause().getMessage());
+        assertTrue(next.await(10, TimeUnit.SECONDS));
+    }
+
+    private static Authentication user(String name) {
+        return new UsernamePasswordAuthenticationToken(name, null, List.of());
+    }
+
+    private static Set<String> ids(BundleJobScheduler.Job job) {
+        return job.getComponents().stream().map(Component::getId).collect(Collectors.toSet());
+    }
+
+    private static final class TestComponent extends Component {
+        private final String id;
+        private final boolean async;
+
+        TestComponent(String id, boolean async) {
+            this.id = id;
+            this.async = async;
+        }
+
+        @NonNull
+        @Override
+        public Set<Permission> getRequiredPermissions() {
+            return Collections.emptySet();
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return id;
+        }
+
+        @NonNull
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public boolean canBeGeneratedAsync() {
+            return async;
+        }
+
+        @Override
+        public void addContents(@NonNull Container container) {}
+    }
+}
@@ -0,0 +1,243 @@
+package com.cloudbees.jenkins.support;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cloudbees.jenkins.support.api.Component;
+import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.Content;
+import com.cloudbees.jenkins.support.api.PrefilteredPrintedContent;
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import com.cloudbees.jenkins.support.filter.ContentFilters;
+import com.cloudbees.jenkins.support.impl.AboutJenkins;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.ExtensionList;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.security.Permission;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipFile;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class ComponentContentCacheTest {
+
+    @TempDir
+    private File temp;
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        ComponentContentCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ComponentContentCache.clear();
+    }
+
+    @Test
+    void reusedWhileKeyUnchanged() throws Exception {
+        CacheableComponent component = new CacheableComponent(false);
+        assertEquals("projects: secretproject", bundle(component));
+        assertEquals("projects: secretproject", bundle(component));
+        assertEquals(1, component.added);
+
+        component.key = "2";
+        bundle(component);
+        assertEquals(2, component.added);
+
+        // asked for every bundle without a key
+        component.key = null;
+        bundle(component);
+        bundle(component);
+        assertEquals(4, component.added);
+    }
+
+    @Test
+    void keyedByPermissions() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.ADMINISTER)
+                .everywhere()
+                .to("alice"));
+        CacheableComponent component = new CacheableComponent(false);
+        try (ACLContext ignored = ACL.as2(User.getById("alice", true).impersonate2())) {
+            bundle(component);
+            bundle(component);
+        }
+        assertEquals(1, component.added);
+
+        // the same user, no longer allowed to see what was kept
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("alice"));
+        try (ACLContext ignored = ACL.as2(User.getById("alice", true).impersonate2())) {
+            bundle(component);
+        }
+        assertEquals(2, component.added);
+    }
+
+    @Test
+    void filteredOnEachBundle() throws Exception {
+        ContentFilters.get().setEnabled(true);
+        ContentFilter.ALL.reload();
+        CacheableComponent component = new CacheableComponent(false);
+        assertEquals("projects: secretproject", bundle(component));
+
+        j.createFreeStyleProject("secretproject");
+        String filtered = bundle(component);
+        assertFalse(filtered.contains("secretproject"), filtered);
+        assertEquals(1, component.added);
+    }
+
+    @Test
+    void prefilteredNotReusedWhenAnonymized() throws Exception {
+        CacheableComponent component = new CacheableComponent(true);
+        bundle(component);
+        bundle(component);
+        assertEquals(1, component.added);
+
+        ContentFilters.get().setEnabled(true);
+        ContentFilter.ALL.reload();
+        bundle(component);
+        bundle(component);
+        assertEquals(3, component.added);
+    }
+
+    @Test
+    void recordedWhileWritten() throws Exception {
+        CacheableComponent component = new CacheableComponent(false);
+        component.delay = 200;
+        JSONObject timings;
+        try (ZipFile zip = new ZipFile(write(component))) {
+            timings = JSONObject.fromObject(
+                    new String(zip.getInputStream(zip.getEntry("manifest/timings.json")).readAllBytes(), UTF_8));
+        }
+        // in the timings of the contents rather than of the components
+        assertTrue(timings.getJSONArray("components").getJSONObject(0).getLong("durationMs") < 200);
+        JSONObject entry = timings.getJSONArray("entries").getJSONObject(0);
+        assertEquals("test/cached.md", entry.getString("name"));
+        assertTrue(entry.getLong("durationMs") >= 200);
+        assertTrue(ComponentContentCache.isKept(component.getId()));
+    }
+
+    @Test
+    void notKeptWhenNotWritten() throws Exception {
+        CacheableComponent component = new CacheableComponent(false);
+        component.failing = true;
+        bundle(component, "manifest/errors.txt");
+        assertFalse(ComponentContentCache.isKept(component.getId()));
+
+        component.failing = false;
+        assertEquals("projects: secretproject", bundle(component));
+        assertEquals("projects: secretproject", bundle(component));
+        assertEquals(2, component.added);
+    }
+
+    @Test
+    void pluginListsKept() throws Exception {
+        String active = bundle(ExtensionList.lookupSingleton(AboutJenkins.class), "plugins/active.txt");
+        assertTrue(ComponentContentCache.isKept("AboutJenkinsPlugins"));
+        assertEquals(active, bundle(ExtensionList.lookupSingleton(AboutJenkins.class), "plugins/active.txt"));
+        assertFalse(ComponentContentCache.isKept(new AboutJenkins().getId()));
+    }
+
+    private String bundle(Component component) throws IOException {
+        return bundle(component, "test/cached.md");
+    }
+
+    private String bundle(Component component, String name) throws IOException {
+        try (ZipFile zip = new ZipFile(write(component))) {
+            assertNotNull(zip.getEntry(name));
+            return new String(zip.getInputStream(zip.getEntry(name)).readAllBytes(), UTF_8);
+        }
+    }
+
+    private File write(Component component) throws IOException {
+        File bundle = File.createTempFile("bundle", ".zip", temp);
+        try (OutputStream os = Files.newOutputStream(bundle.toPath())) {
+            SupportPlugin.writeBundle(os, List.of(component));
+        }
+        return bundle;
+    }
+
+    private static final class CacheableComponent extends Component {
+        private final boolean prefiltered;
+        private String key = "1";
+        private int added;
+        private long delay;
+        private boolean failing;
+
+        CacheableComponent(boolean prefiltered) {
+            this.prefiltered = prefiltered;
+        }
+
+        @NonNull
+        @Override
+        public Set<Permission> getRequiredPermissions() {
+            return Collections.singleton(Jenkins.ADMINISTER);
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Cached";
+        }
+
+        @Override
+        public String getContentCacheKey() {
+            return key;
+        }
+
+        @Override
+        public void addContents(@NonNull Container container) {
+            added++;
+            if (prefiltered) {
+                container.add(new PrefilteredPrintedContent("test/cached.md") {
+                    @Override
+                    protected void printTo(PrintWriter out, @NonNull ContentFilter filter) {
+                        out.print("projects: " + ContentFilter.filter(filter, "secretproject"));
+                    }
+                });
+            } else {
+                container.add(new Content("test/cached.md") {
+                    @Override
+                    public void writeTo(OutputStream os) throws IOException {
+                        if (failing) {
+                            throw new IOException("failing");
+                        }
+                        try {
+                            Thread.sleep(delay);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                        os.write("projects: secretproject".getBytes(UTF_8));
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.cloudbees.jenkins.support;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cloudbees.jenkins.support.api.Content;
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import com.cloudbees.jenkins.support.filter.PrefetchableContent;
+import com.cloudbees.jenkins.support.filter.PrefilteredContent;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import net.sf.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class ContentPrefetcherTest {
+
+    private final Map<String, String> threads = new ConcurrentHashMap<>();
+    private int ahead;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        ahead = ContentPrefetcher.AHEAD;
+        ContentPrefetcher.AHEAD = 3;
+    }
+
+    @AfterEach
+    void tearDown() {
+        ContentPrefetcher.AHEAD = ahead;
+    }
+
+    @Test
+    void writesInOrder() throws IOException {
+        List<Content> contents = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            contents.add(i % 2 == 0 ? new Prefetchable("prefetched" + i) : new Plain("plain" + i));
+        }
+        try (ContentPrefetcher prefetcher = new ContentPrefetcher(contents, ContentFilter.NONE)) {
+            for (int i = 0; i < contents.size(); i++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                boolean prefetched = prefetcher.writeTo(i, out);
+                if (prefetched) {
+                    assertEquals("prefetched" + i, out.toString(StandardCharsets.UTF_8));
+                } else {
+                    assertEquals(0, out.size());
+                    contents.get(i).writeTo(out);
+                    assertEquals("plain" + i, out.toString(StandardCharsets.UTF_8));
+                }
+                assertEquals(i % 2 == 0, prefetched);
+            }
+        }
+        for (int i = 0; i < contents.size(); i += 2) {
+            assertThat(threads.get("prefetched" + i), startsWith("Support bundle prefetch"));
+        }
+    }
+
+    @Test
+    void failure() throws IOException {
+        List<Content> contents = List.of(new Plain("plain"), new Prefetchable("failing"), new Prefetchable("next"));
+        try (ContentPrefetcher prefetcher = new ContentPrefetcher(contents, ContentFilter.NONE)) {
+            assertFalse(prefetcher.writeTo(0, new ByteArrayOutputStream()));
+            IOException e = assertThrows(IOException.class, () -> prefetcher.writeTo(1, new ByteArrayOutputStream()));
+            assertEquals("failing", e.getMessage());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertTrue(prefetcher.writeTo(2, out));
+            assertEquals("next", out.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void skippedContents() throws IOException {
+        List<Content> contents = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            contents.add(new Prefetchable("prefetched" + i));
+        }
+        try (ContentPrefetcher prefetcher = new ContentPrefetcher(contents, ContentFilter.NONE)) {
+            assertTrue(prefetcher.writeTo(0, new ByteArrayOutputStream()));
+            // the contents in between are discarded, as when their entry could not be created
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertTrue(prefetcher.writeTo(7, out));
+            assertEquals("prefetched7", out.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void remoteWaitAttributedToBundle() throws IOException {
+        BundleTelemetry telemetry = new BundleTelemetry();
+        BundleTelemetry other = new BundleTelemetry();
+        try (BundleTelemetry.Scope ignored = BundleTelemetry.attribute(telemetry);
+                ContentPrefetcher prefetcher =
+                        new ContentPrefetcher(List.of(new Prefetchable("waiting")), ContentFilter.NONE)) {
+            assertTrue(prefetcher.writeTo(0, new ByteArrayOutputStream()));
+        }
+        assertThat(threads.get("waiting"), startsWith("Support bundle prefetch"));
+        assertEquals(1000, remoteWaitMs(telemetry));
+        // not by the other bundles generated at the same time
+        assertEquals(0, remoteWaitMs(other));
+        assertNull(BundleTelemetry.current());
+    }
+
+    @Test
+    void disabled() throws IOException {
+        int parallelism = ContentPrefetcher.PARALLELISM;
+        ContentPrefetcher.PARALLELISM = 0;
+        try (ContentPrefetcher prefetcher =
+                new ContentPrefetcher(List.of(new Prefetchable("prefetched")), ContentFilter.NONE)) {
+            assertFalse(prefetcher.writeTo(0, new ByteArrayOutputStream()));
+        } finally {
+            ContentPrefetcher.PARALLELISM = parallelism;
+        }
+    }
+
+    @Test
+    void notThreadSafeFilter() throws IOException {
+        ContentFilter filter = s -> s;
+        try (ContentPrefetcher prefetcher = new ContentPrefetcher(List.of(new Prefetchable("prefetched")), filter)) {
+            assertFalse(prefetcher.writeTo(0, new ByteArrayOutputStream()));
+        }
+    }
+
+    private static long remoteWaitMs(BundleTelemetry telemetry) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        telemetry.writeTo(out);
+        return JSONObject.fromObject(out.toString(StandardCharsets.UTF_8)).getLong("remoteWaitMs");
+    }
+
+    private final class Prefetchable extends PrefilteredContent implements PrefetchableContent {
+        private final String value;
+
+        Prefetchable(String value) {
+            super(value);
+            this.value = value;
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            writeTo(os, ContentFilter.NONE);
+        }
+
+        @Override
+        public void writeTo(OutputStream os, @NonNull ContentFilter filter) throws IOException {
+            threads.put(value, Thread.currentThread().getName());
+            if (value.equals("failing")) {
+                throw new IOException(value);
+            }
+            if (value.equals("waiting")) {
+                BundleTelemetry.remoteWait(TimeUnit.SECONDS.toNanos(1));
+            }
+            os.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class Plain extends Content {
+        private final String value;
+
+        Plain(String value) {
+            super(value);
+            this.value = value;
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            os.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
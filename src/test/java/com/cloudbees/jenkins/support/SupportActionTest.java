@@ -380,7 +380,8 @@ class SupportActionTest {
         ZipFile zip = downloadBundle("/generateBundle?components=" + componentIdsOf(ConfigFileComponent.class));
         assertNotNull(zip.getEntry("manifest.md"));
         assertNotNull(zip.getEntry("jenkins-root-configuration-files/config.xml"));
-        assertEquals(2, zip.size());
+        assertNotNull(zip.getEntry("manifest/timings.json"));
+        assertEquals(3, zip.size());
     }
 
     @Test
@@ -390,7 +391,8 @@ class SupportActionTest {
         assertNotNull(zip.getEntry("manifest.md"));
         assertNotNull(zip.getEntry("jenkins-root-configuration-files/config.xml"));
         assertNotNull(zip.getEntry("user.md"));
-        assertEquals(3, zip.size());
+        assertNotNull(zip.getEntry("manifest/timings.json"));
+        assertEquals(4, zip.size());
     }
 
     @SafeVarargs
@@ -1,5 +1,6 @@
 package com.cloudbees.jenkins.support;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.cloudbees.jenkins.support.api.Component;
@@ -18,11 +19,16 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.zip.ZipFile;
+import jenkins.metrics.api.Metrics;
 import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.jvnet.hudson.test.Issue;
@@ -156,4 +162,65 @@ class SupportPluginTest {
         assertNull(zip.getEntry("about.md"));
         assertNull(zip.getEntry("nodes.md"));
     }
+
+    @Test
+    void writesTimings(JenkinsRule j) throws Exception {
+        List<Component> components = List.of(
+                new Component() {
+                    @NonNull
+                    @Override
+                    public Set<Permission> getRequiredPermissions() {
+                        return Collections.singleton(Jenkins.ADMINISTER);
+                    }
+
+                    @NonNull
+                    @Override
+                    public String getDisplayName() {
+                        return "Failing Component";
+                    }
+
+                    @Override
+                    public void addContents(@NonNull Container container) {
+                        container.add(new Content("test/failing.md") {
+                            @Override
+                            public void writeTo(OutputStream os) throws IOException {
+                                throw new IOException("failing");
+                            }
+                        });
+                    }
+                },
+                ExtensionList.lookupSingleton(BuildQueue.class));
+
+        File bundleFile = File.createTempFile("junit", null, temp);
+        try (OutputStream os = Files.newOutputStream(bundleFile.toPath())) {
+            SupportPlugin.writeBundle(os, components);
+        }
+
+        JSONObject timings;
+        try (ZipFile zip = new ZipFile(bundleFile)) {
+            timings = JSONObject.fromObject(
+                    new String(zip.getInputStream(zip.getEntry("manifest/timings.json")).readAllBytes(), UTF_8));
+        }
+        assertEquals(1, timings.getInt("failures"));
+        assertTrue(timings.getLong("bytes") > 0);
+        JSONArray componentTimings = timings.getJSONArray("components");
+        assertEquals(2, componentTimings.size());
+        assertEquals("BuildQueue", componentTimings.getJSONObject(1).getString("id"));
+        Map<String, JSONObject> entryTimings = new HashMap<>();
+        for (Object entry : timings.getJSONArray("entries")) {
+            entryTimings.put(((JSONObject) entry).getString("name"), (JSONObject) entry);
+        }
+        assertTrue(entryTimings.get("test/failing.md").getBoolean("failed"));
+        assertFalse(entryTimings.get("buildqueue.md").getBoolean("failed"));
+        assertTrue(entryTimings.get("buildqueue.md").getLong("bytes") > 0);
+
+        assertTrue(Metrics.metricRegistry()
+                        .timer(SupportPlugin.class.getName() + ".bundle.component.BuildQueue")
+                        .getCount()
+                >= 1);
+        assertTrue(Metrics.metricRegistry()
+                        .counter(SupportPlugin.class.getName() + ".bundle.failures")
+                        .getCount()
+                >= 1);
+    }
 }
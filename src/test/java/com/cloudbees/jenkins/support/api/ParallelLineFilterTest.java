@@ -0,0 +1,136 @@
+package com.cloudbees.jenkins.support.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class ParallelLineFilterTest {
+
+    private static final String[] LINE_ENDINGS = {"\n", "\r\n", "\r"};
+
+    @TempDir
+    private File tmp;
+
+    private long minSize;
+    private int blockSize;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        minSize = ParallelLineFilter.MIN_SIZE;
+        blockSize = ParallelLineFilter.BLOCK_SIZE;
+        ParallelLineFilter.BLOCK_SIZE = 1000;
+    }
+
+    @AfterEach
+    void tearDown() {
+        ParallelLineFilter.MIN_SIZE = minSize;
+        ParallelLineFilter.BLOCK_SIZE = blockSize;
+    }
+
+    @Test
+    void sameAsLineByLine() throws IOException {
+        String text = text(20_000);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                expected.write((line.toUpperCase(Locale.ENGLISH) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        ParallelLineFilter.filter(
+                new BufferedReader(new StringReader(text)), s -> s.toUpperCase(Locale.ENGLISH), actual);
+        assertEquals(expected.toString(StandardCharsets.UTF_8), actual.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void failure() {
+        String text = text(20_000);
+        assertThrows(
+                IllegalStateException.class,
+                () -> ParallelLineFilter.filter(
+                        new BufferedReader(new StringReader(text)),
+                        s -> {
+                            if (s.startsWith("line 12345 ")) {
+                                throw new IllegalStateException(s);
+                            }
+                            return s;
+                        },
+                        new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void fileContent() throws IOException {
+        File file = new File(tmp, "large.log");
+        Files.writeString(file.toPath(), text(20_000), StandardCharsets.UTF_8);
+        for (FileContent content :
+                new FileContent[] {new FileContent("large.log", file), new FileContent("large.log", file, 100_000)}) {
+            ParallelLineFilter.MIN_SIZE = Long.MAX_VALUE;
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            content.writeTo(expected, new ThreadSafeFilter());
+            ParallelLineFilter.MIN_SIZE = 0;
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            content.writeTo(actual, new ThreadSafeFilter());
+            assertEquals(expected.toString(StandardCharsets.UTF_8), actual.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void notThreadSafeFilter() throws IOException {
+        File file = new File(tmp, "large.log");
+        Files.writeString(file.toPath(), text(20_000), StandardCharsets.UTF_8);
+        ParallelLineFilter.MIN_SIZE = 0;
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        new FileContent("large.log", file).writeTo(new ByteArrayOutputStream(), s -> {
+            threads.add(Thread.currentThread());
+            return s;
+        });
+        assertEquals(Set.of(Thread.currentThread()), threads);
+    }
+
+    private static final class ThreadSafeFilter implements ContentFilter {
+        @NonNull
+        @Override
+        public String filter(@NonNull String input) {
+            return input.replace("line", "filtered");
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+    }
+
+    private static String text(int lines) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            text.append("line ").append(i).append(' ');
+            for (int j = random.nextInt(20); j > 0; j--) {
+                text.append("wörd ");
+            }
+            text.append(LINE_ENDINGS[random.nextInt(LINE_ENDINGS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package com.cloudbees.jenkins.support.api;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cloudbees.jenkins.support.SupportLogHandler;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TimeWindowTest {
+
+    private static final long START = 1714644000000L; // 2024-05-02T10:00:00Z
+
+    private static final int LINES = 20_000;
+
+    @TempDir
+    private Path tmp;
+
+    @Test
+    void timestamps() {
+        assertEquals(START + 123, parse("2024-05-02 10:00:00.123+0000 [id=1]\tINFO\tmessage"));
+        assertEquals(START + 123, parse("2024-05-02 12:00:00.123+0200 [id=1]\tINFO\tmessage"));
+        assertEquals(START, parse("[2024-05-02T10:00:00Z agent] launched"));
+        assertEquals(START + 5, parse("[2024-05-02T07:00:00.005-03:00] message"));
+        assertNull(parse("\tat java.lang.Thread.run(Thread.java:833)"));
+        assertNull(parse("2024-02-30 10:00:00.000+0000 invalid"));
+        assertNull(parse(""));
+    }
+
+    @Test
+    void binarySearch() throws IOException {
+        File log = writeLog();
+        assertWindow(log, 5_000, 5_009);
+        assertWindow(log, 0, 0);
+        assertWindow(log, LINES - 1, LINES - 1);
+    }
+
+    @Test
+    void index() throws IOException {
+        File log = writeLog();
+        File indexFile = TimeWindow.getIndexFile(log);
+        try (DataOutputStream index = new DataOutputStream(Files.newOutputStream(indexFile.toPath()))) {
+            byte[] content = Files.readAllBytes(log.toPath());
+            long lastIndexed = 0;
+            int line = 0;
+            for (int offset = 0; offset < content.length; offset++) {
+                if (offset == 0 || content[offset - 1] == '\n') {
+                    if (offset == 0 || offset - lastIndexed >= TimeWindow.BLOCK_SIZE) {
+                        index.writeLong(time(line));
+                        index.writeLong(offset);
+                        lastIndexed = offset;
+                    }
+                    if (content[offset] != '\t') {
+                        line++;
+                    }
+                }
+            }
+        }
+        assertWindow(log, 5_000, 5_009);
+        assertWindow(log, 12_345, 17_000);
+        assertWindow(log, LINES - 1, LINES - 1);
+    }
+
+    @Test
+    void outsideOfTheFile() throws IOException {
+        File log = writeLog();
+        assertEquals("", read(TimeWindow.between(START - 10_000, START - 1), log));
+        assertEquals("", read(TimeWindow.between(time(LINES), time(LINES + 10)), log));
+    }
+
+    @Test
+    void noTimestamps() throws IOException {
+        File log = tmp.resolve("launch.log").toFile();
+        Files.writeString(log.toPath(), "Launching agent\nAgent successfully connected and online\n");
+        assertEquals(
+                "Launching agent\nAgent successfully connected and online\n",
+                read(TimeWindow.between(START, START + 1000), log));
+    }
+
+    @Test
+    void logHandlerIndex() throws IOException {
+        SupportLogHandler handler = new SupportLogHandler(16, 1_000_000, 2);
+        handler.setLevel(Level.ALL);
+        handler.setDirectory(tmp.toFile(), "all");
+        try {
+            for (int i = 0; i < LINES; i++) {
+                LogRecord record = new LogRecord(Level.INFO, "message " + i);
+                record.setInstant(Instant.ofEpochMilli(time(i)));
+                handler.publish(record);
+            }
+        } finally {
+            handler.close();
+        }
+        File[] logs = tmp.toFile().listFiles((dir, name) -> name.endsWith(".log"));
+        assertEquals(1, logs.length);
+        long[] index = TimeWindow.readIndex(TimeWindow.getIndexFile(logs[0]));
+        assertTrue(index != null && index.length > 2 * 10);
+
+        String window = read(TimeWindow.between(time(10_000), time(10_002)), logs[0]);
+        assertEquals(3, window.lines().count());
+        assertThat(window, containsString("message 10000"));
+        assertThat(window, containsString("message 10002"));
+        assertThat(window, not(containsString("message 9999")));
+    }
+
+    /**
+     * A line per second, with a stack trace every 100 lines.
+     */
+    private File writeLog() throws IOException {
+        File log = tmp.resolve("all.log").toFile();
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSZ");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(log.toPath(), StandardCharsets.UTF_8))) {
+            for (int i = 0; i < LINES; i++) {
+                out.print(format.format(new Date(time(i))) + " [id=1]\tINFO\tline " + i + "\n");
+                if (i % 100 == 0) {
+                    out.print("\tat java.lang.Thread.run(Thread.java:833)\n");
+                }
+            }
+        }
+        return log;
+    }
+
+    private static long time(int line) {
+        return START + line * 1000L;
+    }
+
+    private static void assertWindow(File log, int first, int last) throws IOException {
+        String window = read(TimeWindow.between(time(first), time(last)), log);
+        List<String> lines = window.lines().filter(line -> !line.startsWith("\t")).toList();
+        assertEquals(last - first + 1, lines.size(), window);
+        assertThat(lines.get(0), containsString("\tline " + first));
+        assertThat(lines.get(lines.size() - 1), containsString("\tline " + last));
+        if (first % 100 == 0) {
+            // the stack trace belongs to the first line
+            assertThat(window, containsString("\tat java.lang.Thread.run"));
+        }
+    }
+
+    private static String read(TimeWindow window, File log) throws IOException {
+        try (InputStream in = window.open(log)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Long parse(String line) {
+        byte[] b = line.getBytes(StandardCharsets.UTF_8);
+        return TimeWindow.parseTimestamp(b, b.length);
+    }
+}
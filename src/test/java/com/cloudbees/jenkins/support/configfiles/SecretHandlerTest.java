@@ -3,12 +3,21 @@ package com.cloudbees.jenkins.support.configfiles;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.cloudbees.plugins.credentials.SecretBytes;
 import hudson.util.Secret;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.stream.XMLStreamException;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -97,6 +106,43 @@ class SecretHandlerTest {
         assertEquals(expectedXml, patchedXml);
     }
 
+    @Test
+    void shouldRedactAsStreamLikeTheTransformer() throws Exception {
+        File file = File.createTempFile("test", ".xml");
+        FileUtils.writeStringToFile(
+                file,
+                xml.replace("Bobby&#0x;", "Bobby <!-- comment --><![CDATA[<b>]]>"),
+                StandardCharsets.UTF_8);
+        Map<String, Boolean> secretCache = new HashMap<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SecretHandler.redactSecrets(file, out, secretCache);
+        assertEquals(SecretHandler.findSecrets(file), out.toString(StandardCharsets.UTF_8));
+        assertThat(secretCache, not(hasKey("GLOBAL")));
+        assertThat(secretCache.values(), hasItem(true));
+    }
+
+    @Test
+    void onlyShortCiphertextIsCached() throws Exception {
+        String secret = Secret.fromString("this-is-a-secret").getEncryptedValue();
+        String file = SecretBytes.fromBytes(new byte[4096]).toString();
+        String description = "x".repeat(10_000);
+        File xmlFile = File.createTempFile("test", ".xml");
+        FileUtils.writeStringToFile(
+                xmlFile,
+                "<config><description>" + description + "</description><secret>" + secret + "</secret><file>" + file
+                        + "</file><other>{dGVzdA==}</other></config>",
+                StandardCharsets.UTF_8);
+        Map<String, Boolean> secretCache = new HashMap<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SecretHandler.redactSecrets(xmlFile, out, secretCache);
+        assertThat(
+                out.toString(StandardCharsets.UTF_8),
+                containsString("<config><description>" + description + "</description><secret>"
+                        + SecretHandler.SECRET_MARKER + "</secret><file>" + SecretHandler.SECRET_MARKER
+                        + "</file><other>{dGVzdA==}</other></config>"));
+        assertEquals(Map.of(secret, true, "{dGVzdA==}", false), secretCache);
+    }
+
     @Test
     @Issue("JENKINS-50765")
     void shouldNotResolveExternalEntities() throws Exception {
@@ -114,5 +160,8 @@ class SecretHandlerTest {
         assertThat(
                 redactedXxeXml,
                 anyOf(containsString("<xxx/>"), containsString("<xxx>" + SecretHandler.XXE_MARKER + "</xxx>")));
+        assertThrows(
+                XMLStreamException.class,
+                () -> SecretHandler.redactSecrets(file, new ByteArrayOutputStream(), new HashMap<>()));
     }
 }
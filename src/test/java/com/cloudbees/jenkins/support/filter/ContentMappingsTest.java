@@ -97,6 +97,11 @@ class ContentMappingsTest {
         r.restart();
 
         assertThat(ContentMappings.get().getMappings(), hasEntry(mapping.getOriginal(), mapping.getReplacement()));
+        // with its replacer built again
+        ContentMapping restored = ContentMappings.get().getMappingOrCreate(mapping.getOriginal(), original -> {
+            throw new AssertionError("Not restored: " + original);
+        });
+        assertEquals("see test_replacement/TEST_ORIGINAL2", restored.filter("see TEST_ORIGINAL/TEST_ORIGINAL2"));
     }
 
     @Test
@@ -85,6 +85,19 @@ class InetAddressContentFilterTest {
         assertThat(ContentFilter.filter(filter, Jenkins.VERSION)).isEqualTo(Jenkins.VERSION);
     }
 
+    @Test
+    void shouldMapInetAddressesAgainOnceMappingsCleared() {
+        InetAddressContentFilter filter = InetAddressContentFilter.get();
+        String filtered = filter.filter("connected to 10.0.0.1");
+        assertThat(ContentMappings.get().getMappings()).containsKey("10.0.0.1");
+        assertThat(filter.filter("connected to 10.0.0.1")).isEqualTo(filtered);
+
+        ContentMappings.get().clear();
+        assertThat(ContentMappings.get().getMappings()).isEmpty();
+        assertThat(filter.filter("connected to 10.0.0.1")).doesNotContain("10.0.0.1");
+        assertThat(ContentMappings.get().getMappings()).containsKey("10.0.0.1");
+    }
+
     private Gen<String> inetAddress() {
         return ipv4().mix(ipv6());
     }
@@ -0,0 +1,75 @@
+package com.cloudbees.jenkins.support.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.quicktheories.QuickTheory.qt;
+import static org.quicktheories.generators.SourceDSL.integers;
+import static org.quicktheories.generators.SourceDSL.lists;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.quicktheories.core.Gen;
+
+class InetAddressScannerTest {
+
+    // the expression used before InetAddressScanner, the scanner must find the same addresses
+    private static final String IPv4 =
+            "(?:25[0-5]|2[0-4]\\d|[01]?\\d{1,2})(?:\\.(?:25[0-5]|2[0-4]\\d|[01]?\\d{1,2})){3}";
+    private static final String IPv6_STANDARD_AND_MIX =
+            "(?:[0-9a-fA-F]{1,4}:){6}(?:[0-9a-fA-F]{1,4}:[0-9a-fA-F]{1,4}|" + IPv4 + ")";
+    private static final String IPv6_COMPRESSED_AND_MIX =
+            "(?:[0-9a-fA-F]{1,4}(?::[0-9a-fA-F]{1,4})*)?::(?:(?:(?:[0-9a-fA-F]{1,4}:){1,5})?(" + IPv4
+                    + ")|(?:[0-9a-fA-F]{1,4}(?::[0-9a-fA-F]{1,4})*)?)";
+    private static final Pattern IP_ADDRESS = Pattern.compile(
+            "(?<![:.\\w])(" + IPv4 + '|' + IPv6_STANDARD_AND_MIX + '|' + IPv6_COMPRESSED_AND_MIX + ")(?![:.\\w])");
+
+    // pieces of addresses, of almost addresses and of what surrounds them
+    private static final String[] PIECES = {
+        "0", "1", "9", "00", "01", "10", "99", "000", "001", "099", "100", "199", "200", "249", "250", "255", "256",
+        "260", "300", "999", "1000", "1.2.3.4", "a", "f", "F", "ab", "fff", "ffff", "FFFF", "fffff", "1a2b", "g", "z",
+        "_", ".", ".", ".", ":", ":", ":", "::", ":::", " ", " ", "-", "/", "[", "]", "%", "=", ",", "\n", "é", "١"
+    };
+
+    @Test
+    void findsAddresses() {
+        assertThat(find("ip 10.0.0.1, ::1 and fe80::1ff:fe23:4567:890a%eth0"))
+                .containsExactly("10.0.0.1", "::1", "fe80::1ff:fe23:4567:890a");
+        assertThat(find("[2001:db8:0:0:0:0:2:1]:8080 ::ffff:192.0.2.128 1:2:3:4:5:6:1.2.3.4"))
+                .containsExactly("2001:db8:0:0:0:0:2:1", "::ffff:192.0.2.128", "1:2:3:4:5:6:1.2.3.4");
+        assertThat(find("1.2.3 1.2.3.4.5 256.1.1.1 v1.2.3.4 1.2.3.4_ 1:2:3:4:5:6:7 1::2::3 :::1 12345::"))
+                .isEmpty();
+    }
+
+    @Test
+    void findsSameAsRegularExpression() {
+        qt().withExamples(100_000).forAll(text()).checkAssert(text -> assertThat(find(text))
+                .as(text)
+                .isEqualTo(findWithRegularExpression(text)));
+    }
+
+    private static Gen<String> text() {
+        return lists().of(integers().between(0, PIECES.length - 1).map(i -> PIECES[i]))
+                .ofSizeBetween(0, 30)
+                .map(pieces -> String.join("", pieces));
+    }
+
+    private static List<String> find(String text) {
+        List<String> found = new ArrayList<>();
+        InetAddressScanner scanner = new InetAddressScanner(text);
+        while (scanner.find()) {
+            found.add(text.substring(scanner.start(), scanner.end()));
+        }
+        return found;
+    }
+
+    private static List<String> findWithRegularExpression(String text) {
+        List<String> found = new ArrayList<>();
+        Matcher matcher = IP_ADDRESS.matcher(text);
+        while (matcher.find()) {
+            found.add(matcher.group());
+        }
+        return found;
+    }
+}
@@ -0,0 +1,54 @@
+package com.cloudbees.jenkins.support.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NamesPatternCacheTest {
+
+    @TempDir
+    private Path tmp;
+
+    @Test
+    void loadsPatternOfSameNames() {
+        File store = tmp.resolve("support/sensitive-names.cache").toFile();
+        List<String> names = List.of("go", "goes", "gone", "élan");
+        WordsTrie trie = new WordsTrie();
+        names.forEach(trie::add);
+        new NamesPatternCache(store).save(NamesPatternCache.digest(names), trie.getRegex());
+
+        NamesPatternCache cache = new NamesPatternCache(store);
+        assertThat(cache.load(NamesPatternCache.digest(Set.of("élan", "gone", "goes", "go"))))
+                .isEqualTo(trie.getRegex());
+        assertThat(cache.load(NamesPatternCache.digest(List.of("go", "goes", "gone")))).isNull();
+    }
+
+    @Test
+    void digestOfDifferentNames() {
+        assertThat(NamesPatternCache.digest(List.of("ab", "c")))
+                .isNotEqualTo(NamesPatternCache.digest(List.of("a", "bc")))
+                .isEqualTo(NamesPatternCache.digest(List.of("c", "ab")));
+    }
+
+    @Test
+    void ignoresMissingOrCorruptedFile() throws IOException {
+        File store = tmp.resolve("sensitive-names.cache").toFile();
+        byte[] digest = NamesPatternCache.digest(List.of("go"));
+        assertThat(new NamesPatternCache(store).load(digest)).isNull();
+
+        new NamesPatternCache(store).save(digest, "go");
+        byte[] bytes = Files.readAllBytes(store.toPath());
+        Files.write(store.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+        assertThat(new NamesPatternCache(store).load(digest)).isNull();
+        Files.write(store.toPath(), new byte[] {1, 2, 3});
+        assertThat(new NamesPatternCache(store).load(digest)).isNull();
+    }
+}
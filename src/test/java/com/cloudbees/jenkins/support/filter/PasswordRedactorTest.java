@@ -2,10 +2,20 @@ package com.cloudbees.jenkins.support.filter;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.cloudbees.jenkins.support.util.Chrono;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
@@ -100,4 +110,105 @@ class PasswordRedactorTest {
         variables.put("secret", "gdfdfdddd");
         assertThat(new PasswordRedactor(null, null).redact(variables), is(variables));
     }
+
+    @Test
+    void redactWhenValueOfSecretAppearsBeforeThenSecretRedacted(JenkinsRule r) {
+        assertThat(
+                PasswordRedactor.get().redact("user=admin password=admin"), is("user=admin password=REDACTED"));
+        assertThat(PasswordRedactor.get().redact("user= password="), is("user= password=REDACTED"));
+    }
+
+    @Test
+    void redactSameAsReplacingEachSecret(JenkinsRule r) {
+        PasswordRedactor redactor = PasswordRedactor.get();
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            String environ = environ(random);
+            assertEquals(replacingEachSecret(environ), redactor.redact(environ), environ);
+            String cmdline = environ.replace("JAVA_OPTS=", "").replace('\0', ' ');
+            assertEquals(replacingEachSecret(cmdline), redactor.redact(cmdline), cmdline);
+        }
+    }
+
+    @Test
+    void matchSameAsStringMatches(JenkinsRule r) {
+        PasswordRedactor redactor = PasswordRedactor.get();
+        for (String value :
+                List.of("DB_PASSWORD", "db.password", "github_token", "PATH", "", "line\npassword", "keystore")) {
+            assertEquals(value.matches(PasswordRedactorRegexBuilder.SECRET_PROPERTY_MATCHER), redactor.match(value));
+        }
+    }
+
+    @Disabled("Compares the single scan with the previous implementation, which replaced each secret in turn")
+    @Test
+    void performanceTest(JenkinsRule r) {
+        PasswordRedactor redactor = PasswordRedactor.get();
+        Random random = new Random(42);
+        List<String> environs = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            environs.add(environ(random));
+        }
+
+        Chrono c = new Chrono("Test replacing each secret vs single scan");
+        for (String environ : environs) {
+            replacingEachSecret(environ);
+        }
+        c.markFromPrevious("ReplacingEachSecret");
+        for (String environ : environs) {
+            redactor.redact(environ);
+        }
+        c.markFromPrevious("SingleScan");
+
+        System.out.print(c.printMeasure("ReplacingEachSecret"));
+        System.out.print(c.printMeasure("SingleScan"));
+        assertTrue(c.getMeasure("ReplacingEachSecret") > c.getMeasure("SingleScan"));
+    }
+
+    /**
+     * The redaction as it was done before, compiling a pattern and scanning the input again for each secret.
+     */
+    private static String replacingEachSecret(String input) {
+        Matcher patternMatcher = PasswordRedactorRegexBuilder.PASSWORD_PATTERN.matcher(input);
+        while (patternMatcher.find()) {
+            String secretValue = patternMatcher.group(2);
+            input = input.replaceFirst("=\\s*" + Pattern.quote(secretValue), "=" + PasswordRedactor.REDACTED);
+        }
+        return input;
+    }
+
+    /**
+     * @return the content of a {@code /proc/<pid>/environ} file of an agent, the secrets having distinct values.
+     */
+    private static String environ(Random random) {
+        List<String> variables = new ArrayList<>(List.of(
+                "PATH=/opt/java/openjdk/bin:/usr/local/sbin:/usr/local/bin:/usr/sbin:/usr/bin:/sbin:/bin",
+                "HOSTNAME=agent-" + value(random),
+                "TERM=xterm",
+                "HOME=/home/jenkins",
+                "LANG=C.UTF-8",
+                "JAVA_HOME=/opt/java/openjdk",
+                "JENKINS_URL=https://jenkins.example.com/",
+                "JENKINS_AGENT_NAME=agent-" + value(random),
+                "JENKINS_SECRET=" + value(random),
+                "JAVA_OPTS=-Xmx2g -Djava.awt.headless=true -Djavax.net.ssl.trustStorePassword=" + value(random)
+                        + " -Dcasc.reload.token=" + value(random),
+                "AWS_ACCESS_KEY_ID=" + value(random),
+                "AWS_SECRET_ACCESS_KEY=" + value(random),
+                "GITHUB_TOKEN=ghp_" + value(random),
+                "DB_PASSWORD = " + value(random),
+                "SSH_PRIVATE_KEY_FILE=/home/jenkins/.ssh/id_" + value(random)));
+        for (int i = random.nextInt(40); i > 0; i--) {
+            variables.add("BUILD_VAR_" + i + "=" + value(random));
+        }
+        Collections.shuffle(variables, random);
+        return String.join("\0", variables);
+    }
+
+    private static String value(Random random) {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            value.append((char) ('a' + random.nextInt(26)));
+        }
+        return value.toString();
+    }
 }
@@ -25,13 +25,19 @@ package com.cloudbees.jenkins.support.filter;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.cloudbees.jenkins.support.SupportPlugin;
 import hudson.model.FreeStyleProject;
 import hudson.model.ListView;
 import hudson.model.User;
+import java.io.File;
 import java.io.IOException;
+import java.util.logging.Level;
+import jenkins.security.SecurityListener;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.Issue;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.LogRecorder;
+import org.jvnet.hudson.test.MockFolder;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
 
 @WithJenkins
@@ -108,4 +114,61 @@ class SensitiveContentFilterTest {
         assertThat(filter.filter(os)).isEqualTo(os);
         assertThat(filter.filter(label)).startsWith("label_").isNotEqualTo(label);
     }
+
+    @Test
+    void reloadChangesSameAsReloadAll(JenkinsRule j) throws Exception {
+        SensitiveContentFilter filter = SensitiveContentFilter.get();
+        filter.reload();
+        MockFolder folder = j.createFolder("folderstrange");
+        FreeStyleProject project = folder.createProject(FreeStyleProject.class, "projectstrange");
+        project.renameTo("renamedstrange");
+        j.createSlave("agentstrange", "labelstrange", null);
+        j.getInstance().addView(new ListView("viewstrange"));
+        User.getById("userstrange", true).save();
+        try (LogRecorder logger = new LogRecorder().record(SensitiveContentFilter.class, Level.FINE).capture(1)) {
+            filter.reload();
+            assertThat(logger.getMessages()).anyMatch(m -> m.endsWith("to reload changed and other names"));
+        }
+
+        String text = "folderstrange projectstrange renamedstrange agentstrange labelstrange viewstrange userstrange";
+        String changes = filter.filter(text);
+        assertThat(changes).doesNotContain("strange");
+
+        SensitiveContentFilter.INCREMENTAL_RELOAD = false;
+        try {
+            filter.reload();
+            assertThat(filter.filter(text)).isEqualTo(changes);
+        } finally {
+            SensitiveContentFilter.INCREMENTAL_RELOAD = true;
+        }
+    }
+
+    @Test
+    void reloadItemsAndUsersOnly(JenkinsRule j) throws Exception {
+        SensitiveContentFilter filter = SensitiveContentFilter.get();
+        FreeStyleProject project = j.createFreeStyleProject("projectstrange");
+        filter.reload();
+
+        project.setAssignedLabel(j.jenkins.getLabel("labelstrange&&otherstrange"));
+        User.getById("userstrange", true);
+        SecurityListener.fireLoggedIn("userstrange");
+        try (LogRecorder logger = new LogRecorder().record(SensitiveContentFilter.class, Level.FINE).capture(1)) {
+            filter.reload();
+            assertThat(logger.getMessages()).anyMatch(m -> m.endsWith("to reload changed names"));
+        }
+        assertThat(filter.filter("projectstrange labelstrange otherstrange userstrange")).doesNotContain("strange");
+    }
+
+    @Test
+    void reloadAfterRestartUsesKeptPattern(JenkinsRule j) throws IOException {
+        SensitiveContentFilter filter = SensitiveContentFilter.get();
+        FreeStyleProject project = j.createFreeStyleProject("projectstrange");
+        filter.reload();
+        assertThat(new File(SupportPlugin.getRootDirectory(), "sensitive-names.cache")).isFile();
+
+        // as after a restart, with the same names
+        SensitiveContentFilter restarted = new SensitiveContentFilter();
+        restarted.reload();
+        assertThat(restarted.filter(project.getName())).isEqualTo(filter.filter(project.getName()));
+    }
 }
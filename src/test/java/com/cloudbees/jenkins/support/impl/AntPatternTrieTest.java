@@ -0,0 +1,75 @@
+package com.cloudbees.jenkins.support.impl;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AntPatternTrieTest {
+
+    @Test
+    void matches() {
+        assertTrue(matches("**/*", "config.xml"));
+        assertTrue(matches("**/*", "builds/1/log"));
+        assertTrue(matches("*.xml", "config.xml"));
+        assertFalse(matches("*.xml", "builds/1/build.xml"));
+        assertTrue(matches("**/*.xml", "builds/1/build.xml"));
+        assertTrue(matches("builds/?/log", "builds/1/log"));
+        assertFalse(matches("builds/?/log", "builds/12/log"));
+        assertTrue(matches("**/builds/**", "jobs/a/builds/1/log"));
+        assertTrue(matches("**/builds/**", "builds"));
+        assertFalse(matches("**/builds/**", "jobs/a/config.xml"));
+        assertTrue(matches("workflow/", "workflow/2.xml"));
+        assertTrue(matches("a/**/b/*.txt", "a/b/c.txt"));
+        assertTrue(matches("a/**/b/*.txt", "a/x/y/b/c.txt"));
+        assertFalse(matches("a/**/b/*.txt", "a/x/y/b/c/d.txt"));
+        assertFalse(matches("Config.xml", "config.xml"));
+        assertFalse(matches("", "config.xml"));
+    }
+
+    @Test
+    void severalPatterns() {
+        AntPatternTrie trie = AntPatternTrie.compile(List.of("**/config.xml", " **/jobs/*.xml", "nextBuildNumber"));
+        assertTrue(matches(trie, "config.xml"));
+        assertTrue(matches(trie, "jobs/a/jobs/b/config.xml"));
+        assertTrue(matches(trie, "jobs/b.xml"));
+        assertTrue(matches(trie, "nextBuildNumber"));
+        assertFalse(matches(trie, "jobs/a/nextBuildNumber"));
+        assertFalse(matches(trie, "jobs/a/builds/1/build.xml"));
+    }
+
+    @Test
+    void pruning() {
+        AntPatternTrie.State builds = state("builds/*/log", "builds");
+        assertFalse(builds.matchesNothingBelow());
+        assertTrue(builds.next("1").next("log").matchesNothingBelow());
+        assertTrue(state("builds/*/log", "jobs").matchesNothingBelow());
+        assertFalse(state("**/*.xml", "jobs").matchesNothingBelow());
+
+        assertTrue(state("**/builds/**", "jobs/a/builds").matchesEverythingBelow());
+        assertFalse(state("**/builds/**", "jobs/a").matchesEverythingBelow());
+        assertFalse(state("**/builds/*", "jobs/a/builds").matchesEverythingBelow());
+        assertTrue(state(".git/", ".git").matchesEverythingBelow());
+    }
+
+    private static boolean matches(String pattern, String path) {
+        return state(pattern, path).matches();
+    }
+
+    private static boolean matches(AntPatternTrie trie, String path) {
+        return state(trie, path).matches();
+    }
+
+    private static AntPatternTrie.State state(String pattern, String path) {
+        return state(AntPatternTrie.compile(List.of(pattern)), path);
+    }
+
+    private static AntPatternTrie.State state(AntPatternTrie trie, String path) {
+        AntPatternTrie.State state = trie.start();
+        for (String segment : path.split("/")) {
+            state = state.next(segment);
+        }
+        return state;
+    }
+}
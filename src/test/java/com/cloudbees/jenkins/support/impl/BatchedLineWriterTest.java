@@ -0,0 +1,140 @@
+package com.cloudbees.jenkins.support.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class BatchedLineWriterTest {
+
+    private static final long TIME = 1714644000123L; // 2024-05-02T10:00:00.123Z
+
+    @Test
+    void prefixes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchedLineWriter writer = new BatchedLineWriter(out, 1024, Runnable::run, () -> TIME);
+        add(writer.source("agent-1"), "Remoting version: 3206\n");
+        add(writer.source("agent-2"), "Launching agent\n");
+        writer.close();
+        assertEquals(
+                "[2024-05-02T10:00:00.123Z agent-1] Remoting version: 3206\n"
+                        + "[2024-05-02T10:00:00.123Z agent-2] Launching agent\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void mergedByTime() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Runnable> pending = new ArrayList<>();
+        AtomicLong clock = new AtomicLong(TIME);
+        BatchedLineWriter writer = new BatchedLineWriter(out, 1024, pending::add, clock::get);
+        BatchedLineWriter.Source first = writer.source("agent-1");
+        BatchedLineWriter.Source second = writer.source("agent-2");
+        add(first, "a\n");
+        clock.set(TIME + 1);
+        add(second, "b\n");
+        clock.set(TIME + 2);
+        add(first, "c\n");
+        add(second, "d\n");
+        pending.forEach(Runnable::run);
+        assertEquals(
+                "[2024-05-02T10:00:00.123Z agent-1] a\n"
+                        + "[2024-05-02T10:00:00.124Z agent-2] b\n"
+                        + "[2024-05-02T10:00:00.125Z agent-1] c\n"
+                        + "[2024-05-02T10:00:00.125Z agent-2] d\n",
+                out.toString(StandardCharsets.UTF_8));
+
+        // received before the lines already written
+        out.reset();
+        clock.set(TIME);
+        add(first, "e\n");
+        writer.close();
+        assertEquals("[2024-05-02T10:00:00.125Z agent-1] e\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void concurrentSources() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExecutorService writerThread = Executors.newSingleThreadExecutor();
+        ExecutorService agents = Executors.newFixedThreadPool(8);
+        try {
+            BatchedLineWriter writer = new BatchedLineWriter(out, Long.MAX_VALUE, writerThread);
+            List<Future<?>> launches = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                BatchedLineWriter.Source source = writer.source("agent-" + i);
+                launches.add(agents.submit(() -> {
+                    for (int line = 0; line < 1000; line++) {
+                        add(source, "line " + line + "\n");
+                    }
+                }));
+            }
+            for (Future<?> launch : launches) {
+                launch.get(1, TimeUnit.MINUTES);
+            }
+            writer.flush();
+            assertEquals(0, writer.getDroppedLines());
+        } finally {
+            agents.shutdownNow();
+            writerThread.shutdownNow();
+        }
+        int[] next = new int[50];
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(50 * 1000, lines.length);
+        Instant previous = Instant.EPOCH;
+        for (String line : lines) {
+            // merged by time
+            Instant timestamp = Instant.parse(line.substring(1, line.indexOf(' ')));
+            assertFalse(timestamp.isBefore(previous), line);
+            previous = timestamp;
+            String name = line.substring(line.indexOf(" agent-") + 7, line.indexOf(']'));
+            int agent = Integer.parseInt(name);
+            // the lines of an agent are in order
+            assertThat(line, containsString("] line " + next[agent]++));
+        }
+    }
+
+    @Test
+    void overload() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Runnable> pending = new ArrayList<>();
+        // the writer does not keep up
+        BatchedLineWriter writer = new BatchedLineWriter(out, 10 * 1024, pending::add, () -> TIME);
+        BatchedLineWriter.Source source = writer.source("agent");
+        for (int line = 0; line < 1000; line++) {
+            add(source, "line " + line + "\n");
+        }
+        assertEquals(1, pending.size());
+        long dropped = writer.getDroppedLines();
+        assertTrue(dropped > 500, String.valueOf(dropped));
+
+        pending.get(0).run();
+        String written = out.toString(StandardCharsets.UTF_8);
+        assertEquals(1000 - dropped + 1, written.lines().count());
+        assertThat(written, containsString("[2024-05-02T10:00:00.123Z agent] line 0\n"));
+        assertThat(written, containsString("... " + dropped + " lines were dropped"));
+
+        // there is room again
+        add(source, "line 1000\n");
+        writer.close();
+        assertThat(out.toString(StandardCharsets.UTF_8), containsString("agent] line 1000\n"));
+    }
+
+    private static void add(BatchedLineWriter.Source source, String line) {
+        byte[] b = line.getBytes(StandardCharsets.UTF_8);
+        source.add(b, b.length);
+    }
+}
@@ -0,0 +1,106 @@
+package com.cloudbees.jenkins.support.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hudson.Util;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DigestCacheTest {
+
+    @TempDir
+    private Path tmp;
+
+    @Test
+    void digests() throws IOException {
+        List<File> files = createFiles(20);
+        File store = tmp.resolve("support/checksums.md5.cache").toFile();
+        Map<File, String> digests = new DigestCache(store).digests(files);
+        assertEquals(files, new ArrayList<>(digests.keySet()));
+        for (File file : files) {
+            assertEquals(Util.getDigestOf(file), digests.get(file));
+        }
+        assertEquals(files.size(), Files.readAllLines(store.toPath()).size());
+    }
+
+    @Test
+    void unchangedFilesAreNotRead() throws IOException {
+        List<File> files = createFiles(2);
+        File store = tmp.resolve("checksums.md5.cache").toFile();
+        new DigestCache(store).digests(files);
+        // pretend the first digest was different, only the cache could tell it
+        String content = Files.readString(store.toPath());
+        String digest = Util.getDigestOf(files.get(0));
+        Files.writeString(store.toPath(), content.replace(digest, "cached"));
+
+        assertEquals("cached", new DigestCache(store).digests(files).get(files.get(0)));
+
+        Files.writeString(files.get(0).toPath(), "changed");
+        Files.setLastModifiedTime(files.get(0).toPath(), FileTime.fromMillis(1000));
+        Map<File, String> digests = new DigestCache(store).digests(files);
+        assertEquals(Util.getDigestOf("changed"), digests.get(files.get(0)));
+        assertEquals(Util.getDigestOf(files.get(1)), digests.get(files.get(1)));
+    }
+
+    @Test
+    void removedFiles() throws IOException {
+        List<File> files = createFiles(3);
+        File store = tmp.resolve("checksums.md5.cache").toFile();
+        new DigestCache(store).digests(files);
+        Files.delete(files.get(1).toPath());
+
+        Map<File, String> digests = new DigestCache(store).digests(files);
+        assertEquals(List.of(files.get(0), files.get(2)), new ArrayList<>(digests.keySet()));
+        assertThat(Files.readString(store.toPath()), not(containsString(files.get(1).getName())));
+    }
+
+    @Test
+    void concurrentCaches() throws Exception {
+        List<File> files = createFiles(20);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<File, String>>> digests = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                // half of them sharing a file
+                File store = tmp.resolve("checksums-" + i % 2 + ".md5.cache").toFile();
+                digests.add(callers.submit(() -> new DigestCache(store).digests(files)));
+            }
+            for (Future<Map<File, String>> digest : digests) {
+                assertEquals(files, new ArrayList<>(digest.get(1, TimeUnit.MINUTES).keySet()));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        // rather than a pool per call
+        long threads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("Support checksums"))
+                .count();
+        assertThat(threads, lessThanOrEqualTo(4L));
+    }
+
+    private List<File> createFiles(int count) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path file = tmp.resolve("plugin-" + i + ".jpi");
+            Files.writeString(file, "plugin " + i);
+            files.add(file.toFile());
+        }
+        return files;
+    }
+}
@@ -0,0 +1,121 @@
+package com.cloudbees.jenkins.support.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GCLogAnalyzerTest {
+
+    private static final String G1 = String.join(
+            "\n",
+            "[2024-05-02T10:00:00.010+0000][0.010s][info][gc] Using G1",
+            "[2024-05-02T10:00:00.020+0000][0.020s][info][gc,init] Heap Region Size: 1M",
+            "[2024-05-02T10:01:00.000+0000][60.000s][info][gc,start] GC(0) Pause Young (Normal) (G1 Evacuation Pause)",
+            "[2024-05-02T10:01:00.000+0000][60.000s][info][gc,heap] GC(0) Eden regions: 100->0(90)",
+            "[2024-05-02T10:01:00.000+0000][60.000s][info][gc,metaspace] GC(0) Metaspace: 6000K->6000K(1056768K)",
+            "[2024-05-02T10:01:00.005+0000][60.005s][info][gc] GC(0) Pause Young (Normal) (G1 Evacuation Pause) "
+                    + "120M->20M(256M) 5.000ms",
+            "[2024-05-02T10:02:00.000+0000][120.000s][info][gc] GC(1) Pause Young (Normal) (G1 Evacuation Pause) "
+                    + "120M->30M(256M) 10.000ms",
+            "[2024-05-02T10:03:00.000+0000][180.000s][info][gc] GC(2) Pause Full (System.gc()) "
+                    + "130M->10M(256M) 50.000ms",
+            "[2024-05-02T10:04:00.000+0000][240.000s][info][gc] GC(3) Pause Young (Normal) (G1 Evacuation Pause) "
+                    + "110M->15M(256M) 2.500ms",
+            "[2024-05-02T10:04:01.000+0000][241.000s][info][gc] GC(4) Concurrent Mark Cycle 20.000ms");
+
+    @Test
+    void pausesAndRates() throws IOException {
+        GCLogAnalyzer analyzer = analyze(G1);
+        assertEquals(4, analyzer.getPauseCount());
+        assertEquals(241_000 - 10, analyzer.getDurationMillis());
+        // 100 MB allocated between each collection
+        assertEquals(300 * 1024, analyzer.getAllocatedKb());
+        // the heap after a young collection grew by 10 MB, the full collection reset the estimate
+        assertEquals(10 * 1024, analyzer.getPromotedKb());
+
+        List<GCLogAnalyzer.Pause> longest = analyzer.getLongestPauses();
+        assertEquals(4, longest.size());
+        assertEquals(50_000, longest.get(0).micros);
+        assertEquals("Full", longest.get(0).type);
+        assertEquals("2", longest.get(0).gcId);
+        assertEquals("2024-05-02T10:03:00.000+0000", longest.get(0).time);
+        assertEquals(2_500, longest.get(3).micros);
+
+        String summary = print(analyzer, false);
+        assertThat(summary, containsString("| Young | 3 | 17.500 |"));
+        assertThat(summary, containsString("| Full | 1 | 50.000 |"));
+        assertThat(summary, containsString("* Max heap capacity: 256 MB"));
+    }
+
+    @Test
+    void longestPausesAreBounded() throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            log.append(String.format(
+                    "[%d.000s][info][gc] GC(%d) Pause Young (Normal) (G1 Evacuation Pause) 100M->10M(256M) %d.000ms%n",
+                    i, i, i));
+        }
+        GCLogAnalyzer analyzer = analyze(log.toString());
+        assertEquals(1000, analyzer.getPauseCount());
+        List<GCLogAnalyzer.Pause> longest = analyzer.getLongestPauses();
+        assertEquals(GCLogAnalyzer.LONGEST_PAUSES, longest.size());
+        assertEquals(999_000, longest.get(0).micros);
+        assertEquals(990_000, longest.get(GCLogAnalyzer.LONGEST_PAUSES - 1).micros);
+        assertEquals(0.0, analyzer.getHeapTrendMbPerHour(), 0.001);
+    }
+
+    @Test
+    void trendBucketsAreBounded() throws IOException {
+        StringBuilder log = new StringBuilder();
+        // 10 hours, the heap after GC growing by 60 MB per hour
+        for (int minute = 0; minute < 600; minute++) {
+            log.append(String.format(
+                    "[%d.000s][info][gc] GC(%d) Pause Young (Normal) (G1 Evacuation Pause) 500M->%dM(1024M) 1.000ms%n",
+                    minute * 60, minute, 100 + minute));
+        }
+        GCLogAnalyzer analyzer = analyze(log.toString());
+        assertEquals(60.0, analyzer.getHeapTrendMbPerHour(), 0.001);
+        String csv = print(analyzer, true);
+        long rows = csv.lines().count() - 1;
+        assertEquals(38, rows);
+        assertThat(csv, containsString("\n0,16,16.000,1.000,100,115\n"));
+    }
+
+    @Test
+    void newJvmRun() throws IOException {
+        GCLogAnalyzer analyzer = analyze(String.join(
+                "\n",
+                "[10.000s][info][gc] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 100M->10M(256M) 1.000ms",
+                "[20.000s][info][gc] GC(1) Pause Young (Normal) (G1 Evacuation Pause) 100M->10M(256M) 1.000ms",
+                "[5.000s][info][gc] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 100M->10M(256M) 1.000ms",
+                "[15.000s][info][gc] GC(1) Pause Young (Normal) (G1 Evacuation Pause) 100M->10M(256M) 1.000ms"));
+        assertEquals(20_000, analyzer.getDurationMillis());
+        assertEquals(180 * 1024, analyzer.getAllocatedKb());
+    }
+
+    private static GCLogAnalyzer analyze(String log) throws IOException {
+        GCLogAnalyzer analyzer = new GCLogAnalyzer();
+        analyzer.analyze(new BufferedReader(new StringReader(log)), "gc.log");
+        return analyzer;
+    }
+
+    private static String print(GCLogAnalyzer analyzer, boolean csv) {
+        StringWriter result = new StringWriter();
+        PrintWriter out = new PrintWriter(result);
+        if (csv) {
+            analyzer.printCsv(out);
+        } else {
+            analyzer.printSummary(out);
+        }
+        out.flush();
+        return result.toString();
+    }
+}
@@ -6,6 +6,7 @@ import static org.mockito.Mockito.when;
 
 import com.cloudbees.jenkins.support.api.Container;
 import com.cloudbees.jenkins.support.api.Content;
+import com.cloudbees.jenkins.support.api.UnfilteredFileContent;
 import com.google.common.io.Files;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import java.io.File;
@@ -14,6 +15,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.Issue;
@@ -131,6 +133,24 @@ class GCLogsTest {
                 finder, Arrays.asList("gc3421.log0", "gc3421.log1", "gc3421.log2", "gc3421.log3", "gc3421.log4"));
     }
 
+    @Test
+    void summary() throws Exception {
+        File tmpFile = File.createTempFile("gclogs", "");
+        Files.touch(tmpFile);
+
+        GCLogs.VmArgumentFinder finder = mock(GCLogs.VmArgumentFinder.class, Mockito.CALLS_REAL_METHODS);
+        when(finder.findVmArgument(GCLogs.GCLOGS_JRE9_SWITCH))
+                .thenReturn(GCLogs.GCLOGS_JRE9_SWITCH + "*:file=" + tmpFile.getAbsolutePath());
+        TestContainer container = new TestContainer();
+        new GCLogs(finder).addContents(container);
+        Assertions.assertThat(container.contents)
+                .extracting(Content::getName)
+                .containsExactly(
+                        "nodes/master/logs/gc/gc.log",
+                        "nodes/master/logs/gc/gc-summary.md",
+                        "nodes/master/logs/gc/gc-summary.csv");
+    }
+
     /**
      * Assert that a specific number of files is included in the content, given the
      * {@link com.cloudbees.jenkins.support.impl.GCLogs.VmArgumentFinder} passed in.
@@ -141,7 +161,7 @@ class GCLogsTest {
     private static void assertContentWithFinderContainsFiles(GCLogs.VmArgumentFinder finder, int numberOfFiles) {
         TestContainer container = new TestContainer();
         new GCLogs(finder).addContents(container);
-        assertEquals(numberOfFiles, container.getContents().size());
+        assertEquals(numberOfFiles, container.getLogs().size());
     }
 
     /**
@@ -155,8 +175,8 @@ class GCLogsTest {
             GCLogs.VmArgumentFinder finder, Collection<String> fileNames) {
         TestContainer container = new TestContainer();
         new GCLogs(finder).addContents(container);
-        assertEquals(fileNames.size(), container.getContents().size());
-        Assertions.assertThat(container.getContents())
+        assertEquals(fileNames.size(), container.getLogs().size());
+        Assertions.assertThat(container.getLogs())
                 .extracting("file", File.class)
                 .extractingResultOf("getName")
                 .containsAll(fileNames);
@@ -165,8 +185,13 @@ class GCLogsTest {
     private static class TestContainer extends Container {
         final List<Content> contents = new ArrayList<>();
 
-        public List<Content> getContents() {
-            return contents;
+        /**
+         * @return the raw log files, without the summary.
+         */
+        public List<Content> getLogs() {
+            return contents.stream()
+                    .filter(content -> content instanceof UnfilteredFileContent)
+                    .collect(Collectors.toList());
         }
 
         @Override
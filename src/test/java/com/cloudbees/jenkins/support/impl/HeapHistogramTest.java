@@ -0,0 +1,80 @@
+package com.cloudbees.jenkins.support.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+class HeapHistogramTest {
+
+    private static final String RAW = " num     #instances         #bytes  class name (module)\n"
+            + "-------------------------------------------------------\n"
+            + "   1:         12345        1234560  [B (java.base@21.0.5)\n"
+            + "   2:          5000         120000  java.lang.String (java.base@21.0.5)\n"
+            + "   3:            10            320  hudson.model.FreeStyleProject\n"
+            + "Total         17355        1354880\n";
+
+    @Test
+    void parse() {
+        HeapHistogram histogram = HeapHistogram.parse(RAW, 42, 100);
+        assertEquals(3, histogram.size);
+        assertEquals("[B (java.base@21.0.5)", histogram.classNames[0]);
+        assertEquals(12345, histogram.instances[0]);
+        assertEquals(1234560, histogram.bytes[0]);
+        assertEquals("hudson.model.FreeStyleProject", histogram.classNames[2]);
+        assertEquals(17355, histogram.totalInstances);
+        assertEquals(1354880, histogram.totalBytes);
+    }
+
+    @Test
+    void parseKeepsTheLargestClasses() {
+        HeapHistogram histogram = HeapHistogram.parse(RAW.replace("\n", "\r\n"), 42, 2);
+        assertEquals(2, histogram.size);
+        assertEquals("java.lang.String (java.base@21.0.5)", histogram.classNames[1]);
+        assertEquals(1354880, histogram.totalBytes);
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        HeapHistogram histogram = HeapHistogram.parse(RAW, 42, 100);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        histogram.writeTo(new DataOutputStream(bytes));
+        HeapHistogram read = HeapHistogram.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(42, read.timestamp);
+        assertEquals(print(histogram), print(read));
+    }
+
+    @Test
+    void growth() {
+        HeapHistogram older = HeapHistogram.parse(RAW, 1, 100);
+        HeapHistogram newer = HeapHistogram.parse(
+                RAW.replace("5000         120000", "9000         216000")
+                        .replace("hudson.model.FreeStyleProject", "hudson.model.Run"),
+                2,
+                100);
+        StringWriter growth = new StringWriter();
+        PrintWriter out = new PrintWriter(growth);
+        newer.printGrowthSince(older, out, 10);
+        out.flush();
+        assertThat(growth.toString(), containsString("| 1 | 96000 | 4000 | 216000 | 9000 | `java.lang.String"));
+        assertThat(growth.toString(), containsString("| 2 | 320 | 10 | 320 | 10 | `hudson.model.Run` |"));
+        assertThat(growth.toString(), not(containsString("[B")));
+    }
+
+    private static String print(HeapHistogram histogram) {
+        StringWriter result = new StringWriter();
+        PrintWriter out = new PrintWriter(result);
+        histogram.printTo(out, 10);
+        out.flush();
+        return result.toString();
+    }
+}
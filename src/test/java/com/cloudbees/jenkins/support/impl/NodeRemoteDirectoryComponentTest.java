@@ -1,14 +1,34 @@
 package com.cloudbees.jenkins.support.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.text.MatchesPattern.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.cloudbees.jenkins.support.SupportTestUtils;
+import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.Content;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.FilePath;
 import hudson.model.Label;
 import hudson.slaves.DumbSlave;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
@@ -33,6 +53,24 @@ class NodeRemoteDirectoryComponentTest {
         assertThat(output.keySet(), hasItem(matchesPattern(prefix + "/support/.*.log")));
     }
 
+    /*
+     * Test the digests kept by the agent are not added with the defaults.
+     */
+    @Test
+    void addContentsWithoutDigests(JenkinsRule j) throws Exception {
+        DumbSlave agent = j.createOnlineSlave(Label.parseExpression("test"), null);
+        agent.getChannel().call(new AboutJenkins.GetAgentDigest(agent.getRootPath()));
+        assertTrue(agent.getRootPath()
+                .child(AboutJenkins.AGENT_DIGESTS_DIRECTORY + "/checksums.md5.cache")
+                .exists());
+
+        Map<String, String> output =
+                SupportTestUtils.invokeComponentToMap(new NodeRemoteDirectoryComponent(), agent.toComputer());
+
+        assertThat(output.keySet(), hasItem(matchesPattern(".*/support/.*.log")));
+        assertThat(output.keySet(), not(hasItem(containsString("checksums.md5.cache"))));
+    }
+
     /*
      * Test adding agent remote directory content with excludes pattern(s).
      */
@@ -80,4 +118,107 @@ class NodeRemoteDirectoryComponentTest {
         String prefix = "nodes/slave/" + agent.getNodeName() + "/remote";
         assertThat(output.keySet(), not(hasItem(matchesPattern(prefix + "/support/.*.log"))));
     }
+
+    /*
+     * Test adding agent remote directory content archived by the agent.
+     */
+    @Test
+    void addContentsArchived(JenkinsRule j) throws Exception {
+        DumbSlave agent = j.createSlave("agent1", "test", null);
+        agent.getComputer().connect(false).get();
+        j.waitOnline(agent);
+        FilePath rootPath = agent.getRootPath();
+        rootPath.child("support/nested/deeper/file.txt").write("deep content", "UTF-8");
+
+        Map<String, String> listed = SupportTestUtils.invokeComponentToMap(
+                new NodeRemoteDirectoryComponent("support/**", "**/*.md", true, 3), agent.toComputer());
+        NodeRemoteDirectoryComponent.ARCHIVE = true;
+        Map<String, String> archived;
+        try {
+            archived = SupportTestUtils.invokeComponentToMap(
+                    new NodeRemoteDirectoryComponent("support/**", "**/*.md", true, 3), agent.toComputer());
+        } finally {
+            NodeRemoteDirectoryComponent.ARCHIVE = false;
+        }
+
+        String prefix = "nodes/slave/" + agent.getNodeName() + "/remote";
+        assertThat(archived.keySet(), hasItem(matchesPattern(prefix + "/support/.*.log")));
+        assertThat(archived.keySet(), not(hasItem(prefix + "/support/nested/deeper/file.txt")));
+        assertEquals(listed.keySet(), archived.keySet());
+    }
+
+    /*
+     * Test the files archived by the agent beyond the maximum size are left out.
+     */
+    @Test
+    void addContentsArchivedOverMaxSize(JenkinsRule j) throws Exception {
+        DumbSlave agent = j.createOnlineSlave(Label.parseExpression("test"), null);
+        FilePath rootPath = agent.getRootPath();
+        rootPath.child("support/first.txt").write("a".repeat(800), "UTF-8");
+        rootPath.child("support/second.txt").write("b".repeat(800), "UTF-8");
+
+        int maxArchiveKb = NodeRemoteDirectoryComponent.MAX_ARCHIVE_KB;
+        NodeRemoteDirectoryComponent.MAX_ARCHIVE_KB = 1;
+        NodeRemoteDirectoryComponent.ARCHIVE = true;
+        Map<String, String> output;
+        try {
+            output = SupportTestUtils.invokeComponentToMap(
+                    new NodeRemoteDirectoryComponent("support/*.txt", "", true, 3), agent.toComputer());
+        } finally {
+            NodeRemoteDirectoryComponent.ARCHIVE = false;
+            NodeRemoteDirectoryComponent.MAX_ARCHIVE_KB = maxArchiveKb;
+        }
+
+        String prefix = "nodes/slave/" + agent.getNodeName();
+        assertEquals(
+                1,
+                output.keySet().stream()
+                        .filter(name -> name.startsWith(prefix + "/remote/support/"))
+                        .count());
+        assertThat(output.get(prefix + "/remote.md"), containsString("1 more files were not included"));
+        assertThat(output.get(prefix + "/remote.md"), containsString("exceed 1 KB"));
+    }
+
+    @Test
+    void archiveDeletedOnceWritten(JenkinsRule j) throws Exception {
+        DumbSlave agent = j.createOnlineSlave(Label.parseExpression("test"), null);
+        agent.getRootPath().child("support/file.log").write("content", "UTF-8");
+
+        Set<Path> before = unpackedDirectories();
+        List<Content> contents = new ArrayList<>();
+        NodeRemoteDirectoryComponent.ARCHIVE = true;
+        try {
+            new NodeRemoteDirectoryComponent("support/file.log", "", true, 3)
+                    .addContents(
+                            new Container() {
+                                @Override
+                                public void add(@CheckForNull Content content) {
+                                    contents.add(content);
+                                }
+                            },
+                            agent.toComputer());
+        } finally {
+            NodeRemoteDirectoryComponent.ARCHIVE = false;
+        }
+        Set<Path> unpacked = unpackedDirectories();
+        unpacked.removeAll(before);
+        // one per bundle
+        assertEquals(1, unpacked.size());
+        assertFalse(contents.isEmpty());
+
+        for (Content content : contents) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            content.writeTo(out);
+            assertEquals("content", out.toString(StandardCharsets.UTF_8));
+            ((Closeable) content).close();
+        }
+        assertFalse(Files.exists(unpacked.iterator().next()));
+    }
+
+    private static Set<Path> unpackedDirectories() throws IOException {
+        try (Stream<Path> paths = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return paths.filter(path -> path.getFileName().toString().startsWith("support-remote"))
+                    .collect(Collectors.toSet());
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package com.cloudbees.jenkins.support.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import hudson.util.FileVisitor;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelDirScannerTest {
+
+    private static final String[][] PATTERNS = {
+        {"", ""},
+        {"**/config.xml, **/jobs/*.xml", ""},
+        {"", "**/builds/**"},
+        {"**/*.xml", "**/builds/**"},
+        {"builds/", "**/*.log"},
+        {"jobs/*/builds/?/build.xml", ""},
+        {"**/workflow/**", "jobs/a/**"},
+    };
+
+    @TempDir
+    private Path tmp;
+
+    @Test
+    void sameAsAnt() throws IOException {
+        createTree();
+        for (String[] patterns : PATTERNS) {
+            for (boolean defaultExcludes : new boolean[] {true, false}) {
+                Set<String> ant = new TreeSet<>();
+                new DirectoryComponent.DirGlobScanner(patterns[0], patterns[1], defaultExcludes, false)
+                        .scan(tmp.toFile(), collect(ant));
+                Set<String> parallel = new TreeSet<>();
+                new ParallelDirScanner(patterns[0], patterns[1], defaultExcludes, 10)
+                        .scan(tmp.toFile(), collect(parallel));
+                assertEquals(ant, parallel, String.join(" / ", patterns) + " / " + defaultExcludes);
+            }
+        }
+    }
+
+    @Test
+    void maxDepth() throws IOException {
+        createTree();
+        List<String> found = new ArrayList<>();
+        new ParallelDirScanner("", "", true, 2).scan(tmp.toFile(), collect(found));
+        assertThat(
+                found,
+                containsInAnyOrder(
+                        "config.xml",
+                        "nextBuildNumber",
+                        path("builds", "legacyIds"),
+                        path("builds", "permalinks"),
+                        path("jobs", "b.xml")));
+    }
+
+    @Test
+    void missingDirectory() throws IOException {
+        List<String> found = new ArrayList<>();
+        new ParallelDirScanner("", "", true, 10).scan(tmp.resolve("missing").toFile(), collect(found));
+        assertEquals(List.of(), found);
+    }
+
+    @Test
+    void visitorFailure() throws IOException {
+        createTree();
+        assertThrows(
+                IOException.class,
+                () -> new ParallelDirScanner("", "", true, 10).scan(tmp.toFile(), new FileVisitor() {
+                    @Override
+                    public void visit(File f, String relativePath) throws IOException {
+                        throw new IOException("full disk");
+                    }
+                }));
+    }
+
+    private void createTree() throws IOException {
+        write("config.xml");
+        write("nextBuildNumber");
+        write("builds", "legacyIds");
+        write("builds", "permalinks");
+        write("builds", "1", "build.xml");
+        write("builds", "1", "log");
+        write("builds", "1", "workflow", "2.xml");
+        write("builds", "1", "archive", "out.log");
+        write("jobs", "b.xml");
+        write("jobs", "a", "config.xml");
+        write("jobs", "a", "builds", "1", "build.xml");
+        write("jobs", "a", "builds", "1", "workflow", "3.xml");
+        write("jobs", "c", "builds", "2", "build.xml");
+        write("jobs", "c", ".git", "config");
+        write(".git", "HEAD");
+        write("notes.txt~");
+    }
+
+    private void write(String... path) throws IOException {
+        Path file = tmp.resolve(path(path));
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "content");
+    }
+
+    private static String path(String... segments) {
+        return String.join(File.separator, segments);
+    }
+
+    private static FileVisitor collect(Collection<String> found) {
+        return new FileVisitor() {
+            @Override
+            public void visit(File f, String relativePath) {
+                found.add(relativePath);
+            }
+        };
+    }
+}
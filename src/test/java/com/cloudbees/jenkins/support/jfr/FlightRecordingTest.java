@@ -0,0 +1,96 @@
+package com.cloudbees.jenkins.support.jfr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cloudbees.jenkins.support.api.Container;
+import com.cloudbees.jenkins.support.api.Content;
+import com.cloudbees.jenkins.support.filter.ContentFilters;
+import hudson.ExtensionList;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class FlightRecordingTest {
+
+    @Test
+    void incidents(JenkinsRule j) throws Exception {
+        FlightRecording flightRecording = FlightRecording.get();
+        assertNotNull(flightRecording);
+        assertFalse(flightRecording.isRecording());
+        // nothing to do while not recording
+        FlightRecording.incident("test");
+        assertFalse(flightRecording.writeTo(new ByteArrayOutputStream()));
+
+        flightRecording.start();
+        try {
+            assertTrue(flightRecording.isRecording());
+            Future<?> saved = flightRecording.markIncident("high-cpu");
+            assertNotNull(saved);
+            saved.get(1, TimeUnit.MINUTES);
+            // too close to the previous one to be saved
+            assertNull(flightRecording.markIncident("deadlock"));
+
+            File[] snapshots = flightRecording.snapshots.getFolder().listFiles(FlightRecording.SNAPSHOTS);
+            assertThat(snapshots, arrayWithSize(1));
+            assertThat(snapshots[0].getName(), startsWith("high-cpu-"));
+            List<RecordedEvent> events = RecordingFile.readAllEvents(snapshots[0].toPath());
+            assertTrue(events.stream()
+                    .anyMatch(e -> e.getEventType().getName().equals("com.cloudbees.jenkins.support.Incident")
+                            && e.getString("reason").equals("high-cpu")));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertTrue(flightRecording.writeTo(out));
+            assertThat(out.size(), greaterThan(0));
+            File dump = File.createTempFile("recording", ".jfr");
+            Files.write(dump.toPath(), out.toByteArray());
+            List<RecordedEvent> recorded = RecordingFile.readAllEvents(dump.toPath());
+            assertTrue(recorded.stream()
+                    .anyMatch(e -> e.getEventType().getName().equals("com.cloudbees.jenkins.support.Incident")
+                            && e.getString("reason").equals("deadlock")));
+            // no environment, system properties nor arguments
+            assertTrue(recorded.stream()
+                    .noneMatch(e -> FlightRecording.SENSITIVE_EVENTS.contains(e.getEventType().getName())));
+        } finally {
+            flightRecording.stop();
+        }
+        assertFalse(flightRecording.isRecording());
+    }
+
+    @Test
+    void omittedWhenAnonymized(JenkinsRule j) throws Exception {
+        FlightRecording flightRecording = FlightRecording.get();
+        assertNotNull(flightRecording);
+        flightRecording.start();
+        try {
+            ContentFilters.get().setEnabled(true);
+            List<String> names = new ArrayList<>();
+            ExtensionList.lookupSingleton(FlightRecordingComponent.class).addContents(new Container() {
+                @Override
+                public void add(Content content) {
+                    names.add(content.getName());
+                }
+            });
+            assertEquals(List.of("nodes/master/jfr/omitted.txt"), names);
+        } finally {
+            flightRecording.stop();
+        }
+    }
+}
@@ -1,12 +1,24 @@
 package com.cloudbees.jenkins.support.slowrequest;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import hudson.model.RootAction;
 import hudson.util.HttpResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.net.URL;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 import org.htmlunit.html.HtmlPage;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.Issue;
 import org.jvnet.hudson.test.JenkinsRule;
@@ -22,6 +34,13 @@ import org.kohsuke.stapler.StaplerResponse2;
 @WithJenkins
 class InflightRequestTest {
 
+    private final boolean enabled = RequestResourceUsage.ENABLED;
+
+    @AfterEach
+    void tearDown() {
+        RequestResourceUsage.ENABLED = enabled;
+    }
+
     @Test
     @Issue("JENKINS-24671")
     void verifyUsernameInflightRequest(JenkinsRule j) throws Exception {
@@ -48,6 +67,56 @@ class InflightRequestTest {
         assertEquals(refererUrl.toString(), request.referer);
     }
 
+    @Test
+    void resourceUsageNotTracked(JenkinsRule j) {
+        RequestResourceUsage.ENABLED = false;
+        InflightRequest request = new InflightRequest(request("/jenkins", "/jenkins/job/my-job/42/console"));
+        assertFalse(request.isTrackingResources());
+        assertEquals(RequestResourceUsage.UNAVAILABLE, request.allocatedBytesAtStart);
+        assertEquals(RequestResourceUsage.UNAVAILABLE, request.cpuTimeAtStart);
+        assertEquals("Allocated: N/A, CPU time: N/A", resourceUsage(request, 1000, 1000));
+    }
+
+    @Test
+    void resourceUsageTracked(JenkinsRule j) {
+        RequestResourceUsage.ENABLED = true;
+        InflightRequest request = new InflightRequest(request("/jenkins", "/jenkins/job/my-job/42/console"));
+        assertTrue(request.isTrackingResources());
+        assertEquals("/job/*/{n}/console", request.route);
+        assertEquals(RequestResourceUsage.currentThreadAllocatedBytes() >= 0, request.allocatedBytesAtStart >= 0);
+        assertEquals(RequestResourceUsage.currentThreadCpuTime() >= 0, request.cpuTimeAtStart >= 0);
+
+        // relative to the start of the request
+        assertEquals(
+                "Allocated: " + (request.allocatedBytesAtStart >= 0 ? "1000 bytes" : "N/A") + ", CPU time: "
+                        + (request.cpuTimeAtStart >= 0 ? "3msec" : "N/A"),
+                resourceUsage(
+                        request,
+                        request.allocatedBytesAtStart + 1000,
+                        request.cpuTimeAtStart + TimeUnit.MILLISECONDS.toNanos(3)));
+
+        RequestResourceUsage usage = new RequestResourceUsage();
+        request.recordResourceUsage(usage);
+        StringWriter w = new StringWriter();
+        usage.print(new PrintWriter(w));
+        assertThat(w.toString(), containsString("| `/job/*/{n}/console` | 1 |"));
+    }
+
+    private static String resourceUsage(InflightRequest request, long allocatedBytes, long cpuTime) {
+        StringWriter w = new StringWriter();
+        request.writeResourceUsage(new PrintWriter(w), allocatedBytes, cpuTime);
+        return w.toString().trim();
+    }
+
+    private static HttpServletRequest request(String contextPath, String uri) {
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getRequestURL()).thenReturn(new StringBuffer("http://localhost" + uri));
+        when(req.getContextPath()).thenReturn(contextPath);
+        when(req.getRequestURI()).thenReturn(uri);
+        when(req.getLocale()).thenReturn(Locale.ENGLISH);
+        return req;
+    }
+
     @TestExtension
     public static class MockSlowURLCall implements RootAction {
         public static int seconds;
@@ -0,0 +1,52 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverEveryValue() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(LatencyHistogram.highestValueOf(index), greaterThanOrEqualTo(value));
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestValueOf(index - 1), lessThanOrEqualTo(value - 1));
+            }
+        }
+        assertEquals(
+                LatencyHistogram.MAX_VALUE,
+                LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE)));
+        assertEquals(
+                LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE), LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValue(0.99));
+        for (long value = 1; value <= 1000; value++) {
+            histogram.update(value * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500_000, histogram.getSum());
+        assertWithinPrecision(500_000, histogram.getValue(0.5));
+        assertWithinPrecision(990_000, histogram.getValue(0.99));
+        assertEquals(1_000_000, histogram.getValue(1));
+        assertWithinPrecision(1000, histogram.getSnapshot().getMin());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertThat(
+                actual,
+                allOf(
+                        greaterThanOrEqualTo(expected),
+                        lessThanOrEqualTo(expected + expected / LatencyHistogram.SUB_BUCKETS)));
+    }
+}
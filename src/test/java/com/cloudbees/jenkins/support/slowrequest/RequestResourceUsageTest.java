@@ -0,0 +1,89 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RequestResourceUsageTest {
+
+    private int maxRoutes;
+    private int topRoutes;
+
+    @BeforeEach
+    void setUp() {
+        maxRoutes = RequestResourceUsage.MAX_ROUTES;
+        topRoutes = RequestResourceUsage.TOP_ROUTES;
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestResourceUsage.MAX_ROUTES = maxRoutes;
+        RequestResourceUsage.TOP_ROUTES = topRoutes;
+    }
+
+    @Test
+    void accounting() {
+        RequestResourceUsage usage = new RequestResourceUsage();
+        usage.record("/job/*/", 3_000_000, TimeUnit.MILLISECONDS.toNanos(5));
+        usage.record("/job/*/", 1_000_000, TimeUnit.MILLISECONDS.toNanos(2));
+        // the counters not available are not summed
+        usage.record("/job/*/", RequestResourceUsage.UNAVAILABLE, RequestResourceUsage.UNAVAILABLE);
+        assertEquals(List.of(row("/job/*/", 3, 4.0, 3.0, 7, 5)), byAllocated(usage));
+    }
+
+    @Test
+    void rolledUpByRoute() {
+        RequestResourceUsage.TOP_ROUTES = 2;
+        RequestResourceUsage usage = new RequestResourceUsage();
+        usage.record("/a", 1_000_000, TimeUnit.MILLISECONDS.toNanos(30));
+        usage.record("/b", 1_500_000, TimeUnit.MILLISECONDS.toNanos(20));
+        usage.record("/c", 3_000_000, TimeUnit.MILLISECONDS.toNanos(10));
+        usage.record("/a", 1_000_000, TimeUnit.MILLISECONDS.toNanos(30));
+        assertEquals(List.of(row("/c", 1, 3.0, 3.0, 10, 10), row("/a", 2, 2.0, 1.0, 60, 30)), byAllocated(usage));
+        assertEquals(List.of(row("/a", 2, 2.0, 1.0, 60, 30), row("/b", 1, 1.5, 1.5, 20, 20)), byCpu(usage));
+    }
+
+    @Test
+    void routesCapped() {
+        RequestResourceUsage.MAX_ROUTES = 2;
+        RequestResourceUsage usage = new RequestResourceUsage();
+        usage.record("/a", 3_000_000, 0);
+        usage.record("/b", 2_500_000, 0);
+        usage.record("/c", 1_000_000, 0);
+        usage.record("/d", 1_000_000, 0);
+        // still recorded under their own route once tracked
+        usage.record("/a", 3_000_000, 0);
+        assertEquals(
+                List.of(
+                        row("/a", 2, 6.0, 3.0, 0, 0),
+                        row("/b", 1, 2.5, 2.5, 0, 0),
+                        row(RouteLatencyFilter.OTHER_ROUTE, 2, 2.0, 1.0, 0, 0)),
+                byAllocated(usage));
+    }
+
+    private static String row(String route, long count, double allocated, double maxAllocated, long cpu, long maxCpu) {
+        return String.format(
+                "| `%s` | %d | %.1f | %.1f | %d | %d |", route, count, allocated, maxAllocated, cpu, maxCpu);
+    }
+
+    private static List<String> byAllocated(RequestResourceUsage usage) {
+        return table(usage, 0);
+    }
+
+    private static List<String> byCpu(RequestResourceUsage usage) {
+        return table(usage, 1);
+    }
+
+    private static List<String> table(RequestResourceUsage usage, int index) {
+        StringWriter w = new StringWriter();
+        usage.print(new PrintWriter(w));
+        String[] tables = w.toString().split("Top routes by ");
+        return tables[index + 1].lines().filter(l -> l.startsWith("| `")).toList();
+    }
+}
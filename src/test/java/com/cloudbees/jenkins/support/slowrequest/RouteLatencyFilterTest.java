@@ -0,0 +1,80 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.cloudbees.jenkins.support.SupportTestUtils;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import hudson.ExtensionList;
+import jakarta.servlet.http.HttpServlet;
+import java.util.Map;
+import java.util.stream.Collectors;
+import jenkins.metrics.api.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class RouteLatencyFilterTest {
+
+    private JenkinsRule j;
+    private int maxRoutes;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        this.j = j;
+        maxRoutes = RouteLatencyFilter.MAX_ROUTES;
+    }
+
+    @AfterEach
+    void tearDown() {
+        RouteLatencyFilter.MAX_ROUTES = maxRoutes;
+    }
+
+    @Test
+    void routesCapped() {
+        RouteLatencyFilter.MAX_ROUTES = 2;
+        RouteLatencyFilter filter = new RouteLatencyFilter();
+        filter.record("/capped/a", 200, 1000);
+        filter.record("/capped/b", 200, 1000);
+        filter.record("/capped/c", 200, 1000);
+        filter.record("/capped/d", 200, 1000);
+        // still recorded under their own route once tracked
+        filter.record("/capped/a", 200, 1000);
+        assertEquals(
+                Map.of("/capped/a", 2L, "/capped/b", 1L, RouteLatencyFilter.OTHER_ROUTE, 2L),
+                filter.getRoutes().stream().collect(Collectors.toMap(r -> r.route, r -> r.all.getCount())));
+    }
+
+    @Test
+    void metricsRegistered() {
+        RouteLatencyFilter filter = new RouteLatencyFilter();
+        filter.record("/metrics/a", 200, 1000);
+        filter.record("/metrics/a", 200, 3000);
+        filter.record("/metrics/a", 404, 2000);
+        Map<String, Histogram> histograms = Metrics.metricRegistry().getHistograms();
+        Histogram ok = histograms.get(MetricRegistry.name(HttpServlet.class, "routes", "/metrics/a", "2xx"));
+        assertNotNull(ok, histograms.keySet().toString());
+        assertEquals(2, ok.getCount());
+        assertEquals(1, histograms
+                .get(MetricRegistry.name(HttpServlet.class, "routes", "/metrics/a", "4xx"))
+                .getCount());
+    }
+
+    @Test
+    void report() throws Exception {
+        j.createWebClient().goTo("api/json", "application/json");
+        Map<String, String> output =
+                SupportTestUtils.invokeComponentToMap(ExtensionList.lookupSingleton(RouteLatencyComponent.class));
+        String report = output.get("nodes/master/http-routes.md");
+        assertNotNull(report, output.keySet().toString());
+        assertThat(report, containsString("Top routes by total time"));
+        assertThat(report, containsString("| `/api/json` | "));
+        assertThat(report, containsString("2xx: "));
+    }
+}
@@ -0,0 +1,63 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import static com.cloudbees.jenkins.support.slowrequest.RouteNormalizer.normalize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class RouteNormalizerTest {
+
+    @Test
+    void namesAndNumbersAreCollapsed() {
+        assertEquals("/job/*/{n}/console", normalize("/jenkins", "/jenkins/job/my-job/42/console"));
+        assertEquals("/job/*/{n}/api/json", normalize("/jenkins", "/jenkins/job/my-job/lastBuild/api/json"));
+        assertEquals("/user/*/configure", normalize("", "/user/bob/configure"));
+        assertEquals("/computer/*/", normalize("", "/computer/agent-1/"));
+        assertEquals("/view/*/job/*/", normalize("", "/view/all/job/x/"));
+    }
+
+    @Test
+    void nestedFoldersAreFolded() {
+        assertEquals("/job/*/{n}/console", normalize("", "/job/a/job/b/job/c/42/console"));
+        // a job can be named like the segments we look for
+        assertEquals("/job/*/build", normalize("", "/job/job/build"));
+    }
+
+    @Test
+    void arbitraryPathsAreCollapsed() {
+        assertEquals("/job/*/ws/*", normalize("", "/job/x/ws/src/main/Foo.java"));
+        assertEquals("/static/*", normalize("", "/static/abc123/css/style.css"));
+        assertEquals(
+                "/$stapler/bound/*", normalize("", "/$stapler/bound/0f6a8c22-1234-4567-89ab-cdef01234567/render"));
+        assertEquals("/plugin/*", normalize("", "/plugin/support-core/css/style.css"));
+    }
+
+    @Test
+    void unknownSegmentsAreReplaced() {
+        assertEquals("/{?}/{?}", normalize("", "/a/0123456789abcdef0123"));
+        assertEquals("/job/*/{?}/api/json", normalize("", "/job/x/some-secret-action/api/json"));
+        assertEquals("/manage/{?}", normalize("", "/manage/b4c3f1e2"));
+
+        Set<String> known = RouteNormalizer.KNOWN_SEGMENTS;
+        RouteNormalizer.KNOWN_SEGMENTS = Set.of("some-action");
+        try {
+            assertEquals("/job/*/some-action/api/json", normalize("", "/job/x/some-action/api/json"));
+        } finally {
+            RouteNormalizer.KNOWN_SEGMENTS = known;
+        }
+    }
+
+    @Test
+    void rootAndParameters() {
+        assertEquals("/", normalize("/jenkins", "/jenkins"));
+        assertEquals("/", normalize("/jenkins", "/jenkins/"));
+        assertEquals("/", normalize("", null));
+        assertEquals("/job/*/", normalize("", "/job/x/;jsessionid=abc"));
+    }
+
+    @Test
+    void depthIsCapped() {
+        assertEquals("/manage/{?}/{?}/{?}/{?}/{?}/...", normalize("", "/manage/b/c/d/e/f/g/h/i"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class SlowRequestCheckerTest {
+
+    private long budget;
+
+    @BeforeEach
+    void setUp(JenkinsRule j) {
+        budget = SlowRequestChecker.TIME_BUDGET_MS;
+    }
+
+    @AfterEach
+    void tearDown() {
+        SlowRequestChecker.TIME_BUDGET_MS = budget;
+    }
+
+    @Test
+    void budgetResumesWithRequestsWrittenLeastRecently() {
+        // only the one record written at least on each run
+        SlowRequestChecker.TIME_BUDGET_MS = 0;
+        SlowRequestChecker checker = new SlowRequestChecker();
+        List<InflightRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requests.add(new InflightRequest(request("/job/p" + i + "/")));
+        }
+        InflightRequest first = requests.get(0);
+
+        long iota = System.currentTimeMillis();
+        for (int run = 1; run <= 3; run++) {
+            iota = checker.writeRecords(new ArrayList<>(requests), System.currentTimeMillis(), iota);
+            assertEquals(run, requests.stream().map(req -> req.record).filter(Objects::nonNull).count());
+        }
+        requests.forEach(req -> assertTrue(req.record != null && req.record.isFile()));
+
+        // then the request written first
+        long written = first.recordWritten;
+        checker.writeRecords(new ArrayList<>(requests), System.currentTimeMillis(), iota);
+        assertTrue(first.recordWritten > written);
+        assertTrue(requests.stream().allMatch(req -> req == first || req.recordWritten < first.recordWritten));
+    }
+
+    private static HttpServletRequest request(String uri) {
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getRequestURL()).thenReturn(new StringBuffer("http://localhost" + uri));
+        when(req.getContextPath()).thenReturn("");
+        when(req.getRequestURI()).thenReturn(uri);
+        when(req.getLocale()).thenReturn(Locale.ENGLISH);
+        return req;
+    }
+}
@@ -0,0 +1,35 @@
+package com.cloudbees.jenkins.support.slowrequest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+
+import com.cloudbees.jenkins.support.SupportTestUtils;
+import hudson.ExtensionList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class SlowRequestComponentTest {
+
+    private static final String RESOURCE_USAGE = "slow-requests/resource-usage-by-route.md";
+
+    private final boolean enabled = RequestResourceUsage.ENABLED;
+
+    @AfterEach
+    void tearDown() {
+        RequestResourceUsage.ENABLED = enabled;
+    }
+
+    @Test
+    void resourceUsageOnlyWhenTracked(JenkinsRule j) {
+        SlowRequestComponent component = ExtensionList.lookupSingleton(SlowRequestComponent.class);
+        RequestResourceUsage.ENABLED = false;
+        assertThat(SupportTestUtils.invokeComponentToMap(component), not(hasKey(RESOURCE_USAGE)));
+
+        RequestResourceUsage.ENABLED = true;
+        assertThat(SupportTestUtils.invokeComponentToMap(component), hasKey(RESOURCE_USAGE));
+    }
+}
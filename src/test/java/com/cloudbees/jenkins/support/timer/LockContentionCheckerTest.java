@@ -0,0 +1,61 @@
+package com.cloudbees.jenkins.support.timer;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+import com.cloudbees.jenkins.support.filter.ContentFilter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class LockContentionCheckerTest {
+
+    @Test
+    void contendedMonitorIsReported() throws Exception {
+        Object lock = new Object();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread owner = new Thread(
+                () -> {
+                    synchronized (lock) {
+                        held.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                },
+                "lock-owner");
+        Thread waiter = new Thread(
+                () -> {
+                    synchronized (lock) {
+                        lock.notifyAll();
+                    }
+                },
+                "lock-waiter");
+        owner.start();
+        try {
+            held.await();
+            waiter.start();
+            await().until(() -> waiter.getState() == Thread.State.BLOCKED);
+
+            LockContentionChecker checker = new LockContentionChecker();
+            checker.doRun();
+            checker.doRun();
+
+            StringWriter out = new StringWriter();
+            checker.printSummary(new PrintWriter(out), ContentFilter.NONE);
+            assertThat(out.toString(), containsString("`java.lang.Object@"));
+            assertThat(out.toString(), containsString("Threads seen blocked: 2"));
+            assertThat(out.toString(), containsString("lock-owner"));
+            assertThat(out.toString(), containsString("LockContentionCheckerTest"));
+        } finally {
+            release.countDown();
+            owner.join();
+            waiter.join();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.cloudbees.jenkins.support.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class MultiWordReplacerTest {
+
+    @Test
+    void longestWordReplaced() {
+        MultiWordReplacer replacer =
+                MultiWordReplacer.ofIgnoreCase(new String[] {"two", "one two", "one"}, new String[] {"2", "12", "1"});
+        assertEquals("12 and 2, 1-1", replacer.replace("One TWO and two, one-one"));
+        // reused with other texts
+        assertEquals("2 onetwo 1", replacer.replace("two onetwo one"));
+    }
+
+    @Test
+    void replacementsNotReplaced() {
+        MultiWordReplacer replacer = MultiWordReplacer.of(new String[] {"one", "two"}, new String[] {"two", "three"});
+        assertEquals("two three", replacer.replace("one two"));
+    }
+
+    @Test
+    void sameInputWhenNothingReplaced() {
+        String input = "nothing to replace";
+        assertSame(input, MultiWordReplacer.of(new String[] {"one"}, new String[] {"1"}).replace(input));
+        assertSame(input, MultiWordReplacer.of(new String[] {"", null}, new String[] {"1", "2"}).replace(input));
+    }
+
+    @Test
+    void ignoreCaseChangingLength() {
+        // "İ" is lower cased to two characters in a String, and to one as a char
+        assertEquals(
+                "[city] and [city].",
+                MultiWordReplacer.ofIgnoreCase(new String[] {"istanbul"}, new String[] {"[city]"})
+                        .replace("İSTANBUL and istanbul."));
+    }
+
+    @Test
+    void stringBuilder() {
+        StringBuilder input = new StringBuilder("a-b c");
+        MultiWordReplacer.of(new String[] {"a", "c"}, new String[] {"1", null}).replace(input);
+        assertEquals("1-b ", input.toString());
+    }
+
+    @Test
+    void differentLengths() {
+        String[] words = {"a", "b"};
+        assertThrows(IllegalArgumentException.class, () -> MultiWordReplacer.of(words, new String[] {"1"}));
+    }
+}